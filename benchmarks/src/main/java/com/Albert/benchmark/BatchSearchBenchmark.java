@@ -0,0 +1,70 @@
+package com.Albert.benchmark;
+
+import com.Albert.engine.SearchEngine;
+import com.Albert.engine.SearchGroup;
+import com.Albert.searchModel.BatchSearchModel;
+import com.Albert.searchModel.SearchModel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One task per node against adaptive batches on a tree of 10^7 leaves, where a node costs next to nothing
+ * and the per-task overhead of the engine dominates. Both return a message per node, so only the batching differs.
+ * A traversal takes seconds, so every iteration times a single one, e.g.
+ * <pre>
+ * java -jar benchmarks/target/benchmarks.jar BatchSearchBenchmark -p depth=6
+ * </pre>
+ * The smaller trees of {@link EngineBenchmark} compare the same in throughput.
+ *
+ * @author Albert
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class BatchSearchBenchmark {
+
+    @Param("10")
+    public int fanout;
+
+    @Param("7")
+    public int depth;
+
+    @Param("0.000001")
+    public double matchDensity;
+
+    @Param({"false", "true"})
+    public boolean isBatching;
+
+    private SearchModel<String, Long> searchModel;
+
+    @Setup(Level.Trial)
+    public void createSearchModel() {
+        SyntheticTreeModel treeModel = new SyntheticTreeModel(fanout, depth, matchDensity, 0);
+        SearchModel<String, Long> messageModel = (key, node) -> treeModel.search(key, node);
+        searchModel = isBatching ? BatchSearchModel.batching(messageModel) : messageModel;
+    }
+
+    @Benchmark
+    public int traverse() throws InterruptedException {
+        SearchGroup<String, Long, Long> searchGroup = SearchEngine.sharedEngine()
+                .startSearch(searchModel, SyntheticTreeBenchmark.KEY, Collections.singletonList(SyntheticTreeModel.ROOT));
+        searchGroup.awaitComplete(10, TimeUnit.MINUTES);
+        return searchGroup.getResults().size();
+    }
+}
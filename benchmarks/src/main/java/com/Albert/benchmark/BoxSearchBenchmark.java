@@ -0,0 +1,24 @@
+package com.Albert.benchmark;
+
+import com.Albert.engine.SearchSetting;
+import com.Albert.searchImpl.boxSearchImpl.ConcurrentEntirelySearch;
+import org.openjdk.jmh.annotations.Param;
+
+/**
+ * {@link ConcurrentEntirelySearch}, plain and with concurrent identical searches coalesced.
+ *
+ * @author Albert
+ */
+public class BoxSearchBenchmark extends EntirelySearchBenchmark {
+
+    @Param({"false", "true"})
+    public boolean isCoalesce;
+
+    @Override
+    @SuppressWarnings("unchecked")
+    protected void createSearch() {
+        entirelySearch = isCoalesce
+                ? ConcurrentEntirelySearch.createHowCoalesceSearches(treeModel, SearchSetting.defaultSetting(), SyntheticTreeModel.ROOT)
+                : ConcurrentEntirelySearch.createHowAppointSearchSetting(treeModel, SearchSetting.defaultSetting(), SyntheticTreeModel.ROOT);
+    }
+}
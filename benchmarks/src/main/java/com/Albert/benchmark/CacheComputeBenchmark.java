@@ -0,0 +1,89 @@
+package com.Albert.benchmark;
+
+import com.Albert.cache.CacheSetting;
+import com.Albert.cache.EfficientCacheCompute;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link EfficientCacheCompute} under contention: four threads compute skewed keys, so most calls hit a few hot keys
+ * while the tail keeps the bounded cache evicting.
+ *
+ * @author Albert
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Threads(4)
+@Warmup(iterations = 3, time = 2, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 2, timeUnit = TimeUnit.SECONDS)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CacheComputeBenchmark {
+    private static final int KEY_MASK = 1023;
+
+    @Param("100000")
+    public int keySpace;
+
+    /**
+     * -1 keeps the cache unbounded.
+     */
+    @Param({"-1", "1000"})
+    public long maximumSize;
+
+    private EfficientCacheCompute<Integer, Integer> cacheCompute;
+
+    @Setup(Level.Trial)
+    public void createCacheCompute() {
+        CacheSetting<Integer, Integer> cacheSetting = CacheSetting.defaultSetting();
+        if (maximumSize != CacheSetting.UNBOUNDED) {
+            cacheSetting.setMaximumSize(maximumSize);
+        }
+        cacheCompute = EfficientCacheCompute.createNeedComputeFunction(key -> key * 31, cacheSetting);
+    }
+
+    @Benchmark
+    public Integer compute(KeyGenerator keyGenerator) {
+        return cacheCompute.compute(keyGenerator.nextKey(keySpace));
+    }
+
+    @Benchmark
+    public Integer computeAsync(KeyGenerator keyGenerator) {
+        return cacheCompute.computeAsync(keyGenerator.nextKey(keySpace)).join();
+    }
+
+    /**
+     * Keys are precomputed per thread, so the random generator is not measured.
+     */
+    @State(Scope.Thread)
+    public static class KeyGenerator {
+        private final int[] keys = new int[KEY_MASK + 1];
+        private int next = 0;
+
+        @Setup(Level.Trial)
+        public void createKeys(CacheComputeBenchmark benchmark) {
+            SplittableRandom random = new SplittableRandom(Thread.currentThread().getId());
+            for (int i = 0; i < keys.length; i++) {
+                double skewed = random.nextDouble();
+                keys[i] = (int) (skewed * skewed * skewed * benchmark.keySpace);
+            }
+        }
+
+        int nextKey(int keySpace) {
+            return keys[next++ & KEY_MASK] % keySpace;
+        }
+    }
+}
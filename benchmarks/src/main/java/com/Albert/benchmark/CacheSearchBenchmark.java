@@ -0,0 +1,49 @@
+package com.Albert.benchmark;
+
+import com.Albert.engine.SearchSetting;
+import com.Albert.searchImpl.boxSearchImpl.ConcurrentCacheEntirelySearch;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link ConcurrentCacheEntirelySearch} answering from a warm cache, or from a cache cleared before every call.
+ *
+ * @author Albert
+ */
+public class CacheSearchBenchmark extends EntirelySearchBenchmark {
+
+    @Param({"false", "true"})
+    public boolean isWarm;
+
+    private ConcurrentCacheEntirelySearch<String, Long, Long> cacheSearch;
+
+    @Override
+    @SuppressWarnings("unchecked")
+    protected void createSearch() {
+        cacheSearch = ConcurrentCacheEntirelySearch.createHowAppointSearchSetting(treeModel, SearchSetting.defaultSetting(), SyntheticTreeModel.ROOT);
+        entirelySearch = cacheSearch;
+        if (isWarm) {
+            cacheSearch.getResultsUntilTimeout(KEY, TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            KEYS.forEach(key -> cacheSearch.getResultsUntilTimeout(key, TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        }
+    }
+
+    /**
+     * Clearing also stops the searches still running for the previous call, which a cold call would have paid for too.
+     */
+    @Setup(Level.Invocation)
+    public void clearCacheIfCold() {
+        if (!isWarm) {
+            cacheSearch.clearCache();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void stopCacheSearch() {
+        cacheSearch.stopSearchNow();
+    }
+}
@@ -0,0 +1,45 @@
+package com.Albert.benchmark;
+
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Requests everything at once and counts the results until the publisher completes.
+ *
+ * @author Albert
+ */
+class CountingSubscriber<ResultT> implements Subscriber<ResultT> {
+    private final CountDownLatch completed = new CountDownLatch(1);
+    private volatile long resultNum = 0;
+
+    @Override
+    public void onSubscribe(Subscription subscription) {
+        subscription.request(Long.MAX_VALUE);
+    }
+
+    @Override
+    public void onNext(ResultT result) {
+        resultNum++;
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        completed.countDown();
+    }
+
+    @Override
+    public void onComplete() {
+        completed.countDown();
+    }
+
+    long awaitResultNum(long timeout, TimeUnit unit) throws InterruptedException, TimeoutException {
+        if (!completed.await(timeout, unit)) {
+            throw new TimeoutException("The publisher did not complete in time");
+        }
+        return resultNum;
+    }
+}
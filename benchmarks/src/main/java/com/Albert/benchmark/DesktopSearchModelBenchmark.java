@@ -0,0 +1,97 @@
+package com.Albert.benchmark;
+
+import com.Albert.pojo.MessageOfSearched;
+import com.Albert.searchModel.DesktopSearchModel;
+import com.Albert.searchModel.NioDesktopSearchModel;
+import com.Albert.searchModel.SearchModel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Visits every directory of the synthetic tree, written to disk, on one thread with each desktop search model.
+ * An inner node is a directory and a leaf a file, a node that matches has the key in its name.
+ * The models differ in the garbage as much as in the time, e.g.
+ * {@code java -jar benchmarks/target/benchmarks.jar DesktopSearchModelBenchmark -p depth=6 -prof gc}.
+ *
+ * @author Albert
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class DesktopSearchModelBenchmark extends SyntheticTreeBenchmark {
+
+    @Param({"desktop", "nio", "nioTrustLinkCount"})
+    public String model;
+
+    private Path root;
+    private SearchModel<String, ?> searchModel;
+    private Object rootPath;
+
+    @Override
+    protected void createSearch() {
+        try {
+            root = Files.createTempDirectory("desktop-search-model-benchmark");
+            writeChildren(root, SyntheticTreeModel.ROOT);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if ("desktop".equals(model)) {
+            searchModel = new DesktopSearchModel();
+            rootPath = root.toString();
+        } else {
+            searchModel = new NioDesktopSearchModel("nioTrustLinkCount".equals(model));
+            rootPath = root;
+        }
+    }
+
+    private void writeChildren(Path directory, Long node) throws IOException {
+        for (Long child : treeModel.search(KEY, node).getCanBeSearched().get()) {
+            MessageOfSearched<Long, Long> childMessage = treeModel.search(KEY, child);
+            String name = (childMessage.getTrueResult().get().isEmpty() ? "node" : KEY) + child;
+            List<Long> grandchildren = childMessage.getCanBeSearched().get();
+            if (grandchildren.isEmpty()) {
+                Files.createFile(directory.resolve(name + ".txt"));
+            } else {
+                writeChildren(Files.createDirectory(directory.resolve(name)), child);
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteTree() throws IOException {
+        try (Stream<Path> walk = Files.walk(root)) {
+            walk.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+
+    @Benchmark
+    @SuppressWarnings("unchecked")
+    public long visitAll() {
+        SearchModel<String, Object> anyModel = (SearchModel<String, Object>) searchModel;
+        long resultNum = 0;
+        Deque<Object> frontier = new ArrayDeque<>();
+        frontier.push(rootPath);
+        while (!frontier.isEmpty()) {
+            MessageOfSearched<Object, Object> messageOfSearched = anyModel.search(KEY, frontier.pop());
+            resultNum += messageOfSearched.getTrueResult().get().size();
+            messageOfSearched.getCanBeSearched().get().forEach(frontier::push);
+        }
+        return resultNum;
+    }
+}
@@ -0,0 +1,58 @@
+package com.Albert.benchmark;
+
+import com.Albert.engine.SearchEngine;
+import com.Albert.engine.SearchGroup;
+import com.Albert.searchModel.BatchSearchModel;
+import com.Albert.searchModel.SearchModel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A whole traversal straight on the engine, one task per node or in adaptive batches, on platform or virtual threads.
+ * The virtual-thread engine needs Java 21. It pays off on a deep, narrow tree of slow visits, e.g.
+ * {@code -p engine=forkJoin,virtualThreads -p fanout=3 -p depth=9 -p latencyMicros=100 -p isBatching=false}.
+ *
+ * @author Albert
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class EngineBenchmark extends SyntheticTreeBenchmark {
+
+    @Param("forkJoin")
+    public String engine;
+
+    @Param({"false", "true"})
+    public boolean isBatching;
+
+    @Param("256")
+    public int maxConcurrentVisits;
+
+    private SearchEngine searchEngine;
+    private SearchModel<String, Long> searchModel;
+
+    @Override
+    protected void createSearch() {
+        if ("virtualThreads".equals(engine)) {
+            if (!SearchEngine.isVirtualThreadSupported()) {
+                throw new IllegalStateException("Virtual threads need Java 21");
+            }
+            searchEngine = SearchEngine.createVirtualThreadEngine(maxConcurrentVisits);
+        } else {
+            searchEngine = SearchEngine.sharedEngine();
+        }
+        searchModel = isBatching ? BatchSearchModel.batching(treeModel) : treeModel;
+    }
+
+    @Benchmark
+    public int traverse() throws InterruptedException {
+        SearchGroup<String, Long, Long> searchGroup = searchEngine.startSearch(searchModel, KEY, Collections.singletonList(SyntheticTreeModel.ROOT));
+        searchGroup.awaitComplete(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        return searchGroup.getResults().size();
+    }
+}
@@ -0,0 +1,96 @@
+package com.Albert.benchmark;
+
+import com.Albert.engine.SearchHandle;
+import com.Albert.search.boxSearch.EntirelySearch;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Stream;
+
+/**
+ * Every retrieval mode of an {@link EntirelySearch} rooted at the root of the synthetic tree,
+ * the subclasses create the search in their trial setup.
+ *
+ * @author Albert
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public abstract class EntirelySearchBenchmark extends SyntheticTreeBenchmark {
+    static final List<String> KEYS = Arrays.asList("key0", "key1", "key2", "key3");
+
+    protected EntirelySearch<String, Long> entirelySearch;
+
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public Long getAResult() {
+        return entirelySearch.getAResult(KEY);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public Long getAResultUntilTimeout() throws TimeoutException {
+        return entirelySearch.getAResultUntilTimeout(KEY, TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    }
+
+    @Benchmark
+    public List<Long> getResultsUntilTimeout() {
+        return entirelySearch.getResultsUntilTimeout(KEY, TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    }
+
+    @Benchmark
+    public List<Long> getResultsUntilOneTimeout() {
+        return entirelySearch.getResultsUntilOneTimeout(KEY, TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    }
+
+    @Benchmark
+    public List<Long> getResultsUntilEnoughOrTimeout() {
+        return entirelySearch.getResultsUntilEnoughOrTimeout(KEY, expectNum, TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    }
+
+    @Benchmark
+    public List<Long> getResultsUntilEnoughOrOneTimeout() {
+        return entirelySearch.getResultsUntilEnoughOrOneTimeout(KEY, expectNum, TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    }
+
+    @Benchmark
+    public List<Long> getResultsUntilEnough() throws TimeoutException {
+        return entirelySearch.getResultsUntilEnough(KEY, expectNum);
+    }
+
+    @Benchmark
+    public long streamResults() {
+        try (Stream<Long> results = entirelySearch.streamResults(KEY)) {
+            return results.count();
+        }
+    }
+
+    @Benchmark
+    public long publishResults() throws InterruptedException, TimeoutException {
+        CountingSubscriber<Long> subscriber = new CountingSubscriber<>();
+        entirelySearch.publishResults(KEY).subscribe(subscriber);
+        return subscriber.awaitResultNum(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    }
+
+    @Benchmark
+    public boolean startSearch() throws InterruptedException {
+        return entirelySearch.startSearch(KEY).await(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    }
+
+    @Benchmark
+    public int startSearchKeys() throws InterruptedException {
+        Map<String, SearchHandle<Long>> handles = entirelySearch.startSearchKeys(KEYS);
+        for (SearchHandle<Long> handle : handles.values()) {
+            handle.await(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        }
+        return handles.size();
+    }
+}
@@ -0,0 +1,55 @@
+package com.Albert.benchmark;
+
+import com.Albert.engine.SearchEngine;
+import com.Albert.engine.SearchGroup;
+import com.Albert.engine.SearchSetting;
+import com.Albert.metrics.LatencyHistogram;
+import com.Albert.metrics.SearchMetrics;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * What the metrics cost: a whole traversal with metrics disabled or recorded, and a histogram recorded
+ * by several threads at once, which only shows contention on as many processors as threads.
+ *
+ * @author Albert
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class MetricsBenchmark extends SyntheticTreeBenchmark {
+
+    @Param({"false", "true"})
+    public boolean isMetricsEnabled;
+
+    private SearchSetting<Long, Long> searchSetting;
+    private final LatencyHistogram latencyHistogram = new LatencyHistogram();
+
+    @Override
+    protected void createSearch() {
+        searchSetting = isMetricsEnabled
+                ? SearchSetting.<Long, Long>defaultSetting().setSearchMetrics(new SearchMetrics())
+                : SearchSetting.<Long, Long>defaultSetting().disableMetrics();
+    }
+
+    @Benchmark
+    public int traverse() throws InterruptedException {
+        SearchGroup<String, Long, Long> searchGroup = SearchEngine.sharedEngine().createSearchGroup(treeModel, KEY, searchSetting);
+        searchGroup.startSearch(Collections.singletonList(SyntheticTreeModel.ROOT));
+        searchGroup.awaitComplete(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        return searchGroup.getResults().size();
+    }
+
+    @Benchmark
+    @Threads(4)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void recordHistogram() {
+        latencyHistogram.record(1000);
+    }
+}
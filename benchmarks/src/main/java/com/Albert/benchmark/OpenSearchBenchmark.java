@@ -0,0 +1,111 @@
+package com.Albert.benchmark;
+
+import com.Albert.engine.SearchHandle;
+import com.Albert.engine.SearchSetting;
+import com.Albert.searchImpl.openSearchImpl.ConcurrentEntirelyOpenSearch;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Stream;
+
+/**
+ * Every retrieval mode of {@link ConcurrentEntirelyOpenSearch} over the whole synthetic tree,
+ * plain and with concurrent identical searches coalesced.
+ *
+ * @author Albert
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class OpenSearchBenchmark extends SyntheticTreeBenchmark {
+    private static final List<Long> ROOTS = Collections.singletonList(SyntheticTreeModel.ROOT);
+    private static final List<String> KEYS = Arrays.asList("key0", "key1", "key2", "key3");
+
+    @Param({"false", "true"})
+    public boolean isCoalesce;
+
+    private ConcurrentEntirelyOpenSearch<String, Long, Long> openSearch;
+
+    @Override
+    protected void createSearch() {
+        openSearch = isCoalesce
+                ? ConcurrentEntirelyOpenSearch.createHowCoalesceSearches(treeModel, SearchSetting.defaultSetting())
+                : new ConcurrentEntirelyOpenSearch<>(treeModel);
+    }
+
+
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public Long getAResult() {
+        return openSearch.getAResult(ROOTS, KEY);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public Long getAResultUntilTimeout() {
+        return openSearch.getAResultUntilTimeout(ROOTS, KEY, TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    }
+
+    @Benchmark
+    public List<Long> getResultsUntilTimeout() {
+        return openSearch.getResultsUntilTimeout(ROOTS, KEY, TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    }
+
+    @Benchmark
+    public List<Long> getResultsUntilOneTimeout() {
+        return openSearch.getResultsUntilOneTimeout(ROOTS, KEY, TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    }
+
+    @Benchmark
+    public List<Long> getResultsUntilEnoughOrTimeout() {
+        return openSearch.getResultsUntilEnoughOrTimeout(ROOTS, KEY, TIMEOUT_SECONDS, TimeUnit.SECONDS, expectNum);
+    }
+
+    @Benchmark
+    public List<Long> getResultsUntilEnoughOrOneTimeout() {
+        return openSearch.getResultsUntilEnoughOrOneTimeout(ROOTS, KEY, TIMEOUT_SECONDS, TimeUnit.SECONDS, expectNum);
+    }
+
+    @Benchmark
+    public List<Long> getResultsUntilEnough() throws TimeoutException {
+        return openSearch.getResultsUntilEnough(ROOTS, KEY, expectNum);
+    }
+
+    @Benchmark
+    public long streamResults() {
+        try (Stream<Long> results = openSearch.streamResults(ROOTS, KEY)) {
+            return results.count();
+        }
+    }
+
+    @Benchmark
+    public long publishResults() throws InterruptedException, TimeoutException {
+        CountingSubscriber<Long> subscriber = new CountingSubscriber<>();
+        openSearch.publishResults(ROOTS, KEY).subscribe(subscriber);
+        return subscriber.awaitResultNum(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    }
+
+    @Benchmark
+    public boolean startSearch() throws InterruptedException {
+        return openSearch.startSearch(ROOTS, KEY).await(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    }
+
+    @Benchmark
+    public int startSearchKeys() throws InterruptedException {
+        Map<String, SearchHandle<Long>> handles = openSearch.startSearchKeys(ROOTS, KEYS);
+        for (SearchHandle<Long> handle : handles.values()) {
+            handle.await(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        }
+        return handles.size();
+    }
+}
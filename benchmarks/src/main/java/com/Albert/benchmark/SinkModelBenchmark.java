@@ -0,0 +1,47 @@
+package com.Albert.benchmark;
+
+import com.Albert.engine.SearchEngine;
+import com.Albert.engine.SearchGroup;
+import com.Albert.searchModel.SearchModel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The same traversal with the tree returning a message per node or emitting into the sink of the group.
+ * The difference is in the garbage more than in the time, run it with the gc profiler and compare
+ * {@code gc.alloc.rate.norm}, e.g. {@code java -jar benchmarks/target/benchmarks.jar SinkModelBenchmark -prof gc}.
+ *
+ * @author Albert
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class SinkModelBenchmark extends SyntheticTreeBenchmark {
+
+    @Param({"list", "sink"})
+    public String model;
+
+    private SearchModel<String, Long> searchModel;
+
+    @Override
+    protected void createSearch() {
+        if ("sink".equals(model)) {
+            searchModel = treeModel;
+        } else {
+            searchModel = (key, node) -> treeModel.search(key, node);
+        }
+    }
+
+    @Benchmark
+    public int traverse() throws InterruptedException {
+        SearchGroup<String, Long, Long> searchGroup = SearchEngine.sharedEngine()
+                .startSearch(searchModel, KEY, Collections.singletonList(SyntheticTreeModel.ROOT));
+        searchGroup.awaitComplete(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        return searchGroup.getResults().size();
+    }
+}
@@ -0,0 +1,65 @@
+package com.Albert.benchmark;
+
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The shape of the {@link SyntheticTreeModel} every search benchmark walks, each parameter can be overridden
+ * on the command line. Throughput is the default mode, the first-result benchmarks sample the time to the first result,
+ * and {@code -prof gc} adds the allocation rate, e.g.
+ * <pre>
+ * mvn install -DskipTests
+ * mvn -f benchmarks/pom.xml package
+ * java -jar benchmarks/target/benchmarks.jar OpenSearchBenchmark -p latencyMicros=0,50 -prof gc
+ * </pre>
+ *
+ * @author Albert
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 2, timeUnit = TimeUnit.SECONDS)
+public abstract class SyntheticTreeBenchmark {
+    static final String KEY = "key";
+    static final long TIMEOUT_SECONDS = 60;
+
+    @Param("8")
+    public int fanout;
+
+    @Param("5")
+    public int depth;
+
+    @Param("0.01")
+    public double matchDensity;
+
+    @Param("0")
+    public long latencyMicros;
+
+    /**
+     * How many results the getResultsUntilEnough* benchmarks ask for.
+     */
+    @Param("10")
+    public int expectNum;
+
+    protected SyntheticTreeModel treeModel;
+
+    @Setup(Level.Trial)
+    public void createTreeModel() {
+        treeModel = new SyntheticTreeModel(fanout, depth, matchDensity, TimeUnit.MICROSECONDS.toNanos(latencyMicros));
+        createSearch();
+    }
+
+    /**
+     * Creates what the benchmark searches with, called once the tree model exists.
+     * JMH does not order the setups of a class and its superclass, so the subclasses override this instead.
+     */
+    protected abstract void createSearch();
+}
@@ -0,0 +1,97 @@
+package com.Albert.benchmark;
+
+import com.Albert.pojo.MessageOfSearched;
+import com.Albert.searchModel.SearchSink;
+import com.Albert.searchModel.SinkSearchModel;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * An in-memory tree, so a benchmark measures the engine and not the disk. Nodes are numbered breadth first,
+ * the children of {@code n} are {@code n * fanout + 1} to {@code n * fanout + fanout}.
+ * <p>
+ * Every node is a result of a key with the probability matchDensity, decided by a hash of the node and the key,
+ * so every run finds the same results. A visit parks for latencyNanos to stand in for the listing of a directory.
+ * <p>
+ * The tree is a {@link SinkSearchModel}, so the engine visits it without a message unless it is wrapped in a plain model.
+ *
+ * @author Albert
+ */
+public class SyntheticTreeModel implements SinkSearchModel<String, Long, Long> {
+    public static final Long ROOT = 0L;
+    private static final double FRACTION_RANGE = 1L << 53;
+
+    private final int fanout;
+    private final long firstLeaf;
+    private final long nodeNum;
+    private final long matchThreshold;
+    private final long latencyNanos;
+
+    public SyntheticTreeModel(int fanout, int depth, double matchDensity, long latencyNanos) {
+        if (fanout < 1 || depth < 0 || matchDensity < 0 || matchDensity > 1) {
+            throw new IllegalArgumentException("fanout must be positive, depth not negative and matchDensity within [0, 1]");
+        }
+        long innerNodeNum = 0;
+        long levelNodeNum = 1;
+        for (int level = 0; level < depth; level++) {
+            innerNodeNum += levelNodeNum;
+            levelNodeNum *= fanout;
+        }
+        this.fanout = fanout;
+        this.firstLeaf = innerNodeNum;
+        this.nodeNum = innerNodeNum + levelNodeNum;
+        this.matchThreshold = (long) (matchDensity * FRACTION_RANGE);
+        this.latencyNanos = latencyNanos;
+    }
+
+    @Override
+    public MessageOfSearched<Long, Long> search(String key, Long node) {
+        if (latencyNanos > 0) {
+            LockSupport.parkNanos(latencyNanos);
+        }
+        List<Long> trueResults = isMatched(key, node) ? Collections.singletonList(node) : Collections.emptyList();
+        if (node >= firstLeaf) {
+            return new MessageOfSearched<>(trueResults, Collections.emptyList());
+        }
+        List<Long> children = new ArrayList<>(fanout);
+        for (int i = 1; i <= fanout; i++) {
+            children.add(node * fanout + i);
+        }
+        return new MessageOfSearched<>(trueResults, children);
+    }
+
+    @Override
+    public void search(String key, Long node, SearchSink<Long, Long> searchSink) {
+        if (latencyNanos > 0) {
+            LockSupport.parkNanos(latencyNanos);
+        }
+        if (isMatched(key, node)) {
+            searchSink.emitResult(node);
+        }
+        if (node >= firstLeaf) {
+            return;
+        }
+        long firstChild = node * fanout + 1;
+        for (long child = firstChild; child < firstChild + fanout; child++) {
+            searchSink.emitChild(child);
+        }
+    }
+
+    /**
+     * SplitMix64 of the node and the key, its top 53 bits as a fraction of one.
+     */
+    private boolean isMatched(String key, long node) {
+        long hash = node * 0x9E3779B97F4A7C15L + key.hashCode();
+        hash = (hash ^ (hash >>> 30)) * 0xBF58476D1CE4E5B9L;
+        hash = (hash ^ (hash >>> 27)) * 0x94D049BB133111EBL;
+        hash ^= hash >>> 31;
+        return (hash >>> 11) < matchThreshold;
+    }
+
+    public long getNodeNum() {
+        return nodeNum;
+    }
+}
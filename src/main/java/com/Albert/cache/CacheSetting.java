@@ -0,0 +1,191 @@
+package com.Albert.cache;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * How a cache bounds, expires and refreshes its entries. Every option is off unless it is set,
+ * the default cache keeps every entry until it is cleared.
+ *
+ * @author Albert
+ */
+public class CacheSetting<KeyT, ResultT> {
+    public static final long UNBOUNDED = -1;
+    public static final long NOT_EXPIRE = -1;
+
+    private long maximumWeight = UNBOUNDED;
+    private Weigher<KeyT, ResultT> weigher = (key, result) -> 1;
+    private RemovalListener<KeyT, ResultT> removalListener;
+    private long expireAfterWriteNanos = NOT_EXPIRE;
+    private long expireAfterAccessNanos = NOT_EXPIRE;
+    private long refreshAfterWriteNanos = NOT_EXPIRE;
+    private Executor computeExecutor = ForkJoinPool.commonPool();
+    private Executor refreshExecutor = ForkJoinPool.commonPool();
+    private Function<KeyT, CompletableFuture<ResultT>> refreshMethod;
+    private LongSupplier ticker = System::nanoTime;
+
+    public static <KeyT, ResultT> CacheSetting<KeyT, ResultT> defaultSetting() {
+        return new CacheSetting<>();
+    }
+
+    /**
+     * Keep at most this many entries.
+     */
+    public CacheSetting<KeyT, ResultT> setMaximumSize(long maximumSize) {
+        return setMaximumWeight(maximumSize, (key, result) -> 1);
+    }
+
+    /**
+     * Keep entries of at most this total weight. The weight of an entry is taken again every time
+     * it is read, so a result that keeps growing, like a result buffer, is weighed by its current size.
+     */
+    public CacheSetting<KeyT, ResultT> setMaximumWeight(long maximumWeight, Weigher<KeyT, ResultT> weigher) {
+        if (maximumWeight < 0) {
+            throw new IllegalArgumentException("The maximum weight must not be negative");
+        }
+        this.maximumWeight = maximumWeight;
+        this.weigher = weigher;
+        return this;
+    }
+
+    public CacheSetting<KeyT, ResultT> setRemovalListener(RemovalListener<KeyT, ResultT> removalListener) {
+        this.removalListener = removalListener;
+        return this;
+    }
+
+    /**
+     * An entry expires this long after its result was computed.
+     */
+    public CacheSetting<KeyT, ResultT> setExpireAfterWrite(long duration, TimeUnit unit) {
+        this.expireAfterWriteNanos = toPositiveNanos(duration, unit);
+        return this;
+    }
+
+    /**
+     * An entry expires this long after it was last read or computed.
+     */
+    public CacheSetting<KeyT, ResultT> setExpireAfterAccess(long duration, TimeUnit unit) {
+        this.expireAfterAccessNanos = toPositiveNanos(duration, unit);
+        return this;
+    }
+
+    /**
+     * The first read of an entry older than this starts computing it again in the background.
+     * Readers keep getting the old result until the new one is ready, so with a refresh time shorter
+     * than the expire time a key that is read often never makes a reader wait for the computation.
+     */
+    public CacheSetting<KeyT, ResultT> setRefreshAfterWrite(long duration, TimeUnit unit) {
+        this.refreshAfterWriteNanos = toPositiveNanos(duration, unit);
+        return this;
+    }
+
+    private static long toPositiveNanos(long duration, TimeUnit unit) {
+        if (duration <= 0) {
+            throw new IllegalArgumentException("The duration must be positive");
+        }
+        return unit.toNanos(duration);
+    }
+
+    /**
+     * Where {@link EfficientCacheCompute#computeAsync(Object)} runs the compute method, the common pool by default.
+     */
+    public CacheSetting<KeyT, ResultT> setComputeExecutor(Executor computeExecutor) {
+        this.computeExecutor = computeExecutor;
+        return this;
+    }
+
+    /**
+     * Where a refresh runs the compute method, the common pool by default.
+     */
+    public CacheSetting<KeyT, ResultT> setRefreshExecutor(Executor refreshExecutor) {
+        this.refreshExecutor = refreshExecutor;
+        return this;
+    }
+
+    /**
+     * How a refresh computes the new result instead of running the compute method on the refresh executor,
+     * e.g. to replace the old result only once a new one is complete.
+     */
+    public CacheSetting<KeyT, ResultT> setRefreshMethod(Function<KeyT, CompletableFuture<ResultT>> refreshMethod) {
+        this.refreshMethod = refreshMethod;
+        return this;
+    }
+
+    /**
+     * The source of nanosecond time, {@link System#nanoTime()} by default.
+     */
+    public CacheSetting<KeyT, ResultT> setTicker(LongSupplier ticker) {
+        this.ticker = ticker;
+        return this;
+    }
+
+    /**
+     * A setting of its own for a cache that changes some options, without changing the cache of the caller.
+     */
+    public CacheSetting<KeyT, ResultT> copy() {
+        CacheSetting<KeyT, ResultT> copy = defaultSetting();
+        copy.maximumWeight = maximumWeight;
+        copy.weigher = weigher;
+        copy.removalListener = removalListener;
+        copy.expireAfterWriteNanos = expireAfterWriteNanos;
+        copy.expireAfterAccessNanos = expireAfterAccessNanos;
+        copy.refreshAfterWriteNanos = refreshAfterWriteNanos;
+        copy.computeExecutor = computeExecutor;
+        copy.refreshExecutor = refreshExecutor;
+        copy.refreshMethod = refreshMethod;
+        copy.ticker = ticker;
+        return copy;
+    }
+
+    public boolean isBounded() {
+        return maximumWeight != UNBOUNDED;
+    }
+
+    public long getMaximumWeight() {
+        return maximumWeight;
+    }
+
+    public Weigher<KeyT, ResultT> getWeigher() {
+        return weigher;
+    }
+
+    public RemovalListener<KeyT, ResultT> getRemovalListener() {
+        return removalListener;
+    }
+
+    public boolean isExpiring() {
+        return expireAfterWriteNanos != NOT_EXPIRE || expireAfterAccessNanos != NOT_EXPIRE;
+    }
+
+    public long getExpireAfterWriteNanos() {
+        return expireAfterWriteNanos;
+    }
+
+    public long getExpireAfterAccessNanos() {
+        return expireAfterAccessNanos;
+    }
+
+    public long getRefreshAfterWriteNanos() {
+        return refreshAfterWriteNanos;
+    }
+
+    public Executor getComputeExecutor() {
+        return computeExecutor;
+    }
+
+    public Executor getRefreshExecutor() {
+        return refreshExecutor;
+    }
+
+    public Function<KeyT, CompletableFuture<ResultT>> getRefreshMethod() {
+        return refreshMethod;
+    }
+
+    public LongSupplier getTicker() {
+        return ticker;
+    }
+}
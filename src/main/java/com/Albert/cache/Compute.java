@@ -19,8 +19,14 @@
  */
 package com.Albert.cache;
 
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Future;
+import java.util.function.Function;
 
 /**
  * @author Albert
@@ -29,10 +35,40 @@ public interface Compute<KeyT, ResultT> {
 
     ResultT compute(KeyT keyT);
 
+    /**
+     * Computes on the common pool by default, an implementation that shares its computations
+     * between callers, as {@link EfficientCacheCompute} does, overrides it.
+     */
+    default CompletableFuture<ResultT> computeAsync(KeyT keyT) {
+        return CompletableFuture.supplyAsync(() -> compute(keyT));
+    }
+
+    /**
+     * Computes the keys one by one by default, without the bulk method. An implementation that computes
+     * the missing keys together, as {@link EfficientCacheCompute} does, overrides it.
+     */
+    default Map<KeyT, ResultT> computeAll(Collection<KeyT> keys, Function<List<KeyT>, Map<KeyT, ResultT>> bulkComputeMethod) {
+        Map<KeyT, ResultT> results = new LinkedHashMap<>();
+        for (KeyT keyT : keys) {
+            results.put(keyT, compute(keyT));
+        }
+        return results;
+    }
+
     ResultT getCacheIfExist(KeyT key);
 
     ConcurrentHashMap.KeySetView<KeyT, Future<ResultT>> getKeySetFromCacheResult();
 
+    /**
+     * Removes the entry of the key, so the next compute for it computes again. An implementation
+     * that can not remove a single entry keeps this default, which throws.
+     *
+     * @throws UnsupportedOperationException unless the implementation overrides it
+     */
+    default void invalidate(KeyT keyT) {
+        throw new UnsupportedOperationException("Can not invalidate a single key of " + getClass().getName());
+    }
+
     void clearCache();
 
     boolean isEmpty();
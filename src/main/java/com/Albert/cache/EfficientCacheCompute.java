@@ -19,10 +19,24 @@
  */
 package com.Albert.cache;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.Function;
+import java.util.function.LongSupplier;
 
 /**
+ * A bounded, expiring or refreshing cache only records its reads and writes in buffers, and replays them into
+ * the eviction order and the timer wheel under one lock, so a hit never waits for another reader.
+ * An expired entry is never returned, the timer wheel only takes care of the entries nobody reads any more.
+ *
  * @author Albert
  */
 public class EfficientCacheCompute<KeyT, ResultT> implements Compute<KeyT, ResultT> {
@@ -30,33 +44,172 @@ public class EfficientCacheCompute<KeyT, ResultT> implements Compute<KeyT, Resul
     private final ConcurrentHashMap<KeyT, Future<ResultT>> cacheResult;
 
     private final Function<KeyT, ResultT> computeMethod;
+    private final Executor computeExecutor;
+    private final RemovalListener<KeyT, ResultT> removalListener;
+    private final SegmentedLruPolicy<KeyT, ResultT> evictionPolicy;
+    private final TimerWheel<KeyT, ResultT> timerWheel;
+    private final ReentrantLock evictionLock = new ReentrantLock();
+    private final ReadBuffer<KeyT> readBuffer;
+    private final Queue<Runnable> writeBuffer;
+    private final LongSupplier ticker;
+    private final long expireAfterWriteNanos;
+    private final long expireAfterAccessNanos;
+    private final long refreshAfterWriteNanos;
+    private final Function<KeyT, CompletableFuture<ResultT>> refreshMethod;
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder evictionCount = new LongAdder();
+    private final LongAdder evictionWeight = new LongAdder();
 
-    private EfficientCacheCompute(Function<KeyT, ResultT> computeMethod) {
+    private EfficientCacheCompute(Function<KeyT, ResultT> computeMethod, CacheSetting<KeyT, ResultT> cacheSetting) {
         this.computeMethod = computeMethod;
+        this.computeExecutor = cacheSetting.getComputeExecutor();
         this.cacheResult = new ConcurrentHashMap<>();
+        this.removalListener = cacheSetting.getRemovalListener();
+        this.ticker = cacheSetting.getTicker();
+        this.expireAfterWriteNanos = cacheSetting.getExpireAfterWriteNanos();
+        this.expireAfterAccessNanos = cacheSetting.getExpireAfterAccessNanos();
+        this.refreshAfterWriteNanos = cacheSetting.getRefreshAfterWriteNanos();
+        this.refreshMethod = cacheSetting.getRefreshMethod() != null ? cacheSetting.getRefreshMethod()
+                : keyT -> CompletableFuture.supplyAsync(() -> computeMethod.apply(keyT), cacheSetting.getRefreshExecutor());
+        if (cacheSetting.isBounded() || cacheSetting.isExpiring() || cacheSetting.getRefreshAfterWriteNanos() != CacheSetting.NOT_EXPIRE) {
+            long maximumWeight = cacheSetting.isBounded() ? cacheSetting.getMaximumWeight() : Long.MAX_VALUE;
+            this.evictionPolicy = new SegmentedLruPolicy<>(maximumWeight, cacheSetting.getWeigher());
+            this.timerWheel = cacheSetting.isExpiring() ? new TimerWheel<>(ticker.getAsLong()) : null;
+            this.readBuffer = new ReadBuffer<>();
+            this.writeBuffer = new ConcurrentLinkedQueue<>();
+        } else {
+            this.evictionPolicy = null;
+            this.timerWheel = null;
+            this.readBuffer = null;
+            this.writeBuffer = null;
+        }
     }
 
     public static <KeyT, ResultT> EfficientCacheCompute createNeedComputeFunction(Function<KeyT, ResultT> computeMethod) {
-        return new EfficientCacheCompute<>(computeMethod);
+        return new EfficientCacheCompute<>(computeMethod, CacheSetting.defaultSetting());
+    }
+
+    public static <KeyT, ResultT> EfficientCacheCompute<KeyT, ResultT> createNeedComputeFunction(Function<KeyT, ResultT> computeMethod, CacheSetting<KeyT, ResultT> cacheSetting) {
+        return new EfficientCacheCompute<>(computeMethod, cacheSetting);
     }
 
     @Override
     public ResultT compute(final KeyT keyT) {
         while (IS_NOT_RETURN) {
-            Future<ResultT> resultFuture = cacheResult.get(keyT);
+            Future<ResultT> resultFuture = getUnexpired(keyT);
             if (isNotExitResult(resultFuture)) {
                 Callable<ResultT> computeMethodHavingPutKey = () -> computeMethod.apply(keyT);
-                FutureTask<ResultT> runWhenResultFutureNull = new FutureTask<>(computeMethodHavingPutKey);
+                TimedFuture<ResultT> runWhenResultFutureNull = new TimedFuture<>(computeMethodHavingPutKey, ticker);
                 resultFuture = cacheResult.putIfAbsent(keyT, runWhenResultFutureNull);
                 if (isNotExitResult(resultFuture)) {
+                    missCount.increment();
                     resultFuture = runWhenResultFutureNull;
-                    runWhenResultFutureNull.run();
+                    runAndRecord(keyT, runWhenResultFutureNull);
+                    return getResultWithTryCatch(resultFuture);
                 }
             }
+            hitCount.increment();
+            afterRead(keyT, resultFuture);
             return getResultWithTryCatch(resultFuture);
         }
     }
 
+    /**
+     * Computes a missing result on the compute executor. Concurrent callers for the same key share one computation,
+     * and none of them waits for it. A computation that fails is removed, so the next call computes again.
+     *
+     * @return a future of the caller's own, cancelling it does not cancel the shared computation
+     */
+    @Override
+    public CompletableFuture<ResultT> computeAsync(final KeyT keyT) {
+        Future<ResultT> resultFuture = getUnexpired(keyT);
+        if (isNotExitResult(resultFuture)) {
+            TimedFuture<ResultT> runWhenResultFutureNull = new TimedFuture<>(() -> computeMethod.apply(keyT), ticker);
+            resultFuture = cacheResult.putIfAbsent(keyT, runWhenResultFutureNull);
+            if (isNotExitResult(resultFuture)) {
+                missCount.increment();
+                try {
+                    computeExecutor.execute(() -> runAndRecord(keyT, runWhenResultFutureNull));
+                } catch (RejectedExecutionException e) {
+                    runWhenResultFutureNull.cancel(false);
+                    removeFailed(keyT, runWhenResultFutureNull);
+                }
+                return copyOf(runWhenResultFutureNull.completion);
+            }
+        }
+        hitCount.increment();
+        afterRead(keyT, resultFuture);
+        return copyOf(((TimedFuture<ResultT>) resultFuture).completion);
+    }
+
+    /**
+     * Returns the results of all the keys, the missing ones are computed together by one call of the bulk method
+     * on the calling thread. Concurrent computes of those keys wait for that call instead of computing on their own.
+     * A key the bulk method leaves out fails like a failed compute and is computed again next time.
+     */
+    @Override
+    public Map<KeyT, ResultT> computeAll(Collection<KeyT> keys, Function<List<KeyT>, Map<KeyT, ResultT>> bulkComputeMethod) {
+        Map<KeyT, Future<ResultT>> resultFutures = new LinkedHashMap<>();
+        Map<KeyT, TimedFuture<ResultT>> ownFutures = new LinkedHashMap<>();
+        AtomicReference<Map<KeyT, ResultT>> bulkResults = new AtomicReference<>();
+        for (KeyT keyT : keys) {
+            if (resultFutures.containsKey(keyT)) {
+                continue;
+            }
+            Future<ResultT> resultFuture = getUnexpired(keyT);
+            if (isNotExitResult(resultFuture)) {
+                TimedFuture<ResultT> ownFuture = new TimedFuture<>(() -> resultOf(bulkResults.get(), keyT), ticker);
+                resultFuture = cacheResult.putIfAbsent(keyT, ownFuture);
+                if (isNotExitResult(resultFuture)) {
+                    missCount.increment();
+                    ownFutures.put(keyT, ownFuture);
+                    resultFutures.put(keyT, ownFuture);
+                    continue;
+                }
+            }
+            hitCount.increment();
+            afterRead(keyT, resultFuture);
+            resultFutures.put(keyT, resultFuture);
+        }
+        if (!ownFutures.isEmpty()) {
+            try {
+                bulkResults.set(bulkComputeMethod.apply(new ArrayList<>(ownFutures.keySet())));
+            } finally {
+                ownFutures.forEach(this::runAndRecord);
+            }
+        }
+        Map<KeyT, ResultT> results = new LinkedHashMap<>();
+        resultFutures.forEach((keyT, resultFuture) -> results.put(keyT, getResultWithTryCatch(resultFuture)));
+        return results;
+    }
+
+    private static <KeyT, ResultT> ResultT resultOf(Map<KeyT, ResultT> bulkResults, KeyT keyT) {
+        if (bulkResults == null || !bulkResults.containsKey(keyT)) {
+            throw new IllegalStateException("The bulk computation has no result for " + keyT);
+        }
+        return bulkResults.get(keyT);
+    }
+
+    private CompletableFuture<ResultT> copyOf(CompletableFuture<ResultT> completion) {
+        return completion.thenApply(Function.identity());
+    }
+
+    private void runAndRecord(KeyT keyT, TimedFuture<ResultT> timedFuture) {
+        timedFuture.run();
+        if (timedFuture.isSucceeded()) {
+            afterWrite(keyT, timedFuture);
+        } else {
+            removeFailed(keyT, timedFuture);
+        }
+    }
+
+    private void removeFailed(KeyT keyT, TimedFuture<ResultT> timedFuture) {
+        if (cacheResult.remove(keyT, timedFuture) && evictionPolicy != null) {
+            writeBuffer.offer(() -> evictionPolicy.onRemove(keyT, timedFuture));
+        }
+    }
+
     private boolean isNotExitResult(Future<ResultT> resultFuture) {
         return resultFuture == null;
     }
@@ -73,12 +226,198 @@ public class EfficientCacheCompute<KeyT, ResultT> implements Compute<KeyT, Resul
         return resultT;
     }
 
+    /**
+     * @return the cached future of the key, or null when there is none or it has failed or expired
+     */
+    private Future<ResultT> getUnexpired(KeyT keyT) {
+        Future<ResultT> resultFuture = cacheResult.get(keyT);
+        if (resultFuture == null) {
+            return null;
+        }
+        if (((TimedFuture<ResultT>) resultFuture).isFailed()) {
+            removeFailed(keyT, (TimedFuture<ResultT>) resultFuture);
+            return null;
+        }
+        if (timerWheel == null || !isExpired((TimedFuture<ResultT>) resultFuture, ticker.getAsLong())) {
+            return resultFuture;
+        }
+        if (cacheResult.remove(keyT, resultFuture)) {
+            writeBuffer.offer(() -> evictionPolicy.onRemove(keyT, resultFuture));
+            notifyRemovalListener(keyT, resultFuture, RemovalCause.EXPIRED);
+        }
+        return null;
+    }
+
+    private boolean isExpired(TimedFuture<ResultT> timedFuture, long nowNanos) {
+        return timedFuture.isDone() && nowNanos - expireNanosOf(timedFuture) >= 0;
+    }
+
+    private long expireNanosOf(TimedFuture<ResultT> timedFuture) {
+        long writeExpireNanos = timedFuture.writeNanos + expireAfterWriteNanos;
+        long accessExpireNanos = timedFuture.accessNanos + expireAfterAccessNanos;
+        if (expireAfterWriteNanos == CacheSetting.NOT_EXPIRE) {
+            return accessExpireNanos;
+        }
+        if (expireAfterAccessNanos == CacheSetting.NOT_EXPIRE) {
+            return writeExpireNanos;
+        }
+        return writeExpireNanos - accessExpireNanos < 0 ? writeExpireNanos : accessExpireNanos;
+    }
+
+    private void afterRead(KeyT keyT, Future<ResultT> resultFuture) {
+        if (evictionPolicy == null) {
+            return;
+        }
+        TimedFuture<ResultT> timedFuture = (TimedFuture<ResultT>) resultFuture;
+        if (expireAfterAccessNanos != CacheSetting.NOT_EXPIRE || refreshAfterWriteNanos != CacheSetting.NOT_EXPIRE) {
+            long nowNanos = ticker.getAsLong();
+            if (timedFuture.isDone()) {
+                timedFuture.accessNanos = nowNanos;
+            }
+            refreshIfOld(keyT, timedFuture, nowNanos);
+        }
+        if (readBuffer.offer(keyT) >= ReadBuffer.DRAIN_THRESHOLD && evictionLock.tryLock()) {
+            drainBuffersAndEvict();
+        }
+    }
+
+    private void refreshIfOld(KeyT keyT, TimedFuture<ResultT> timedFuture, long nowNanos) {
+        if (refreshAfterWriteNanos == CacheSetting.NOT_EXPIRE || !timedFuture.isSucceeded()
+                || nowNanos - timedFuture.writeNanos < refreshAfterWriteNanos
+                || !timedFuture.isRefreshing.compareAndSet(false, true)) {
+            return;
+        }
+        CompletableFuture<ResultT> refreshFuture;
+        try {
+            refreshFuture = refreshMethod.apply(keyT);
+        } catch (RuntimeException e) {
+            timedFuture.isRefreshing.set(false);
+            e.printStackTrace();
+            return;
+        }
+        refreshFuture.whenComplete((resultT, throwable) -> {
+            if (throwable != null) {
+                timedFuture.isRefreshing.set(false);
+                return;
+            }
+            TimedFuture<ResultT> refreshedFuture = TimedFuture.completed(resultT, ticker);
+            if (cacheResult.replace(keyT, timedFuture, refreshedFuture)) {
+                afterWrite(keyT, refreshedFuture);
+                notifyRemovalListener(keyT, timedFuture, RemovalCause.REPLACED);
+            } else {
+                notifyRemovalListener(keyT, refreshedFuture, RemovalCause.REPLACED);
+            }
+        });
+    }
+
+    private void afterWrite(KeyT keyT, TimedFuture<ResultT> resultFuture) {
+        if (evictionPolicy != null) {
+            writeBuffer.offer(() -> {
+                SegmentedLruPolicy.Node<KeyT, ResultT> node = evictionPolicy.onWrite(keyT, resultFuture);
+                scheduleExpire(node);
+            });
+            evictionLock.lock();
+            drainBuffersAndEvict();
+        }
+    }
+
+    private void scheduleExpire(SegmentedLruPolicy.Node<KeyT, ResultT> node) {
+        if (timerWheel != null && node != null) {
+            node.expireNanos = expireNanosOf((TimedFuture<ResultT>) node.resultFuture);
+            timerWheel.schedule(node);
+        }
+    }
+
+    /**
+     * Must be called holding the eviction lock, it releases the lock before notifying the removal listener.
+     */
+    private void drainBuffersAndEvict() {
+        List<SegmentedLruPolicy.Node<KeyT, ResultT>> expiredNodes = new ArrayList<>();
+        List<SegmentedLruPolicy.Node<KeyT, ResultT>> victims;
+        try {
+            Runnable writeTask;
+            while ((writeTask = writeBuffer.poll()) != null) {
+                writeTask.run();
+            }
+            readBuffer.drainTo(keyT -> {
+                SegmentedLruPolicy.Node<KeyT, ResultT> node = evictionPolicy.onRead(keyT);
+                if (expireAfterAccessNanos != CacheSetting.NOT_EXPIRE) {
+                    scheduleExpire(node);
+                }
+            });
+            if (timerWheel != null) {
+                long nowNanos = ticker.getAsLong();
+                timerWheel.advance(nowNanos, node -> {
+                    if (isExpired((TimedFuture<ResultT>) node.resultFuture, nowNanos)) {
+                        evictionPolicy.onRemove(node.key, node.resultFuture);
+                        expiredNodes.add(node);
+                    } else {
+                        scheduleExpire(node);
+                    }
+                });
+            }
+            victims = evictionPolicy.evict();
+        } finally {
+            evictionLock.unlock();
+        }
+        for (SegmentedLruPolicy.Node<KeyT, ResultT> expiredNode : expiredNodes) {
+            if (cacheResult.remove(expiredNode.key, expiredNode.resultFuture)) {
+                notifyRemovalListener(expiredNode.key, expiredNode.resultFuture, RemovalCause.EXPIRED);
+            }
+        }
+        for (SegmentedLruPolicy.Node<KeyT, ResultT> victim : victims) {
+            if (cacheResult.remove(victim.key, victim.resultFuture)) {
+                evictionCount.increment();
+                evictionWeight.add(victim.weight);
+                notifyRemovalListener(victim.key, victim.resultFuture, RemovalCause.SIZE);
+            }
+        }
+    }
+
+    private void notifyRemovalListener(KeyT keyT, Future<ResultT> resultFuture, RemovalCause removalCause) {
+        if (removalListener == null) {
+            return;
+        }
+        ResultT resultT = resultFuture.isDone() && !resultFuture.isCancelled() ? getResultWithTryCatch(resultFuture) : null;
+        try {
+            removalListener.onRemoval(keyT, resultT, removalCause);
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Takes the weight of the entry again without counting it as a read, for a result that has grown since it was computed.
+     */
+    public void reweigh(KeyT keyT) {
+        if (evictionPolicy != null) {
+            writeBuffer.offer(() -> evictionPolicy.onReweigh(keyT));
+            evictionLock.lock();
+            drainBuffersAndEvict();
+        }
+    }
+
+    /**
+     * Replays the recorded reads and writes, expires and evicts at once,
+     * this otherwise happens as a side effect of using the cache.
+     */
+    public void cleanUp() {
+        if (evictionPolicy != null) {
+            evictionLock.lock();
+            drainBuffersAndEvict();
+        }
+    }
+
     @Override
     public ResultT getCacheIfExist(KeyT key) {
-        Future<ResultT> resultTFuture = cacheResult.get(key);
+        Future<ResultT> resultTFuture = getUnexpired(key);
         ResultT result = null;
         if (isExistResult(resultTFuture)) {
+            hitCount.increment();
+            afterRead(key, resultTFuture);
             result = getResultWithTryCatch(resultTFuture);
+        } else {
+            missCount.increment();
         }
         return result;
     }
@@ -92,13 +431,86 @@ public class EfficientCacheCompute<KeyT, ResultT> implements Compute<KeyT, Resul
         return cacheResult.keySet();
     }
 
+    /**
+     * Removes the entry of the key, the next compute for it computes again.
+     */
+    @Override
+    public void invalidate(KeyT keyT) {
+        Future<ResultT> resultFuture = cacheResult.get(keyT);
+        if (resultFuture != null && cacheResult.remove(keyT, resultFuture)) {
+            if (evictionPolicy != null) {
+                writeBuffer.offer(() -> evictionPolicy.onRemove(keyT, resultFuture));
+            }
+            notifyRemovalListener(keyT, resultFuture, RemovalCause.EXPLICIT);
+        }
+    }
+
+    /**
+     * Removes the entry of the key only while it holds this very result, so a result that has gone bad
+     * is dropped without dropping a newer one computed meanwhile. An entry still being computed is
+     * removed once its result turns out to be this one.
+     */
+    public void invalidate(KeyT keyT, ResultT resultT) {
+        Future<ResultT> resultFuture = cacheResult.get(keyT);
+        if (resultFuture instanceof TimedFuture) {
+            ((TimedFuture<ResultT>) resultFuture).completion.thenAccept(computed -> {
+                if (computed == resultT && cacheResult.remove(keyT, resultFuture)) {
+                    if (evictionPolicy != null) {
+                        writeBuffer.offer(() -> evictionPolicy.onRemove(keyT, resultFuture));
+                    }
+                    notifyRemovalListener(keyT, resultFuture, RemovalCause.EXPLICIT);
+                }
+            });
+        }
+    }
+
     @Override
     public void clearCache() {
-        cacheResult.clear();
+        if (evictionPolicy != null) {
+            evictionLock.lock();
+            try {
+                writeBuffer.clear();
+                evictionPolicy.clear();
+                if (timerWheel != null) {
+                    timerWheel.clear();
+                }
+            } finally {
+                evictionLock.unlock();
+            }
+        }
+        for (Map.Entry<KeyT, Future<ResultT>> entry : cacheResult.entrySet()) {
+            if (cacheResult.remove(entry.getKey(), entry.getValue())) {
+                notifyRemovalListener(entry.getKey(), entry.getValue(), RemovalCause.EXPLICIT);
+            }
+        }
     }
 
     @Override
     public boolean isEmpty() {
         return cacheResult.isEmpty();
     }
+
+    public long size() {
+        return cacheResult.size();
+    }
+
+    /**
+     * @return the total weight of the entries, as far as the eviction order has caught up with them,
+     * or the number of entries when the cache is unbounded
+     */
+    public long getWeight() {
+        if (evictionPolicy == null) {
+            return cacheResult.size();
+        }
+        evictionLock.lock();
+        try {
+            return evictionPolicy.getTotalWeight();
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    public CacheStats getStats() {
+        return new CacheStats(hitCount.sum(), missCount.sum(), evictionCount.sum(), evictionWeight.sum());
+    }
 }
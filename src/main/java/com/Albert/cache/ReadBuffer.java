@@ -0,0 +1,79 @@
+package com.Albert.cache;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * Records reads of the cache without taking the eviction lock. Readers are spread over striped ring buffers
+ * by thread, and a read that finds its stripe full is dropped: the eviction order only needs a sample of the reads.
+ *
+ * @author Albert
+ */
+class ReadBuffer<KeyT> {
+    private static final int STRIPE_NUM = ceilingPowerOfTwo(Runtime.getRuntime().availableProcessors() * 4);
+    private static final int STRIPE_SIZE = 32;
+    static final int DRAIN_THRESHOLD = STRIPE_SIZE / 2;
+
+    private final Stripe<KeyT>[] stripes;
+
+    @SuppressWarnings("unchecked")
+    ReadBuffer() {
+        stripes = new Stripe[STRIPE_NUM];
+        for (int i = 0; i < STRIPE_NUM; i++) {
+            stripes[i] = new Stripe<>();
+        }
+    }
+
+    /**
+     * @return the number of reads waiting in the stripe, STRIPE_SIZE when this read was dropped
+     */
+    int offer(KeyT key) {
+        return stripes[(int) Thread.currentThread().getId() & (STRIPE_NUM - 1)].offer(key);
+    }
+
+    /**
+     * Must only be called under the eviction lock.
+     */
+    void drainTo(Consumer<KeyT> consumer) {
+        for (Stripe<KeyT> stripe : stripes) {
+            stripe.drainTo(consumer);
+        }
+    }
+
+    private static int ceilingPowerOfTwo(int num) {
+        return 1 << -Integer.numberOfLeadingZeros(num - 1);
+    }
+
+    private static class Stripe<KeyT> {
+        private final AtomicReferenceArray<KeyT> slots = new AtomicReferenceArray<>(STRIPE_SIZE);
+        private final AtomicLong writeCounter = new AtomicLong();
+        private volatile long readCounter;
+
+        int offer(KeyT key) {
+            long writeIndex = writeCounter.get();
+            long waitingNum = writeIndex - readCounter;
+            if (waitingNum >= STRIPE_SIZE || !writeCounter.compareAndSet(writeIndex, writeIndex + 1)) {
+                return STRIPE_SIZE;
+            }
+            slots.lazySet((int) writeIndex & (STRIPE_SIZE - 1), key);
+            return (int) waitingNum + 1;
+        }
+
+        void drainTo(Consumer<KeyT> consumer) {
+            long readIndex = readCounter;
+            long writeIndex = writeCounter.get();
+            while (readIndex < writeIndex) {
+                int slot = (int) readIndex & (STRIPE_SIZE - 1);
+                KeyT key = slots.get(slot);
+                if (key == null) {
+                    break;
+                }
+                slots.lazySet(slot, null);
+                consumer.accept(key);
+                readIndex++;
+            }
+            readCounter = readIndex;
+        }
+    }
+}
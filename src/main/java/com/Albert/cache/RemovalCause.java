@@ -0,0 +1,24 @@
+package com.Albert.cache;
+
+/**
+ * @author Albert
+ */
+public enum RemovalCause {
+    /**
+     * The cache went over its bound.
+     */
+    SIZE,
+    /**
+     * The entry lived longer than its expire-after-write or expire-after-access time.
+     */
+    EXPIRED,
+    /**
+     * A refresh has put a new result in place of the old one, or its new result was dropped
+     * because the entry was removed or computed again meanwhile.
+     */
+    REPLACED,
+    /**
+     * The cache was cleared.
+     */
+    EXPLICIT
+}
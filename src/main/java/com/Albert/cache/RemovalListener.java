@@ -0,0 +1,13 @@
+package com.Albert.cache;
+
+/**
+ * Runs after an entry has left the cache, on the thread that removed it. It must not block.
+ * The result is null when its computation had not produced one.
+ *
+ * @author Albert
+ */
+@FunctionalInterface
+public interface RemovalListener<KeyT, ResultT> {
+
+    void onRemoval(KeyT key, ResultT result, RemovalCause removalCause);
+}
@@ -0,0 +1,215 @@
+package com.Albert.cache;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+/**
+ * Segmented LRU eviction order. A new entry starts on probation and is only protected once it is read again,
+ * so a scan over many keys that are each read once evicts other probation entries and leaves the hot keys alone.
+ * <p>
+ * A cache that is not bounded uses it with an unlimited weight, only to keep the nodes its timer wheel needs.
+ * Not thread safe, it is only used under the eviction lock of {@link EfficientCacheCompute}.
+ *
+ * @author Albert
+ */
+class SegmentedLruPolicy<KeyT, ResultT> {
+    private static final double PROTECTED_RATIO = 0.8;
+
+    private final long maximumWeight;
+    private final long maximumProtectedWeight;
+    private final Weigher<KeyT, ResultT> weigher;
+    private final Map<KeyT, Node<KeyT, ResultT>> nodes = new HashMap<>();
+    private final Node<KeyT, ResultT> probation = Node.sentinel();
+    private final Node<KeyT, ResultT> protect = Node.sentinel();
+    private long totalWeight;
+    private long protectedWeight;
+
+    SegmentedLruPolicy(long maximumWeight, Weigher<KeyT, ResultT> weigher) {
+        this.maximumWeight = maximumWeight;
+        this.maximumProtectedWeight = (long) (maximumWeight * PROTECTED_RATIO);
+        this.weigher = weigher;
+    }
+
+    Node<KeyT, ResultT> onWrite(KeyT key, Future<ResultT> resultFuture) {
+        onRemove(key);
+        Node<KeyT, ResultT> node = new Node<>(key, resultFuture);
+        nodes.put(key, node);
+        node.isProtected = false;
+        node.linkBefore(probation);
+        reweigh(node);
+        return node;
+    }
+
+    /**
+     * @return the node of the key, or null when it is not cached any more
+     */
+    Node<KeyT, ResultT> onRead(KeyT key) {
+        Node<KeyT, ResultT> node = nodes.get(key);
+        if (node == null) {
+            return null;
+        }
+        node.unlink();
+        if (!node.isProtected) {
+            node.isProtected = true;
+            protectedWeight += node.weight;
+        }
+        node.linkBefore(protect);
+        reweigh(node);
+        demoteProtectedOverflow();
+        return node;
+    }
+
+    void onReweigh(KeyT key) {
+        Node<KeyT, ResultT> node = nodes.get(key);
+        if (node != null) {
+            reweigh(node);
+            demoteProtectedOverflow();
+        }
+    }
+
+    /**
+     * Forgets the key whatever future it had.
+     */
+    void onRemove(KeyT key) {
+        Node<KeyT, ResultT> node = nodes.remove(key);
+        if (node != null) {
+            unlinkAndForgetWeight(node);
+        }
+    }
+
+    /**
+     * @return true when the key was still cached with this future
+     */
+    boolean onRemove(KeyT key, Future<ResultT> resultFuture) {
+        Node<KeyT, ResultT> node = nodes.get(key);
+        if (node != null && node.resultFuture == resultFuture) {
+            nodes.remove(key);
+            unlinkAndForgetWeight(node);
+            return true;
+        }
+        return false;
+    }
+
+    private void unlinkAndForgetWeight(Node<KeyT, ResultT> node) {
+        node.unlink();
+        node.unlinkTimer();
+        totalWeight -= node.weight;
+        if (node.isProtected) {
+            protectedWeight -= node.weight;
+        }
+    }
+
+    private void reweigh(Node<KeyT, ResultT> node) {
+        long newWeight = weightOf(node);
+        totalWeight += newWeight - node.weight;
+        if (node.isProtected) {
+            protectedWeight += newWeight - node.weight;
+        }
+        node.weight = newWeight;
+    }
+
+    private long weightOf(Node<KeyT, ResultT> node) {
+        if (!node.resultFuture.isDone()) {
+            return node.weight;
+        }
+        try {
+            ResultT result = node.resultFuture.get();
+            return result == null ? 0 : weigher.weigh(node.key, result);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return node.weight;
+        } catch (ExecutionException e) {
+            return 0;
+        }
+    }
+
+    private void demoteProtectedOverflow() {
+        while (protectedWeight > maximumProtectedWeight && protect.next != protect) {
+            Node<KeyT, ResultT> oldest = protect.next;
+            oldest.unlink();
+            oldest.isProtected = false;
+            protectedWeight -= oldest.weight;
+            oldest.linkBefore(probation);
+        }
+    }
+
+    /**
+     * @return the entries taken out to bring the cache back under its maximum weight, oldest first
+     */
+    List<Node<KeyT, ResultT>> evict() {
+        List<Node<KeyT, ResultT>> victims = new ArrayList<>();
+        while (totalWeight > maximumWeight) {
+            Node<KeyT, ResultT> victim = probation.next != probation ? probation.next : protect.next;
+            if (victim == protect) {
+                break;
+            }
+            nodes.remove(victim.key);
+            unlinkAndForgetWeight(victim);
+            victims.add(victim);
+        }
+        return victims;
+    }
+
+    void clear() {
+        nodes.clear();
+        probation.next = probation.previous = probation;
+        protect.next = protect.previous = protect;
+        totalWeight = 0;
+        protectedWeight = 0;
+    }
+
+    long getTotalWeight() {
+        return totalWeight;
+    }
+
+    static class Node<KeyT, ResultT> {
+        final KeyT key;
+        final Future<ResultT> resultFuture;
+        long weight;
+        boolean isProtected;
+        Node<KeyT, ResultT> previous = this;
+        Node<KeyT, ResultT> next = this;
+        long expireNanos;
+        Node<KeyT, ResultT> timerPrevious = this;
+        Node<KeyT, ResultT> timerNext = this;
+
+        Node(KeyT key, Future<ResultT> resultFuture) {
+            this.key = key;
+            this.resultFuture = resultFuture;
+        }
+
+        static <KeyT, ResultT> Node<KeyT, ResultT> sentinel() {
+            return new Node<>(null, null);
+        }
+
+        void linkBefore(Node<KeyT, ResultT> sentinel) {
+            previous = sentinel.previous;
+            next = sentinel;
+            sentinel.previous.next = this;
+            sentinel.previous = this;
+        }
+
+        void unlink() {
+            previous.next = next;
+            next.previous = previous;
+            previous = next = this;
+        }
+
+        void linkTimerBefore(Node<KeyT, ResultT> sentinel) {
+            timerPrevious = sentinel.timerPrevious;
+            timerNext = sentinel;
+            sentinel.timerPrevious.timerNext = this;
+            sentinel.timerPrevious = this;
+        }
+
+        void unlinkTimer() {
+            timerPrevious.timerNext = timerNext;
+            timerNext.timerPrevious = timerPrevious;
+            timerPrevious = timerNext = this;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.Albert.cache;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongSupplier;
+
+/**
+ * A cached computation that remembers when it finished and when it was last read,
+ * and completes a {@link CompletableFuture} for the callers that do not want to wait for it.
+ *
+ * @author Albert
+ */
+class TimedFuture<ResultT> extends FutureTask<ResultT> {
+    private final LongSupplier ticker;
+    private volatile boolean isSucceeded = false;
+    volatile long writeNanos;
+    volatile long accessNanos;
+    final AtomicBoolean isRefreshing = new AtomicBoolean(false);
+    final CompletableFuture<ResultT> completion = new CompletableFuture<>();
+
+    TimedFuture(Callable<ResultT> callable, LongSupplier ticker) {
+        super(callable);
+        this.ticker = ticker;
+    }
+
+    static <ResultT> TimedFuture<ResultT> completed(ResultT resultT, LongSupplier ticker) {
+        TimedFuture<ResultT> timedFuture = new TimedFuture<>(() -> resultT, ticker);
+        timedFuture.run();
+        return timedFuture;
+    }
+
+    @Override
+    protected void set(ResultT resultT) {
+        isSucceeded = true;
+        super.set(resultT);
+    }
+
+    @Override
+    protected void done() {
+        long nowNanos = ticker.getAsLong();
+        writeNanos = nowNanos;
+        accessNanos = nowNanos;
+        if (isCancelled()) {
+            completion.cancel(false);
+            return;
+        }
+        try {
+            completion.complete(get());
+        } catch (ExecutionException e) {
+            completion.completeExceptionally(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            completion.completeExceptionally(e);
+        }
+    }
+
+    boolean isSucceeded() {
+        return isSucceeded && isDone();
+    }
+
+    /**
+     * @return true when the computation threw or was cancelled
+     */
+    boolean isFailed() {
+        return isDone() && !isSucceeded;
+    }
+}
@@ -0,0 +1,94 @@
+package com.Albert.cache;
+
+import java.util.function.Consumer;
+
+/**
+ * A hierarchical timing wheel over the entries of a cache, so expired entries are found
+ * without scanning the cache. The lowest level has buckets of about a second, every higher level
+ * holds whole turns of the level below and hands its entries down as time reaches them.
+ * <p>
+ * An entry may fire up to one bucket late, or early after its time has been moved back by a read
+ * the wheel did not see, so whoever receives a fired entry checks its time again.
+ * Not thread safe, it is only used under the eviction lock of {@link EfficientCacheCompute}.
+ *
+ * @author Albert
+ */
+class TimerWheel<KeyT, ResultT> {
+    private static final int[] BUCKET_NUMS = {64, 64, 32, 4, 1};
+    private static final int[] SHIFTS = {30, 36, 42, 46, 50};
+
+    private final SegmentedLruPolicy.Node<KeyT, ResultT>[][] wheel;
+    private long nanos;
+
+    @SuppressWarnings("unchecked")
+    TimerWheel(long nowNanos) {
+        this.nanos = nowNanos;
+        this.wheel = new SegmentedLruPolicy.Node[BUCKET_NUMS.length][];
+        for (int level = 0; level < BUCKET_NUMS.length; level++) {
+            wheel[level] = new SegmentedLruPolicy.Node[BUCKET_NUMS[level]];
+            for (int bucket = 0; bucket < BUCKET_NUMS[level]; bucket++) {
+                wheel[level][bucket] = SegmentedLruPolicy.Node.sentinel();
+            }
+        }
+    }
+
+    void schedule(SegmentedLruPolicy.Node<KeyT, ResultT> node) {
+        node.unlinkTimer();
+        node.linkTimerBefore(bucketOf(node.expireNanos));
+    }
+
+    private SegmentedLruPolicy.Node<KeyT, ResultT> bucketOf(long expireNanos) {
+        long duration = expireNanos - nanos;
+        for (int level = 0; level < BUCKET_NUMS.length - 1; level++) {
+            if (duration < 1L << SHIFTS[level + 1]) {
+                long ticks = expireNanos >>> SHIFTS[level];
+                return wheel[level][(int) (ticks & (BUCKET_NUMS[level] - 1))];
+            }
+        }
+        return wheel[BUCKET_NUMS.length - 1][0];
+    }
+
+    /**
+     * Moves the wheel to the current time and hands every entry whose time has come to onFire.
+     */
+    void advance(long nowNanos, Consumer<SegmentedLruPolicy.Node<KeyT, ResultT>> onFire) {
+        long previousNanos = nanos;
+        nanos = nowNanos;
+        for (int level = 0; level < BUCKET_NUMS.length; level++) {
+            long previousTicks = previousNanos >>> SHIFTS[level];
+            long ticks = nowNanos >>> SHIFTS[level];
+            if (ticks - previousTicks <= 0) {
+                break;
+            }
+            fireBuckets(level, previousTicks, ticks - previousTicks, onFire);
+        }
+    }
+
+    private void fireBuckets(int level, long previousTicks, long passedTicks, Consumer<SegmentedLruPolicy.Node<KeyT, ResultT>> onFire) {
+        int bucketNum = BUCKET_NUMS[level];
+        long firedBucketNum = Math.min(passedTicks, bucketNum);
+        for (long tick = previousTicks; tick < previousTicks + firedBucketNum; tick++) {
+            SegmentedLruPolicy.Node<KeyT, ResultT> sentinel = wheel[level][(int) (tick & (bucketNum - 1))];
+            SegmentedLruPolicy.Node<KeyT, ResultT> node = sentinel.timerNext;
+            sentinel.timerNext = sentinel.timerPrevious = sentinel;
+            while (node != sentinel) {
+                SegmentedLruPolicy.Node<KeyT, ResultT> next = node.timerNext;
+                node.timerPrevious = node.timerNext = node;
+                if (node.expireNanos - nanos <= 0) {
+                    onFire.accept(node);
+                } else {
+                    schedule(node);
+                }
+                node = next;
+            }
+        }
+    }
+
+    void clear() {
+        for (SegmentedLruPolicy.Node<KeyT, ResultT>[] buckets : wheel) {
+            for (SegmentedLruPolicy.Node<KeyT, ResultT> sentinel : buckets) {
+                sentinel.timerNext = sentinel.timerPrevious = sentinel;
+            }
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.Albert.cache;
+
+/**
+ * The weight of a cached result, e.g. the number of results it holds. A weight must not be negative.
+ *
+ * @author Albert
+ */
+@FunctionalInterface
+public interface Weigher<KeyT, ResultT> {
+
+    long weigh(KeyT key, ResultT result);
+}
@@ -0,0 +1,54 @@
+package com.Albert.catalog;
+
+import com.Albert.match.NameMatcher;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A recorded directory listing, read straight from the mapped catalog.
+ *
+ * @author Albert
+ */
+public class CatalogDirectory {
+    private final FileCatalog fileCatalog;
+    private final ByteBuffer mappedCatalog;
+    private final int childrenOffset;
+    private final long lastModified;
+    private final int childNum;
+
+    CatalogDirectory(FileCatalog fileCatalog, ByteBuffer mappedCatalog, int recordOffset) {
+        this.fileCatalog = fileCatalog;
+        this.mappedCatalog = mappedCatalog;
+        int lastModifiedOffset = recordOffset + 1 + Integer.BYTES;
+        this.lastModified = mappedCatalog.getLong(lastModifiedOffset);
+        this.childNum = mappedCatalog.getInt(lastModifiedOffset + Long.BYTES);
+        this.childrenOffset = lastModifiedOffset + Long.BYTES + Integer.BYTES;
+    }
+
+    public long getLastModified() {
+        return lastModified;
+    }
+
+    public int getChildNum() {
+        return childNum;
+    }
+
+    public String getChildName(int index) {
+        return fileCatalog.readName(childWord(index) >>> 1);
+    }
+
+    public boolean isChildNameMatched(int index, NameMatcher nameMatcher) {
+        return fileCatalog.isNameMatched(childWord(index) >>> 1, nameMatcher);
+    }
+
+    public boolean isChildDirectory(int index) {
+        return (childWord(index) & 1) == 1;
+    }
+
+    private int childWord(int index) {
+        if (index < 0 || index >= childNum) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + childNum);
+        }
+        return mappedCatalog.getInt(childrenOffset + index * Integer.BYTES);
+    }
+}
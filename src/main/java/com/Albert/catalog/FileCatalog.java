@@ -0,0 +1,451 @@
+package com.Albert.catalog;
+
+import com.Albert.match.NameMatcher;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * An on-disk snapshot of directory listings that survives restarts.
+ * <p>
+ * The file is an append-only log of records. Every file name and every directory path is interned once:
+ * a path is stored as its parent's id plus the id of its last name, and a directory listing stores its
+ * children as an array of name ids. The listings and the name bytes are read from the memory-mapped file,
+ * the heap holds the index of every distinct name and every directory path, as strings, and the offset of each record.
+ * The latest listing of a directory wins. A torn record at the end, left by a crash, is cut off when opening.
+ * <p>
+ * The file is mapped in chunks of at most 1GB, a record never crosses the border of a chunk, and only the last chunk
+ * is mapped again as the file grows. Lookups and matching never lock, only appending a listing does.
+ *
+ * @author Albert
+ */
+public class FileCatalog implements AutoCloseable {
+    private static final byte[] MAGIC = "RSCATLG2".getBytes(StandardCharsets.US_ASCII);
+    private static final int HEADER_SIZE = MAGIC.length + Integer.BYTES;
+    private static final int DEFAULT_CHUNK_SIZE = 1 << 30;
+    private static final byte PADDING = 0;
+    private static final byte NAME_RECORD = 1;
+    private static final byte PATH_RECORD = 2;
+    private static final byte DIRECTORY_RECORD = 3;
+    private static final int NO_PARENT = -1;
+    private static final int NOT_LISTED = -1;
+
+    private final FileChannel channel;
+    private final Map<String, Integer> nameIds = new ConcurrentHashMap<>();
+    private final Map<String, Integer> pathIds = new ConcurrentHashMap<>();
+    private final Object mapLock = new Object();
+    private int chunkSize;
+    private volatile long[] nameOffsets = new long[64];
+    private volatile int nameNum;
+    private volatile AtomicLongArray directoryOffsets = new AtomicLongArray(64);
+    private volatile int pathNum;
+    private volatile Mapping mapping;
+    private volatile long catalogSize;
+
+    private FileCatalog(FileChannel channel) {
+        this.channel = channel;
+    }
+
+    public static FileCatalog open(Path catalogFile) throws IOException {
+        return open(catalogFile, DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * @param chunkSize only used for a new catalog, an existing one keeps the chunk size it was created with
+     */
+    static FileCatalog open(Path catalogFile, int chunkSize) throws IOException {
+        FileChannel channel = FileChannel.open(catalogFile, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        FileCatalog fileCatalog = new FileCatalog(channel);
+        try {
+            fileCatalog.load(chunkSize);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+        return fileCatalog;
+    }
+
+    private void load(int newChunkSize) throws IOException {
+        if (channel.size() == 0) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).put(MAGIC).putInt(newChunkSize);
+            header.flip();
+            channel.write(header, 0);
+        }
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        channel.read(header, 0);
+        header.flip();
+        byte[] magic = new byte[MAGIC.length];
+        if (header.remaining() < HEADER_SIZE || !Arrays.equals(MAGIC, readBytes(header, magic))) {
+            throw new IOException("Not a file catalog");
+        }
+        chunkSize = header.getInt();
+        if (chunkSize < HEADER_SIZE) {
+            throw new IOException("Wrong chunk size " + chunkSize);
+        }
+        catalogSize = channel.size();
+        mapping = new Mapping(new MappedByteBuffer[0], 0).extendedTo(catalogSize);
+        long lastCompleteOffset = loadRecords();
+        if (lastCompleteOffset < catalogSize) {
+            channel.truncate(lastCompleteOffset);
+            catalogSize = lastCompleteOffset;
+            mapping = new Mapping(new MappedByteBuffer[0], 0).extendedTo(catalogSize);
+        }
+    }
+
+    private static byte[] readBytes(ByteBuffer buffer, byte[] bytes) {
+        buffer.get(bytes);
+        return bytes;
+    }
+
+    /**
+     * The full paths are only needed to rebuild the path index, they are dropped once the catalog is loaded.
+     * Padding only ever precedes a record in the next chunk, so padding in the last chunk is a torn write as well.
+     */
+    private long loadRecords() {
+        List<String> paths = new ArrayList<>();
+        long lastCompleteOffset = HEADER_SIZE;
+        try {
+            for (int chunkIndex = 0; chunkIndex < mapping.chunks.length; chunkIndex++) {
+                ByteBuffer chunk = mapping.chunks[chunkIndex].duplicate();
+                long chunkStart = (long) chunkIndex * chunkSize;
+                chunk.position((int) (lastCompleteOffset - chunkStart));
+                while (chunk.hasRemaining()) {
+                    if (!loadRecord(chunk, chunkStart, paths)) {
+                        if (chunkIndex == mapping.chunks.length - 1) {
+                            return lastCompleteOffset;
+                        }
+                        break;
+                    }
+                    lastCompleteOffset = chunkStart + chunk.position();
+                }
+                lastCompleteOffset = Math.min(chunkStart + chunkSize, catalogSize);
+            }
+        } catch (RuntimeException e) {
+            return lastCompleteOffset;
+        }
+        return lastCompleteOffset;
+    }
+
+    /**
+     * @return false at the padding that fills up the rest of a chunk
+     */
+    private boolean loadRecord(ByteBuffer chunk, long chunkStart, List<String> paths) {
+        byte recordType = chunk.get();
+        if (recordType == NAME_RECORD) {
+            long nameOffset = chunkStart + chunk.position();
+            byte[] name = new byte[chunk.getInt()];
+            chunk.get(name);
+            addName(new String(name, StandardCharsets.UTF_8), nameOffset);
+        } else if (recordType == PATH_RECORD) {
+            int parentId = chunk.getInt();
+            int nameId = chunk.getInt();
+            String name = readName(nameId);
+            String path = parentId == NO_PARENT ? name : new File(paths.get(parentId), name).getPath();
+            addPath(path);
+            paths.add(path);
+        } else if (recordType == DIRECTORY_RECORD) {
+            long directoryOffset = chunkStart + chunk.position() - 1;
+            int pathId = chunk.getInt();
+            chunk.getLong();
+            int childNum = chunk.getInt();
+            chunk.position(chunk.position() + childNum * Integer.BYTES);
+            directoryOffsets.set(pathId, directoryOffset);
+        } else if (recordType == PADDING) {
+            return false;
+        } else {
+            throw new IllegalStateException("Unknown record type " + recordType);
+        }
+        return true;
+    }
+
+    /**
+     * @return the latest recorded listing of the directory, or null if it was never recorded
+     */
+    public CatalogDirectory lookup(String directoryPath) {
+        Integer pathId = pathIds.get(directoryPath);
+        if (pathId == null) {
+            return null;
+        }
+        long directoryOffset = directoryOffsets.get(pathId);
+        if (directoryOffset == NOT_LISTED) {
+            return null;
+        }
+        return new CatalogDirectory(this, chunkCovering(directoryOffset), offsetInChunk(directoryOffset));
+    }
+
+    String readName(int nameId) {
+        long nameOffset = nameOffsets[nameId];
+        ByteBuffer chunk = chunkCovering(nameOffset);
+        int offset = offsetInChunk(nameOffset);
+        byte[] name = new byte[chunk.getInt(offset)];
+        for (int i = 0; i < name.length; i++) {
+            name[i] = chunk.get(offset + Integer.BYTES + i);
+        }
+        return new String(name, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Matches the stored UTF-8 bytes of the name, no String is built for a name that does not match.
+     */
+    boolean isNameMatched(int nameId, NameMatcher nameMatcher) {
+        long nameOffset = nameOffsets[nameId];
+        ByteBuffer chunk = chunkCovering(nameOffset);
+        int offset = offsetInChunk(nameOffset);
+        return nameMatcher.matchesUtf8(chunk, offset + Integer.BYTES, chunk.getInt(offset));
+    }
+
+    private int offsetInChunk(long offset) {
+        return (int) (offset % chunkSize);
+    }
+
+    /**
+     * Only a reader that needs a record appended after the last mapping waits, to map the chunks that have grown.
+     */
+    private ByteBuffer chunkCovering(long offset) {
+        Mapping currentMapping = mapping;
+        if (offset >= currentMapping.size) {
+            synchronized (mapLock) {
+                currentMapping = mapping;
+                if (offset >= currentMapping.size) {
+                    currentMapping = currentMapping.extendedTo(catalogSize);
+                    mapping = currentMapping;
+                }
+            }
+        }
+        return currentMapping.chunks[(int) (offset / chunkSize)];
+    }
+
+    /**
+     * Appends the listing of a directory, it replaces any earlier listing of the same directory.
+     * The new names and paths only join the index once all of their records are written.
+     */
+    public synchronized void record(String directoryPath, long lastModified, List<String> childNames, List<Boolean> isChildDirectory) throws IOException {
+        RecordWriter recordWriter = new RecordWriter();
+        int pathId = internPath(directoryPath, recordWriter);
+        int[] childWords = new int[childNames.size()];
+        for (int i = 0; i < childWords.length; i++) {
+            childWords[i] = internName(childNames.get(i), recordWriter) << 1 | (isChildDirectory.get(i) ? 1 : 0);
+        }
+        int directoryOffsetInRecords = recordWriter.size();
+        recordWriter.writeDirectory(pathId, lastModified, childWords);
+        long recordsOffset = append(recordWriter.toByteBuffer());
+        for (int i = 0; i < recordWriter.stagedNames.size(); i++) {
+            addName(recordWriter.stagedNames.get(i), recordsOffset + recordWriter.stagedNameOffsets.get(i));
+        }
+        for (String path : recordWriter.stagedPaths) {
+            addPath(path);
+        }
+        directoryOffsets.set(pathId, recordsOffset + directoryOffsetInRecords);
+    }
+
+    private int internPath(String path, RecordWriter recordWriter) {
+        Integer pathId = pathIds.get(path);
+        if (pathId == null) {
+            pathId = recordWriter.stagedPathIds.get(path);
+        }
+        if (pathId != null) {
+            return pathId;
+        }
+        File file = new File(path);
+        String parent = file.getParent();
+        int parentId = parent == null ? NO_PARENT : internPath(parent, recordWriter);
+        int nameId = internName(parent == null ? path : file.getName(), recordWriter);
+        recordWriter.writePath(parentId, nameId);
+        pathId = pathNum + recordWriter.stagedPaths.size();
+        recordWriter.stagedPathIds.put(path, pathId);
+        recordWriter.stagedPaths.add(path);
+        return pathId;
+    }
+
+    private int internName(String name, RecordWriter recordWriter) {
+        Integer nameId = nameIds.get(name);
+        if (nameId == null) {
+            nameId = recordWriter.stagedNameIds.get(name);
+        }
+        if (nameId != null) {
+            return nameId;
+        }
+        nameId = nameNum + recordWriter.stagedNames.size();
+        recordWriter.stagedNameOffsets.add(recordWriter.size() + 1L);
+        recordWriter.writeName(name);
+        recordWriter.stagedNameIds.put(name, nameId);
+        recordWriter.stagedNames.add(name);
+        return nameId;
+    }
+
+    /**
+     * The offset of a name is set before its id is published, so a reader that sees the id also sees the offset.
+     */
+    private void addName(String name, long nameOffset) {
+        int nameId = nameNum;
+        if (nameId == nameOffsets.length) {
+            nameOffsets = Arrays.copyOf(nameOffsets, nameId * 2);
+        }
+        nameOffsets[nameId] = nameOffset;
+        nameNum = nameId + 1;
+        nameIds.put(name, nameId);
+    }
+
+    private void addPath(String path) {
+        int pathId = pathNum;
+        AtomicLongArray offsets = directoryOffsets;
+        if (pathId == offsets.length()) {
+            AtomicLongArray larger = new AtomicLongArray(pathId * 2);
+            for (int i = 0; i < pathId; i++) {
+                larger.set(i, offsets.get(i));
+            }
+            offsets = larger;
+            directoryOffsets = larger;
+        }
+        offsets.set(pathId, NOT_LISTED);
+        pathNum = pathId + 1;
+        pathIds.put(path, pathId);
+    }
+
+    /**
+     * Records that do not fit into the rest of the current chunk start at the next one, the gap reads as padding.
+     * A failed write is cut off again, so the file never keeps records the index does not know.
+     *
+     * @return the offset of the first record
+     */
+    private long append(ByteBuffer records) throws IOException {
+        if (records.remaining() > chunkSize) {
+            throw new IOException("A listing of " + records.remaining() + " bytes does not fit into a chunk of " + chunkSize + " bytes");
+        }
+        long recordsOffset = catalogSize;
+        long nextChunkStart = (recordsOffset / chunkSize + 1) * chunkSize;
+        if (recordsOffset + records.remaining() > nextChunkStart) {
+            recordsOffset = nextChunkStart;
+        }
+        long position = recordsOffset;
+        try {
+            while (records.hasRemaining()) {
+                position += channel.write(records, position);
+            }
+        } catch (IOException e) {
+            try {
+                channel.truncate(catalogSize);
+            } catch (IOException truncateException) {
+                e.addSuppressed(truncateException);
+            }
+            throw e;
+        }
+        catalogSize = position;
+        return recordsOffset;
+    }
+
+    public int getDirectoryNum() {
+        int currentPathNum = pathNum;
+        AtomicLongArray offsets = directoryOffsets;
+        int directoryNum = 0;
+        for (int i = 0; i < currentPathNum; i++) {
+            if (offsets.get(i) != NOT_LISTED) {
+                directoryNum++;
+            }
+        }
+        return directoryNum;
+    }
+
+    public synchronized void flush() throws IOException {
+        channel.force(false);
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        channel.force(false);
+        channel.close();
+    }
+
+    /**
+     * The chunks mapped so far, the last one may cover only part of its chunk.
+     */
+    private class Mapping {
+        final MappedByteBuffer[] chunks;
+        final long size;
+
+        Mapping(MappedByteBuffer[] chunks, long size) {
+            this.chunks = chunks;
+            this.size = size;
+        }
+
+        /**
+         * Keeps the full chunks and maps the ones from the last partly mapped chunk on.
+         */
+        Mapping extendedTo(long newSize) {
+            int chunkNum = (int) ((newSize + chunkSize - 1) / chunkSize);
+            MappedByteBuffer[] newChunks = Arrays.copyOf(chunks, chunkNum);
+            for (int chunkIndex = (int) (size / chunkSize); chunkIndex < chunkNum; chunkIndex++) {
+                long chunkStart = (long) chunkIndex * chunkSize;
+                try {
+                    newChunks[chunkIndex] = channel.map(FileChannel.MapMode.READ_ONLY, chunkStart, Math.min(chunkSize, newSize - chunkStart));
+                } catch (IOException e) {
+                    throw new IllegalStateException("Can not map the file catalog", e);
+                }
+            }
+            return new Mapping(newChunks, newSize);
+        }
+    }
+
+    /**
+     * Collects the records of one listing together with the names and paths they introduce,
+     * which are only added to the index after the records have been written.
+     */
+    private static class RecordWriter {
+        private ByteBuffer records = ByteBuffer.allocate(256);
+        private final Map<String, Integer> stagedNameIds = new HashMap<>();
+        private final List<String> stagedNames = new ArrayList<>();
+        private final List<Long> stagedNameOffsets = new ArrayList<>();
+        private final Map<String, Integer> stagedPathIds = new HashMap<>();
+        private final List<String> stagedPaths = new ArrayList<>();
+
+        int size() {
+            return records.position();
+        }
+
+        void writeName(String name) {
+            byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8);
+            ensureRemaining(1 + Integer.BYTES + nameBytes.length);
+            records.put(NAME_RECORD).putInt(nameBytes.length).put(nameBytes);
+        }
+
+        void writePath(int parentId, int nameId) {
+            ensureRemaining(1 + 2 * Integer.BYTES);
+            records.put(PATH_RECORD).putInt(parentId).putInt(nameId);
+        }
+
+        void writeDirectory(int pathId, long lastModified, int[] childWords) {
+            ensureRemaining(1 + Integer.BYTES + Long.BYTES + Integer.BYTES + childWords.length * Integer.BYTES);
+            records.put(DIRECTORY_RECORD).putInt(pathId).putLong(lastModified).putInt(childWords.length);
+            for (int childWord : childWords) {
+                records.putInt(childWord);
+            }
+        }
+
+        private void ensureRemaining(int length) {
+            if (records.remaining() < length) {
+                ByteBuffer larger = ByteBuffer.allocate(Math.max(records.capacity() * 2, records.position() + length));
+                records.flip();
+                larger.put(records);
+                records = larger;
+            }
+        }
+
+        ByteBuffer toByteBuffer() {
+            records.flip();
+            return records;
+        }
+    }
+}
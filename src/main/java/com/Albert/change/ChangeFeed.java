@@ -0,0 +1,39 @@
+package com.Albert.change;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * A source of changes of the search space, used to patch cached results instead of clearing them.
+ *
+ * @author Albert
+ */
+public interface ChangeFeed<PathT> extends AutoCloseable {
+
+    /**
+     * Starts reporting changes of the children of the node. A node may be watched by several callers,
+     * it stays watched until every watch that returned true has been undone by {@link #unwatch(Object)}.
+     *
+     * @return false when the node can not be watched, e.g. because the platform's limit of watches is reached,
+     * so changes of its children will be missed
+     */
+    boolean watch(PathT node);
+
+    /**
+     * Undoes one watch of the node, the last one stops reporting its changes and frees what the platform holds for it.
+     */
+    void unwatch(PathT node);
+
+    /**
+     * The listener receives the changes in batches, on a thread of the feed.
+     */
+    void setChangeListener(Consumer<List<NodeChange<PathT>>> changeListener);
+
+    /**
+     * @return the node the node is a child of, or null for a root
+     */
+    PathT parentOf(PathT node);
+
+    @Override
+    void close();
+}
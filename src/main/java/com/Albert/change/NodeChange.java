@@ -0,0 +1,44 @@
+package com.Albert.change;
+
+/**
+ * A change of one child of a node that the search has visited.
+ * An {@link Kind#OVERFLOW} change means events were lost and has neither parent nor child.
+ *
+ * @author Albert
+ */
+public class NodeChange<PathT> {
+    public enum Kind {
+        CREATED, DELETED, MODIFIED, OVERFLOW
+    }
+
+    private final Kind kind;
+    private final PathT parent;
+    private final PathT child;
+
+    public NodeChange(Kind kind, PathT parent, PathT child) {
+        this.kind = kind;
+        this.parent = parent;
+        this.child = child;
+    }
+
+    public static <PathT> NodeChange<PathT> overflow() {
+        return new NodeChange<>(Kind.OVERFLOW, null, null);
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    public PathT getParent() {
+        return parent;
+    }
+
+    public PathT getChild() {
+        return child;
+    }
+
+    @Override
+    public String toString() {
+        return kind + " " + child + " in " + parent;
+    }
+}
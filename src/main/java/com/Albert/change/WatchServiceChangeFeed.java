@@ -0,0 +1,191 @@
+package com.Albert.change;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.NotDirectoryException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Reports the changes of watched directories through a {@link WatchService}, on one daemon thread.
+ * Every directory is watched on its own, a platform usually limits how many directories can be watched,
+ * so a directory is counted by how many callers watch it and given back to the platform once the last one unwatched it.
+ *
+ * @author Albert
+ */
+public class WatchServiceChangeFeed<PathT> implements ChangeFeed<PathT> {
+    private final WatchService watchService;
+    private final Function<PathT, Path> toPath;
+    private final Function<Path, PathT> fromPath;
+    private final Map<Path, Watch> watches = new ConcurrentHashMap<>();
+    private final Map<WatchKey, PathT> watchedNodes = new ConcurrentHashMap<>();
+    private final Thread pollThread;
+    private volatile Consumer<List<NodeChange<PathT>>> changeListener = changes -> {
+    };
+
+    private WatchServiceChangeFeed(Function<PathT, Path> toPath, Function<Path, PathT> fromPath) throws IOException {
+        this.watchService = FileSystems.getDefault().newWatchService();
+        this.toPath = toPath;
+        this.fromPath = fromPath;
+        this.pollThread = new Thread(this::pollChanges, "recurrent-search-change-feed");
+        this.pollThread.setDaemon(true);
+        this.pollThread.start();
+    }
+
+    /**
+     * For search models whose paths are file names, like {@link com.Albert.searchModel.DesktopSearchModel}.
+     */
+    public static WatchServiceChangeFeed<String> forStringPaths() throws IOException {
+        return new WatchServiceChangeFeed<>(Paths::get, Path::toString);
+    }
+
+    public static WatchServiceChangeFeed<Path> forPaths() throws IOException {
+        return new WatchServiceChangeFeed<>(Function.identity(), Function.identity());
+    }
+
+    /**
+     * A directory that can not be registered, e.g. once the inotify watch limit is reached, reports false
+     * every time it is watched again. A node that is gone or is no directory reports true without being counted.
+     */
+    @Override
+    public boolean watch(PathT node) {
+        Path directory = toPath.apply(node);
+        boolean[] isWatched = {true};
+        watches.compute(directory, (watchedDirectory, watch) -> {
+            if (watch != null) {
+                watch.count++;
+                return watch;
+            }
+            try {
+                WatchKey watchKey = watchedDirectory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                        StandardWatchEventKinds.ENTRY_DELETE, StandardWatchEventKinds.ENTRY_MODIFY);
+                watchedNodes.put(watchKey, node);
+                return new Watch(watchKey);
+            } catch (NoSuchFileException | NotDirectoryException e) {
+                // the node is gone or can not have children, there is nothing to watch
+                return null;
+            } catch (IOException | ClosedWatchServiceException e) {
+                isWatched[0] = false;
+                return null;
+            }
+        });
+        return isWatched[0];
+    }
+
+    @Override
+    public void unwatch(PathT node) {
+        watches.computeIfPresent(toPath.apply(node), (directory, watch) -> {
+            if (--watch.count > 0) {
+                return watch;
+            }
+            watch.watchKey.cancel();
+            watchedNodes.remove(watch.watchKey);
+            return null;
+        });
+    }
+
+    @Override
+    public void setChangeListener(Consumer<List<NodeChange<PathT>>> changeListener) {
+        this.changeListener = changeListener;
+    }
+
+    @Override
+    public PathT parentOf(PathT node) {
+        Path parent = toPath.apply(node).getParent();
+        return parent == null ? null : fromPath.apply(parent);
+    }
+
+    /**
+     * @return how many directories are registered with the platform
+     */
+    public int getWatchedNum() {
+        return watches.size();
+    }
+
+    private void pollChanges() {
+        try {
+            while (true) {
+                List<NodeChange<PathT>> changes = new ArrayList<>();
+                WatchKey watchKey = watchService.take();
+                do {
+                    collectChanges(watchKey, changes);
+                } while ((watchKey = watchService.poll()) != null);
+                notifyChangeListener(changes);
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // the feed is closed
+        }
+    }
+
+    private void collectChanges(WatchKey watchKey, List<NodeChange<PathT>> changes) {
+        PathT parent = watchedNodes.get(watchKey);
+        for (WatchEvent<?> watchEvent : watchKey.pollEvents()) {
+            WatchEvent.Kind<?> eventKind = watchEvent.kind();
+            if (eventKind == StandardWatchEventKinds.OVERFLOW) {
+                changes.add(NodeChange.overflow());
+            } else if (parent != null) {
+                Path child = ((Path) watchKey.watchable()).resolve((Path) watchEvent.context());
+                changes.add(new NodeChange<>(kindOf(eventKind), parent, fromPath.apply(child)));
+            }
+        }
+        if (!watchKey.reset()) {
+            watchedNodes.remove(watchKey);
+            watches.computeIfPresent((Path) watchKey.watchable(), (directory, watch) -> watch.watchKey == watchKey ? null : watch);
+        }
+    }
+
+    private NodeChange.Kind kindOf(WatchEvent.Kind<?> eventKind) {
+        if (eventKind == StandardWatchEventKinds.ENTRY_CREATE) {
+            return NodeChange.Kind.CREATED;
+        }
+        if (eventKind == StandardWatchEventKinds.ENTRY_DELETE) {
+            return NodeChange.Kind.DELETED;
+        }
+        return NodeChange.Kind.MODIFIED;
+    }
+
+    private void notifyChangeListener(List<NodeChange<PathT>> changes) {
+        if (changes.isEmpty()) {
+            return;
+        }
+        try {
+            changeListener.accept(changes);
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            watchService.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        pollThread.interrupt();
+    }
+
+    /**
+     * Only changed inside a compute of the map of watches.
+     */
+    private static class Watch {
+        final WatchKey watchKey;
+        int count = 1;
+
+        Watch(WatchKey watchKey) {
+            this.watchKey = watchKey;
+        }
+    }
+}
@@ -0,0 +1,281 @@
+package com.Albert.checkpoint;
+
+import com.Albert.codec.Codec;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.CRC32;
+
+/**
+ * Keeps the checkpoints of every query in an append-only file of its own, named after the key, in one directory.
+ * Every checkpoint is appended as a record: its length, the key, the visited node count, the new results,
+ * the new visited fingerprints, all pending paths, and a CRC32 of all that.
+ * <p>
+ * Only the pending paths of the last record are ever read, so once the superseded ones would outweigh the rest
+ * of the file, the checkpoint is not appended but the file is compacted instead: all results and fingerprints
+ * so far and the new pending paths are written as one record to a temporary file, which then replaces the file
+ * in one atomic rename. A long query with a large frontier thus keeps a file, and a resume time,
+ * in proportion to its results and its last frontier.
+ * <p>
+ * A process killed while appending leaves a torn record at the end. Reading stops before it and cuts it off,
+ * so the checkpoints of the resumed query follow the last whole one. A process killed while compacting leaves
+ * the file as it was. The checkpoints of one key must not be appended concurrently.
+ *
+ * @author Albert
+ */
+public class CheckpointStore<ResultT, PathT> {
+    private static final int MAX_NAME_LENGTH = 48;
+    private static final String SUFFIX = ".checkpoint";
+    private static final String COMPACTING_SUFFIX = ".compacting";
+
+    private final File directory;
+    private final Codec<ResultT> resultCodec;
+    private final Codec<PathT> pathCodec;
+    private final Map<String, FileSize> fileSizes = new ConcurrentHashMap<>();
+
+    public CheckpointStore(File directory, Codec<ResultT> resultCodec, Codec<PathT> pathCodec) {
+        this.directory = directory;
+        this.resultCodec = resultCodec;
+        this.pathCodec = pathCodec;
+    }
+
+    /**
+     * Appends the checkpoint, or compacts the file with it, and forces it to the disk.
+     */
+    public void append(Object keySearch, QueryCheckpoint<ResultT, PathT> checkpoint) throws IOException {
+        String keyText = String.valueOf(keySearch);
+        File file = fileOf(keySearch);
+        FileSize fileSize = fileSizes.get(keyText);
+        if (fileSize == null) {
+            fileSize = file.isFile() ? read(file, keyText, false).fileSize : new FileSize();
+        }
+        Record record = encode(keyText, checkpoint);
+        if (fileSize.supersededPendingBytes + fileSize.pendingBytes > fileSize.liveBytes + record.liveBytes()) {
+            compact(file, keyText, checkpoint);
+            return;
+        }
+
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Can not create the checkpoint directory " + directory);
+        }
+        fileSizes.remove(keyText);
+        write(record, file, true);
+        fileSizes.put(keyText, fileSize.with(record));
+    }
+
+    private Record encode(String keyText, QueryCheckpoint<ResultT, PathT> checkpoint) throws IOException {
+        ByteArrayOutputStream payloadBytes = new ByteArrayOutputStream();
+        DataOutputStream payload = new DataOutputStream(payloadBytes);
+        payload.writeUTF(keyText);
+        payload.writeLong(checkpoint.getVisitedNodes());
+        Codec.listOf(resultCodec).write(payload, checkpoint.getResults());
+        payload.writeInt(checkpoint.getVisitedFingerprints().length);
+        for (long fingerprint : checkpoint.getVisitedFingerprints()) {
+            payload.writeLong(fingerprint);
+        }
+        int pendingOffset = payload.size();
+        Codec.listOf(pathCodec).write(payload, checkpoint.getPendingPaths());
+        payload.flush();
+        return new Record(payloadBytes.toByteArray(), pendingOffset);
+    }
+
+    private static void write(Record record, File file, boolean isAppend) throws IOException {
+        try (FileOutputStream fileOutput = new FileOutputStream(file, isAppend)) {
+            DataOutputStream output = new DataOutputStream(fileOutput);
+            output.writeInt(record.payload.length);
+            output.write(record.payload);
+            output.writeLong(crcOf(record.payload));
+            output.flush();
+            fileOutput.getChannel().force(false);
+        }
+    }
+
+    /**
+     * Writes everything the file holds with the checkpoint as one record, next to the file, and renames it over the file.
+     */
+    private void compact(File file, String keyText, QueryCheckpoint<ResultT, PathT> checkpoint) throws IOException {
+        FileContent fileContent = read(file, keyText, false);
+        List<ResultT> results = new ArrayList<>(fileContent.results);
+        results.addAll(checkpoint.getResults());
+        long[] newFingerprints = checkpoint.getVisitedFingerprints();
+        long[] visitedFingerprints = Arrays.copyOf(fileContent.visitedFingerprints, fileContent.visitedFingerprints.length + newFingerprints.length);
+        System.arraycopy(newFingerprints, 0, visitedFingerprints, fileContent.visitedFingerprints.length, newFingerprints.length);
+        Record record = encode(keyText, new QueryCheckpoint<>(checkpoint.getPendingPaths(), results, visitedFingerprints, checkpoint.getVisitedNodes()));
+
+        File compactingFile = new File(directory, file.getName() + COMPACTING_SUFFIX);
+        fileSizes.remove(keyText);
+        write(record, compactingFile, false);
+        Files.move(compactingFile.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        fileSizes.put(keyText, new FileSize().with(record));
+    }
+
+    /**
+     * @return every result and visited fingerprint up to the latest whole checkpoint with the pending paths of that one,
+     * or null when the query has no checkpoint
+     */
+    public QueryCheckpoint<ResultT, PathT> readLatest(Object keySearch) throws IOException {
+        File file = fileOf(keySearch);
+        if (!file.isFile()) {
+            return null;
+        }
+        String keyText = String.valueOf(keySearch);
+        FileContent fileContent = read(file, keyText, true);
+        if (fileContent.pendingPaths == null) {
+            return null;
+        }
+        fileSizes.put(keyText, fileContent.fileSize);
+        return new QueryCheckpoint<>(fileContent.pendingPaths, fileContent.results, fileContent.visitedFingerprints, fileContent.visitedNodes);
+    }
+
+    /**
+     * Cuts off a torn record at the end. The pending paths of a record are only decoded once no other record follows it.
+     *
+     * @param isPendingRead false to skip the pending paths of the last record too
+     */
+    private FileContent read(File file, String keyText, boolean isPendingRead) throws IOException {
+        FileContent fileContent = new FileContent();
+        byte[] lastPayload = null;
+        int lastPendingOffset = 0;
+        long wholeLength = 0;
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            byte[] payloadBytes;
+            while ((payloadBytes = readRecord(input, file.length() - wholeLength)) != null) {
+                DataInputStream payload = new DataInputStream(new ByteArrayInputStream(payloadBytes));
+                if (!keyText.equals(payload.readUTF())) {
+                    return new FileContent();
+                }
+                fileContent.visitedNodes = payload.readLong();
+                fileContent.results.addAll(Codec.listOf(resultCodec).read(payload));
+                int fingerprintNum = payload.readInt();
+                int from = fileContent.visitedFingerprints.length;
+                fileContent.visitedFingerprints = Arrays.copyOf(fileContent.visitedFingerprints, from + fingerprintNum);
+                for (int i = from; i < fileContent.visitedFingerprints.length; i++) {
+                    fileContent.visitedFingerprints[i] = payload.readLong();
+                }
+                lastPayload = payloadBytes;
+                lastPendingOffset = payloadBytes.length - payload.available();
+                fileContent.fileSize = fileContent.fileSize.with(new Record(payloadBytes, lastPendingOffset));
+                wholeLength += Integer.BYTES + payloadBytes.length + Long.BYTES;
+            }
+        }
+        if (wholeLength < file.length()) {
+            try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw")) {
+                randomAccessFile.setLength(wholeLength);
+            }
+        }
+        if (isPendingRead && lastPayload != null) {
+            DataInputStream pending = new DataInputStream(new ByteArrayInputStream(lastPayload, lastPendingOffset, lastPayload.length - lastPendingOffset));
+            fileContent.pendingPaths = Codec.listOf(pathCodec).read(pending);
+        }
+        return fileContent;
+    }
+
+    /**
+     * @return the payload of the next record, or null at the end of the file or at a torn record
+     */
+    private static byte[] readRecord(DataInputStream input, long remainingLength) throws IOException {
+        try {
+            int payloadLength = input.readInt();
+            if (payloadLength < 0 || payloadLength > remainingLength - Integer.BYTES - Long.BYTES) {
+                return null;
+            }
+            byte[] payloadBytes = new byte[payloadLength];
+            input.readFully(payloadBytes);
+            return input.readLong() == crcOf(payloadBytes) ? payloadBytes : null;
+        } catch (EOFException e) {
+            return null;
+        }
+    }
+
+    public boolean delete(Object keySearch) {
+        fileSizes.remove(String.valueOf(keySearch));
+        return fileOf(keySearch).delete();
+    }
+
+    /**
+     * The key with everything but letters, digits, dots and dashes replaced, shortened, and its hash code,
+     * e.g. {@code report_2024-1a2b3c.checkpoint}. The key is kept in every record, so a colliding name is never resumed.
+     */
+    public File fileOf(Object keySearch) {
+        String keyText = String.valueOf(keySearch);
+        String name = keyText.replaceAll("[^A-Za-z0-9.-]", "_");
+        if (name.length() > MAX_NAME_LENGTH) {
+            name = name.substring(0, MAX_NAME_LENGTH);
+        }
+        return new File(directory, name + "-" + Integer.toHexString(keyText.hashCode()) + SUFFIX);
+    }
+
+    private static long crcOf(byte[] bytes) {
+        CRC32 crc = new CRC32();
+        crc.update(bytes, 0, bytes.length);
+        return crc.getValue();
+    }
+
+    private static class Record {
+        final byte[] payload;
+        final int pendingOffset;
+
+        Record(byte[] payload, int pendingOffset) {
+            this.payload = payload;
+            this.pendingOffset = pendingOffset;
+        }
+
+        long pendingBytes() {
+            return payload.length - pendingOffset;
+        }
+
+        /**
+         * Everything of the record but its pending paths, which are superseded by the next record.
+         */
+        long liveBytes() {
+            return Integer.BYTES + payload.length + Long.BYTES - pendingBytes();
+        }
+    }
+
+    /**
+     * The bytes of the whole records in a file, immutable so a failed write leaves the one before.
+     */
+    private static class FileSize {
+        final long liveBytes;
+        final long pendingBytes;
+        final long supersededPendingBytes;
+
+        FileSize() {
+            this(0, 0, 0);
+        }
+
+        private FileSize(long liveBytes, long pendingBytes, long supersededPendingBytes) {
+            this.liveBytes = liveBytes;
+            this.pendingBytes = pendingBytes;
+            this.supersededPendingBytes = supersededPendingBytes;
+        }
+
+        FileSize with(Record record) {
+            return new FileSize(liveBytes + record.liveBytes(), record.pendingBytes(), supersededPendingBytes + pendingBytes);
+        }
+    }
+
+    private class FileContent {
+        final List<ResultT> results = new ArrayList<>();
+        long[] visitedFingerprints = new long[0];
+        List<PathT> pendingPaths;
+        long visitedNodes;
+        FileSize fileSize = new FileSize();
+    }
+}
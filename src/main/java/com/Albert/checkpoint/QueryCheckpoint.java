@@ -0,0 +1,43 @@
+package com.Albert.checkpoint;
+
+import java.util.List;
+
+/**
+ * The state of one query at one moment. The pending paths are all the nodes scheduled but not visited yet,
+ * while a written checkpoint holds only the results and visited paths since the checkpoint before it.
+ * Read back from a {@link CheckpointStore}, a checkpoint holds all of them.
+ *
+ * @author Albert
+ */
+public class QueryCheckpoint<ResultT, PathT> {
+    private final List<PathT> pendingPaths;
+    private final List<ResultT> results;
+    private final long[] visitedFingerprints;
+    private final long visitedNodes;
+
+    public QueryCheckpoint(List<PathT> pendingPaths, List<ResultT> results, long[] visitedFingerprints, long visitedNodes) {
+        this.pendingPaths = pendingPaths;
+        this.results = results;
+        this.visitedFingerprints = visitedFingerprints;
+        this.visitedNodes = visitedNodes;
+    }
+
+    public List<PathT> getPendingPaths() {
+        return pendingPaths;
+    }
+
+    public List<ResultT> getResults() {
+        return results;
+    }
+
+    /**
+     * @return the fingerprints of the visited paths, empty for a query without a path identity
+     */
+    public long[] getVisitedFingerprints() {
+        return visitedFingerprints;
+    }
+
+    public long getVisitedNodes() {
+        return visitedNodes;
+    }
+}
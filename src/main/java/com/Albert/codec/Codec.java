@@ -0,0 +1,115 @@
+package com.Albert.codec;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writes keys, paths or results to a binary stream and reads them back, for searches that leave the JVM.
+ * A codec must read exactly the bytes it wrote, the values of a message follow each other without delimiters.
+ *
+ * @author Albert
+ */
+public interface Codec<T> {
+
+    void write(DataOutput output, T value) throws IOException;
+
+    T read(DataInput input) throws IOException;
+
+    /**
+     * Modified UTF-8, so a string must be shorter than 64KB once encoded.
+     */
+    static Codec<String> strings() {
+        return new Codec<String>() {
+            @Override
+            public void write(DataOutput output, String value) throws IOException {
+                output.writeUTF(value);
+            }
+
+            @Override
+            public String read(DataInput input) throws IOException {
+                return input.readUTF();
+            }
+        };
+    }
+
+    static Codec<Long> longs() {
+        return new Codec<Long>() {
+            @Override
+            public void write(DataOutput output, Long value) throws IOException {
+                output.writeLong(value);
+            }
+
+            @Override
+            public Long read(DataInput input) throws IOException {
+                return input.readLong();
+            }
+        };
+    }
+
+    /**
+     * A file by its path, so it only means the same file on a machine that sees the same file system.
+     */
+    static Codec<File> files() {
+        return new Codec<File>() {
+            @Override
+            public void write(DataOutput output, File value) throws IOException {
+                output.writeUTF(value.getPath());
+            }
+
+            @Override
+            public File read(DataInput input) throws IOException {
+                return new File(input.readUTF());
+            }
+        };
+    }
+
+    /**
+     * A list as its size followed by its elements.
+     */
+    static <T> Codec<List<T>> listOf(Codec<T> elementCodec) {
+        return new Codec<List<T>>() {
+            @Override
+            public void write(DataOutput output, List<T> values) throws IOException {
+                output.writeInt(values.size());
+                for (T value : values) {
+                    elementCodec.write(output, value);
+                }
+            }
+
+            @Override
+            public List<T> read(DataInput input) throws IOException {
+                int size = input.readInt();
+                if (size < 0) {
+                    throw new IOException("A list can not have " + size + " elements");
+                }
+                List<T> values = new ArrayList<>(Math.min(size, 1 << 16));
+                for (int i = 0; i < size; i++) {
+                    values.add(elementCodec.read(input));
+                }
+                return values;
+            }
+        };
+    }
+
+    /**
+     * One of the codecs above by name, for a process that is told its codecs on the command line.
+     *
+     * @param name string, long or file
+     */
+    static Codec<?> named(String name) {
+        switch (name) {
+            case "string":
+                return strings();
+            case "long":
+                return longs();
+            case "file":
+                return files();
+            default:
+                throw new IllegalArgumentException("No codec is named " + name + ", use string, long or file");
+        }
+    }
+}
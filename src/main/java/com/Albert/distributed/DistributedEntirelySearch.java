@@ -0,0 +1,164 @@
+package com.Albert.distributed;
+
+import com.Albert.engine.SearchEngine;
+import com.Albert.engine.SearchHandle;
+import com.Albert.engine.SearchSetting;
+import com.Albert.metrics.SearchMetrics;
+import com.Albert.search.boxSearch.EntirelySearch;
+import com.Albert.searchImpl.boxSearchImpl.ConcurrentEntirelySearch;
+import com.Albert.searchModel.SearchModel;
+import org.reactivestreams.Publisher;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Stream;
+
+/**
+ * Searches with {@link SearchWorker}s in other JVMs, usually on other machines that see the same tree.
+ * The coordinator visits the levels above the split depth itself and sends every node of the split depth
+ * to a worker as a unit of work. The workers stream the results of their units back in batches,
+ * and pending nodes of a busy worker are stolen for an idle one.
+ * <p>
+ * Every query is a traversal of the coordinator whose nodes are the units, so timeouts, expectNum,
+ * cancelling a handle and closing a stream all work as for {@link ConcurrentEntirelySearch}.
+ * A query that stops cancels its units on the workers.
+ * {@link #startSearchKeys(Collection)} runs the units of every key one after the other, it streams nothing until a unit is done.
+ *
+ * @author Albert
+ */
+public class DistributedEntirelySearch<KeyT, ResultT, PathT> implements EntirelySearch<KeyT, ResultT>, Closeable {
+    private final RemoteSearchModel<KeyT, ResultT, PathT> remoteSearchModel;
+    private final ConcurrentEntirelySearch<KeyT, ResultT, WorkUnit<PathT>> entirelySearch;
+
+    @SuppressWarnings("unchecked")
+    private DistributedEntirelySearch(SearchModel<KeyT, PathT> searchModel, DistributedSetting<KeyT, ResultT, PathT> distributedSetting,
+                                      List<WorkerConnection<KeyT, ResultT, PathT>> workerConnections, List<PathT> rootCanBeSearch) {
+        this.remoteSearchModel = new RemoteSearchModel<>(searchModel, workerConnections,
+                distributedSetting.getSplitDepth(), distributedSetting.getStealBatchSize());
+        SearchSetting<ResultT, WorkUnit<PathT>> searchSetting = SearchSetting.<ResultT, WorkUnit<PathT>>defaultSetting()
+                .setSearchEngine(SearchEngine.createSearchEngine(workerConnections.size() * distributedSetting.getUnitsPerWorker()))
+                .setResultIdentity(distributedSetting.getResultIdentity());
+        WorkUnit<PathT>[] rootUnits = new WorkUnit[rootCanBeSearch.size()];
+        for (int i = 0; i < rootUnits.length; i++) {
+            rootUnits[i] = new WorkUnit<>(Collections.singletonList(rootCanBeSearch.get(i)), 0);
+        }
+        this.entirelySearch = ConcurrentEntirelySearch.createHowAppointSearchSetting(remoteSearchModel, searchSetting, rootUnits);
+    }
+
+    /**
+     * Connects to every worker at once, the workers must already listen.
+     *
+     * @throws IOException when a worker can not be reached
+     */
+    @SafeVarargs
+    public static <KeyT, ResultT, PathT> DistributedEntirelySearch<KeyT, ResultT, PathT> createHowAppointWorkers(SearchModel<KeyT, PathT> searchModel,
+                                                                                                                DistributedSetting<KeyT, ResultT, PathT> distributedSetting,
+                                                                                                                List<InetSocketAddress> workerAddresses,
+                                                                                                                PathT... rootCanBeSearch) throws IOException {
+        if (workerAddresses.isEmpty()) {
+            throw new IllegalArgumentException("At least one worker is needed");
+        }
+        List<WorkerConnection<KeyT, ResultT, PathT>> workerConnections = new ArrayList<>();
+        try {
+            for (InetSocketAddress workerAddress : workerAddresses) {
+                workerConnections.add(new WorkerConnection<>(workerAddress,
+                        distributedSetting.getKeyCodec(), distributedSetting.getResultCodec(), distributedSetting.getPathCodec()));
+            }
+        } catch (IOException e) {
+            workerConnections.forEach(WorkerConnection::close);
+            throw e;
+        }
+        List<PathT> roots = new ArrayList<>();
+        Collections.addAll(roots, rootCanBeSearch);
+        return new DistributedEntirelySearch<>(searchModel, distributedSetting, workerConnections, roots);
+    }
+
+    public SearchMetrics getSearchMetrics() {
+        return entirelySearch.getSearchMetrics();
+    }
+
+    /**
+     * @return the nodes taken from busy workers for idle ones, over all queries
+     */
+    public long getStolenNodes() {
+        return remoteSearchModel.getStolenNodes();
+    }
+
+    /**
+     * @return the nodes the workers visited for the units they have finished, over all queries
+     */
+    public long getRemoteVisitedNodes() {
+        return remoteSearchModel.getRemoteVisitedNodes();
+    }
+
+    @Override
+    public ResultT getAResult(KeyT keySearch) {
+        return entirelySearch.getAResult(keySearch);
+    }
+
+    @Override
+    public ResultT getAResultUntilTimeout(KeyT keyT, long timeout, TimeUnit timeUnit) throws TimeoutException {
+        return entirelySearch.getAResultUntilTimeout(keyT, timeout, timeUnit);
+    }
+
+    @Override
+    public List<ResultT> getResultsUntilOneTimeout(KeyT keyT, long timeout, TimeUnit unit) {
+        return entirelySearch.getResultsUntilOneTimeout(keyT, timeout, unit);
+    }
+
+    @Override
+    public List<ResultT> getResultsUntilTimeout(KeyT keyT, long timeout, TimeUnit unit) {
+        return entirelySearch.getResultsUntilTimeout(keyT, timeout, unit);
+    }
+
+    @Override
+    public List<ResultT> getResultsUntilEnoughOrTimeout(KeyT keyT, int expectNum, long timeout, TimeUnit unit) {
+        return entirelySearch.getResultsUntilEnoughOrTimeout(keyT, expectNum, timeout, unit);
+    }
+
+    @Override
+    public List<ResultT> getResultsUntilEnoughOrOneTimeout(KeyT keyT, int expectNum, long timeout, TimeUnit unit) {
+        return entirelySearch.getResultsUntilEnoughOrOneTimeout(keyT, expectNum, timeout, unit);
+    }
+
+    @Override
+    public List<ResultT> getResultsUntilEnough(KeyT keyT, int expectNum) throws TimeoutException {
+        return entirelySearch.getResultsUntilEnough(keyT, expectNum);
+    }
+
+    @Override
+    public Stream<ResultT> streamResults(KeyT keyT) {
+        return entirelySearch.streamResults(keyT);
+    }
+
+    @Override
+    public Publisher<ResultT> publishResults(KeyT keyT) {
+        return entirelySearch.publishResults(keyT);
+    }
+
+    @Override
+    public SearchHandle<ResultT> startSearch(KeyT keyT) {
+        return entirelySearch.startSearch(keyT);
+    }
+
+    @Override
+    public Map<KeyT, SearchHandle<ResultT>> startSearchKeys(Collection<KeyT> keysSearch) {
+        return entirelySearch.startSearchKeys(keysSearch);
+    }
+
+    /**
+     * Disconnects from the workers, which cancel the units still running.
+     */
+    @Override
+    public void close() {
+        remoteSearchModel.close();
+    }
+}
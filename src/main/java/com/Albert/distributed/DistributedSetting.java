@@ -0,0 +1,101 @@
+package com.Albert.distributed;
+
+import com.Albert.codec.Codec;
+import com.Albert.engine.IdentityKey;
+
+/**
+ * How a {@link DistributedEntirelySearch} splits its queries over the workers. The codecs are required,
+ * every other option has a default.
+ *
+ * @author Albert
+ */
+public class DistributedSetting<KeyT, ResultT, PathT> {
+    private final Codec<KeyT> keyCodec;
+    private final Codec<ResultT> resultCodec;
+    private final Codec<PathT> pathCodec;
+    private int splitDepth = 1;
+    private int stealBatchSize = 16;
+    private int unitsPerWorker = 2;
+    private IdentityKey<ResultT> resultIdentity;
+
+    private DistributedSetting(Codec<KeyT> keyCodec, Codec<ResultT> resultCodec, Codec<PathT> pathCodec) {
+        this.keyCodec = keyCodec;
+        this.resultCodec = resultCodec;
+        this.pathCodec = pathCodec;
+    }
+
+    public static <KeyT, ResultT, PathT> DistributedSetting<KeyT, ResultT, PathT> defaultSetting(Codec<KeyT> keyCodec, Codec<ResultT> resultCodec, Codec<PathT> pathCodec) {
+        return new DistributedSetting<>(keyCodec, resultCodec, pathCodec);
+    }
+
+    /**
+     * The coordinator visits the levels above this depth itself and sends every node of this depth to a worker
+     * as a unit of its own. 0 sends every root as a unit, the default of 1 lists the roots on the coordinator.
+     */
+    public DistributedSetting<KeyT, ResultT, PathT> setSplitDepth(int splitDepth) {
+        if (splitDepth < 0) {
+            throw new IllegalArgumentException("The split depth must not be negative");
+        }
+        this.splitDepth = splitDepth;
+        return this;
+    }
+
+    /**
+     * At most this many pending nodes are taken from a busy worker at once for an idle one.
+     */
+    public DistributedSetting<KeyT, ResultT, PathT> setStealBatchSize(int stealBatchSize) {
+        if (stealBatchSize <= 0) {
+            throw new IllegalArgumentException("The steal batch size must be positive");
+        }
+        this.stealBatchSize = stealBatchSize;
+        return this;
+    }
+
+    /**
+     * How many units a worker runs at once, every unit in flight holds a thread of the coordinator.
+     */
+    public DistributedSetting<KeyT, ResultT, PathT> setUnitsPerWorker(int unitsPerWorker) {
+        if (unitsPerWorker <= 0) {
+            throw new IllegalArgumentException("The units per worker must be positive");
+        }
+        this.unitsPerWorker = unitsPerWorker;
+        return this;
+    }
+
+    /**
+     * Report every result at most once per query. A unit whose worker is lost runs again on another worker,
+     * so without it the results that unit had already sent are reported twice.
+     */
+    public DistributedSetting<KeyT, ResultT, PathT> setResultIdentity(IdentityKey<ResultT> resultIdentity) {
+        this.resultIdentity = resultIdentity;
+        return this;
+    }
+
+    public Codec<KeyT> getKeyCodec() {
+        return keyCodec;
+    }
+
+    public Codec<ResultT> getResultCodec() {
+        return resultCodec;
+    }
+
+    public Codec<PathT> getPathCodec() {
+        return pathCodec;
+    }
+
+    public int getSplitDepth() {
+        return splitDepth;
+    }
+
+    public int getStealBatchSize() {
+        return stealBatchSize;
+    }
+
+    public int getUnitsPerWorker() {
+        return unitsPerWorker;
+    }
+
+    public IdentityKey<ResultT> getResultIdentity() {
+        return resultIdentity;
+    }
+}
@@ -0,0 +1,156 @@
+package com.Albert.distributed;
+
+import com.Albert.pojo.MessageOfSearched;
+import com.Albert.searchModel.SearchModel;
+import com.Albert.searchModel.SearchSink;
+import com.Albert.searchModel.SinkSearchModel;
+
+import java.io.Closeable;
+import java.io.UncheckedIOException;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The model of the coordinator's traversal. A unit above the split depth is visited on the coordinator with the real model,
+ * a unit at the split depth is visited by a worker: the coordinator thread waits for the frames of the unit
+ * and emits its results and stolen nodes as they come, so the unit stays pending until the worker is done with it.
+ * <p>
+ * While a worker is idle, one unit at a time asks its own worker for pending nodes, which become a unit of their own
+ * and go to the least busy worker. A unit whose worker is lost runs again on another one.
+ *
+ * @author Albert
+ */
+class RemoteSearchModel<KeyT, ResultT, PathT> implements SinkSearchModel<KeyT, ResultT, WorkUnit<PathT>>, Closeable {
+    private static final long POLL_MILLIS = 20;
+    private static final long STEAL_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final SearchModel<KeyT, PathT> searchModel;
+    private final List<WorkerConnection<KeyT, ResultT, PathT>> workerConnections;
+    private final int splitDepth;
+    private final int stealBatchSize;
+    private final AtomicBoolean isStealing = new AtomicBoolean();
+    private final LongAdder stolenNodes = new LongAdder();
+
+    RemoteSearchModel(SearchModel<KeyT, PathT> searchModel, List<WorkerConnection<KeyT, ResultT, PathT>> workerConnections,
+                      int splitDepth, int stealBatchSize) {
+        this.searchModel = searchModel;
+        this.workerConnections = workerConnections;
+        this.splitDepth = splitDepth;
+        this.stealBatchSize = stealBatchSize;
+    }
+
+    @Override
+    public void search(KeyT keySearch, WorkUnit<PathT> workUnit, SearchSink<ResultT, WorkUnit<PathT>> searchSink) {
+        if (workUnit.getDepth() < splitDepth) {
+            searchLocally(keySearch, workUnit, searchSink);
+            return;
+        }
+        while (!searchSink.isCancelled()) {
+            WorkerConnection<KeyT, ResultT, PathT> workerConnection = leastBusyWorker();
+            RemoteUnit<ResultT, PathT> remoteUnit = workerConnection.search(keySearch, workUnit.getPaths());
+            if (remoteUnit != null && awaitRemoteUnit(workerConnection, remoteUnit, workUnit, searchSink)) {
+                return;
+            }
+        }
+    }
+
+    private void searchLocally(KeyT keySearch, WorkUnit<PathT> workUnit, SearchSink<ResultT, WorkUnit<PathT>> searchSink) {
+        for (PathT canBeSearched : workUnit.getPaths()) {
+            MessageOfSearched<ResultT, PathT> messageOfSearched = searchModel.search(keySearch, canBeSearched);
+            messageOfSearched.getTrueResult().ifPresent(results -> results.forEach(searchSink::emitResult));
+            messageOfSearched.getCanBeSearched().ifPresent(children -> children.forEach(
+                    child -> searchSink.emitChild(new WorkUnit<>(Collections.singletonList(child), workUnit.getDepth() + 1))));
+        }
+    }
+
+    /**
+     * @return false when the worker was lost before it was done with the unit
+     */
+    private boolean awaitRemoteUnit(WorkerConnection<KeyT, ResultT, PathT> workerConnection, RemoteUnit<ResultT, PathT> remoteUnit,
+                                    WorkUnit<PathT> workUnit, SearchSink<ResultT, WorkUnit<PathT>> searchSink) {
+        boolean isStealingHere = false;
+        long lastStealNanos = System.nanoTime();
+        try {
+            while (true) {
+                if (searchSink.isCancelled()) {
+                    workerConnection.cancel(remoteUnit.getUnitId());
+                    return true;
+                }
+                if (!isStealingHere && System.nanoTime() - lastStealNanos > STEAL_INTERVAL_NANOS
+                        && hasIdleWorker() && isStealing.compareAndSet(false, true)) {
+                    isStealingHere = true;
+                    lastStealNanos = System.nanoTime();
+                    workerConnection.steal(remoteUnit.getUnitId(), stealBatchSize);
+                }
+                RemoteUnit.Frame frame = remoteUnit.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (frame == null) {
+                    continue;
+                }
+                if (frame.getType() == WireProtocol.RESULTS) {
+                    frame.<ResultT>getValues().forEach(searchSink::emitResult);
+                } else if (frame.getType() == WireProtocol.STOLEN) {
+                    List<PathT> stolen = frame.getValues();
+                    if (!stolen.isEmpty()) {
+                        stolenNodes.add(stolen.size());
+                        searchSink.emitChild(new WorkUnit<>(stolen, workUnit.getDepth()));
+                    }
+                    isStealingHere = false;
+                    isStealing.set(false);
+                } else {
+                    return frame.getType() == WireProtocol.DONE;
+                }
+            }
+        } catch (InterruptedException e) {
+            workerConnection.cancel(remoteUnit.getUnitId());
+            Thread.currentThread().interrupt();
+            return true;
+        } finally {
+            if (isStealingHere) {
+                isStealing.set(false);
+            }
+        }
+    }
+
+    private WorkerConnection<KeyT, ResultT, PathT> leastBusyWorker() {
+        WorkerConnection<KeyT, ResultT, PathT> leastBusy = null;
+        for (WorkerConnection<KeyT, ResultT, PathT> workerConnection : workerConnections) {
+            if (workerConnection.isAlive() && (leastBusy == null || workerConnection.getUnitNum() < leastBusy.getUnitNum())) {
+                leastBusy = workerConnection;
+            }
+        }
+        if (leastBusy == null) {
+            throw new UncheckedIOException(new IOException("No worker is reachable"));
+        }
+        return leastBusy;
+    }
+
+    private boolean hasIdleWorker() {
+        for (WorkerConnection<KeyT, ResultT, PathT> workerConnection : workerConnections) {
+            if (workerConnection.isAlive() && workerConnection.getUnitNum() == 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    long getStolenNodes() {
+        return stolenNodes.sum();
+    }
+
+    long getRemoteVisitedNodes() {
+        long visitedNodes = 0;
+        for (WorkerConnection<KeyT, ResultT, PathT> workerConnection : workerConnections) {
+            visitedNodes += workerConnection.getVisitedNodes();
+        }
+        return visitedNodes;
+    }
+
+    @Override
+    public void close() {
+        workerConnections.forEach(WorkerConnection::close);
+    }
+}
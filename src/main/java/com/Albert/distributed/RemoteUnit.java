@@ -0,0 +1,70 @@
+package com.Albert.distributed;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A unit of work that runs on a worker, as the coordinator sees it. The reading thread of the connection
+ * hands it the frames of the unit, the coordinator thread that visits the unit takes them in order.
+ *
+ * @author Albert
+ */
+class RemoteUnit<ResultT, PathT> {
+    /**
+     * Not a frame of the protocol, the connection broke before the unit was done.
+     */
+    static final byte LOST = 0;
+
+    private final int unitId;
+    private final BlockingQueue<Frame> frames = new LinkedBlockingQueue<>();
+
+    RemoteUnit(int unitId) {
+        this.unitId = unitId;
+    }
+
+    int getUnitId() {
+        return unitId;
+    }
+
+    void offerResults(List<ResultT> results) {
+        frames.offer(new Frame(WireProtocol.RESULTS, results));
+    }
+
+    void offerStolen(List<PathT> stolen) {
+        frames.offer(new Frame(WireProtocol.STOLEN, stolen));
+    }
+
+    void offerDone() {
+        frames.offer(new Frame(WireProtocol.DONE, Collections.emptyList()));
+    }
+
+    void offerLost() {
+        frames.offer(new Frame(LOST, Collections.emptyList()));
+    }
+
+    Frame poll(long timeout, TimeUnit unit) throws InterruptedException {
+        return frames.poll(timeout, unit);
+    }
+
+    static class Frame {
+        private final byte type;
+        private final List<?> values;
+
+        private Frame(byte type, List<?> values) {
+            this.type = type;
+            this.values = values;
+        }
+
+        byte getType() {
+            return type;
+        }
+
+        @SuppressWarnings("unchecked")
+        <T> List<T> getValues() {
+            return (List<T>) values;
+        }
+    }
+}
@@ -0,0 +1,235 @@
+package com.Albert.distributed;
+
+import com.Albert.codec.Codec;
+import com.Albert.engine.ResultBuffer;
+import com.Albert.engine.SearchGroup;
+import com.Albert.engine.SearchSetting;
+import com.Albert.engine.TraversalOrder;
+import com.Albert.searchModel.SearchModel;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Serves the units of work of {@link DistributedEntirelySearch} coordinators. Every unit runs as a {@link SearchGroup}
+ * on the engine of the setting, and its results go back to the coordinator in batches while the unit runs.
+ * <p>
+ * Only a group with a frontier can give nodes away to another worker, so the default setting visits depth first,
+ * which keeps the frontier small and leaves the shallowest nodes to be stolen.
+ * A coordinator that disconnects cancels all of its units.
+ *
+ * @author Albert
+ */
+public class SearchWorker<KeyT, ResultT, PathT> implements Closeable {
+    private static final int MAX_BATCH_SIZE = 256;
+
+    private final SearchModel<KeyT, PathT> searchModel;
+    private final Codec<KeyT> keyCodec;
+    private final Codec<ResultT> resultCodec;
+    private final Codec<PathT> pathCodec;
+    private final SearchSetting<ResultT, PathT> searchSetting;
+    private final ExecutorService connectionExecutor = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "recurrent-search-worker");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private volatile ServerSocket serverSocket;
+
+    public SearchWorker(SearchModel<KeyT, PathT> searchModel, Codec<KeyT> keyCodec, Codec<ResultT> resultCodec, Codec<PathT> pathCodec) {
+        this(searchModel, keyCodec, resultCodec, pathCodec,
+                SearchSetting.<ResultT, PathT>defaultSetting().setTraversalOrder(TraversalOrder.depthFirst()));
+    }
+
+    public SearchWorker(SearchModel<KeyT, PathT> searchModel, Codec<KeyT> keyCodec, Codec<ResultT> resultCodec, Codec<PathT> pathCodec,
+                        SearchSetting<ResultT, PathT> searchSetting) {
+        this.searchModel = searchModel;
+        this.keyCodec = keyCodec;
+        this.resultCodec = resultCodec;
+        this.pathCodec = pathCodec;
+        this.searchSetting = searchSetting;
+    }
+
+    /**
+     * Starts accepting coordinators on a thread of its own, which keeps the JVM alive until the worker is closed.
+     *
+     * @param port 0 for any free port
+     * @return the port the worker listens on
+     */
+    public int listen(int port) throws IOException {
+        serverSocket = new ServerSocket(port);
+        Thread acceptThread = new Thread(this::acceptCoordinators, "recurrent-search-worker-accept");
+        acceptThread.start();
+        return serverSocket.getLocalPort();
+    }
+
+    private void acceptCoordinators() {
+        try {
+            while (true) {
+                Socket socket = serverSocket.accept();
+                socket.setTcpNoDelay(true);
+                connectionExecutor.execute(new CoordinatorConnection(socket));
+            }
+        } catch (IOException e) {
+            if (!serverSocket.isClosed()) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (serverSocket != null) {
+            serverSocket.close();
+        }
+        connectionExecutor.shutdownNow();
+    }
+
+    /**
+     * {@code java com.Albert.distributed.SearchWorker <port> <searchModelClass> <keyCodec> <resultCodec> <pathCodec>}
+     * <p>
+     * The search model needs a public constructor without parameters, the codecs are named as in {@link Codec#named(String)}.
+     * The worker prints the port it listens on, e.g. for a port of 0.
+     */
+    @SuppressWarnings("unchecked")
+    public static void main(String[] args) throws Exception {
+        if (args.length != 5) {
+            System.err.println("Usage: SearchWorker <port> <searchModelClass> <keyCodec> <resultCodec> <pathCodec>");
+            System.exit(1);
+        }
+        SearchModel searchModel = (SearchModel) Class.forName(args[1]).getDeclaredConstructor().newInstance();
+        SearchWorker searchWorker = new SearchWorker(searchModel, Codec.named(args[2]), Codec.named(args[3]), Codec.named(args[4]));
+        int port = searchWorker.listen(Integer.parseInt(args[0]));
+        System.out.println("Listening on " + port);
+    }
+
+    /**
+     * Reads the frames of one coordinator. Frames are written from the reading thread and the unit threads,
+     * one whole frame at a time.
+     */
+    private class CoordinatorConnection implements Runnable {
+        private final Socket socket;
+        private final Map<Integer, SearchGroup<KeyT, ResultT, PathT>> units = new ConcurrentHashMap<>();
+        private DataOutputStream output;
+
+        private CoordinatorConnection(Socket socket) {
+            this.socket = socket;
+        }
+
+        @Override
+        public void run() {
+            try {
+                DataInputStream input = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+                output = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+                while (true) {
+                    byte type = input.readByte();
+                    int unitId = input.readInt();
+                    if (type == WireProtocol.SEARCH) {
+                        startUnit(unitId, keyCodec.read(input), Codec.listOf(pathCodec).read(input));
+                    } else if (type == WireProtocol.STEAL) {
+                        stealFromUnit(unitId, input.readInt());
+                    } else if (type == WireProtocol.CANCEL) {
+                        SearchGroup<KeyT, ResultT, PathT> searchGroup = units.get(unitId);
+                        if (searchGroup != null) {
+                            searchGroup.cancel();
+                        }
+                    } else {
+                        throw new IOException("Unknown frame type " + type);
+                    }
+                }
+            } catch (EOFException | SocketException e) {
+                // the coordinator is gone
+            } catch (IOException e) {
+                e.printStackTrace();
+            } finally {
+                units.values().forEach(SearchGroup::cancel);
+                closeSocket();
+            }
+        }
+
+        private void startUnit(int unitId, KeyT keySearch, List<PathT> canBeSearched) {
+            SearchGroup<KeyT, ResultT, PathT> searchGroup = searchSetting.getSearchEngine().createSearchGroup(searchModel, keySearch, searchSetting);
+            units.put(unitId, searchGroup);
+            searchGroup.startSearch(canBeSearched);
+            connectionExecutor.execute(() -> sendResults(unitId, searchGroup));
+        }
+
+        /**
+         * Stealing and finishing a unit lock the group, so the stolen nodes are always sent before the unit is done.
+         */
+        private void stealFromUnit(int unitId, int maxNodes) throws IOException {
+            SearchGroup<KeyT, ResultT, PathT> searchGroup = units.get(unitId);
+            if (searchGroup == null) {
+                return;
+            }
+            synchronized (searchGroup) {
+                if (units.containsKey(unitId)) {
+                    List<PathT> stolen = searchGroup.stealPending(maxNodes);
+                    synchronized (output) {
+                        output.writeByte(WireProtocol.STOLEN);
+                        output.writeInt(unitId);
+                        Codec.listOf(pathCodec).write(output, stolen);
+                        output.flush();
+                    }
+                }
+            }
+        }
+
+        private void sendResults(int unitId, SearchGroup<KeyT, ResultT, PathT> searchGroup) {
+            ResultBuffer<ResultT> results = searchGroup.getResults();
+            List<ResultT> batch = new ArrayList<>();
+            try {
+                ResultT resultT;
+                while ((resultT = results.take()) != null) {
+                    batch.add(resultT);
+                    while (batch.size() < MAX_BATCH_SIZE && (resultT = results.poll()) != null) {
+                        batch.add(resultT);
+                    }
+                    synchronized (output) {
+                        output.writeByte(WireProtocol.RESULTS);
+                        output.writeInt(unitId);
+                        Codec.listOf(resultCodec).write(output, batch);
+                        output.flush();
+                    }
+                    batch.clear();
+                }
+                synchronized (searchGroup) {
+                    units.remove(unitId);
+                    synchronized (output) {
+                        output.writeByte(WireProtocol.DONE);
+                        output.writeInt(unitId);
+                        output.writeLong(searchGroup.progress().getVisitedNodes());
+                        output.flush();
+                    }
+                }
+            } catch (InterruptedException e) {
+                searchGroup.cancel();
+                Thread.currentThread().interrupt();
+            } catch (IOException e) {
+                searchGroup.cancel();
+                closeSocket();
+            }
+        }
+
+        private void closeSocket() {
+            try {
+                socket.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+}
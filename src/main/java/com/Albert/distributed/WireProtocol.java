@@ -0,0 +1,28 @@
+package com.Albert.distributed;
+
+/**
+ * The frames a coordinator and its workers exchange. Every frame is a type byte and the id of a unit of work,
+ * followed by the body of its type:
+ * <pre>
+ * SEARCH  coordinator to worker  key, paths    visit the subtrees below the paths
+ * CANCEL  coordinator to worker                drop the rest of the unit
+ * STEAL   coordinator to worker  int maxNodes  give away up to maxNodes pending nodes of the unit
+ * RESULTS worker to coordinator  results       a batch of results of the unit
+ * STOLEN  worker to coordinator  paths         the nodes given away, always before the DONE of the unit
+ * DONE    worker to coordinator  long visited  the unit is exhausted or cancelled, no more frames follow for it
+ * </pre>
+ * A list is written by {@link com.Albert.codec.Codec#listOf}.
+ *
+ * @author Albert
+ */
+final class WireProtocol {
+    static final byte SEARCH = 1;
+    static final byte CANCEL = 2;
+    static final byte STEAL = 3;
+    static final byte RESULTS = 4;
+    static final byte STOLEN = 5;
+    static final byte DONE = 6;
+
+    private WireProtocol() {
+    }
+}
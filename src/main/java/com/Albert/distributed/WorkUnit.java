@@ -0,0 +1,27 @@
+package com.Albert.distributed;
+
+import java.util.List;
+
+/**
+ * A node of the coordinator's own traversal: paths of the real tree and how deep below a root they are.
+ * Above the split depth the coordinator visits the paths itself, from the split depth on they go to a worker together.
+ *
+ * @author Albert
+ */
+class WorkUnit<PathT> {
+    private final List<PathT> paths;
+    private final int depth;
+
+    WorkUnit(List<PathT> paths, int depth) {
+        this.paths = paths;
+        this.depth = depth;
+    }
+
+    List<PathT> getPaths() {
+        return paths;
+    }
+
+    int getDepth() {
+        return depth;
+    }
+}
@@ -0,0 +1,174 @@
+package com.Albert.distributed;
+
+import com.Albert.codec.Codec;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The coordinator's connection to one worker. Any thread may send, one whole frame at a time,
+ * and a daemon thread reads the frames of the worker and hands them to their units.
+ * Once the connection breaks every unit on it is lost and the connection is not used again.
+ *
+ * @author Albert
+ */
+class WorkerConnection<KeyT, ResultT, PathT> implements Closeable {
+    private static final AtomicInteger UNIT_IDS = new AtomicInteger();
+
+    private final Socket socket;
+    private final DataInputStream input;
+    private final DataOutputStream output;
+    private final Codec<KeyT> keyCodec;
+    private final Codec<ResultT> resultCodec;
+    private final Codec<PathT> pathCodec;
+    private final Map<Integer, RemoteUnit<ResultT, PathT>> units = new ConcurrentHashMap<>();
+    private final LongAdder visitedNodes = new LongAdder();
+    private volatile boolean isAlive = true;
+
+    WorkerConnection(InetSocketAddress address, Codec<KeyT> keyCodec, Codec<ResultT> resultCodec, Codec<PathT> pathCodec) throws IOException {
+        this.socket = new Socket(address.getAddress(), address.getPort());
+        socket.setTcpNoDelay(true);
+        this.input = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+        this.output = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+        this.keyCodec = keyCodec;
+        this.resultCodec = resultCodec;
+        this.pathCodec = pathCodec;
+        Thread readThread = new Thread(this::readFrames, "recurrent-search-coordinator-" + address);
+        readThread.setDaemon(true);
+        readThread.start();
+    }
+
+    /**
+     * @return the unit, or null when the connection broke before the unit was sent
+     */
+    RemoteUnit<ResultT, PathT> search(KeyT keySearch, List<PathT> canBeSearched) {
+        RemoteUnit<ResultT, PathT> remoteUnit = new RemoteUnit<>(UNIT_IDS.incrementAndGet());
+        units.put(remoteUnit.getUnitId(), remoteUnit);
+        try {
+            synchronized (output) {
+                output.writeByte(WireProtocol.SEARCH);
+                output.writeInt(remoteUnit.getUnitId());
+                keyCodec.write(output, keySearch);
+                Codec.listOf(pathCodec).write(output, canBeSearched);
+                output.flush();
+            }
+        } catch (IOException e) {
+            units.remove(remoteUnit.getUnitId());
+            breakOff();
+            return null;
+        }
+        if (!isAlive && units.remove(remoteUnit.getUnitId()) != null) {
+            return null;
+        }
+        return remoteUnit;
+    }
+
+    void steal(int unitId, int maxNodes) {
+        try {
+            synchronized (output) {
+                output.writeByte(WireProtocol.STEAL);
+                output.writeInt(unitId);
+                output.writeInt(maxNodes);
+                output.flush();
+            }
+        } catch (IOException e) {
+            breakOff();
+        }
+    }
+
+    /**
+     * The unit is forgotten at once, whatever the worker still sends for it is dropped.
+     */
+    void cancel(int unitId) {
+        if (units.remove(unitId) == null) {
+            return;
+        }
+        try {
+            synchronized (output) {
+                output.writeByte(WireProtocol.CANCEL);
+                output.writeInt(unitId);
+                output.flush();
+            }
+        } catch (IOException e) {
+            breakOff();
+        }
+    }
+
+    private void readFrames() {
+        try {
+            while (true) {
+                byte type = input.readByte();
+                int unitId = input.readInt();
+                if (type == WireProtocol.RESULTS) {
+                    List<ResultT> results = Codec.listOf(resultCodec).read(input);
+                    RemoteUnit<ResultT, PathT> remoteUnit = units.get(unitId);
+                    if (remoteUnit != null) {
+                        remoteUnit.offerResults(results);
+                    }
+                } else if (type == WireProtocol.STOLEN) {
+                    List<PathT> stolen = Codec.listOf(pathCodec).read(input);
+                    RemoteUnit<ResultT, PathT> remoteUnit = units.get(unitId);
+                    if (remoteUnit != null) {
+                        remoteUnit.offerStolen(stolen);
+                    }
+                } else if (type == WireProtocol.DONE) {
+                    visitedNodes.add(input.readLong());
+                    RemoteUnit<ResultT, PathT> remoteUnit = units.remove(unitId);
+                    if (remoteUnit != null) {
+                        remoteUnit.offerDone();
+                    }
+                } else {
+                    throw new IOException("Unknown frame type " + type);
+                }
+            }
+        } catch (IOException e) {
+            breakOff();
+        }
+    }
+
+    private void breakOff() {
+        isAlive = false;
+        for (Integer unitId : units.keySet()) {
+            RemoteUnit<ResultT, PathT> remoteUnit = units.remove(unitId);
+            if (remoteUnit != null) {
+                remoteUnit.offerLost();
+            }
+        }
+        try {
+            socket.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    boolean isAlive() {
+        return isAlive;
+    }
+
+    int getUnitNum() {
+        return units.size();
+    }
+
+    /**
+     * @return the nodes the worker visited for the units it has finished
+     */
+    long getVisitedNodes() {
+        return visitedNodes.sum();
+    }
+
+    @Override
+    public void close() {
+        breakOff();
+    }
+}
@@ -0,0 +1,60 @@
+package com.Albert.engine;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * @author Albert
+ */
+class BufferCursor<ResultT> implements ResultCursor<ResultT> {
+    private final ResultBuffer<ResultT> resultBuffer;
+    private final Runnable closeAction;
+    private final AtomicBoolean isClosed = new AtomicBoolean(false);
+    private volatile Runnable availableListener;
+
+    BufferCursor(ResultBuffer<ResultT> resultBuffer, Runnable closeAction) {
+        this.resultBuffer = resultBuffer;
+        this.closeAction = closeAction;
+    }
+
+    @Override
+    public ResultT poll() {
+        return resultBuffer.poll();
+    }
+
+    @Override
+    public ResultT poll(long timeout, TimeUnit unit) throws InterruptedException {
+        return resultBuffer.poll(timeout, unit);
+    }
+
+    @Override
+    public ResultT take() throws InterruptedException {
+        return resultBuffer.take();
+    }
+
+    @Override
+    public boolean isExhausted() {
+        return resultBuffer.isExhausted();
+    }
+
+    @Override
+    public void setAvailableListener(Runnable listener) {
+        availableListener = listener;
+        resultBuffer.addAvailableListener(listener);
+        if (isClosed.get()) {
+            resultBuffer.removeAvailableListener(listener);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (!isClosed.compareAndSet(false, true)) {
+            return;
+        }
+        Runnable listener = availableListener;
+        if (listener != null) {
+            resultBuffer.removeAvailableListener(listener);
+        }
+        closeAction.run();
+    }
+}
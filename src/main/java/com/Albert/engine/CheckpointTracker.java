@@ -0,0 +1,97 @@
+package com.Albert.engine;
+
+import com.Albert.checkpoint.QueryCheckpoint;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Follows which paths of one query are pending, and which results and visited paths are new since the last checkpoint.
+ * <p>
+ * A visit tracks its children and saves its results before its own path is untracked, and every change holds the read lock,
+ * so a checkpoint cut under the write lock never loses a node: every node is either pending in it
+ * or was visited with its results and children before it. A node that was being visited is visited again on resume,
+ * so its results may come twice unless the query has a result identity.
+ *
+ * @author Albert
+ */
+class CheckpointTracker<ResultT, PathT> {
+    static final ScheduledExecutorService CHECKPOINT_SCHEDULER = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "recurrent-search-checkpoint");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final ReadWriteLock cutLock = new ReentrantReadWriteLock();
+    private final Map<PathT, Integer> pendingPaths = new ConcurrentHashMap<>();
+    private final Queue<ResultT> newResults = new ConcurrentLinkedQueue<>();
+    private final Queue<Long> newFingerprints = new ConcurrentLinkedQueue<>();
+
+    void track(PathT canBeSearched) {
+        cutLock.readLock().lock();
+        try {
+            pendingPaths.merge(canBeSearched, 1, Integer::sum);
+        } finally {
+            cutLock.readLock().unlock();
+        }
+    }
+
+    void untrack(PathT canBeSearched) {
+        cutLock.readLock().lock();
+        try {
+            pendingPaths.computeIfPresent(canBeSearched, (path, count) -> count == 1 ? null : count - 1);
+        } finally {
+            cutLock.readLock().unlock();
+        }
+    }
+
+    void resultSaved(ResultT resultT) {
+        cutLock.readLock().lock();
+        try {
+            newResults.offer(resultT);
+        } finally {
+            cutLock.readLock().unlock();
+        }
+    }
+
+    void pathVisited(long fingerprint) {
+        cutLock.readLock().lock();
+        try {
+            newFingerprints.offer(fingerprint);
+        } finally {
+            cutLock.readLock().unlock();
+        }
+    }
+
+    QueryCheckpoint<ResultT, PathT> cut(long visitedNodes) {
+        cutLock.writeLock().lock();
+        try {
+            List<PathT> pending = new ArrayList<>(pendingPaths.size());
+            pendingPaths.forEach((path, count) -> {
+                for (int i = 0; i < count; i++) {
+                    pending.add(path);
+                }
+            });
+            List<ResultT> results = new ArrayList<>(newResults.size());
+            ResultT resultT;
+            while ((resultT = newResults.poll()) != null) {
+                results.add(resultT);
+            }
+            long[] fingerprints = new long[newFingerprints.size()];
+            for (int i = 0; i < fingerprints.length; i++) {
+                fingerprints[i] = newFingerprints.poll();
+            }
+            return new QueryCheckpoint<>(pending, results, fingerprints, visitedNodes);
+        } finally {
+            cutLock.writeLock().unlock();
+        }
+    }
+}
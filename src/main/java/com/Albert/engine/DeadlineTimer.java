@@ -0,0 +1,220 @@
+package com.Albert.engine;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A hashed timing wheel on one daemon thread, for the deadlines of any number of queries.
+ * Scheduling and cancelling only enqueue, the timer thread files new deadlines into the bucket of their tick
+ * and runs the due ones once per tick, so a deadline fires up to one tick late.
+ * <p>
+ * The tasks run on the timer thread and must be short, e.g. cancelling a {@link SearchGroup}.
+ *
+ * @author Albert
+ */
+public class DeadlineTimer {
+    private static final DeadlineTimer SHARED_TIMER = new DeadlineTimer(10, TimeUnit.MILLISECONDS, 512);
+    private static final String THREAD_NAME = "recurrent-search-deadline-timer";
+    private static final int MAX_TRANSFER_PER_TICK = 100_000;
+
+    private final long tickNanos;
+    private final Bucket[] wheel;
+    private final int mask;
+    private final Queue<Timeout> addedTimeouts = new ConcurrentLinkedQueue<>();
+    private final Queue<Timeout> cancelledTimeouts = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean isStarted = new AtomicBoolean();
+    private final long startNanos = System.nanoTime();
+    private long tick;
+
+    public static DeadlineTimer sharedTimer() {
+        return SHARED_TIMER;
+    }
+
+    /**
+     * @param bucketNum rounded up to a power of two
+     */
+    public DeadlineTimer(long tickDuration, TimeUnit unit, int bucketNum) {
+        if (tickDuration <= 0 || bucketNum <= 0) {
+            throw new IllegalArgumentException("tickDuration and bucketNum must be positive");
+        }
+        this.tickNanos = unit.toNanos(tickDuration);
+        int powerOfTwo = Integer.highestOneBit(bucketNum) == bucketNum ? bucketNum : Integer.highestOneBit(bucketNum) << 1;
+        this.wheel = new Bucket[powerOfTwo];
+        for (int i = 0; i < wheel.length; i++) {
+            wheel[i] = new Bucket();
+        }
+        this.mask = powerOfTwo - 1;
+    }
+
+    public Timeout schedule(Runnable task, long delay, TimeUnit unit) {
+        startIfNotStarted();
+        long elapsedNanos = System.nanoTime() - startNanos;
+        long delayNanos = unit.toNanos(delay);
+        long deadlineNanos = delayNanos > Long.MAX_VALUE - elapsedNanos ? Long.MAX_VALUE : elapsedNanos + delayNanos;
+        Timeout timeout = new Timeout(this, task, deadlineNanos);
+        addedTimeouts.offer(timeout);
+        return timeout;
+    }
+
+    private void startIfNotStarted() {
+        if (isStarted.compareAndSet(false, true)) {
+            Thread timerThread = new Thread(this::runTicks, THREAD_NAME);
+            timerThread.setDaemon(true);
+            timerThread.start();
+        }
+    }
+
+    private void runTicks() {
+        while (true) {
+            long tickDeadline = tickNanos * (tick + 1);
+            waitUntil(tickDeadline);
+            transferAddedTimeouts();
+            removeCancelledTimeouts();
+            wheel[(int) (tick & mask)].expireTimeouts();
+            tick++;
+        }
+    }
+
+    private void waitUntil(long tickDeadline) {
+        long remainingNanos;
+        while ((remainingNanos = tickDeadline - (System.nanoTime() - startNanos)) > 0) {
+            LockSupport.parkNanos(this, remainingNanos);
+        }
+    }
+
+    /**
+     * A deadline that is already due goes into the current bucket and fires on this tick.
+     */
+    private void transferAddedTimeouts() {
+        for (int i = 0; i < MAX_TRANSFER_PER_TICK; i++) {
+            Timeout timeout = addedTimeouts.poll();
+            if (timeout == null) {
+                return;
+            }
+            if (timeout.state.get() == Timeout.CANCELLED) {
+                continue;
+            }
+            long dueTick = timeout.deadlineNanos / tickNanos;
+            timeout.remainingRounds = (dueTick - tick) / wheel.length;
+            wheel[(int) (Math.max(dueTick, tick) & mask)].add(timeout);
+        }
+    }
+
+    private void removeCancelledTimeouts() {
+        Timeout timeout;
+        while ((timeout = cancelledTimeouts.poll()) != null) {
+            if (timeout.bucket != null) {
+                timeout.bucket.remove(timeout);
+            }
+        }
+    }
+
+    public static class Timeout {
+        private static final int WAITING = 0;
+        private static final int CANCELLED = 1;
+        private static final int EXPIRED = 2;
+
+        private final DeadlineTimer timer;
+        private final Runnable task;
+        private final long deadlineNanos;
+        private final AtomicInteger state = new AtomicInteger(WAITING);
+        private long remainingRounds;
+        private Bucket bucket;
+        private Timeout prev;
+        private Timeout next;
+
+        private Timeout(DeadlineTimer timer, Runnable task, long deadlineNanos) {
+            this.timer = timer;
+            this.task = task;
+            this.deadlineNanos = deadlineNanos;
+        }
+
+        /**
+         * @return false when the task has already run or was cancelled before
+         */
+        public boolean cancel() {
+            if (!state.compareAndSet(WAITING, CANCELLED)) {
+                return false;
+            }
+            timer.cancelledTimeouts.offer(this);
+            return true;
+        }
+
+        public boolean isExpired() {
+            return state.get() == EXPIRED;
+        }
+
+        public boolean isCancelled() {
+            return state.get() == CANCELLED;
+        }
+
+        private void expire() {
+            if (!state.compareAndSet(WAITING, EXPIRED)) {
+                return;
+            }
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * Only touched by the timer thread.
+     */
+    private static class Bucket {
+        private Timeout head;
+        private Timeout tail;
+
+        void add(Timeout timeout) {
+            timeout.bucket = this;
+            if (head == null) {
+                head = tail = timeout;
+            } else {
+                tail.next = timeout;
+                timeout.prev = tail;
+                tail = timeout;
+            }
+        }
+
+        void expireTimeouts() {
+            Timeout timeout = head;
+            while (timeout != null) {
+                Timeout next = timeout.next;
+                if (timeout.remainingRounds <= 0) {
+                    remove(timeout);
+                    timeout.expire();
+                } else if (timeout.isCancelled()) {
+                    remove(timeout);
+                } else {
+                    timeout.remainingRounds--;
+                }
+                timeout = next;
+            }
+        }
+
+        void remove(Timeout timeout) {
+            if (timeout.bucket != this) {
+                return;
+            }
+            if (timeout.prev == null) {
+                head = timeout.next;
+            } else {
+                timeout.prev.next = timeout.next;
+            }
+            if (timeout.next == null) {
+                tail = timeout.prev;
+            } else {
+                timeout.next.prev = timeout.prev;
+            }
+            timeout.prev = null;
+            timeout.next = null;
+            timeout.bucket = null;
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.Albert.engine;
+
+import java.util.Deque;
+import java.util.concurrent.ConcurrentLinkedDeque;
+
+/**
+ * Takes the oldest node first for a breadth-first order, or the newest one first for a depth-first order.
+ * A node is always stolen from the oldest end, where it usually roots the largest subtree.
+ *
+ * @author Albert
+ */
+class DequeFrontier<PathT> implements Frontier<PathT> {
+    private final Deque<PathT> paths = new ConcurrentLinkedDeque<>();
+    private final boolean isNewestFirst;
+
+    DequeFrontier(boolean isNewestFirst) {
+        this.isNewestFirst = isNewestFirst;
+    }
+
+    @Override
+    public void offer(PathT path) {
+        paths.offerLast(path);
+    }
+
+    @Override
+    public PathT poll() {
+        return isNewestFirst ? paths.pollLast() : paths.pollFirst();
+    }
+
+    @Override
+    public PathT steal() {
+        return paths.pollFirst();
+    }
+}
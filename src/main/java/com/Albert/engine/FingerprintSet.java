@@ -0,0 +1,138 @@
+package com.Albert.engine;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A concurrent set of 64-bit fingerprints, used to remember what a query has already seen.
+ * The set is split into stripes, each an open-addressing table of primitive longs behind its own lock,
+ * so a member costs about 11 bytes and writers mostly hit different locks.
+ *
+ * @author Albert
+ */
+public class FingerprintSet {
+    private static final int DEFAULT_STRIPE_NUM = 64;
+    private static final int INITIAL_STRIPE_CAPACITY = 64;
+    private static final long EMPTY = 0L;
+    private static final long FINGERPRINT_OF_EMPTY = 0x9E3779B97F4A7C15L;
+
+    private final Stripe[] stripes;
+    private final int stripeMask;
+
+    public FingerprintSet() {
+        this(DEFAULT_STRIPE_NUM);
+    }
+
+    public FingerprintSet(int stripeNum) {
+        int stripeNumPowerOfTwo = 1;
+        while (stripeNumPowerOfTwo < stripeNum) {
+            stripeNumPowerOfTwo <<= 1;
+        }
+        this.stripes = new Stripe[stripeNumPowerOfTwo];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new Stripe();
+        }
+        this.stripeMask = stripeNumPowerOfTwo - 1;
+    }
+
+    /**
+     * @return true when the fingerprint was not in the set before
+     */
+    public boolean add(long fingerprint) {
+        long mixed = mix(fingerprint);
+        if (mixed == EMPTY) {
+            mixed = FINGERPRINT_OF_EMPTY;
+        }
+        return stripes[(int) (mixed >>> 32) & stripeMask].add(mixed);
+    }
+
+    public boolean contains(long fingerprint) {
+        long mixed = mix(fingerprint);
+        if (mixed == EMPTY) {
+            mixed = FINGERPRINT_OF_EMPTY;
+        }
+        return stripes[(int) (mixed >>> 32) & stripeMask].contains(mixed);
+    }
+
+    public long size() {
+        long size = 0;
+        for (Stripe stripe : stripes) {
+            size += stripe.size;
+        }
+        return size;
+    }
+
+    /**
+     * The finalizer of MurmurHash3, it spreads the fingerprint over all bits before the stripe
+     * and the slot are taken from it.
+     */
+    static long mix(long fingerprint) {
+        fingerprint ^= fingerprint >>> 33;
+        fingerprint *= 0xFF51AFD7ED558CCDL;
+        fingerprint ^= fingerprint >>> 33;
+        fingerprint *= 0xC4CEB9FE1A85EC53L;
+        fingerprint ^= fingerprint >>> 33;
+        return fingerprint;
+    }
+
+    private static class Stripe {
+        private final ReentrantLock lock = new ReentrantLock();
+        private long[] table = new long[INITIAL_STRIPE_CAPACITY];
+        private volatile int size;
+
+        boolean add(long mixed) {
+            lock.lock();
+            try {
+                if (!insert(table, mixed)) {
+                    return false;
+                }
+                size++;
+                if (size > table.length - (table.length >>> 2)) {
+                    resize();
+                }
+                return true;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        boolean contains(long mixed) {
+            lock.lock();
+            try {
+                int mask = table.length - 1;
+                for (int slot = (int) mixed & mask; ; slot = (slot + 1) & mask) {
+                    if (table[slot] == EMPTY) {
+                        return false;
+                    }
+                    if (table[slot] == mixed) {
+                        return true;
+                    }
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private static boolean insert(long[] table, long mixed) {
+            int mask = table.length - 1;
+            for (int slot = (int) mixed & mask; ; slot = (slot + 1) & mask) {
+                if (table[slot] == EMPTY) {
+                    table[slot] = mixed;
+                    return true;
+                }
+                if (table[slot] == mixed) {
+                    return false;
+                }
+            }
+        }
+
+        private void resize() {
+            long[] newTable = new long[table.length << 1];
+            for (long mixed : table) {
+                if (mixed != EMPTY) {
+                    insert(newTable, mixed);
+                }
+            }
+            table = newTable;
+        }
+    }
+}
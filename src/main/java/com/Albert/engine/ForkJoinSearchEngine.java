@@ -0,0 +1,45 @@
+package com.Albert.engine;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @author Albert
+ */
+class ForkJoinSearchEngine extends SearchEngine {
+    private static final String WORKER_NAME_PREFIX = "recurrent-search-worker-";
+
+    private final ForkJoinPool searchPool;
+
+    ForkJoinSearchEngine(int parallelism) {
+        this.searchPool = new ForkJoinPool(parallelism, createWorkerFactory(), null, false);
+    }
+
+    private static ForkJoinPool.ForkJoinWorkerThreadFactory createWorkerFactory() {
+        AtomicInteger workerNum = new AtomicInteger();
+        return pool -> {
+            ForkJoinWorkerThread worker = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            worker.setName(WORKER_NAME_PREFIX + workerNum.incrementAndGet());
+            return worker;
+        };
+    }
+
+    /**
+     * A visit scheduled from one of our own workers is pushed onto that worker's local deque,
+     * idle workers steal from the other end. Anything else goes through the pool's submission queue.
+     */
+    @Override
+    void execute(Runnable visit) {
+        if (isInSearchPool()) {
+            ForkJoinTask.adapt(visit).fork();
+        } else {
+            searchPool.execute(visit);
+        }
+    }
+
+    private boolean isInSearchPool() {
+        return ForkJoinTask.getPool() == searchPool;
+    }
+}
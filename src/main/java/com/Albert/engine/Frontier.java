@@ -0,0 +1,24 @@
+package com.Albert.engine;
+
+/**
+ * The nodes of one query that are scheduled but not visited yet. Every offered node gets a visit task,
+ * and the task takes whichever node the frontier says is next, so the order of the engine's own queue no longer matters.
+ * <p>
+ * {@link #poll()} returns null only when the frontier is empty, a relaxed frontier may take a node out of order
+ * but never misses one. A task that finds no node had its node stolen, see {@link #steal()}.
+ *
+ * @author Albert
+ */
+interface Frontier<PathT> {
+
+    void offer(PathT path);
+
+    PathT poll();
+
+    /**
+     * Takes a node for another traversal to visit, by default the one {@link #poll()} would take.
+     */
+    default PathT steal() {
+        return poll();
+    }
+}
@@ -0,0 +1,39 @@
+package com.Albert.engine;
+
+import java.util.function.Function;
+
+/**
+ * Tells which paths or results are the same thing, as a 64-bit fingerprint.
+ * Two values with the same fingerprint are treated as duplicates, so a fingerprint should
+ * be derived from a precise identity such as a canonical path or a file key, never from a 32-bit hashCode.
+ *
+ * @author Albert
+ */
+@FunctionalInterface
+public interface IdentityKey<T> {
+
+    long fingerprintOf(T value);
+
+    static <T> IdentityKey<T> ofText(Function<T, ? extends CharSequence> identityText) {
+        return value -> fingerprintOf(identityText.apply(value));
+    }
+
+    static <T> IdentityKey<T> ofToString() {
+        return value -> fingerprintOf(String.valueOf(value));
+    }
+
+    /**
+     * 64-bit FNV-1a over the UTF-16 chars of the text.
+     */
+    static long fingerprintOf(CharSequence text) {
+        long hash = 0xCBF29CE484222325L;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            hash ^= c & 0xFF;
+            hash *= 0x100000001B3L;
+            hash ^= c >>> 8;
+            hash *= 0x100000001B3L;
+        }
+        return hash;
+    }
+}
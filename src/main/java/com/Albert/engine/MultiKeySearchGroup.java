@@ -0,0 +1,218 @@
+package com.Albert.engine;
+
+import com.Albert.pojo.MessageOfKeysSearched;
+import com.Albert.pojo.MessageOfSearched;
+import com.Albert.searchModel.MultiKeySearchModel;
+import com.Albert.searchModel.SearchModel;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One traversal for several keys. Every node is visited once and checked against all keys that are still wanted,
+ * the results of every key go into a {@link ResultLog} of its own.
+ * <p>
+ * Cancelling the handle of one key only closes its log and stops checking nodes against it,
+ * the traversal is cancelled once no key is wanted any more.
+ *
+ * @author Albert
+ */
+public class MultiKeySearchGroup<KeyT, ResultT, PathT> {
+    private final SearchGroup<List<KeyT>, KeyedResult<KeyT, ResultT>, PathT> searchGroup;
+    private final KeyedResults<KeyT, ResultT> keyedResults;
+    private final List<KeyT> wantedKeys;
+
+    MultiKeySearchGroup(SearchEngine searchEngine, MultiKeySearchModel<KeyT, PathT> searchModel, List<KeyT> keysSearch, SearchSetting<ResultT, PathT> searchSetting) {
+        this.keyedResults = new KeyedResults<>(keysSearch);
+        this.wantedKeys = new CopyOnWriteArrayList<>(keyedResults.logs.keySet());
+        this.searchGroup = new SearchGroup<>(searchEngine, new KeysSearchModel<>(searchModel), wantedKeys, keyedSettingOf(searchSetting), keyedResults);
+    }
+
+    private static <KeyT, ResultT, PathT> SearchSetting<KeyedResult<KeyT, ResultT>, PathT> keyedSettingOf(SearchSetting<ResultT, PathT> searchSetting) {
+        SearchSetting<KeyedResult<KeyT, ResultT>, PathT> keyedSetting = SearchSetting.<KeyedResult<KeyT, ResultT>, PathT>defaultSetting()
+                .setSearchEngine(searchSetting.getSearchEngine())
+                .setPathIdentity(searchSetting.getPathIdentity())
+                .setTraversalOrder(searchSetting.getTraversalOrder())
+                .setSearchMetrics(searchSetting.getSearchMetrics());
+        IdentityKey<ResultT> resultIdentity = searchSetting.getResultIdentity();
+        if (resultIdentity != null) {
+            keyedSetting.setResultIdentity(keyedResult -> resultIdentity.fingerprintOf(keyedResult.result) * 0x9E3779B97F4A7C15L
+                    ^ IdentityKey.fingerprintOf(String.valueOf(keyedResult.key)));
+        }
+        return keyedSetting;
+    }
+
+    public void startSearch(List<PathT> canBeSearched) {
+        searchGroup.startSearch(canBeSearched);
+    }
+
+    public List<KeyT> getKeysSearch() {
+        return new ArrayList<>(keyedResults.logs.keySet());
+    }
+
+    /**
+     * @throws IllegalArgumentException when the key is not one of the keys of this traversal
+     */
+    public ResultLog<ResultT> getResultLog(KeyT keySearch) {
+        ResultLog<ResultT> resultLog = keyedResults.logs.get(keySearch);
+        if (resultLog == null) {
+            throw new IllegalArgumentException(keySearch + " is not searched by this traversal");
+        }
+        return resultLog;
+    }
+
+    public SearchHandle<ResultT> handleOf(KeyT keySearch) {
+        return new KeyHandle(keySearch, getResultLog(keySearch));
+    }
+
+    /**
+     * Runs the listener once the traversal has finished, at once if it already has.
+     */
+    public void whenComplete(Runnable listener) {
+        searchGroup.whenComplete(listener);
+    }
+
+    public void cancel() {
+        searchGroup.cancel();
+    }
+
+    public SearchProgress progress() {
+        return searchGroup.progress();
+    }
+
+    private void unwant(KeyT keySearch, ResultLog<ResultT> resultLog) {
+        if (wantedKeys.remove(keySearch)) {
+            resultLog.close();
+        }
+        if (wantedKeys.isEmpty()) {
+            searchGroup.cancel();
+        }
+    }
+
+    private class KeyHandle implements SearchHandle<ResultT> {
+        private final KeyT keySearch;
+        private final ResultLog<ResultT> resultLog;
+
+        KeyHandle(KeyT keySearch, ResultLog<ResultT> resultLog) {
+            this.keySearch = keySearch;
+            this.resultLog = resultLog;
+        }
+
+        @Override
+        public void cancel() {
+            if (!searchGroup.isComplete()) {
+                unwant(keySearch, resultLog);
+            }
+        }
+
+        /**
+         * The node counts belong to the whole traversal, the results to this key.
+         */
+        @Override
+        public SearchProgress progress() {
+            SearchProgress progress = searchGroup.progress();
+            boolean isUnwanted = !wantedKeys.contains(keySearch);
+            return new SearchProgress(progress.getVisitedNodes(), progress.getPendingNodes(), resultLog.size(),
+                    progress.isComplete() || isUnwanted, progress.isCancelled() || isUnwanted);
+        }
+
+        @Override
+        public void await() throws InterruptedException {
+            if (wantedKeys.contains(keySearch)) {
+                searchGroup.await();
+            }
+        }
+
+        @Override
+        public boolean await(long timeout, TimeUnit unit) throws InterruptedException {
+            return !wantedKeys.contains(keySearch) || searchGroup.await(timeout, unit);
+        }
+
+        @Override
+        public ResultCursor<ResultT> openCursor() {
+            return resultLog.openCursor();
+        }
+    }
+
+    static class KeyedResult<KeyT, ResultT> {
+        final KeyT key;
+        final ResultT result;
+
+        KeyedResult(KeyT key, ResultT result) {
+            this.key = key;
+            this.result = result;
+        }
+    }
+
+    /**
+     * Hands every node to the model with the keys that are still wanted, and tags each result with its key.
+     */
+    private static class KeysSearchModel<KeyT, ResultT, PathT> implements SearchModel<List<KeyT>, PathT> {
+        private final MultiKeySearchModel<KeyT, PathT> searchModel;
+
+        KeysSearchModel(MultiKeySearchModel<KeyT, PathT> searchModel) {
+            this.searchModel = searchModel;
+        }
+
+        @Override
+        public MessageOfSearched search(List<KeyT> wantedKeys, PathT canBeSearched) {
+            MessageOfKeysSearched<KeyT, ResultT, PathT> messageOfKeysSearched = searchModel.searchKeys(wantedKeys, canBeSearched);
+            List<KeyedResult<KeyT, ResultT>> keyedResults = new ArrayList<>();
+            messageOfKeysSearched.getTrueResults().get().forEach((keySearch, results) ->
+                    results.forEach(result -> keyedResults.add(new KeyedResult<>(keySearch, result))));
+            return new MessageOfSearched<>(keyedResults, messageOfKeysSearched.getCanBeSearched().get());
+        }
+    }
+
+    /**
+     * Results of a key that is no longer wanted are dropped.
+     */
+    private static class KeyedResults<KeyT, ResultT> extends ResultOutput<KeyedResult<KeyT, ResultT>> {
+        final Map<KeyT, ResultLog<ResultT>> logs;
+        private volatile boolean isClosed = false;
+
+        KeyedResults(List<KeyT> keysSearch) {
+            Map<KeyT, ResultLog<ResultT>> keyLogs = new LinkedHashMap<>();
+            keysSearch.forEach(keySearch -> keyLogs.put(keySearch, new ResultLog<>()));
+            this.logs = Collections.unmodifiableMap(keyLogs);
+        }
+
+        @Override
+        public void offer(KeyedResult<KeyT, ResultT> keyedResult) {
+            ResultLog<ResultT> resultLog = logs.get(keyedResult.key);
+            if (resultLog != null && !resultLog.isClosed()) {
+                resultLog.offer(keyedResult.result);
+            }
+        }
+
+        @Override
+        public boolean remove(KeyedResult<KeyT, ResultT> keyedResult) {
+            ResultLog<ResultT> resultLog = logs.get(keyedResult.key);
+            return resultLog != null && resultLog.remove(keyedResult.result);
+        }
+
+        @Override
+        void close() {
+            isClosed = true;
+            logs.values().forEach(ResultLog::close);
+        }
+
+        @Override
+        public boolean isClosed() {
+            return isClosed;
+        }
+
+        /**
+         * Every key has a log of its own, so the traversal is never held back for one of them.
+         */
+        @Override
+        long unreadNum() {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.Albert.engine;
+
+import java.util.PriorityQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * A multi-queue: a few locked priority queues per worker instead of one shared heap. A node goes into
+ * whichever queue is free, a poll compares the heads of two random queues and takes the better one.
+ * The order is only roughly by priority, but workers seldom wait on the same lock.
+ * <p>
+ * When the sampled queues look empty or are busy, a poll locks every queue and takes the best head among them,
+ * so it only returns null when the frontier is empty.
+ *
+ * @author Albert
+ */
+class RelaxedPriorityFrontier<PathT> implements Frontier<PathT> {
+    private static final int QUEUES_PER_WORKER = 2;
+    private static final int SAMPLE_TIMES = 2;
+
+    private final ToDoubleFunction<PathT> priority;
+    private final Lane<PathT>[] lanes;
+
+    @SuppressWarnings("unchecked")
+    RelaxedPriorityFrontier(ToDoubleFunction<PathT> priority, int workerNum) {
+        this.priority = priority;
+        this.lanes = new Lane[Math.max(2, workerNum * QUEUES_PER_WORKER)];
+        for (int i = 0; i < lanes.length; i++) {
+            lanes[i] = new Lane<>();
+        }
+    }
+
+    @Override
+    public void offer(PathT path) {
+        Prioritized<PathT> prioritized = new Prioritized<>(path, priority.applyAsDouble(path));
+        while (true) {
+            Lane<PathT> lane = randomLane();
+            if (lane.lock.tryLock()) {
+                try {
+                    lane.add(prioritized);
+                    return;
+                } finally {
+                    lane.lock.unlock();
+                }
+            }
+        }
+    }
+
+    @Override
+    public PathT poll() {
+        for (int i = 0; i < SAMPLE_TIMES; i++) {
+            Lane<PathT> one = randomLane();
+            Lane<PathT> other = randomLane();
+            Lane<PathT> better = one.headPriority >= other.headPriority ? one : other;
+            if (better.headPriority == Lane.EMPTY) {
+                break;
+            }
+            if (better.lock.tryLock()) {
+                try {
+                    PathT path = better.poll();
+                    if (path != null) {
+                        return path;
+                    }
+                } finally {
+                    better.lock.unlock();
+                }
+            }
+        }
+        return pollFromAllLanes();
+    }
+
+    /**
+     * Offers only ever try a lock, and scans take the locks in one order, so a scan waits but never deadlocks.
+     */
+    private PathT pollFromAllLanes() {
+        int lockedNum = 0;
+        try {
+            Lane<PathT> best = null;
+            for (Lane<PathT> lane : lanes) {
+                lane.lock.lock();
+                lockedNum++;
+                if (!lane.queue.isEmpty() && (best == null || lane.headPriority > best.headPriority)) {
+                    best = lane;
+                }
+            }
+            return best == null ? null : best.poll();
+        } finally {
+            for (int i = 0; i < lockedNum; i++) {
+                lanes[i].lock.unlock();
+            }
+        }
+    }
+
+    private Lane<PathT> randomLane() {
+        return lanes[ThreadLocalRandom.current().nextInt(lanes.length)];
+    }
+
+    private static class Lane<PathT> {
+        static final double EMPTY = Double.NEGATIVE_INFINITY;
+
+        final ReentrantLock lock = new ReentrantLock();
+        final PriorityQueue<Prioritized<PathT>> queue = new PriorityQueue<>();
+        /**
+         * Read without the lock to pick a lane, a stale value only makes the order a little less exact.
+         */
+        volatile double headPriority = EMPTY;
+
+        void add(Prioritized<PathT> prioritized) {
+            queue.add(prioritized);
+            headPriority = queue.peek().priority;
+        }
+
+        PathT poll() {
+            Prioritized<PathT> head = queue.poll();
+            Prioritized<PathT> next = queue.peek();
+            headPriority = next == null ? EMPTY : next.priority;
+            return head == null ? null : head.path;
+        }
+    }
+
+    private static class Prioritized<PathT> implements Comparable<Prioritized<PathT>> {
+        final PathT path;
+        final double priority;
+
+        Prioritized(PathT path, double priority) {
+            this.path = path;
+            this.priority = priority;
+        }
+
+        @Override
+        public int compareTo(Prioritized<PathT> other) {
+            return Double.compare(other.priority, priority);
+        }
+    }
+}
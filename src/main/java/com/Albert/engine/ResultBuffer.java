@@ -0,0 +1,186 @@
+package com.Albert.engine;
+
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * The results of one query. Unlike a plain BlockingQueue it knows when the traversal
+ * has finished, so a waiting reader wakes up as soon as nothing more can arrive.
+ * <p>
+ * A bounded buffer never blocks the traversal, it makes it hold back its next nodes until the readers
+ * have taken enough results, see {@link SearchSetting#setResultCapacity(int)}.
+ *
+ * @author Albert
+ */
+public class ResultBuffer<ResultT> extends ResultOutput<ResultT> {
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmptyOrClosed = lock.newCondition();
+    private final ArrayDeque<ResultT> results = new ArrayDeque<>();
+    private final List<Runnable> availableListeners = new CopyOnWriteArrayList<>();
+    private volatile boolean isClosed = false;
+
+    public ResultBuffer() {
+        super();
+    }
+
+    /**
+     * @param capacity how many results may wait for a reader before the traversal holds back, or {@link SearchSetting#UNBOUNDED}
+     */
+    public ResultBuffer(int capacity) {
+        super(capacity);
+    }
+
+    @Override
+    public void offer(ResultT resultT) {
+        lock.lock();
+        try {
+            results.offer(resultT);
+            notEmptyOrClosed.signal();
+        } finally {
+            lock.unlock();
+        }
+        notifyAvailableListeners();
+    }
+
+    /**
+     * @return false when the result is not in the buffer, it may have been taken by a reader already
+     */
+    @Override
+    public boolean remove(ResultT resultT) {
+        lock.lock();
+        try {
+            return results.remove(resultT);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    void close() {
+        lock.lock();
+        try {
+            isClosed = true;
+            notEmptyOrClosed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        notifyAvailableListeners();
+    }
+
+    private void notifyAvailableListeners() {
+        if (!availableListeners.isEmpty()) {
+            availableListeners.forEach(Runnable::run);
+        }
+    }
+
+    /**
+     * The listener runs on the producing thread after every new result and once the buffer is closed,
+     * it must not block.
+     */
+    void addAvailableListener(Runnable listener) {
+        availableListeners.add(listener);
+    }
+
+    void removeAvailableListener(Runnable listener) {
+        availableListeners.remove(listener);
+    }
+
+    /**
+     * A cursor that takes its results out of this buffer and runs closeAction when it is closed.
+     */
+    public ResultCursor<ResultT> openConsumingCursor(Runnable closeAction) {
+        return new BufferCursor<>(this, closeAction);
+    }
+
+    public ResultT poll() {
+        ResultT resultT;
+        lock.lock();
+        try {
+            resultT = results.poll();
+        } finally {
+            lock.unlock();
+        }
+        afterRead();
+        return resultT;
+    }
+
+    /**
+     * @return the next result, or null when the timeout elapsed or the buffer is exhausted
+     */
+    public ResultT poll(long timeout, TimeUnit unit) throws InterruptedException {
+        long nanos = unit.toNanos(timeout);
+        ResultT resultT;
+        lock.lockInterruptibly();
+        try {
+            while (results.isEmpty()) {
+                if (isClosed || nanos <= 0) {
+                    return null;
+                }
+                nanos = notEmptyOrClosed.awaitNanos(nanos);
+            }
+            resultT = results.poll();
+        } finally {
+            lock.unlock();
+        }
+        afterRead();
+        return resultT;
+    }
+
+    /**
+     * @return the next result, or null when the buffer is exhausted
+     */
+    public ResultT take() throws InterruptedException {
+        ResultT resultT;
+        lock.lockInterruptibly();
+        try {
+            while (results.isEmpty()) {
+                if (isClosed) {
+                    return null;
+                }
+                notEmptyOrClosed.await();
+            }
+            resultT = results.poll();
+        } finally {
+            lock.unlock();
+        }
+        afterRead();
+        return resultT;
+    }
+
+    @Override
+    public boolean isClosed() {
+        return isClosed;
+    }
+
+    public boolean isExhausted() {
+        lock.lock();
+        try {
+            return isClosed && results.isEmpty();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    long queuedNum() {
+        return size();
+    }
+
+    @Override
+    long unreadNum() {
+        return size();
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return results.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
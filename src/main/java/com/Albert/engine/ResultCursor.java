@@ -0,0 +1,43 @@
+package com.Albert.engine;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One reader's position in the results of a query.
+ *
+ * @author Albert
+ */
+public interface ResultCursor<ResultT> extends AutoCloseable {
+
+    /**
+     * @return the next result, or null when none is available right now
+     */
+    ResultT poll();
+
+    /**
+     * @return the next result, or null when the timeout elapsed or the cursor is exhausted
+     */
+    ResultT poll(long timeout, TimeUnit unit) throws InterruptedException;
+
+    /**
+     * @return the next result, or null when the cursor is exhausted
+     */
+    ResultT take() throws InterruptedException;
+
+    /**
+     * @return true when no result is left for this cursor and none will arrive
+     */
+    boolean isExhausted();
+
+    /**
+     * Runs the listener whenever a result may have become available or the cursor may have become exhausted.
+     * The listener runs on the producing thread and must not block.
+     */
+    void setAvailableListener(Runnable listener);
+
+    /**
+     * Detaches the reader, the traversal is stopped if nobody else needs it.
+     */
+    @Override
+    void close();
+}
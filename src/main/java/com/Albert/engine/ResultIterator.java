@@ -0,0 +1,69 @@
+package com.Albert.engine;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Hands out results while the traversal is still running. {@link #hasNext()} blocks until the next result
+ * arrives or the search is exhausted; closing the iterator, or the stream made from it, detaches it from the search.
+ *
+ * @author Albert
+ */
+public class ResultIterator<ResultT> implements Iterator<ResultT>, AutoCloseable {
+    private final ResultCursor<ResultT> resultCursor;
+    private ResultT nextResult;
+    private boolean isEnd = false;
+
+    public ResultIterator(ResultCursor<ResultT> resultCursor) {
+        this.resultCursor = resultCursor;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (nextResult != null) {
+            return true;
+        }
+        if (isEnd) {
+            return false;
+        }
+        nextResult = takeWithTryCatch();
+        if (nextResult == null) {
+            close();
+        }
+        return nextResult != null;
+    }
+
+    private ResultT takeWithTryCatch() {
+        try {
+            return resultCursor.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    @Override
+    public ResultT next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        ResultT resultT = nextResult;
+        nextResult = null;
+        return resultT;
+    }
+
+    @Override
+    public void close() {
+        isEnd = true;
+        resultCursor.close();
+    }
+
+    public Stream<ResultT> stream() {
+        Spliterator<ResultT> spliterator = Spliterators.spliteratorUnknownSize(this, Spliterator.ORDERED | Spliterator.NONNULL);
+        return StreamSupport.stream(spliterator, false).onClose(this::close);
+    }
+}
@@ -0,0 +1,292 @@
+package com.Albert.engine;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * The results of one query kept for replay, e.g. by a cache. Results are only ever appended,
+ * into chunks linked one after the other, and every reader walks them with its own {@link ResultCursor},
+ * so any number of readers share the results without copying or taking anything out.
+ * <p>
+ * A writer reserves a slot with one atomic increment and publishes the result into it, readers never lock
+ * unless they wait for a result that has not arrived yet. A removed result is overwritten by a tombstone
+ * that readers skip, a reader that has already passed it keeps it.
+ * <p>
+ * A bounded log keeps every result, its capacity only limits how far the traversal runs ahead of the furthest
+ * reader. A cached query that no one reads any more thus pauses, and goes on once a reader comes back for more.
+ *
+ * @author Albert
+ */
+public class ResultLog<ResultT> extends ResultOutput<ResultT> {
+    private static final int CHUNK_SIZE = 256;
+    private static final Object TOMBSTONE = new Object();
+
+    private final Chunk head = new Chunk(0);
+    private volatile Chunk tailChunk = head;
+    private final AtomicLong reservedNum = new AtomicLong();
+    private final AtomicLong removedNum = new AtomicLong();
+    private final AtomicLong furthestReadNum = new AtomicLong();
+    private final AtomicInteger waiterNum = new AtomicInteger();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition appendedOrClosed = lock.newCondition();
+    private final List<Runnable> availableListeners = new CopyOnWriteArrayList<>();
+    private volatile boolean isClosed = false;
+
+    public ResultLog() {
+        super();
+    }
+
+    /**
+     * @param capacity how many results the traversal may run ahead of the furthest reader, or {@link SearchSetting#UNBOUNDED}
+     */
+    public ResultLog(int capacity) {
+        super(capacity);
+    }
+
+    /**
+     * Results appended after the log was closed, e.g. by patching a cached query, are seen by new cursors
+     * and by cursors that are not exhausted yet.
+     */
+    @Override
+    public void offer(ResultT resultT) {
+        long index = reservedNum.getAndIncrement();
+        Chunk chunk = chunkOf(index);
+        chunk.slots.set((int) (index - chunk.firstIndex), resultT);
+        signalWaiters();
+        notifyAvailableListeners();
+    }
+
+    private Chunk chunkOf(long index) {
+        Chunk chunk = tailChunk;
+        if (chunk.firstIndex > index) {
+            chunk = head;
+        }
+        while (index >= chunk.firstIndex + CHUNK_SIZE) {
+            chunk = chunk.nextOrCreate();
+        }
+        if (chunk.firstIndex > tailChunk.firstIndex) {
+            tailChunk = chunk;
+        }
+        return chunk;
+    }
+
+    private void signalWaiters() {
+        if (waiterNum.get() > 0) {
+            lock.lock();
+            try {
+                appendedOrClosed.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private void notifyAvailableListeners() {
+        if (!availableListeners.isEmpty()) {
+            availableListeners.forEach(Runnable::run);
+        }
+    }
+
+    /**
+     * Replaces the first appearance of the result by a tombstone.
+     */
+    @Override
+    public boolean remove(ResultT resultT) {
+        long publishedNum = reservedNum.get();
+        Chunk chunk = head;
+        for (long index = 0; index < publishedNum; index++) {
+            if (index >= chunk.firstIndex + CHUNK_SIZE) {
+                chunk = chunk.nextOrCreate();
+            }
+            int slot = (int) (index - chunk.firstIndex);
+            Object result = chunk.slots.get(slot);
+            if (result != TOMBSTONE && resultT.equals(result) && chunk.slots.compareAndSet(slot, result, TOMBSTONE)) {
+                removedNum.incrementAndGet();
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Replaces the first appearance of every result by a tombstone in one walk over the log,
+     * a result given n times loses its first n appearances.
+     *
+     * @return how many results were removed
+     */
+    public int removeAll(Collection<? extends ResultT> resultTs) {
+        Map<Object, Integer> remainingNums = new HashMap<>();
+        resultTs.forEach(resultT -> remainingNums.merge(resultT, 1, Integer::sum));
+        long publishedNum = reservedNum.get();
+        Chunk chunk = head;
+        int removed = 0;
+        for (long index = 0; index < publishedNum && !remainingNums.isEmpty(); index++) {
+            if (index >= chunk.firstIndex + CHUNK_SIZE) {
+                chunk = chunk.nextOrCreate();
+            }
+            int slot = (int) (index - chunk.firstIndex);
+            Object result = chunk.slots.get(slot);
+            if (result != null && result != TOMBSTONE && remainingNums.containsKey(result) && chunk.slots.compareAndSet(slot, result, TOMBSTONE)) {
+                remainingNums.computeIfPresent(result, (key, remainingNum) -> remainingNum == 1 ? null : remainingNum - 1);
+                removed++;
+            }
+        }
+        removedNum.addAndGet(removed);
+        return removed;
+    }
+
+    @Override
+    void close() {
+        isClosed = true;
+        lock.lock();
+        try {
+            appendedOrClosed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        notifyAvailableListeners();
+    }
+
+    @Override
+    public boolean isClosed() {
+        return isClosed;
+    }
+
+    /**
+     * @return the number of results that are not removed, including results that are being appended right now
+     */
+    public long size() {
+        return reservedNum.get() - removedNum.get();
+    }
+
+    @Override
+    long unreadNum() {
+        return reservedNum.get() - furthestReadNum.get();
+    }
+
+    private void readUpTo(long readNum) {
+        if (isBounded()) {
+            if (readNum > furthestReadNum.get()) {
+                furthestReadNum.accumulateAndGet(readNum, Math::max);
+            }
+            afterRead();
+        }
+    }
+
+    /**
+     * A cursor that reads the log from its first result.
+     */
+    public ResultCursor<ResultT> openCursor() {
+        return new LogCursor();
+    }
+
+    private class Chunk {
+        final long firstIndex;
+        final AtomicReferenceArray<Object> slots = new AtomicReferenceArray<>(CHUNK_SIZE);
+        final AtomicReference<Chunk> next = new AtomicReference<>();
+
+        Chunk(long firstIndex) {
+            this.firstIndex = firstIndex;
+        }
+
+        Chunk nextOrCreate() {
+            Chunk nextChunk = next.get();
+            if (nextChunk == null) {
+                next.compareAndSet(null, new Chunk(firstIndex + CHUNK_SIZE));
+                nextChunk = next.get();
+            }
+            return nextChunk;
+        }
+    }
+
+    private class LogCursor implements ResultCursor<ResultT> {
+        private Chunk chunk = head;
+        private long index = 0;
+        private volatile Runnable availableListener;
+        private volatile boolean isCursorClosed = false;
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public synchronized ResultT poll() {
+            while (index < reservedNum.get()) {
+                if (index >= chunk.firstIndex + CHUNK_SIZE) {
+                    chunk = chunk.nextOrCreate();
+                }
+                Object result = chunk.slots.get((int) (index - chunk.firstIndex));
+                if (result == null) {
+                    return null;
+                }
+                index++;
+                readUpTo(index);
+                if (result != TOMBSTONE) {
+                    return (ResultT) result;
+                }
+            }
+            return null;
+        }
+
+        @Override
+        public ResultT poll(long timeout, TimeUnit unit) throws InterruptedException {
+            ResultT resultT = poll();
+            if (resultT != null || isExhausted()) {
+                return resultT;
+            }
+            long nanos = unit.toNanos(timeout);
+            waiterNum.incrementAndGet();
+            lock.lockInterruptibly();
+            try {
+                while ((resultT = poll()) == null) {
+                    if (isExhausted() || nanos <= 0) {
+                        return null;
+                    }
+                    nanos = appendedOrClosed.awaitNanos(nanos);
+                }
+                return resultT;
+            } finally {
+                lock.unlock();
+                waiterNum.decrementAndGet();
+            }
+        }
+
+        @Override
+        public ResultT take() throws InterruptedException {
+            return poll(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public synchronized boolean isExhausted() {
+            return isClosed && index >= reservedNum.get();
+        }
+
+        @Override
+        public void setAvailableListener(Runnable listener) {
+            availableListener = listener;
+            availableListeners.add(listener);
+            if (isCursorClosed) {
+                availableListeners.remove(listener);
+            }
+        }
+
+        /**
+         * Only detaches the reader, the log and its traversal are not affected.
+         */
+        @Override
+        public void close() {
+            isCursorClosed = true;
+            Runnable listener = availableListener;
+            if (listener != null) {
+                availableListeners.remove(listener);
+            }
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.Albert.engine;
+
+/**
+ * Where a {@link SearchGroup} puts its results.
+ * <p>
+ * With a capacity the output reports itself full once that many results wait for the furthest reader,
+ * and runs the space listener when the readers have caught up to half of it again.
+ *
+ * @author Albert
+ */
+abstract class ResultOutput<ResultT> {
+    private final int capacity;
+    private volatile boolean isAwaitingSpace = false;
+    private volatile Runnable spaceListener;
+
+    ResultOutput() {
+        this(SearchSetting.UNBOUNDED);
+    }
+
+    ResultOutput(int capacity) {
+        if (capacity == 0 || capacity < SearchSetting.UNBOUNDED) {
+            throw new IllegalArgumentException("The capacity must be positive or UNBOUNDED");
+        }
+        this.capacity = capacity;
+    }
+
+    public abstract void offer(ResultT resultT);
+
+    /**
+     * Withdraws a result that is no longer true, e.g. because its file was deleted.
+     */
+    public abstract boolean remove(ResultT resultT);
+
+    /**
+     * Called once the traversal has finished.
+     */
+    abstract void close();
+
+    /**
+     * No more results will be produced by the traversal.
+     */
+    public abstract boolean isClosed();
+
+    /**
+     * @return the results that wait for a reader to take them, 0 when the results are kept for replay instead
+     */
+    long queuedNum() {
+        return 0;
+    }
+
+    /**
+     * @return the results that the furthest reader has not reached yet
+     */
+    abstract long unreadNum();
+
+    final boolean isBounded() {
+        return capacity != SearchSetting.UNBOUNDED;
+    }
+
+    /**
+     * A reader may catch up right after this returns true, so a producer holding back work
+     * must check again once its work is parked where the space listener finds it.
+     */
+    final boolean isFull() {
+        if (!isBounded() || unreadNum() < capacity) {
+            return false;
+        }
+        isAwaitingSpace = true;
+        return true;
+    }
+
+    /**
+     * The listener runs on a reading thread, it must not block.
+     */
+    final void setSpaceListener(Runnable spaceListener) {
+        this.spaceListener = spaceListener;
+    }
+
+    /**
+     * Called by the readers after they have taken or passed results. Two readers may both run the listener,
+     * which then finds nothing to do the second time.
+     */
+    final void afterRead() {
+        if (isAwaitingSpace && unreadNum() <= capacity / 2) {
+            isAwaitingSpace = false;
+            Runnable currentListener = spaceListener;
+            if (currentListener != null) {
+                currentListener.run();
+            }
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.Albert.engine;
+
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Publishes results only as fast as they are requested. Every subscription opens its own cursor, and cancelling
+ * the subscription closes it. Signals are delivered on whichever thread requested more or produced a result,
+ * often a search worker, so subscribers should hand heavy work off.
+ * <p>
+ * Use {@code org.reactivestreams.FlowAdapters} to get a {@code java.util.concurrent.Flow.Publisher} on Java 9+.
+ *
+ * @author Albert
+ */
+public class ResultPublisher<ResultT> implements Publisher<ResultT> {
+    private final Supplier<ResultCursor<ResultT>> cursorOpener;
+
+    public ResultPublisher(Supplier<ResultCursor<ResultT>> cursorOpener) {
+        this.cursorOpener = cursorOpener;
+    }
+
+    @Override
+    public void subscribe(Subscriber<? super ResultT> subscriber) {
+        Objects.requireNonNull(subscriber, "subscriber");
+        ResultSubscription subscription = new ResultSubscription(subscriber, cursorOpener.get());
+        subscriber.onSubscribe(subscription);
+        subscription.start();
+    }
+
+    private class ResultSubscription implements Subscription {
+        private final Subscriber<? super ResultT> subscriber;
+        private final ResultCursor<ResultT> resultCursor;
+        private final AtomicLong requested = new AtomicLong();
+        private final AtomicInteger drainWork = new AtomicInteger();
+        private final AtomicBoolean isTerminated = new AtomicBoolean(false);
+
+        ResultSubscription(Subscriber<? super ResultT> subscriber, ResultCursor<ResultT> resultCursor) {
+            this.subscriber = subscriber;
+            this.resultCursor = resultCursor;
+        }
+
+        void start() {
+            resultCursor.setAvailableListener(this::drain);
+            drain();
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                if (terminate()) {
+                    subscriber.onError(new IllegalArgumentException("request must be positive, but was " + n));
+                }
+                return;
+            }
+            requested.getAndUpdate(current -> current + n < 0 ? Long.MAX_VALUE : current + n);
+            drain();
+        }
+
+        @Override
+        public void cancel() {
+            terminate();
+        }
+
+        private boolean terminate() {
+            if (!isTerminated.compareAndSet(false, true)) {
+                return false;
+            }
+            resultCursor.close();
+            return true;
+        }
+
+        /**
+         * Only one thread delivers at a time, a call arriving meanwhile makes that thread loop once more.
+         */
+        private void drain() {
+            if (drainWork.getAndIncrement() != 0) {
+                return;
+            }
+            int missed = 1;
+            do {
+                deliverRequested();
+                missed = drainWork.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        private void deliverRequested() {
+            long delivered = 0;
+            long canDeliver = requested.get();
+            while (delivered < canDeliver && !isTerminated.get()) {
+                ResultT resultT = resultCursor.poll();
+                if (resultT == null) {
+                    break;
+                }
+                subscriber.onNext(resultT);
+                delivered++;
+            }
+            if (delivered > 0 && canDeliver != Long.MAX_VALUE) {
+                requested.addAndGet(-delivered);
+            }
+            if (!isTerminated.get() && resultCursor.isExhausted() && terminate()) {
+                subscriber.onComplete();
+            }
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.Albert.engine;
+
+import com.Albert.searchModel.MultiKeySearchModel;
+import com.Albert.searchModel.SearchModel;
+
+import java.util.List;
+
+/**
+ * Runs the node visits of every search. Each query owns a {@link SearchGroup},
+ * so cancelling one query never touches the others sharing the engine.
+ *
+ * @author Albert
+ */
+public abstract class SearchEngine {
+    private static final SearchEngine SHARED_ENGINE = createSearchEngine(Runtime.getRuntime().availableProcessors());
+
+    public static SearchEngine sharedEngine() {
+        return SHARED_ENGINE;
+    }
+
+    /**
+     * A bounded work-stealing engine, the right choice when visiting a node is mostly CPU work.
+     */
+    public static SearchEngine createSearchEngine(int parallelism) {
+        return new ForkJoinSearchEngine(parallelism);
+    }
+
+    /**
+     * Runs every node visit on a virtual thread, for search models that block on I/O.
+     * Needs Java 21 or later at runtime.
+     *
+     * @param maxConcurrentVisits how many visits may be in flight at once, e.g. open directory handles
+     * @throws UnsupportedOperationException when the running JVM has no virtual threads
+     */
+    public static SearchEngine createVirtualThreadEngine(int maxConcurrentVisits) {
+        return new VirtualThreadSearchEngine(maxConcurrentVisits);
+    }
+
+    public static boolean isVirtualThreadSupported() {
+        return VirtualThreads.isSupported();
+    }
+
+    public <KeyT, ResultT, PathT> SearchGroup<KeyT, ResultT, PathT> createSearchGroup(SearchModel<KeyT, PathT> searchModel, KeyT keySearch) {
+        return createSearchGroup(searchModel, keySearch, SearchSetting.defaultSetting());
+    }
+
+    public <KeyT, ResultT, PathT> SearchGroup<KeyT, ResultT, PathT> createSearchGroup(SearchModel<KeyT, PathT> searchModel, KeyT keySearch, SearchSetting<ResultT, PathT> searchSetting) {
+        return new SearchGroup<>(this, searchModel, keySearch, searchSetting, new ResultBuffer<>(searchSetting.getResultCapacity()));
+    }
+
+    /**
+     * A group whose results are kept in a {@link ResultLog} for any number of readers to replay.
+     */
+    public <KeyT, ResultT, PathT> SearchGroup<KeyT, ResultT, PathT> createLoggingSearchGroup(SearchModel<KeyT, PathT> searchModel, KeyT keySearch, SearchSetting<ResultT, PathT> searchSetting) {
+        return new SearchGroup<>(this, searchModel, keySearch, searchSetting, new ResultLog<>(searchSetting.getResultCapacity()));
+    }
+
+    /**
+     * One traversal that answers all the keys, see {@link MultiKeySearchGroup}.
+     */
+    public <KeyT, ResultT, PathT> MultiKeySearchGroup<KeyT, ResultT, PathT> createMultiKeySearchGroup(MultiKeySearchModel<KeyT, PathT> searchModel, List<KeyT> keysSearch, SearchSetting<ResultT, PathT> searchSetting) {
+        return new MultiKeySearchGroup<>(this, searchModel, keysSearch, searchSetting);
+    }
+
+    public <KeyT, ResultT, PathT> SearchGroup<KeyT, ResultT, PathT> startSearch(SearchModel<KeyT, PathT> searchModel, KeyT keySearch, List<PathT> rootCanBeSearched) {
+        SearchGroup<KeyT, ResultT, PathT> searchGroup = createSearchGroup(searchModel, keySearch);
+        searchGroup.startSearch(rootCanBeSearched);
+        return searchGroup;
+    }
+
+    abstract void execute(Runnable visit);
+}
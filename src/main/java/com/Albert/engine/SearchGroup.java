@@ -0,0 +1,673 @@
+package com.Albert.engine;
+
+import com.Albert.checkpoint.CheckpointStore;
+import com.Albert.checkpoint.QueryCheckpoint;
+import com.Albert.metrics.QueryCounters;
+import com.Albert.metrics.SearchMetrics;
+import com.Albert.pojo.MessageOfSearched;
+import com.Albert.searchModel.BatchSearchModel;
+import com.Albert.searchModel.SearchModel;
+import com.Albert.searchModel.SearchSink;
+import com.Albert.searchModel.SinkSearchModel;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+
+/**
+ * The tasks of one query. Cancelling a group only stops its own pending visits,
+ * the pool of the {@link SearchEngine} keeps serving the other groups.
+ * <p>
+ * Every scheduled node is counted until its visit has finished and its children are scheduled,
+ * so the count drops to zero exactly when the frontier is empty and the group completes.
+ * <p>
+ * A {@link BatchSearchModel} is visited a batch of nodes per task. The batch size follows a moving average
+ * of the time a node takes, so that a task takes about {@link #TARGET_BATCH_NANOS}: big nodes still get
+ * a task each, tiny nodes are grouped until scheduling them no longer costs more than searching them.
+ * <p>
+ * With a {@link TraversalOrder} other than the engine's own, scheduled nodes wait in a {@link Frontier}
+ * and every task visits whichever node the frontier hands out next. Such a group visits one node per task.
+ * <p>
+ * A {@link SinkSearchModel} is visited through a sink of the group: every result it emits goes straight into
+ * the results and every child straight to the engine, without a message in between.
+ * <p>
+ * With a result capacity in the setting, a group whose readers fall behind holds back the node lists it would schedule
+ * next. They stay pending, so the group does not complete, and are scheduled once the readers have caught up,
+ * or dropped once the group is cancelled.
+ * <p>
+ * With a checkpoint store in the setting, the group tracks its pending paths and writes them out periodically
+ * on a thread of its own, see {@link SearchSetting#setCheckpoint} and {@link CheckpointTracker}.
+ * <p>
+ * With {@link SearchMetrics} in the setting, the metrics of the search instance read the counts of the group while it runs,
+ * and one visit in {@link SearchMetrics#NODE_LATENCY_SAMPLE_INTERVAL} is timed. Without them a visit costs no clock reads.
+ *
+ * @author Albert
+ */
+public class SearchGroup<KeyT, ResultT, PathT> implements SearchHandle<ResultT> {
+    static final long TARGET_BATCH_NANOS = 50_000;
+    private static final int MAX_BATCH_SIZE = 1024;
+    private static final double COST_WEIGHT = 0.2;
+
+    private final SearchEngine searchEngine;
+    private final SearchModel<KeyT, PathT> searchModel;
+    private final BatchSearchModel<KeyT, PathT> batchSearchModel;
+    private final SinkSearchModel<KeyT, ResultT, PathT> sinkSearchModel;
+    private final SearchSink<ResultT, PathT> nodeSink = new NodeSink();
+    private final KeyT keySearch;
+    private final ResultOutput<ResultT> results;
+    private final IdentityKey<PathT> pathIdentity;
+    private final FingerprintSet visitedPaths;
+    private final IdentityKey<ResultT> resultIdentity;
+    private final FingerprintSet reportedResults;
+    private final Frontier<PathT> frontier;
+    private final AtomicLong pendingNodes = new AtomicLong();
+    private final LongAdder visitedNodes = new LongAdder();
+    private final LongAdder foundResults = new LongAdder();
+    private final long createdNanos = System.nanoTime();
+    private final AtomicLong firstResultNanos = new AtomicLong(SearchProgress.NO_RESULT_YET);
+    private final SearchMetrics searchMetrics;
+    private final AtomicReference<MeasuredCounters> measuredCounters = new AtomicReference<>();
+    private final CountDownLatch completeLatch = new CountDownLatch(1);
+    private final Queue<Runnable> completeListeners = new ConcurrentLinkedQueue<>();
+    private final Queue<List<PathT>> deferredSearches = new ConcurrentLinkedQueue<>();
+    private final CheckpointStore<ResultT, PathT> checkpointStore;
+    private final long checkpointIntervalNanos;
+    private final CheckpointTracker<ResultT, PathT> checkpointTracker;
+    private final AtomicBoolean isStarted = new AtomicBoolean();
+    private volatile ScheduledFuture<?> checkpointTask;
+    private volatile boolean isCancelled = false;
+    private volatile boolean isFirstVisitSampled = false;
+    private BiConsumer<PathT, List<ResultT>> visitListener;
+    private volatile double nanosPerNode = TARGET_BATCH_NANOS;
+
+    SearchGroup(SearchEngine searchEngine, SearchModel<KeyT, PathT> searchModel, KeyT keySearch, SearchSetting<ResultT, PathT> searchSetting, ResultOutput<ResultT> results) {
+        this.searchEngine = searchEngine;
+        this.searchModel = searchModel;
+        this.batchSearchModel = searchModel instanceof BatchSearchModel ? (BatchSearchModel<KeyT, PathT>) searchModel : null;
+        this.sinkSearchModel = searchModel instanceof SinkSearchModel ? (SinkSearchModel<KeyT, ResultT, PathT>) searchModel : null;
+        this.keySearch = keySearch;
+        this.results = results;
+        this.pathIdentity = searchSetting.getPathIdentity();
+        this.visitedPaths = pathIdentity == null ? null : new FingerprintSet();
+        this.resultIdentity = searchSetting.getResultIdentity();
+        this.reportedResults = resultIdentity == null ? null : new FingerprintSet();
+        this.frontier = searchSetting.getTraversalOrder().createFrontier(keySearch);
+        this.searchMetrics = searchSetting.getSearchMetrics();
+        this.checkpointStore = searchSetting.getCheckpointStore();
+        this.checkpointIntervalNanos = searchSetting.getCheckpointIntervalNanos();
+        this.checkpointTracker = checkpointStore == null ? null : new CheckpointTracker<>();
+        results.setSpaceListener(this::asyncResumeDeferredSearches);
+    }
+
+    /**
+     * Starts the traversal at the roots, or where the checkpoint of its key left off when it has one.
+     * Calling it again adds more roots.
+     */
+    public void startSearch(List<PathT> rootCanBeSearched) {
+        List<PathT> canBeSearched = rootCanBeSearched;
+        if (searchMetrics != null && measuredCounters.get() == null) {
+            MeasuredCounters newCounters = new MeasuredCounters();
+            if (measuredCounters.compareAndSet(null, newCounters)) {
+                searchMetrics.queryStarted(newCounters);
+            }
+        }
+        if (checkpointTracker != null && isStarted.compareAndSet(false, true)) {
+            canBeSearched = resumeFromCheckpoint(rootCanBeSearched);
+            checkpointTask = CheckpointTracker.CHECKPOINT_SCHEDULER.scheduleWithFixedDelay(
+                    this::appendCheckpoint, checkpointIntervalNanos, checkpointIntervalNanos, TimeUnit.NANOSECONDS);
+        }
+        searchChildren(canBeSearched);
+    }
+
+    /**
+     * The stored results are reported again but not written again. The visited paths are restored except the pending ones,
+     * which are visited again.
+     */
+    private List<PathT> resumeFromCheckpoint(List<PathT> rootCanBeSearched) {
+        QueryCheckpoint<ResultT, PathT> checkpoint;
+        try {
+            checkpoint = checkpointStore.readLatest(keySearch);
+        } catch (IOException e) {
+            e.printStackTrace();
+            return rootCanBeSearched;
+        }
+        if (checkpoint == null) {
+            return rootCanBeSearched;
+        }
+        if (visitedPaths != null) {
+            HashSet<Long> pendingFingerprints = new HashSet<>();
+            checkpoint.getPendingPaths().forEach(path -> pendingFingerprints.add(pathIdentity.fingerprintOf(path)));
+            for (long fingerprint : checkpoint.getVisitedFingerprints()) {
+                if (!pendingFingerprints.contains(fingerprint)) {
+                    visitedPaths.add(fingerprint);
+                }
+            }
+        }
+        visitedNodes.add(checkpoint.getVisitedNodes());
+        for (ResultT resultT : checkpoint.getResults()) {
+            if (reportedResults == null || reportedResults.add(resultIdentity.fingerprintOf(resultT))) {
+                results.offer(resultT);
+                foundResults.increment();
+            }
+        }
+        return checkpoint.getPendingPaths();
+    }
+
+    private void appendCheckpoint() {
+        try {
+            checkpointStore.append(keySearch, checkpointTracker.cut(visitedNodes.sum()));
+        } catch (IOException | RuntimeException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Runs on the checkpoint thread after the last periodic checkpoint.
+     */
+    private void finishCheckpoints() {
+        if (isCancelled) {
+            appendCheckpoint();
+        } else {
+            checkpointStore.delete(keySearch);
+        }
+    }
+
+    private void searchChildren(List<PathT> canBeSearched) {
+        if (checkpointTracker != null) {
+            canBeSearched.forEach(checkpointTracker::track);
+        }
+        if (results.isFull()) {
+            deferSearch(canBeSearched);
+            return;
+        }
+        scheduleSearch(canBeSearched);
+    }
+
+    /**
+     * The list is parked before it is checked whether the readers caught up meanwhile,
+     * so either that check or the space listener finds it.
+     */
+    private void deferSearch(List<PathT> canBeSearched) {
+        addOnePending();
+        deferredSearches.offer(canBeSearched);
+        if (isCancelled || !results.isFull()) {
+            resumeDeferredSearches();
+        }
+    }
+
+    /**
+     * Called on a reading thread, so the deferred lists are scheduled by a task of the engine instead.
+     */
+    private void asyncResumeDeferredSearches() {
+        if (!deferredSearches.isEmpty()) {
+            searchEngine.execute(this::resumeDeferredSearches);
+        }
+    }
+
+    private void resumeDeferredSearches() {
+        List<PathT> canBeSearched;
+        while ((isCancelled || !results.isFull()) && (canBeSearched = deferredSearches.poll()) != null) {
+            try {
+                if (!isCancelled) {
+                    scheduleSearch(canBeSearched);
+                }
+            } finally {
+                finishOnePending();
+            }
+        }
+    }
+
+    private void scheduleSearch(List<PathT> canBeSearched) {
+        addOnePending();
+        try {
+            if (frontier != null) {
+                canBeSearched.forEach(this::asyncSearchFromFrontier);
+            } else if (isBatching()) {
+                asyncSearchBatches(canBeSearched);
+            } else {
+                canBeSearched.forEach(this::asyncSearchOne);
+            }
+        } finally {
+            finishOnePending();
+        }
+    }
+
+    /**
+     * A visit listener needs the results of every node on its own, so it turns batching off.
+     */
+    private boolean isBatching() {
+        return batchSearchModel != null && visitListener == null;
+    }
+
+    private void asyncSearchBatches(List<PathT> canBeSearched) {
+        List<PathT> firstVisits = canBeSearched;
+        if (visitedPaths != null) {
+            firstVisits = new ArrayList<>(canBeSearched.size());
+            for (PathT path : canBeSearched) {
+                if (isFirstVisit(path)) {
+                    firstVisits.add(path);
+                } else {
+                    untrackPath(path);
+                }
+            }
+        }
+        int batchSize = currentBatchSize();
+        for (int from = 0; from < firstVisits.size(); from += batchSize) {
+            asyncSearchBatch(firstVisits.subList(from, Math.min(firstVisits.size(), from + batchSize)));
+        }
+    }
+
+    private int currentBatchSize() {
+        return (int) Math.max(1, Math.min(MAX_BATCH_SIZE, TARGET_BATCH_NANOS / nanosPerNode));
+    }
+
+    private void asyncSearchBatch(List<PathT> batch) {
+        addOnePending();
+        try {
+            searchEngine.execute(() -> searchBatch(batch));
+        } catch (RuntimeException e) {
+            finishOnePending();
+            throw e;
+        }
+    }
+
+    private void searchBatch(List<PathT> batch) {
+        try {
+            if (isCancelled) {
+                return;
+            }
+            long startNanos = System.nanoTime();
+            MessageOfSearched<ResultT, PathT> messageOfSearched = batchSearchModel.searchBatch(keySearch, batch);
+            long elapsedNanos = System.nanoTime() - startNanos;
+            recordNodeCost(elapsedNanos, batch.size());
+            visitedNodes.add(batch.size());
+            if (searchMetrics != null) {
+                searchMetrics.nodesSampled(batch.size(), elapsedNanos);
+            }
+            saveSatisfyResultsIfExist(messageOfSearched);
+            continueSearchIfExist(messageOfSearched);
+            batch.forEach(this::untrackPath);
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+        } finally {
+            finishOnePending();
+        }
+    }
+
+    /**
+     * Racy on purpose, a lost update only delays the average a little.
+     */
+    private void recordNodeCost(long elapsedNanos, int nodeNum) {
+        double currentNanosPerNode = nanosPerNode;
+        nanosPerNode = currentNanosPerNode + COST_WEIGHT * ((double) elapsedNanos / nodeNum - currentNanosPerNode);
+    }
+
+    private void asyncSearchFromFrontier(PathT canBeSearched) {
+        if (!isFirstVisit(canBeSearched)) {
+            untrackPath(canBeSearched);
+            return;
+        }
+        addOnePending();
+        frontier.offer(canBeSearched);
+        try {
+            searchEngine.execute(this::searchNextFromFrontier);
+        } catch (RuntimeException e) {
+            frontier.poll();
+            finishOnePending();
+            throw e;
+        }
+    }
+
+    /**
+     * Every task takes at most one node, though not necessarily the one it was scheduled for.
+     * There are as many tasks as nodes offered, so a task that finds the frontier empty
+     * stands for a node that was stolen, and only has to give up its pending count.
+     */
+    private void searchNextFromFrontier() {
+        PathT canBeSearched = frontier.poll();
+        if (canBeSearched == null) {
+            finishOnePending();
+            return;
+        }
+        searchOne(canBeSearched);
+    }
+
+    private void asyncSearchOne(PathT canBeSearched) {
+        if (!isFirstVisit(canBeSearched)) {
+            untrackPath(canBeSearched);
+            return;
+        }
+        addOnePending();
+        try {
+            searchEngine.execute(() -> searchOne(canBeSearched));
+        } catch (RuntimeException e) {
+            finishOnePending();
+            throw e;
+        }
+    }
+
+    private void searchOne(PathT canBeSearched) {
+        try {
+            if (isCancelled) {
+                return;
+            }
+            boolean isSampled = isSampledVisit();
+            long startNanos = isSampled ? System.nanoTime() : 0;
+            if (sinkSearchModel != null && visitListener == null) {
+                sinkSearchModel.search(keySearch, canBeSearched, nodeSink);
+                recordVisit(isSampled, startNanos);
+            } else {
+                MessageOfSearched<ResultT, PathT> messageOfSearched = searchModel.search(keySearch, canBeSearched);
+                recordVisit(isSampled, startNanos);
+                notifyVisitListener(canBeSearched, messageOfSearched);
+                saveSatisfyResultsIfExist(messageOfSearched);
+                continueSearchIfExist(messageOfSearched);
+            }
+            untrackPath(canBeSearched);
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+        } finally {
+            finishOnePending();
+        }
+    }
+
+    /**
+     * The first visit of a group is always timed, so even a small query shows up in the node latency.
+     */
+    private boolean isSampledVisit() {
+        if (searchMetrics == null) {
+            return false;
+        }
+        if (!isFirstVisitSampled) {
+            isFirstVisitSampled = true;
+            return true;
+        }
+        return ThreadLocalRandom.current().nextInt(SearchMetrics.NODE_LATENCY_SAMPLE_INTERVAL) == 0;
+    }
+
+    private void recordVisit(boolean isSampled, long startNanos) {
+        visitedNodes.increment();
+        if (isSampled) {
+            searchMetrics.nodesSampled(1, System.nanoTime() - startNanos);
+        }
+    }
+
+    /**
+     * Only used for a group that is not batching, the children of a sink model are scheduled one by one.
+     */
+    private void searchChild(PathT canBeSearched) {
+        if (checkpointTracker != null) {
+            checkpointTracker.track(canBeSearched);
+        }
+        if (results.isFull()) {
+            deferSearch(Collections.singletonList(canBeSearched));
+        } else if (frontier != null) {
+            asyncSearchFromFrontier(canBeSearched);
+        } else {
+            asyncSearchOne(canBeSearched);
+        }
+    }
+
+    private void notifyVisitListener(PathT canBeSearched, MessageOfSearched<ResultT, PathT> messageOfSearched) {
+        if (visitListener != null) {
+            visitListener.accept(canBeSearched, messageOfSearched.getTrueResult().get());
+        }
+    }
+
+    private boolean isFirstVisit(PathT canBeSearched) {
+        if (visitedPaths == null) {
+            return true;
+        }
+        long fingerprint = pathIdentity.fingerprintOf(canBeSearched);
+        if (!visitedPaths.add(fingerprint)) {
+            return false;
+        }
+        if (checkpointTracker != null) {
+            checkpointTracker.pathVisited(fingerprint);
+        }
+        return true;
+    }
+
+    /**
+     * A path stays tracked when its visit is dropped because the group was cancelled, so the last checkpoint resumes it.
+     */
+    private void untrackPath(PathT canBeSearched) {
+        if (checkpointTracker != null) {
+            checkpointTracker.untrack(canBeSearched);
+        }
+    }
+
+    private void saveSatisfyResultsIfExist(MessageOfSearched<ResultT, PathT> messageOfSearched) {
+        messageOfSearched.getTrueResult()
+                         .ifPresent(currentResults -> currentResults.forEach(this::saveAResult));
+    }
+
+    private void saveAResult(ResultT resultT) {
+        if (reportedResults == null || reportedResults.add(resultIdentity.fingerprintOf(resultT))) {
+            results.offer(resultT);
+            if (checkpointTracker != null) {
+                checkpointTracker.resultSaved(resultT);
+            }
+            foundResults.increment();
+            recordFirstResult();
+        }
+    }
+
+    private void recordFirstResult() {
+        if (firstResultNanos.get() != SearchProgress.NO_RESULT_YET) {
+            return;
+        }
+        long elapsedNanos = System.nanoTime() - createdNanos;
+        if (firstResultNanos.compareAndSet(SearchProgress.NO_RESULT_YET, elapsedNanos) && searchMetrics != null) {
+            searchMetrics.firstResultFound(elapsedNanos);
+        }
+    }
+
+    private void continueSearchIfExist(MessageOfSearched<ResultT, PathT> messageOfSearched) {
+        messageOfSearched.getCanBeSearched()
+                         .ifPresent(this::searchChildren);
+    }
+
+    private void addOnePending() {
+        pendingNodes.incrementAndGet();
+    }
+
+    private void finishOnePending() {
+        if (pendingNodes.decrementAndGet() == 0) {
+            complete();
+        }
+    }
+
+    private void complete() {
+        MeasuredCounters completedCounters = measuredCounters.getAndSet(null);
+        if (completedCounters != null) {
+            searchMetrics.queryCompleted(completedCounters);
+        }
+        if (checkpointTask != null) {
+            checkpointTask.cancel(false);
+            CheckpointTracker.CHECKPOINT_SCHEDULER.execute(this::finishCheckpoints);
+        }
+        results.close();
+        completeLatch.countDown();
+        runCompleteListeners();
+    }
+
+    private void runCompleteListeners() {
+        Runnable listener;
+        while ((listener = completeListeners.poll()) != null) {
+            listener.run();
+        }
+    }
+
+    /**
+     * Receives every visited node with the results found directly in it, on the visiting thread.
+     * It must be set before {@link #startSearch(List)}.
+     */
+    public void setVisitListener(BiConsumer<PathT, List<ResultT>> visitListener) {
+        this.visitListener = visitListener;
+    }
+
+    /**
+     * Runs the listener once the traversal has finished, at once if it already has.
+     */
+    public void whenComplete(Runnable listener) {
+        completeListeners.offer(listener);
+        if (isComplete()) {
+            runCompleteListeners();
+        }
+    }
+
+    /**
+     * Takes up to maxNodes scheduled but unvisited nodes out of this traversal, for another traversal to visit instead.
+     * Only a group with a frontier, i.e. with a {@link TraversalOrder} other than the engine's own, has nodes to give away.
+     *
+     * @return the stolen nodes, empty when there are none
+     */
+    public List<PathT> stealPending(int maxNodes) {
+        List<PathT> stolen = new ArrayList<>();
+        if (frontier == null) {
+            return stolen;
+        }
+        PathT canBeSearched;
+        while (stolen.size() < maxNodes && (canBeSearched = frontier.steal()) != null) {
+            stolen.add(canBeSearched);
+            untrackPath(canBeSearched);
+        }
+        return stolen;
+    }
+
+    @Override
+    public void cancel() {
+        isCancelled = true;
+        resumeDeferredSearches();
+    }
+
+    @Override
+    public SearchProgress progress() {
+        return new SearchProgress(visitedNodes.sum(), pendingNodes.get(), foundResults.sum(), isComplete(), isCancelled,
+                results.queuedNum(), firstResultNanos.get());
+    }
+
+    @Override
+    public void await() throws InterruptedException {
+        completeLatch.await();
+    }
+
+    @Override
+    public boolean await(long timeout, TimeUnit unit) throws InterruptedException {
+        return completeLatch.await(timeout, unit);
+    }
+
+    /**
+     * A log is replayed from its first result, a buffer is consumed, so its cursors share the results between them.
+     */
+    @Override
+    public ResultCursor<ResultT> openCursor() {
+        if (results instanceof ResultLog) {
+            return ((ResultLog<ResultT>) results).openCursor();
+        }
+        return ((ResultBuffer<ResultT>) results).openConsumingCursor(() -> {
+        });
+    }
+
+    public boolean isCancelled() {
+        return isCancelled;
+    }
+
+    /**
+     * @return true when no node of this query is pending any more, either because the search space
+     * is exhausted or because the remaining visits were dropped after {@link #cancel()}
+     */
+    public boolean isComplete() {
+        return results.isClosed();
+    }
+
+    public boolean awaitComplete(long timeout, TimeUnit unit) throws InterruptedException {
+        return completeLatch.await(timeout, unit);
+    }
+
+    public long getPendingNodes() {
+        return pendingNodes.get();
+    }
+
+    public KeyT getKeySearch() {
+        return keySearch;
+    }
+
+    /**
+     * @throws IllegalStateException when the group was created to log its results
+     */
+    public ResultBuffer<ResultT> getResults() {
+        if (!(results instanceof ResultBuffer)) {
+            throw new IllegalStateException("The results of this group are logged, use getResultLog()");
+        }
+        return (ResultBuffer<ResultT>) results;
+    }
+
+    /**
+     * @throws IllegalStateException when the group was not created to log its results
+     */
+    public ResultLog<ResultT> getResultLog() {
+        if (!(results instanceof ResultLog)) {
+            throw new IllegalStateException("The results of this group are buffered, use getResults()");
+        }
+        return (ResultLog<ResultT>) results;
+    }
+
+    /**
+     * The visit emitting into the sink is still pending, so the group can not complete before its children are scheduled.
+     */
+    private class NodeSink implements SearchSink<ResultT, PathT> {
+
+        @Override
+        public void emitResult(ResultT resultT) {
+            saveAResult(resultT);
+        }
+
+        @Override
+        public void emitChild(PathT canBeSearched) {
+            searchChild(canBeSearched);
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return isCancelled;
+        }
+    }
+
+    /**
+     * The counts of one run of the group, a group started again after it has completed counts as another query.
+     */
+    private class MeasuredCounters implements QueryCounters {
+        private final long visitedBefore = visitedNodes.sum();
+        private final long foundBefore = foundResults.sum();
+
+        @Override
+        public long getVisitedNodes() {
+            return visitedNodes.sum() - visitedBefore;
+        }
+
+        @Override
+        public long getPendingNodes() {
+            return pendingNodes.get();
+        }
+
+        @Override
+        public long getFoundResults() {
+            return foundResults.sum() - foundBefore;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.Albert.engine;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Controls the traversal of one query. Cancelling it drops the pending visits of that traversal only,
+ * the engine and the traversals of other keys carry on.
+ *
+ * @author Albert
+ */
+public interface SearchHandle<ResultT> {
+
+    void cancel();
+
+    SearchProgress progress();
+
+    /**
+     * Waits until the traversal has finished, because the search space is exhausted or it was cancelled.
+     */
+    void await() throws InterruptedException;
+
+    /**
+     * @return false when the traversal is still running after the timeout
+     */
+    boolean await(long timeout, TimeUnit unit) throws InterruptedException;
+
+    /**
+     * A cursor over the results of the traversal, found so far and still to come.
+     */
+    ResultCursor<ResultT> openCursor();
+
+    /**
+     * A handle of a traversal that has already finished with these results, e.g. for a search that can only
+     * hand out all of its results at once.
+     */
+    static <ResultT> SearchHandle<ResultT> completed(List<ResultT> results) {
+        ResultLog<ResultT> resultLog = new ResultLog<>();
+        results.forEach(resultLog::offer);
+        resultLog.close();
+        return new SearchHandle<ResultT>() {
+            @Override
+            public void cancel() {
+            }
+
+            @Override
+            public SearchProgress progress() {
+                return new SearchProgress(0, 0, resultLog.size(), true, false);
+            }
+
+            @Override
+            public void await() {
+            }
+
+            @Override
+            public boolean await(long timeout, TimeUnit unit) {
+                return true;
+            }
+
+            @Override
+            public ResultCursor<ResultT> openCursor() {
+                return resultLog.openCursor();
+            }
+        };
+    }
+}
@@ -0,0 +1,84 @@
+package com.Albert.engine;
+
+/**
+ * A snapshot of how far one traversal has come. The counters are read one after the other,
+ * so they are only consistent with each other once the traversal is complete.
+ *
+ * @author Albert
+ */
+public class SearchProgress {
+    public static final long NO_RESULT_YET = -1;
+
+    private final long visitedNodes;
+    private final long pendingNodes;
+    private final long foundResults;
+    private final boolean isComplete;
+    private final boolean isCancelled;
+    private final long queuedResults;
+    private final long timeToFirstResultNanos;
+
+    public SearchProgress(long visitedNodes, long pendingNodes, long foundResults, boolean isComplete, boolean isCancelled) {
+        this(visitedNodes, pendingNodes, foundResults, isComplete, isCancelled, 0, NO_RESULT_YET);
+    }
+
+    public SearchProgress(long visitedNodes, long pendingNodes, long foundResults, boolean isComplete, boolean isCancelled,
+                          long queuedResults, long timeToFirstResultNanos) {
+        this.visitedNodes = visitedNodes;
+        this.pendingNodes = pendingNodes;
+        this.foundResults = foundResults;
+        this.isComplete = isComplete;
+        this.isCancelled = isCancelled;
+        this.queuedResults = queuedResults;
+        this.timeToFirstResultNanos = timeToFirstResultNanos;
+    }
+
+    public long getVisitedNodes() {
+        return visitedNodes;
+    }
+
+    /**
+     * @return the nodes that are scheduled or being visited
+     */
+    public long getPendingNodes() {
+        return pendingNodes;
+    }
+
+    public long getFoundResults() {
+        return foundResults;
+    }
+
+    public boolean isComplete() {
+        return isComplete;
+    }
+
+    public boolean isCancelled() {
+        return isCancelled;
+    }
+
+    /**
+     * @return the results found but not taken by a reader yet, 0 for results that are logged for replay
+     */
+    public long getQueuedResults() {
+        return queuedResults;
+    }
+
+    /**
+     * @return the nanoseconds from the start of the query to its first result, or {@link #NO_RESULT_YET}
+     */
+    public long getTimeToFirstResultNanos() {
+        return timeToFirstResultNanos;
+    }
+
+    @Override
+    public String toString() {
+        return "SearchProgress{" +
+                "visitedNodes=" + visitedNodes +
+                ", pendingNodes=" + pendingNodes +
+                ", foundResults=" + foundResults +
+                ", isComplete=" + isComplete +
+                ", isCancelled=" + isCancelled +
+                ", queuedResults=" + queuedResults +
+                ", timeToFirstResultNanos=" + timeToFirstResultNanos +
+                '}';
+    }
+}
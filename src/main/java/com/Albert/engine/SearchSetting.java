@@ -0,0 +1,169 @@
+package com.Albert.engine;
+
+import com.Albert.checkpoint.CheckpointStore;
+import com.Albert.metrics.SearchMetrics;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * How the searches of one search instance are run. Every option is off unless it is set.
+ *
+ * @author Albert
+ */
+public class SearchSetting<ResultT, PathT> {
+    public static final int UNBOUNDED = -1;
+
+    private SearchEngine searchEngine = SearchEngine.sharedEngine();
+    private IdentityKey<PathT> pathIdentity;
+    private IdentityKey<ResultT> resultIdentity;
+    private TraversalOrder<PathT> traversalOrder = TraversalOrder.engineOrder();
+    private SearchMetrics searchMetrics;
+    private boolean isMetricsDisabled;
+    private int resultCapacity = UNBOUNDED;
+    private CheckpointStore<ResultT, PathT> checkpointStore;
+    private long checkpointIntervalNanos;
+
+    public static <ResultT, PathT> SearchSetting<ResultT, PathT> defaultSetting() {
+        return new SearchSetting<>();
+    }
+
+    public SearchSetting<ResultT, PathT> setSearchEngine(SearchEngine searchEngine) {
+        this.searchEngine = searchEngine;
+        return this;
+    }
+
+    /**
+     * Visit every path at most once per query, e.g. to survive symlink loops or overlapping roots.
+     */
+    public SearchSetting<ResultT, PathT> setPathIdentity(IdentityKey<PathT> pathIdentity) {
+        this.pathIdentity = pathIdentity;
+        return this;
+    }
+
+    /**
+     * Report every result at most once per query.
+     */
+    public SearchSetting<ResultT, PathT> setResultIdentity(IdentityKey<ResultT> resultIdentity) {
+        this.resultIdentity = resultIdentity;
+        return this;
+    }
+
+    public SearchSetting<ResultT, PathT> setTraversalOrder(TraversalOrder<PathT> traversalOrder) {
+        this.traversalOrder = traversalOrder;
+        return this;
+    }
+
+    /**
+     * The metrics read the counts of every traversal and a sample of its node latencies, see {@link SearchMetrics}.
+     */
+    public SearchSetting<ResultT, PathT> setSearchMetrics(SearchMetrics searchMetrics) {
+        this.searchMetrics = searchMetrics;
+        return this;
+    }
+
+    /**
+     * Keeps a search instance from creating metrics of its own, so its traversals read no clock for them.
+     * Its {@code getSearchMetrics()} returns null then.
+     */
+    public SearchSetting<ResultT, PathT> disableMetrics() {
+        this.searchMetrics = null;
+        this.isMetricsDisabled = true;
+        return this;
+    }
+
+    /**
+     * @return this setting when it has metrics or they are disabled, otherwise a copy with metrics of its own,
+     * so a search instance is measured without changing a setting it may share with others
+     */
+    public SearchSetting<ResultT, PathT> withOwnMetricsIfAbsent() {
+        if (searchMetrics != null || isMetricsDisabled) {
+            return this;
+        }
+        return copy().setSearchMetrics(new SearchMetrics());
+    }
+
+    /**
+     * Holds back the traversal of a query once capacity results wait for its furthest reader: no new node is scheduled
+     * until the readers have caught up to half of it, the nodes being visited still add their results.
+     * No thread blocks meanwhile, so the other queries on the engine go on.
+     *
+     * @param capacity a positive number of results, or {@link #UNBOUNDED}
+     */
+    public SearchSetting<ResultT, PathT> setResultCapacity(int capacity) {
+        if (capacity == 0 || capacity < UNBOUNDED) {
+            throw new IllegalArgumentException("The capacity must be positive or UNBOUNDED");
+        }
+        this.resultCapacity = capacity;
+        return this;
+    }
+
+    /**
+     * Appends the state of every query to the store once per interval: its pending paths,
+     * and the results and visited paths since the checkpoint before. A query started for a key
+     * that has a checkpoint resumes from it instead of starting at its roots and reports the stored results first.
+     * <p>
+     * A query that exhausts its tree deletes its checkpoint, a cancelled one, e.g. after its timeout,
+     * appends a last checkpoint to be resumed later. Every result is kept in memory until the next checkpoint,
+     * and all paths and results are written with the codecs of the store.
+     * Searches of several keys in one traversal are not checkpointed.
+     */
+    public SearchSetting<ResultT, PathT> setCheckpoint(CheckpointStore<ResultT, PathT> checkpointStore, long interval, TimeUnit unit) {
+        if (interval <= 0) {
+            throw new IllegalArgumentException("The checkpoint interval must be positive");
+        }
+        this.checkpointStore = checkpointStore;
+        this.checkpointIntervalNanos = unit.toNanos(interval);
+        return this;
+    }
+
+    public SearchSetting<ResultT, PathT> copy() {
+        SearchSetting<ResultT, PathT> copy = SearchSetting.<ResultT, PathT>defaultSetting()
+                .setSearchEngine(searchEngine)
+                .setPathIdentity(pathIdentity)
+                .setResultIdentity(resultIdentity)
+                .setTraversalOrder(traversalOrder)
+                .setSearchMetrics(searchMetrics)
+                .setResultCapacity(resultCapacity)
+                .copyCheckpointOf(this);
+        copy.isMetricsDisabled = isMetricsDisabled;
+        return copy;
+    }
+
+    private SearchSetting<ResultT, PathT> copyCheckpointOf(SearchSetting<ResultT, PathT> searchSetting) {
+        this.checkpointStore = searchSetting.checkpointStore;
+        this.checkpointIntervalNanos = searchSetting.checkpointIntervalNanos;
+        return this;
+    }
+
+    public SearchEngine getSearchEngine() {
+        return searchEngine;
+    }
+
+    public IdentityKey<PathT> getPathIdentity() {
+        return pathIdentity;
+    }
+
+    public IdentityKey<ResultT> getResultIdentity() {
+        return resultIdentity;
+    }
+
+    public TraversalOrder<PathT> getTraversalOrder() {
+        return traversalOrder;
+    }
+
+    public SearchMetrics getSearchMetrics() {
+        return searchMetrics;
+    }
+
+    public int getResultCapacity() {
+        return resultCapacity;
+    }
+
+    public CheckpointStore<ResultT, PathT> getCheckpointStore() {
+        return checkpointStore;
+    }
+
+    public long getCheckpointIntervalNanos() {
+        return checkpointIntervalNanos;
+    }
+}
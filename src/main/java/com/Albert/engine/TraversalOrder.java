@@ -0,0 +1,72 @@
+package com.Albert.engine;
+
+import java.util.function.ToDoubleBiFunction;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Which scheduled node of a query is visited next. Results near the front of the order come back first,
+ * so e.g. a breadth-first order answers {@code getAResult} quickly when the result lives close to a root.
+ * The order is exact for a single worker and approximate once several workers take nodes at the same time.
+ *
+ * @author Albert
+ */
+public abstract class TraversalOrder<PathT> {
+    private static final TraversalOrder ENGINE_ORDER = new TraversalOrder() {
+        @Override
+        Frontier createFrontier(Object keySearch) {
+            return null;
+        }
+    };
+
+    /**
+     * Whatever order the engine runs its tasks in, the cheapest one. It is the default.
+     */
+    @SuppressWarnings("unchecked")
+    public static <PathT> TraversalOrder<PathT> engineOrder() {
+        return ENGINE_ORDER;
+    }
+
+    public static <PathT> TraversalOrder<PathT> breadthFirst() {
+        return new TraversalOrder<PathT>() {
+            @Override
+            Frontier<PathT> createFrontier(Object keySearch) {
+                return new DequeFrontier<>(false);
+            }
+        };
+    }
+
+    public static <PathT> TraversalOrder<PathT> depthFirst() {
+        return new TraversalOrder<PathT>() {
+            @Override
+            Frontier<PathT> createFrontier(Object keySearch) {
+                return new DequeFrontier<>(true);
+            }
+        };
+    }
+
+    /**
+     * Visits the nodes with the highest priority first.
+     */
+    public static <PathT> TraversalOrder<PathT> bestFirst(ToDoubleFunction<PathT> priority) {
+        return bestFirst((keySearch, path) -> priority.applyAsDouble(path));
+    }
+
+    /**
+     * Visits the nodes with the highest priority for the searched key first,
+     * e.g. directories whose name resembles the key.
+     */
+    public static <PathT> TraversalOrder<PathT> bestFirst(ToDoubleBiFunction<Object, PathT> priority) {
+        return new TraversalOrder<PathT>() {
+            @Override
+            Frontier<PathT> createFrontier(Object keySearch) {
+                return new RelaxedPriorityFrontier<>(path -> priority.applyAsDouble(keySearch, path),
+                        Runtime.getRuntime().availableProcessors());
+            }
+        };
+    }
+
+    /**
+     * @return a new frontier for one query, or null to let the engine decide
+     */
+    abstract Frontier<PathT> createFrontier(Object keySearch);
+}
@@ -0,0 +1,51 @@
+package com.Albert.engine;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+
+/**
+ * At most maxConcurrentVisits virtual threads are alive at a time. Each of them keeps
+ * taking waiting visits until none is left, so a wide frontier costs a queue entry per node
+ * instead of a parked thread per node.
+ *
+ * @author Albert
+ */
+class VirtualThreadSearchEngine extends SearchEngine {
+    private final ExecutorService visitService;
+    private final Semaphore visitorPermits;
+    private final Queue<Runnable> waitingVisits = new ConcurrentLinkedQueue<>();
+
+    VirtualThreadSearchEngine(int maxConcurrentVisits) {
+        if (maxConcurrentVisits <= 0) {
+            throw new IllegalArgumentException("maxConcurrentVisits must be positive");
+        }
+        this.visitService = VirtualThreads.newVirtualThreadPerTaskExecutor();
+        this.visitorPermits = new Semaphore(maxConcurrentVisits);
+    }
+
+    @Override
+    void execute(Runnable visit) {
+        waitingVisits.offer(visit);
+        startVisitorIfPermitted();
+    }
+
+    private void startVisitorIfPermitted() {
+        while (!waitingVisits.isEmpty() && visitorPermits.tryAcquire()) {
+            visitService.execute(this::runWaitingVisits);
+        }
+    }
+
+    private void runWaitingVisits() {
+        try {
+            Runnable visit;
+            while ((visit = waitingVisits.poll()) != null) {
+                visit.run();
+            }
+        } finally {
+            visitorPermits.release();
+        }
+        startVisitorIfPermitted();
+    }
+}
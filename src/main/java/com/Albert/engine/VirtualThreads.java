@@ -0,0 +1,22 @@
+package com.Albert.engine;
+
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Java 8 variant, the jar carries a Java 21 one under META-INF/versions/21.
+ *
+ * @author Albert
+ */
+final class VirtualThreads {
+
+    private VirtualThreads() {
+    }
+
+    static boolean isSupported() {
+        return false;
+    }
+
+    static ExecutorService newVirtualThreadPerTaskExecutor() {
+        throw new UnsupportedOperationException("Virtual threads need Java 21 or later");
+    }
+}
@@ -0,0 +1,126 @@
+package com.Albert.match;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A matcher that runs a precompiled automaton over the chars of a name, one table lookup per char.
+ * Names in UTF-8 are decoded on the fly, so neither form of a name is copied.
+ *
+ * @author Albert
+ */
+abstract class CharAutomaton implements NameMatcher {
+    static final int DEAD_STATE = -1;
+    private static final char REPLACEMENT_CHAR = '\uFFFD';
+
+    private final boolean isIgnoreCase;
+
+    CharAutomaton(boolean isIgnoreCase) {
+        this.isIgnoreCase = isIgnoreCase;
+    }
+
+    abstract int startState();
+
+    /**
+     * @return the next state, or {@link #DEAD_STATE} when no continuation of the name can match
+     */
+    abstract int step(int state, char c);
+
+    abstract boolean isAccepting(int state);
+
+    /**
+     * @return true when an accepting state stays accepting whatever follows, so the rest of the name can be skipped
+     */
+    abstract boolean isAcceptingForever(int state);
+
+    @Override
+    public boolean matches(CharSequence name) {
+        int state = startState();
+        for (int i = 0; i < name.length(); i++) {
+            if (isAcceptingForever(state)) {
+                return true;
+            }
+            state = step(state, foldIfIgnoreCase(name.charAt(i)));
+            if (state == DEAD_STATE) {
+                return false;
+            }
+        }
+        return isAccepting(state);
+    }
+
+    /**
+     * A malformed sequence is read as one U+FFFD per byte, a code point beyond the BMP as its two surrogates.
+     */
+    @Override
+    public boolean matchesUtf8(ByteBuffer utf8, int offset, int length) {
+        int state = startState();
+        int end = offset + length;
+        int i = offset;
+        while (i < end) {
+            if (isAcceptingForever(state)) {
+                return true;
+            }
+            int firstByte = utf8.get(i) & 0xFF;
+            int sequenceLength = sequenceLengthOf(firstByte);
+            int codePoint = sequenceLength == 1 ? firstByte : decode(utf8, i, end, firstByte, sequenceLength);
+            if (codePoint < 0) {
+                codePoint = REPLACEMENT_CHAR;
+                sequenceLength = 1;
+            }
+            i += sequenceLength;
+            if (codePoint < Character.MIN_SUPPLEMENTARY_CODE_POINT) {
+                state = step(state, foldIfIgnoreCase((char) codePoint));
+            } else {
+                state = step(state, Character.highSurrogate(codePoint));
+                if (state != DEAD_STATE) {
+                    state = step(state, Character.lowSurrogate(codePoint));
+                }
+            }
+            if (state == DEAD_STATE) {
+                return false;
+            }
+        }
+        return isAccepting(state);
+    }
+
+    private static int sequenceLengthOf(int firstByte) {
+        if (firstByte < 0x80) {
+            return 1;
+        } else if ((firstByte & 0xE0) == 0xC0) {
+            return 2;
+        } else if ((firstByte & 0xF0) == 0xE0) {
+            return 3;
+        } else if ((firstByte & 0xF8) == 0xF0) {
+            return 4;
+        }
+        return 0;
+    }
+
+    /**
+     * @return the code point, or -1 when the sequence is malformed or cut off
+     */
+    private static int decode(ByteBuffer utf8, int start, int end, int firstByte, int sequenceLength) {
+        if (sequenceLength == 0 || start + sequenceLength > end) {
+            return -1;
+        }
+        int codePoint = firstByte & (0x7F >>> sequenceLength);
+        for (int i = 1; i < sequenceLength; i++) {
+            int continuationByte = utf8.get(start + i) & 0xFF;
+            if ((continuationByte & 0xC0) != 0x80) {
+                return -1;
+            }
+            codePoint = (codePoint << 6) | (continuationByte & 0x3F);
+        }
+        return codePoint;
+    }
+
+    char foldIfIgnoreCase(char c) {
+        return isIgnoreCase ? foldCase(c) : c;
+    }
+
+    static char foldCase(char c) {
+        if (c < 0x80) {
+            return c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+        }
+        return Character.toLowerCase(Character.toUpperCase(c));
+    }
+}
@@ -0,0 +1,51 @@
+package com.Albert.match;
+
+import java.util.Arrays;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+/**
+ * Splits the chars into the intervals between the boundaries of a pattern, every char of an interval
+ * is treated alike by the pattern, so an automaton needs one column per interval instead of one per char.
+ *
+ * @author Albert
+ */
+final class CharClasses {
+    private static final int ASCII_SIZE = 0x80;
+
+    private final char[] classStarts;
+    private final int[] asciiClasses = new int[ASCII_SIZE];
+
+    /**
+     * @param boundaries the first char of every interval, values beyond {@link Character#MAX_VALUE} are ignored
+     */
+    CharClasses(SortedSet<Integer> boundaries) {
+        SortedSet<Integer> startSet = new TreeSet<>(boundaries.headSet(Character.MAX_VALUE + 1));
+        startSet.add(0);
+        this.classStarts = new char[startSet.size()];
+        int classNum = 0;
+        for (int classStart : startSet) {
+            classStarts[classNum++] = (char) classStart;
+        }
+        for (char c = 0; c < ASCII_SIZE; c++) {
+            asciiClasses[c] = searchClassOf(c);
+        }
+    }
+
+    int classNum() {
+        return classStarts.length;
+    }
+
+    char representativeOf(int charClass) {
+        return classStarts[charClass];
+    }
+
+    int classOf(char c) {
+        return c < ASCII_SIZE ? asciiClasses[c] : searchClassOf(c);
+    }
+
+    private int searchClassOf(char c) {
+        int index = Arrays.binarySearch(classStarts, c);
+        return index >= 0 ? index : -index - 2;
+    }
+}
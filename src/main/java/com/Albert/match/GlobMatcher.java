@@ -0,0 +1,278 @@
+package com.Albert.match;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+/**
+ * A glob compiled into a DFA over the char classes of the glob: a DFA state is the set of glob positions
+ * the name may have reached, built once by subset construction, so matching never backtracks.
+ *
+ * @author Albert
+ */
+final class GlobMatcher extends CharAutomaton {
+    private static final int MAX_STATE_NUM = 4096;
+
+    private final CharClasses charClasses;
+    private final int classNum;
+    private final int[] transitions;
+    private final boolean[] accepting;
+    private final boolean[] acceptingForever;
+
+    GlobMatcher(String glob, boolean isIgnoreCase) {
+        super(isIgnoreCase);
+        List<Token> tokens = parse(glob);
+        SortedSet<Integer> boundaries = new TreeSet<>();
+        tokens.forEach(token -> token.addBoundaries(boundaries));
+        this.charClasses = new CharClasses(boundaries);
+        this.classNum = charClasses.classNum();
+
+        List<BitSet> states = new ArrayList<>();
+        Map<BitSet, Integer> stateIds = new HashMap<>();
+        BitSet startState = new BitSet();
+        startState.set(0);
+        closeOver(startState, tokens);
+        states.add(startState);
+        stateIds.put(startState, 0);
+        int[] table = new int[16 * classNum];
+        for (int stateId = 0; stateId < states.size(); stateId++) {
+            if ((stateId + 1) * classNum > table.length) {
+                table = Arrays.copyOf(table, table.length * 2);
+            }
+            for (int charClass = 0; charClass < classNum; charClass++) {
+                BitSet next = move(states.get(stateId), charClasses.representativeOf(charClass), tokens);
+                table[stateId * classNum + charClass] = next.isEmpty() ? DEAD_STATE : idOf(next, states, stateIds);
+            }
+        }
+        this.transitions = Arrays.copyOf(table, states.size() * classNum);
+        this.accepting = new boolean[states.size()];
+        this.acceptingForever = new boolean[states.size()];
+        for (int stateId = 0; stateId < states.size(); stateId++) {
+            accepting[stateId] = states.get(stateId).get(tokens.size());
+            acceptingForever[stateId] = accepting[stateId] && isLoopOnEveryChar(stateId);
+        }
+    }
+
+    private int idOf(BitSet state, List<BitSet> states, Map<BitSet, Integer> stateIds) {
+        Integer stateId = stateIds.get(state);
+        if (stateId == null) {
+            if (states.size() >= MAX_STATE_NUM) {
+                throw new IllegalArgumentException("The glob needs more than " + MAX_STATE_NUM + " states");
+            }
+            stateId = states.size();
+            states.add(state);
+            stateIds.put(state, stateId);
+        }
+        return stateId;
+    }
+
+    private static BitSet move(BitSet positions, char c, List<Token> tokens) {
+        BitSet next = new BitSet();
+        for (int position = positions.nextSetBit(0); position >= 0 && position < tokens.size(); position = positions.nextSetBit(position + 1)) {
+            Token token = tokens.get(position);
+            if (token.isAnySequence) {
+                next.set(position);
+            } else if (token.accepts(c)) {
+                next.set(position + 1);
+            }
+        }
+        closeOver(next, tokens);
+        return next;
+    }
+
+    /**
+     * A {@code *} may also match nothing, so reaching it reaches the position after it.
+     */
+    private static void closeOver(BitSet positions, List<Token> tokens) {
+        for (int position = 0; position < tokens.size(); position++) {
+            if (positions.get(position) && tokens.get(position).isAnySequence) {
+                positions.set(position + 1);
+            }
+        }
+    }
+
+    private boolean isLoopOnEveryChar(int stateId) {
+        for (int charClass = 0; charClass < classNum; charClass++) {
+            if (transitions[stateId * classNum + charClass] != stateId) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private List<Token> parse(String glob) {
+        List<Token> tokens = new ArrayList<>();
+        int i = 0;
+        while (i < glob.length()) {
+            char c = glob.charAt(i);
+            if (c == '*') {
+                if (tokens.isEmpty() || !tokens.get(tokens.size() - 1).isAnySequence) {
+                    tokens.add(Token.anySequence());
+                }
+                i++;
+            } else if (c == '?') {
+                tokens.add(Token.anyChar());
+                i++;
+            } else if (c == '\\' && i + 1 < glob.length()) {
+                tokens.add(literal(glob.charAt(i + 1)));
+                i += 2;
+            } else if (c == '[' && bracketEndOf(glob, i) > 0) {
+                int bracketEnd = bracketEndOf(glob, i);
+                tokens.add(parseBracket(glob, i + 1, bracketEnd));
+                i = bracketEnd + 1;
+            } else {
+                tokens.add(literal(c));
+                i++;
+            }
+        }
+        return tokens;
+    }
+
+    private Token literal(char c) {
+        char foldedChar = foldIfIgnoreCase(c);
+        return new Token(false, new int[]{foldedChar, foldedChar}, false);
+    }
+
+    /**
+     * @return the index of the closing bracket, or -1 when the bracket is not closed and is taken literally
+     */
+    private static int bracketEndOf(String glob, int bracketStart) {
+        int i = bracketStart + 1;
+        if (i < glob.length() && (glob.charAt(i) == '!' || glob.charAt(i) == '^')) {
+            i++;
+        }
+        if (i < glob.length() && glob.charAt(i) == ']') {
+            i++;
+        }
+        while (i < glob.length()) {
+            char c = glob.charAt(i);
+            if (c == '\\') {
+                i += 2;
+            } else if (c == ']') {
+                return i;
+            } else {
+                i++;
+            }
+        }
+        return -1;
+    }
+
+    private Token parseBracket(String glob, int start, int end) {
+        int i = start;
+        boolean isNegated = glob.charAt(i) == '!' || glob.charAt(i) == '^';
+        if (isNegated) {
+            i++;
+        }
+        List<Integer> ranges = new ArrayList<>();
+        while (i < end) {
+            char low = glob.charAt(i);
+            if (low == '\\' && i + 1 < end) {
+                low = glob.charAt(++i);
+            }
+            i++;
+            char high = low;
+            if (i + 1 < end && glob.charAt(i) == '-') {
+                high = glob.charAt(i + 1);
+                if (high == '\\' && i + 2 < end) {
+                    high = glob.charAt(i + 2);
+                    i++;
+                }
+                i += 2;
+            }
+            addRange(ranges, low, high);
+        }
+        int[] rangeArray = new int[ranges.size()];
+        for (int j = 0; j < rangeArray.length; j++) {
+            rangeArray[j] = ranges.get(j);
+        }
+        return new Token(false, rangeArray, isNegated);
+    }
+
+    /**
+     * The input is folded before the lookup, so a range only needs the folded forms of its ASCII letters in addition.
+     */
+    private void addRange(List<Integer> ranges, char low, char high) {
+        if (low > high) {
+            return;
+        }
+        ranges.add((int) low);
+        ranges.add((int) high);
+        for (char c = (char) Math.max(low, 'A'); c <= Math.min(high, 'z'); c++) {
+            char foldedChar = foldIfIgnoreCase(c);
+            if (foldedChar != c) {
+                ranges.add((int) foldedChar);
+                ranges.add((int) foldedChar);
+            }
+        }
+    }
+
+    @Override
+    int startState() {
+        return 0;
+    }
+
+    @Override
+    int step(int state, char c) {
+        return transitions[state * classNum + charClasses.classOf(c)];
+    }
+
+    @Override
+    boolean isAccepting(int state) {
+        return accepting[state];
+    }
+
+    @Override
+    boolean isAcceptingForever(int state) {
+        return acceptingForever[state];
+    }
+
+    private static class Token {
+        final boolean isAnySequence;
+        /**
+         * Pairs of inclusive bounds, null for any char.
+         */
+        final int[] ranges;
+        final boolean isNegated;
+
+        Token(boolean isAnySequence, int[] ranges, boolean isNegated) {
+            this.isAnySequence = isAnySequence;
+            this.ranges = ranges;
+            this.isNegated = isNegated;
+        }
+
+        static Token anySequence() {
+            return new Token(true, null, false);
+        }
+
+        static Token anyChar() {
+            return new Token(false, null, false);
+        }
+
+        boolean accepts(char c) {
+            if (ranges == null) {
+                return true;
+            }
+            for (int i = 0; i < ranges.length; i += 2) {
+                if (c >= ranges[i] && c <= ranges[i + 1]) {
+                    return !isNegated;
+                }
+            }
+            return isNegated;
+        }
+
+        void addBoundaries(SortedSet<Integer> boundaries) {
+            if (ranges == null) {
+                return;
+            }
+            for (int i = 0; i < ranges.length; i += 2) {
+                boundaries.add(ranges[i]);
+                boundaries.add(ranges[i + 1] + 1);
+            }
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.Albert.match;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Compiles every key into a {@link NameMatcher} once, so a search model can look up the matcher of its key
+ * on every node instead of compiling it again. Only the matchers of recent keys are kept.
+ *
+ * @author Albert
+ */
+public class KeyMatchers<KeyT> {
+    private static final int MAX_KEY_NUM = 256;
+
+    private final Function<KeyT, NameMatcher> matcherCompiler;
+    private final Map<KeyT, NameMatcher> compiledMatchers = new ConcurrentHashMap<>();
+
+    public KeyMatchers(Function<KeyT, NameMatcher> matcherCompiler) {
+        this.matcherCompiler = matcherCompiler;
+    }
+
+    public NameMatcher matcherOf(KeyT keySearch) {
+        NameMatcher nameMatcher = compiledMatchers.get(keySearch);
+        if (nameMatcher != null) {
+            return nameMatcher;
+        }
+        if (compiledMatchers.size() >= MAX_KEY_NUM) {
+            compiledMatchers.clear();
+        }
+        return compiledMatchers.computeIfAbsent(keySearch, matcherCompiler);
+    }
+}
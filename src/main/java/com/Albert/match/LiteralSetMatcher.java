@@ -0,0 +1,116 @@
+package com.Albert.match;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+/**
+ * Aho-Corasick over a set of literals, compiled into a full transition table so every char costs one lookup
+ * and the name is read once however many literals there are.
+ *
+ * @author Albert
+ */
+final class LiteralSetMatcher extends CharAutomaton {
+    private final CharClasses charClasses;
+    private final int classNum;
+    private final int[] transitions;
+    private final boolean[] accepting;
+
+    LiteralSetMatcher(Collection<String> literals, boolean isIgnoreCase) {
+        super(isIgnoreCase);
+        List<char[]> foldedLiterals = new ArrayList<>(literals.size());
+        SortedSet<Integer> boundaries = new TreeSet<>();
+        int maxStateNum = 1;
+        for (String literal : literals) {
+            char[] foldedLiteral = new char[literal.length()];
+            for (int i = 0; i < literal.length(); i++) {
+                foldedLiteral[i] = foldIfIgnoreCase(literal.charAt(i));
+                boundaries.add((int) foldedLiteral[i]);
+                boundaries.add(foldedLiteral[i] + 1);
+            }
+            foldedLiterals.add(foldedLiteral);
+            maxStateNum += foldedLiteral.length;
+        }
+        this.charClasses = new CharClasses(boundaries);
+        this.classNum = charClasses.classNum();
+
+        int[] trie = new int[maxStateNum * classNum];
+        Arrays.fill(trie, DEAD_STATE);
+        boolean[] isLiteralEnd = new boolean[maxStateNum];
+        int stateNum = 1;
+        for (char[] foldedLiteral : foldedLiterals) {
+            int state = 0;
+            for (char c : foldedLiteral) {
+                int edge = state * classNum + charClasses.classOf(c);
+                if (trie[edge] == DEAD_STATE) {
+                    trie[edge] = stateNum++;
+                }
+                state = trie[edge];
+            }
+            isLiteralEnd[state] = true;
+        }
+        this.transitions = Arrays.copyOf(trie, stateNum * classNum);
+        this.accepting = Arrays.copyOf(isLiteralEnd, stateNum);
+        linkFailures(stateNum);
+    }
+
+    /**
+     * Breadth first, so the failure state of every state is complete before the state itself.
+     * A missing edge is replaced by the edge of the failure state, which turns the trie into a DFA.
+     */
+    private void linkFailures(int stateNum) {
+        int[] failures = new int[stateNum];
+        int[] queue = new int[stateNum];
+        int head = 0;
+        int tail = 0;
+        for (int charClass = 0; charClass < classNum; charClass++) {
+            int next = transitions[charClass];
+            if (next == DEAD_STATE) {
+                transitions[charClass] = 0;
+            } else {
+                failures[next] = 0;
+                queue[tail++] = next;
+            }
+        }
+        while (head < tail) {
+            int state = queue[head++];
+            accepting[state] |= accepting[failures[state]];
+            for (int charClass = 0; charClass < classNum; charClass++) {
+                int edge = state * classNum + charClass;
+                int failureNext = transitions[failures[state] * classNum + charClass];
+                if (transitions[edge] == DEAD_STATE) {
+                    transitions[edge] = failureNext;
+                } else {
+                    failures[transitions[edge]] = failureNext;
+                    queue[tail++] = transitions[edge];
+                }
+            }
+        }
+    }
+
+    @Override
+    int startState() {
+        return 0;
+    }
+
+    @Override
+    int step(int state, char c) {
+        return transitions[state * classNum + charClasses.classOf(c)];
+    }
+
+    @Override
+    boolean isAccepting(int state) {
+        return accepting[state];
+    }
+
+    /**
+     * A name that contains a literal keeps containing it.
+     */
+    @Override
+    boolean isAcceptingForever(int state) {
+        return accepting[state];
+    }
+}
@@ -0,0 +1,62 @@
+package com.Albert.match;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Collections;
+
+/**
+ * Tells whether a file name matches a query. A matcher is compiled once per query and then reused for every entry
+ * of every visited node, from any number of threads.
+ *
+ * @author Albert
+ */
+public interface NameMatcher {
+
+    boolean matches(CharSequence name);
+
+    /**
+     * Matches a name stored as UTF-8, e.g. in a mapped {@link com.Albert.catalog.FileCatalog}.
+     * The default decodes the name into a String, the compiled automata decode it on the fly instead.
+     */
+    default boolean matchesUtf8(ByteBuffer utf8, int offset, int length) {
+        byte[] name = new byte[length];
+        for (int i = 0; i < length; i++) {
+            name[i] = utf8.get(offset + i);
+        }
+        return matches(new String(name, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Matches the names that contain the literal, as {@link String#contains} does.
+     */
+    static NameMatcher contains(String literal) {
+        return containsAny(Collections.singletonList(literal), false);
+    }
+
+    /**
+     * Matches the names that contain any of the literals, all of them are looked for in one pass over the name.
+     *
+     * @param isIgnoreCase compares the chars after folding their case, without building a lower case copy of the name
+     */
+    static NameMatcher containsAny(Collection<String> literals, boolean isIgnoreCase) {
+        return new LiteralSetMatcher(literals, isIgnoreCase);
+    }
+
+    /**
+     * Matches the whole name against a glob with {@code *}, {@code ?}, {@code [a-z]}, {@code [!a-z]} and {@code \} escapes.
+     *
+     * @param isIgnoreCase the ranges of a bracket expression only ignore the case of ASCII letters
+     * @throws IllegalArgumentException when the glob needs too many states
+     */
+    static NameMatcher glob(String glob, boolean isIgnoreCase) {
+        return new GlobMatcher(glob, isIgnoreCase);
+    }
+
+    /**
+     * Matches the names that contain a match of the regular expression.
+     */
+    static NameMatcher regex(String regex, boolean isIgnoreCase) {
+        return new RegexMatcher(regex, isIgnoreCase);
+    }
+}
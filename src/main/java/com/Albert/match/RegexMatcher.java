@@ -0,0 +1,23 @@
+package com.Albert.match;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * The pattern is compiled once, every thread resets a matcher of its own instead of creating one per name.
+ *
+ * @author Albert
+ */
+final class RegexMatcher implements NameMatcher {
+    private final ThreadLocal<Matcher> matchers;
+
+    RegexMatcher(String regex, boolean isIgnoreCase) {
+        Pattern pattern = Pattern.compile(regex, isIgnoreCase ? Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE : 0);
+        this.matchers = ThreadLocal.withInitial(() -> pattern.matcher(""));
+    }
+
+    @Override
+    public boolean matches(CharSequence name) {
+        return matchers.get().reset(name).find();
+    }
+}
@@ -0,0 +1,106 @@
+package com.Albert.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A lock-free histogram of durations in nanoseconds. Every power of two is split into {@link #SUB_BUCKET_NUM}
+ * linear buckets, so a recorded value is off by at most an eighth of itself and recording is a few shifts
+ * and one atomic add, whatever the range of the values.
+ * <p>
+ * The buckets are striped like a {@link LongAdder}: every thread adds to the stripe its id falls into,
+ * so threads that record the same duration do not fight over one cache line. A stripe is only allocated
+ * by the first thread that uses it, and the stripes are summed by {@link #snapshot()}.
+ *
+ * @author Albert
+ */
+public class LatencyHistogram {
+    static final int SUB_BUCKET_BITS = 3;
+    static final int SUB_BUCKET_NUM = 1 << SUB_BUCKET_BITS;
+    static final int BUCKET_NUM = (Long.SIZE - SUB_BUCKET_BITS) * SUB_BUCKET_NUM;
+
+    static final int STRIPE_NUM = stripeNumFor(Runtime.getRuntime().availableProcessors());
+
+    private final AtomicReferenceArray<AtomicLongArray> stripes = new AtomicReferenceArray<>(STRIPE_NUM);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    public void record(long nanos) {
+        record(nanos, 1);
+    }
+
+    /**
+     * Records the same duration several times, e.g. the average node of a batch once per node.
+     */
+    public void record(long nanos, long times) {
+        long value = Math.max(0, nanos);
+        stripeOfCurrentThread().addAndGet(bucketOf(value), times);
+        count.add(times);
+        sum.add(value * times);
+        if (value > max.get()) {
+            max.accumulateAndGet(value, Math::max);
+        }
+    }
+
+    /**
+     * The threads of an engine get consecutive ids, so the low bits of the id spread them over the stripes.
+     */
+    private AtomicLongArray stripeOfCurrentThread() {
+        int index = (int) Thread.currentThread().getId() & (STRIPE_NUM - 1);
+        AtomicLongArray stripe = stripes.get(index);
+        if (stripe == null) {
+            stripes.compareAndSet(index, null, new AtomicLongArray(BUCKET_NUM));
+            stripe = stripes.get(index);
+        }
+        return stripe;
+    }
+
+    /**
+     * @return the power of two at least twice the processors, so two threads seldom share a stripe, and at most 64
+     */
+    static int stripeNumFor(int processorNum) {
+        int stripeNum = Integer.highestOneBit(Math.max(1, processorNum * 2 - 1)) << 1;
+        return Math.min(stripeNum, 64);
+    }
+
+    static int bucketOf(long value) {
+        if (value < SUB_BUCKET_NUM) {
+            return (int) value;
+        }
+        int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+        int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKET_NUM - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKET_NUM + subBucket;
+    }
+
+    /**
+     * @return the highest value that falls into the bucket
+     */
+    static long highestValueOf(int bucket) {
+        if (bucket < SUB_BUCKET_NUM) {
+            return bucket;
+        }
+        int exponent = bucket / SUB_BUCKET_NUM + SUB_BUCKET_BITS - 1;
+        long lowestValue = (long) (SUB_BUCKET_NUM + bucket % SUB_BUCKET_NUM) << (exponent - SUB_BUCKET_BITS);
+        return lowestValue + (1L << (exponent - SUB_BUCKET_BITS)) - 1;
+    }
+
+    /**
+     * The buckets are read one after the other, so values recorded meanwhile may be counted in some totals only.
+     */
+    public LatencySnapshot snapshot() {
+        long[] bucketCounts = new long[BUCKET_NUM];
+        for (int s = 0; s < STRIPE_NUM; s++) {
+            AtomicLongArray stripe = stripes.get(s);
+            if (stripe == null) {
+                continue;
+            }
+            for (int i = 0; i < BUCKET_NUM; i++) {
+                bucketCounts[i] += stripe.get(i);
+            }
+        }
+        return new LatencySnapshot(bucketCounts, count.sum(), sum.sum(), max.get());
+    }
+}
@@ -0,0 +1,64 @@
+package com.Albert.metrics;
+
+/**
+ * A snapshot of a {@link LatencyHistogram}, all durations in nanoseconds.
+ *
+ * @author Albert
+ */
+public class LatencySnapshot {
+    private final long[] bucketCounts;
+    private final long count;
+    private final long sum;
+    private final long max;
+
+    LatencySnapshot(long[] bucketCounts, long count, long sum, long max) {
+        this.bucketCounts = bucketCounts;
+        this.count = count;
+        this.sum = sum;
+        this.max = max;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * @return 0 when nothing was recorded yet
+     */
+    public double getMean() {
+        return count == 0 ? 0 : (double) sum / count;
+    }
+
+    public long getMax() {
+        return max;
+    }
+
+    /**
+     * @param quantile within [0, 1], e.g. 0.99
+     * @return the upper bound of the bucket the quantile falls into, never more than the max, 0 when nothing was recorded yet
+     */
+    public long getValueAtQuantile(double quantile) {
+        if (quantile < 0 || quantile > 1) {
+            throw new IllegalArgumentException("The quantile must be within [0, 1]");
+        }
+        long bucketTotal = 0;
+        for (long bucketCount : bucketCounts) {
+            bucketTotal += bucketCount;
+        }
+        long rank = Math.max(1, (long) Math.ceil(quantile * bucketTotal));
+        long seen = 0;
+        for (int bucket = 0; bucket < bucketCounts.length; bucket++) {
+            seen += bucketCounts[bucket];
+            if (seen >= rank) {
+                return Math.min(max, LatencyHistogram.highestValueOf(bucket));
+            }
+        }
+        return 0;
+    }
+
+    @Override
+    public String toString() {
+        return "LatencySnapshot{count=" + count + ", mean=" + (long) getMean() + ", p50=" + getValueAtQuantile(0.5)
+                + ", p99=" + getValueAtQuantile(0.99) + ", max=" + max + '}';
+    }
+}
@@ -0,0 +1,16 @@
+package com.Albert.metrics;
+
+/**
+ * The live counters of one running query, read by {@link SearchMetrics} when it is asked,
+ * so a visit only counts into the query itself and never into the metrics.
+ *
+ * @author Albert
+ */
+public interface QueryCounters {
+
+    long getVisitedNodes();
+
+    long getPendingNodes();
+
+    long getFoundResults();
+}
@@ -0,0 +1,231 @@
+package com.Albert.metrics;
+
+import com.Albert.cache.CacheStats;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * The counters of every query of one search instance, recorded by its traversals and pulled by anyone,
+ * directly or through JMX once {@link #registerMBean(String)} was called.
+ * <p>
+ * A visit records nothing here, the counts of the running queries are read from their own {@link QueryCounters}
+ * when the metrics are asked, and added up once a query completes. The node latency is a sample,
+ * the traversals time one visit in {@link #NODE_LATENCY_SAMPLE_INTERVAL}, or every batch of visits.
+ * Recording a sample is one add to a striped {@link LatencyHistogram}, so visiting threads never wait
+ * for each other or for a reader. A search instance creates metrics of its own unless its setting disables them,
+ * see {@link com.Albert.engine.SearchSetting#disableMetrics()}.
+ *
+ * @author Albert
+ */
+public class SearchMetrics implements SearchMetricsMXBean {
+    public static final String DOMAIN = "com.Albert";
+    public static final int NODE_LATENCY_SAMPLE_INTERVAL = 16;
+
+    private final LongAdder startedQueries = new LongAdder();
+    private final Set<QueryCounters> runningQueries = ConcurrentHashMap.newKeySet();
+    private final LongAdder completedVisitedNodes = new LongAdder();
+    private final LongAdder completedFoundResults = new LongAdder();
+    private final LatencyHistogram nodeLatency = new LatencyHistogram();
+    private final LatencyHistogram timeToFirstResult = new LatencyHistogram();
+    private volatile Supplier<CacheStats> cacheStatsSource;
+    private volatile ObjectName registeredName;
+
+    public void queryStarted(QueryCounters queryCounters) {
+        startedQueries.increment();
+        runningQueries.add(queryCounters);
+    }
+
+    /**
+     * The counts of the query are added up first, so for a moment they may be counted twice rather than not at all.
+     */
+    public void queryCompleted(QueryCounters queryCounters) {
+        if (runningQueries.contains(queryCounters)) {
+            completedVisitedNodes.add(queryCounters.getVisitedNodes());
+            completedFoundResults.add(queryCounters.getFoundResults());
+            runningQueries.remove(queryCounters);
+        }
+    }
+
+    /**
+     * @param elapsedNanos how long the search model took for all the sampled nodes together
+     */
+    public void nodesSampled(int nodeNum, long elapsedNanos) {
+        nodeLatency.record(elapsedNanos / nodeNum, nodeNum);
+    }
+
+    public void firstResultFound(long elapsedNanos) {
+        timeToFirstResult.record(elapsedNanos);
+    }
+
+    /**
+     * Adds the counters of the cache in front of the searches to the attributes.
+     */
+    public void setCacheStatsSource(Supplier<CacheStats> cacheStatsSource) {
+        this.cacheStatsSource = cacheStatsSource;
+    }
+
+    /**
+     * Registers these metrics with the platform MBean server as {@code com.Albert:type=SearchMetrics,name=<name>}.
+     *
+     * @throws IllegalArgumentException when the name is taken or not valid in an ObjectName
+     */
+    public synchronized ObjectName registerMBean(String name) {
+        unregisterMBean();
+        try {
+            ObjectName objectName = new ObjectName(DOMAIN + ":type=SearchMetrics,name=" + ObjectName.quote(name));
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+            registeredName = objectName;
+            return objectName;
+        } catch (JMException e) {
+            throw new IllegalArgumentException("Can not register the metrics as " + name, e);
+        }
+    }
+
+    public synchronized void unregisterMBean() {
+        ObjectName objectName = registeredName;
+        if (objectName == null) {
+            return;
+        }
+        registeredName = null;
+        MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+        try {
+            if (mBeanServer.isRegistered(objectName)) {
+                mBeanServer.unregisterMBean(objectName);
+            }
+        } catch (JMException e) {
+            throw new IllegalStateException("Can not unregister " + objectName, e);
+        }
+    }
+
+    public LatencySnapshot getNodeLatency() {
+        return nodeLatency.snapshot();
+    }
+
+    public LatencySnapshot getTimeToFirstResult() {
+        return timeToFirstResult.snapshot();
+    }
+
+    /**
+     * @return null when no cache is in front of the searches
+     */
+    public CacheStats getCacheStats() {
+        Supplier<CacheStats> currentSource = cacheStatsSource;
+        return currentSource == null ? null : currentSource.get();
+    }
+
+    @Override
+    public long getStartedQueries() {
+        return startedQueries.sum();
+    }
+
+    @Override
+    public long getRunningQueries() {
+        return runningQueries.size();
+    }
+
+    @Override
+    public long getVisitedNodes() {
+        long visitedNodes = completedVisitedNodes.sum();
+        for (QueryCounters queryCounters : runningQueries) {
+            visitedNodes += queryCounters.getVisitedNodes();
+        }
+        return visitedNodes;
+    }
+
+    @Override
+    public long getPendingNodes() {
+        long pendingNodes = 0;
+        for (QueryCounters queryCounters : runningQueries) {
+            pendingNodes += queryCounters.getPendingNodes();
+        }
+        return Math.max(0, pendingNodes);
+    }
+
+    @Override
+    public long getFoundResults() {
+        long foundResults = completedFoundResults.sum();
+        for (QueryCounters queryCounters : runningQueries) {
+            foundResults += queryCounters.getFoundResults();
+        }
+        return foundResults;
+    }
+
+    @Override
+    public double getNodeLatencyMean() {
+        return getNodeLatency().getMean();
+    }
+
+    @Override
+    public long getNodeLatencyP50() {
+        return getNodeLatency().getValueAtQuantile(0.5);
+    }
+
+    @Override
+    public long getNodeLatencyP99() {
+        return getNodeLatency().getValueAtQuantile(0.99);
+    }
+
+    @Override
+    public long getNodeLatencyMax() {
+        return getNodeLatency().getMax();
+    }
+
+    @Override
+    public double getTimeToFirstResultMean() {
+        return getTimeToFirstResult().getMean();
+    }
+
+    @Override
+    public long getTimeToFirstResultP50() {
+        return getTimeToFirstResult().getValueAtQuantile(0.5);
+    }
+
+    @Override
+    public long getTimeToFirstResultP99() {
+        return getTimeToFirstResult().getValueAtQuantile(0.99);
+    }
+
+    @Override
+    public long getTimeToFirstResultMax() {
+        return getTimeToFirstResult().getMax();
+    }
+
+    @Override
+    public long getCacheHitCount() {
+        CacheStats cacheStats = getCacheStats();
+        return cacheStats == null ? 0 : cacheStats.getHitCount();
+    }
+
+    @Override
+    public long getCacheMissCount() {
+        CacheStats cacheStats = getCacheStats();
+        return cacheStats == null ? 0 : cacheStats.getMissCount();
+    }
+
+    @Override
+    public double getCacheHitRate() {
+        CacheStats cacheStats = getCacheStats();
+        return cacheStats == null ? 1.0 : cacheStats.getHitRate();
+    }
+
+    @Override
+    public long getCacheEvictionCount() {
+        CacheStats cacheStats = getCacheStats();
+        return cacheStats == null ? 0 : cacheStats.getEvictionCount();
+    }
+
+    @Override
+    public String toString() {
+        return "SearchMetrics{startedQueries=" + getStartedQueries() + ", runningQueries=" + getRunningQueries()
+                + ", visitedNodes=" + getVisitedNodes() + ", pendingNodes=" + getPendingNodes()
+                + ", foundResults=" + getFoundResults() + ", nodeLatency=" + getNodeLatency()
+                + ", timeToFirstResult=" + getTimeToFirstResult() + '}';
+    }
+}
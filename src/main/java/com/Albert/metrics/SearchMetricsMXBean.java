@@ -0,0 +1,43 @@
+package com.Albert.metrics;
+
+/**
+ * The attributes of {@link SearchMetrics} as JMX shows them, durations in nanoseconds.
+ *
+ * @author Albert
+ */
+public interface SearchMetricsMXBean {
+
+    long getStartedQueries();
+
+    long getRunningQueries();
+
+    long getVisitedNodes();
+
+    long getPendingNodes();
+
+    long getFoundResults();
+
+    double getNodeLatencyMean();
+
+    long getNodeLatencyP50();
+
+    long getNodeLatencyP99();
+
+    long getNodeLatencyMax();
+
+    double getTimeToFirstResultMean();
+
+    long getTimeToFirstResultP50();
+
+    long getTimeToFirstResultP99();
+
+    long getTimeToFirstResultMax();
+
+    long getCacheHitCount();
+
+    long getCacheMissCount();
+
+    double getCacheHitRate();
+
+    long getCacheEvictionCount();
+}
@@ -0,0 +1,31 @@
+package com.Albert.pojo;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * What one node holds for several keys at once: the results of every key and the children, which all keys share.
+ *
+ * @author Albert
+ */
+public class MessageOfKeysSearched<KeyT, TrueT, CanBeSearchedT> {
+    private final Map<KeyT, List<TrueT>> trueResults;
+    private final List<CanBeSearchedT> canBeSearched;
+
+    public MessageOfKeysSearched(Map<KeyT, List<TrueT>> trueResults, List<CanBeSearchedT> canBeSearched) {
+        this.trueResults = trueResults;
+        this.canBeSearched = canBeSearched;
+    }
+
+    /**
+     * @return the results by key, a key without results may be left out
+     */
+    public Optional<Map<KeyT, List<TrueT>>> getTrueResults() {
+        return Optional.of(trueResults);
+    }
+
+    public Optional<List<CanBeSearchedT>> getCanBeSearched() {
+        return Optional.of(canBeSearched);
+    }
+}
@@ -1,19 +1,20 @@
 package com.Albert.pojo;
 
-import java.util.concurrent.BlockingQueue;
+import com.Albert.engine.ResultCursor;
+
 import java.util.concurrent.TimeUnit;
 
 /**
  * @author Albert
  */
 public class RuleParameter<ResultT> {
-    public final BlockingQueue<ResultT> resultTBlockingQueue;
+    public final ResultCursor<ResultT> resultCursor;
     public final long milliTimeout;
     public final TimeUnit unit = TimeUnit.MILLISECONDS;
     public final int expectNum;
 
-    public RuleParameter(BlockingQueue<ResultT> resultTBlockingQueue, long milliTimeout, int expectNum) {
-        this.resultTBlockingQueue = resultTBlockingQueue;
+    public RuleParameter(ResultCursor<ResultT> resultCursor, long milliTimeout, int expectNum) {
+        this.resultCursor = resultCursor;
         this.milliTimeout = milliTimeout;
         this.expectNum = expectNum;
     }
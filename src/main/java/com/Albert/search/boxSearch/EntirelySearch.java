@@ -1,8 +1,17 @@
 package com.Albert.search.boxSearch;
 
+import com.Albert.engine.ResultIterator;
+import com.Albert.engine.ResultPublisher;
+import com.Albert.engine.SearchHandle;
+import org.reactivestreams.Publisher;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.stream.Stream;
 
 /**
  * @author Albert
@@ -13,4 +22,39 @@ public interface EntirelySearch<KeyT, ResultT> extends Search<KeyT, ResultT> {
     List<ResultT> getResultsUntilEnoughOrTimeout(KeyT keyT, int expectNum, long timeout, TimeUnit unit);
     List<ResultT> getResultsUntilEnoughOrOneTimeout(KeyT keyT, int expectNum, long timeout, TimeUnit unit);
     List<ResultT> getResultsUntilEnough(KeyT keyT, int expectNum) throws TimeoutException;
+
+    /**
+     * Hands out results while the traversal runs. Closing the stream detaches it from the traversal.
+     */
+    default Stream<ResultT> streamResults(KeyT keyT) {
+        return new ResultIterator<>(startSearch(keyT).openCursor()).stream();
+    }
+
+    /**
+     * Publishes results as fast as the subscriber requests them, every subscription starts a search of its own.
+     */
+    default Publisher<ResultT> publishResults(KeyT keyT) {
+        return new ResultPublisher<>(() -> startSearch(keyT).openCursor());
+    }
+
+    /**
+     * Starts a traversal that runs until its search space is exhausted or the handle cancels it.
+     * <p>
+     * An implementation that does not override it searches to the end with {@link #getResultsUntilTimeout}
+     * before it returns, so the handle can not cancel anything and its results only arrive all at once.
+     */
+    default SearchHandle<ResultT> startSearch(KeyT keyT) {
+        return SearchHandle.completed(getResultsUntilTimeout(keyT, Long.MAX_VALUE, TimeUnit.NANOSECONDS));
+    }
+
+    /**
+     * Starts the traversals of many keys, an implementation may answer them all with one shared traversal.
+     */
+    default Map<KeyT, SearchHandle<ResultT>> startSearchKeys(Collection<KeyT> keysSearch) {
+        Map<KeyT, SearchHandle<ResultT>> handles = new LinkedHashMap<>();
+        for (KeyT keyT : keysSearch) {
+            handles.put(keyT, startSearch(keyT));
+        }
+        return handles;
+    }
 }
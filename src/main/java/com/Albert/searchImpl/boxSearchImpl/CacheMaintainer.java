@@ -0,0 +1,318 @@
+package com.Albert.searchImpl.boxSearchImpl;
+
+import com.Albert.change.ChangeFeed;
+import com.Albert.change.NodeChange;
+import com.Albert.engine.ResultLog;
+import com.Albert.engine.SearchGroup;
+import com.Albert.pojo.MessageOfSearched;
+import com.Albert.searchModel.SearchModel;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Patches the cached results of every key when a {@link ChangeFeed} reports a change,
+ * by searching the changed node again instead of the whole tree.
+ * <p>
+ * It remembers which results every visited node produced, so a result that is no longer true can be withdrawn,
+ * and which node every visited node is a child of, so a deleted subtree is withdrawn without a look at the rest.
+ * Changes that arrive while the traversal of a key, or the search of a new subtree of it, is still running
+ * are held back until it has finished. Every key is patched under a lock of its own, and a new subtree is
+ * searched by a traversal on the engine, so a large new directory holds up neither the feed nor the other keys.
+ * <p>
+ * A key that visited a node the feed can not watch would silently go stale, so it is dropped instead
+ * once its traversal is complete, and searched afresh the next time it is asked for.
+ * A key watches every node it visits once, and unwatches them all when it is forgotten, dropped or cleared.
+ *
+ * @author Albert
+ */
+class CacheMaintainer<KeyT, ResultT, PathT> {
+    private final ChangeFeed<PathT> changeFeed;
+    private final SearchModel<KeyT, PathT> searchModel;
+    private final Function<KeyT, SearchGroup<KeyT, ResultT, PathT>> subtreeGroupCreator;
+    private final Runnable overflowAction;
+    private final BiConsumer<KeyT, ResultLog<ResultT>> unwatchedAction;
+    private final Map<ResultLog<ResultT>, MaintainedKey<KeyT, ResultT, PathT>> maintainedKeys = new ConcurrentHashMap<>();
+
+    /**
+     * @param subtreeGroupCreator creates a traversal that is not cached on its own, to search a new subtree of a key
+     * @param unwatchedAction     drops the log of a key that visited a node the feed can not watch
+     */
+    CacheMaintainer(ChangeFeed<PathT> changeFeed, SearchModel<KeyT, PathT> searchModel,
+                    Function<KeyT, SearchGroup<KeyT, ResultT, PathT>> subtreeGroupCreator,
+                    Runnable overflowAction, BiConsumer<KeyT, ResultLog<ResultT>> unwatchedAction) {
+        this.changeFeed = changeFeed;
+        this.searchModel = searchModel;
+        this.subtreeGroupCreator = subtreeGroupCreator;
+        this.overflowAction = overflowAction;
+        this.unwatchedAction = unwatchedAction;
+    }
+
+    /**
+     * Every log of a key is maintained on its own, so the log that is served keeps being patched
+     * while a refresh fills the log that will replace it. A cancelled traversal is never served, its log is forgotten.
+     */
+    void maintain(SearchGroup<KeyT, ResultT, PathT> searchGroup) {
+        MaintainedKey<KeyT, ResultT, PathT> maintainedKey = new MaintainedKey<>(searchGroup.getKeySearch(), searchGroup.getResultLog());
+        maintainedKeys.put(maintainedKey.resultLog, maintainedKey);
+        searchGroup.setVisitListener((node, results) -> {
+            watch(maintainedKey, node);
+            if (!results.isEmpty()) {
+                maintainedKey.nodeResults.put(node, new ArrayList<>(results));
+            }
+        });
+        searchGroup.whenComplete(() -> {
+            if (searchGroup.isCancelled()) {
+                forget(maintainedKey);
+                return;
+            }
+            maintainedKey.isComplete = true;
+            applyDelayedChanges(maintainedKey);
+        });
+    }
+
+    /**
+     * @return true when the log is patched, false e.g. when its key visited a node the feed can not watch
+     */
+    boolean isMaintained(ResultLog<ResultT> resultLog) {
+        return maintainedKeys.containsKey(resultLog);
+    }
+
+    /**
+     * Watches the node once per key, and links it to its parent. Nothing is watched any more once the key is released.
+     */
+    private void watch(MaintainedKey<KeyT, ResultT, PathT> maintainedKey, PathT node) {
+        if (maintainedKey.watchedNodes.contains(node)) {
+            return;
+        }
+        maintainedKey.watchLock.readLock().lock();
+        try {
+            if (maintainedKey.isReleased || !maintainedKey.watchedNodes.add(node)) {
+                return;
+            }
+            if (!changeFeed.watch(node)) {
+                maintainedKey.watchedNodes.remove(node);
+                maintainedKey.isUnwatched = true;
+                return;
+            }
+            PathT parent = changeFeed.parentOf(node);
+            if (parent != null) {
+                maintainedKey.childNodes.computeIfAbsent(parent, parentNode -> ConcurrentHashMap.newKeySet()).add(node);
+            }
+        } finally {
+            maintainedKey.watchLock.readLock().unlock();
+        }
+    }
+
+    private void unwatch(MaintainedKey<KeyT, ResultT, PathT> maintainedKey, PathT node) {
+        maintainedKey.watchLock.readLock().lock();
+        try {
+            if (maintainedKey.watchedNodes.remove(node)) {
+                changeFeed.unwatch(node);
+            }
+        } finally {
+            maintainedKey.watchLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Unwatches every node of the key, after a watch that is running right now.
+     */
+    private void release(MaintainedKey<KeyT, ResultT, PathT> maintainedKey) {
+        maintainedKey.watchLock.writeLock().lock();
+        try {
+            maintainedKey.isReleased = true;
+            maintainedKey.watchedNodes.forEach(changeFeed::unwatch);
+            maintainedKey.watchedNodes.clear();
+            maintainedKey.childNodes.clear();
+        } finally {
+            maintainedKey.watchLock.writeLock().unlock();
+        }
+    }
+
+    void onChanges(List<NodeChange<PathT>> changes) {
+        if (changes.stream().anyMatch(change -> change.getKind() == NodeChange.Kind.OVERFLOW)) {
+            overflowAction.run();
+            return;
+        }
+        maintainedKeys.values().forEach(maintainedKey -> {
+            maintainedKey.delayedChanges.addAll(changes);
+            applyDelayedChanges(maintainedKey);
+        });
+    }
+
+    /**
+     * Stops patching the log, and only this log, of the key, e.g. once the cache has removed it.
+     */
+    void forget(KeyT keySearch, ResultLog<ResultT> resultLog) {
+        MaintainedKey<KeyT, ResultT, PathT> maintainedKey = resultLog == null ? null : maintainedKeys.get(resultLog);
+        if (maintainedKey != null && maintainedKey.keySearch.equals(keySearch)) {
+            forget(maintainedKey);
+        }
+    }
+
+    private void forget(MaintainedKey<KeyT, ResultT, PathT> maintainedKey) {
+        if (maintainedKeys.remove(maintainedKey.resultLog, maintainedKey)) {
+            release(maintainedKey);
+        }
+    }
+
+    void clear() {
+        maintainedKeys.values().forEach(this::forget);
+    }
+
+    /**
+     * Does nothing while a traversal of the key is running, the last one to finish applies the changes held back.
+     */
+    private void applyDelayedChanges(MaintainedKey<KeyT, ResultT, PathT> maintainedKey) {
+        synchronized (maintainedKey) {
+            if (!maintainedKey.isComplete || maintainedKey.runningSubtreeNum > 0) {
+                return;
+            }
+            if (!maintainedKey.isUnwatched) {
+                patchChanges(maintainedKey);
+                return;
+            }
+        }
+        dropUnwatched(maintainedKey);
+    }
+
+    private void patchChanges(MaintainedKey<KeyT, ResultT, PathT> maintainedKey) {
+        ResultLog<ResultT> resultLog = maintainedKey.resultLog;
+        Set<PathT> changedNodes = new LinkedHashSet<>();
+        Set<PathT> createdChildren = new HashSet<>();
+        NodeChange<PathT> change;
+        while ((change = maintainedKey.delayedChanges.poll()) != null) {
+            if (change.getKind() == NodeChange.Kind.DELETED) {
+                withdrawSubtree(maintainedKey, resultLog, change.getChild());
+            } else if (change.getKind() == NodeChange.Kind.CREATED) {
+                createdChildren.add(change.getChild());
+            }
+            changedNodes.add(change.getParent());
+        }
+        for (PathT changedNode : changedNodes) {
+            List<PathT> children = searchNodeAgain(maintainedKey, resultLog, changedNode);
+            for (PathT child : children) {
+                if (createdChildren.contains(child)) {
+                    searchNewSubtree(maintainedKey, child);
+                }
+            }
+        }
+    }
+
+    private void dropUnwatched(MaintainedKey<KeyT, ResultT, PathT> maintainedKey) {
+        if (maintainedKeys.remove(maintainedKey.resultLog, maintainedKey)) {
+            release(maintainedKey);
+            unwatchedAction.accept(maintainedKey.keySearch, maintainedKey.resultLog);
+        }
+    }
+
+    /**
+     * Walks down from the deleted node along the links to the parents, so only the nodes of the subtree are looked at.
+     */
+    private void withdrawSubtree(MaintainedKey<KeyT, ResultT, PathT> maintainedKey, ResultLog<ResultT> resultLog, PathT deletedNode) {
+        PathT parent = changeFeed.parentOf(deletedNode);
+        Set<PathT> siblings = parent == null ? null : maintainedKey.childNodes.get(parent);
+        if (siblings != null) {
+            siblings.remove(deletedNode);
+        }
+        List<ResultT> withdrawnResults = new ArrayList<>();
+        Deque<PathT> subtreeNodes = new ArrayDeque<>();
+        subtreeNodes.push(deletedNode);
+        while (!subtreeNodes.isEmpty()) {
+            PathT node = subtreeNodes.pop();
+            List<ResultT> nodeResults = maintainedKey.nodeResults.remove(node);
+            if (nodeResults != null) {
+                withdrawnResults.addAll(nodeResults);
+            }
+            unwatch(maintainedKey, node);
+            Set<PathT> children = maintainedKey.childNodes.remove(node);
+            if (children != null) {
+                children.forEach(subtreeNodes::push);
+            }
+        }
+        if (!withdrawnResults.isEmpty()) {
+            resultLog.removeAll(withdrawnResults);
+        }
+    }
+
+    private List<PathT> searchNodeAgain(MaintainedKey<KeyT, ResultT, PathT> maintainedKey, ResultLog<ResultT> resultLog, PathT node) {
+        watch(maintainedKey, node);
+        MessageOfSearched<ResultT, PathT> messageOfSearched = searchModel.search(maintainedKey.keySearch, node);
+        patchNode(maintainedKey, resultLog, node, messageOfSearched.getTrueResult().get());
+        return messageOfSearched.getCanBeSearched().get();
+    }
+
+    private void patchNode(MaintainedKey<KeyT, ResultT, PathT> maintainedKey, ResultLog<ResultT> resultLog, PathT node, List<ResultT> newResults) {
+        List<ResultT> oldResults = maintainedKey.nodeResults.getOrDefault(node, Collections.emptyList());
+        Set<ResultT> oldResultSet = new HashSet<>(oldResults);
+        Set<ResultT> newResultSet = new HashSet<>(newResults);
+        List<ResultT> withdrawnResults = oldResults.stream()
+                                                   .filter(oldResult -> !newResultSet.contains(oldResult))
+                                                   .collect(Collectors.toList());
+        if (!withdrawnResults.isEmpty()) {
+            resultLog.removeAll(withdrawnResults);
+        }
+        newResults.stream()
+                  .filter(newResult -> !oldResultSet.contains(newResult))
+                  .forEach(resultLog::offer);
+        if (newResults.isEmpty()) {
+            maintainedKey.nodeResults.remove(node);
+        } else {
+            maintainedKey.nodeResults.put(node, new ArrayList<>(newResults));
+        }
+    }
+
+    /**
+     * Called under the lock of the key. The traversal patches every node it visits, on the threads of the engine.
+     */
+    private void searchNewSubtree(MaintainedKey<KeyT, ResultT, PathT> maintainedKey, PathT newNode) {
+        SearchGroup<KeyT, ResultT, PathT> subtreeGroup = subtreeGroupCreator.apply(maintainedKey.keySearch);
+        maintainedKey.runningSubtreeNum++;
+        subtreeGroup.setVisitListener((node, results) -> {
+            watch(maintainedKey, node);
+            patchNode(maintainedKey, maintainedKey.resultLog, node, results);
+        });
+        subtreeGroup.whenComplete(() -> {
+            synchronized (maintainedKey) {
+                maintainedKey.runningSubtreeNum--;
+            }
+            applyDelayedChanges(maintainedKey);
+        });
+        subtreeGroup.startSearch(Collections.singletonList(newNode));
+    }
+
+    private static class MaintainedKey<KeyT, ResultT, PathT> {
+        final KeyT keySearch;
+        final ResultLog<ResultT> resultLog;
+        final Map<PathT, List<ResultT>> nodeResults = new ConcurrentHashMap<>();
+        final Set<PathT> watchedNodes = ConcurrentHashMap.newKeySet();
+        final Map<PathT, Set<PathT>> childNodes = new ConcurrentHashMap<>();
+        final ReadWriteLock watchLock = new ReentrantReadWriteLock();
+        final Queue<NodeChange<PathT>> delayedChanges = new ConcurrentLinkedQueue<>();
+        volatile boolean isComplete = false;
+        volatile boolean isUnwatched = false;
+        volatile boolean isReleased = false;
+        int runningSubtreeNum;
+
+        MaintainedKey(KeyT keySearch, ResultLog<ResultT> resultLog) {
+            this.keySearch = keySearch;
+            this.resultLog = resultLog;
+        }
+    }
+}
@@ -1,16 +1,38 @@
 package com.Albert.searchImpl.boxSearchImpl;
 
+import com.Albert.cache.CacheSetting;
+import com.Albert.cache.CacheStats;
 import com.Albert.cache.EfficientCacheCompute;
+import com.Albert.cache.RemovalListener;
+import com.Albert.change.ChangeFeed;
+import com.Albert.engine.MultiKeySearchGroup;
+import com.Albert.engine.ResultCursor;
+import com.Albert.engine.ResultIterator;
+import com.Albert.engine.ResultLog;
+import com.Albert.engine.ResultPublisher;
+import com.Albert.engine.SearchEngine;
+import com.Albert.engine.SearchGroup;
+import com.Albert.engine.SearchHandle;
+import com.Albert.engine.SearchProgress;
+import com.Albert.engine.SearchSetting;
+import com.Albert.metrics.SearchMetrics;
 import com.Albert.pojo.RuleParameter;
 import com.Albert.search.boxSearch.CacheEntirelySearch;
 import com.Albert.searchModel.SearchModel;
 import com.Albert.utils.ParameterUtil;
+import org.reactivestreams.Publisher;
 
-import java.lang.ref.WeakReference;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 /**
  * @author Albert
@@ -20,100 +42,237 @@ public class ConcurrentCacheEntirelySearch<KeyT, ResultT, PathT> implements Cach
     private static final int NOT_LIMIT_EXPECT_NUM = 0;
     public static final int NOT_HAVE_TIMEOUT = 0;
 
-    private final EfficientCacheCompute<KeyT, WeakReference<BlockingQueue<ResultT>>> cacheResults;
-    private final ExecutorService gitService;
+    private final EfficientCacheCompute<KeyT, ResultLog<ResultT>> cacheResults;
     private final SearchMethod<KeyT, ResultT, PathT> searchMethod;
+    private final Map<ResultLog<ResultT>, SearchHandle<ResultT>> groupsOfLogs = new ConcurrentHashMap<>();
+    private final boolean isBounded;
+    private volatile ChangeFeed<PathT> changeFeed;
+    private volatile CacheMaintainer<KeyT, ResultT, PathT> cacheMaintainer;
+    private volatile Consumer<SearchGroup<KeyT, ResultT, PathT>> maintainGroup;
+    private final LongAdder unwatchedKeyNum = new LongAdder();
 
     public ConcurrentCacheEntirelySearch(SearchModel searchModel, PathT... rootCanBeSearched) {
-        searchMethod = SearchMethod.createSearchMethod(searchModel, Arrays.asList(rootCanBeSearched));
-        this.cacheResults = EfficientCacheCompute.createNeedComputeFunction(searchMethod::methodOfHowSearch);
-        this.gitService = Executors.newCachedThreadPool();
+        this(SearchMethod.createSearchMethod(searchModel, Arrays.asList(rootCanBeSearched)));
+    }
+
+    private ConcurrentCacheEntirelySearch(SearchMethod<KeyT, ResultT, PathT> searchMethod) {
+        this(searchMethod, CacheSetting.defaultSetting());
+    }
+
+    /**
+     * The setting of the caller is copied, so one setting may build any number of instances.
+     */
+    private ConcurrentCacheEntirelySearch(SearchMethod<KeyT, ResultT, PathT> searchMethod, CacheSetting<KeyT, ResultLog<ResultT>> callerSetting) {
+        this.searchMethod = searchMethod;
+        CacheSetting<KeyT, ResultLog<ResultT>> cacheSetting = callerSetting.copy();
+        RemovalListener<KeyT, ResultLog<ResultT>> removalListener = cacheSetting.getRemovalListener();
+        cacheSetting.setRemovalListener((keyT, resultLog, removalCause) -> {
+            forgetMaintainedKey(keyT, resultLog);
+            cancelSearchOf(resultLog);
+            if (removalListener != null) {
+                removalListener.onRemoval(keyT, resultLog, removalCause);
+            }
+        });
+        if (cacheSetting.getRefreshMethod() == null) {
+            cacheSetting.setRefreshMethod(this::refreshMaintainedKey);
+        }
+        this.cacheResults = EfficientCacheCompute.createNeedComputeFunction(searchMethod::methodOfHowSearch, cacheSetting);
+        searchMethod.addGroupListener(this::rememberGroupOfLog);
+        this.isBounded = cacheSetting.isBounded();
+        if (searchMethod.getSearchMetrics() != null) {
+            searchMethod.getSearchMetrics().setCacheStatsSource(cacheResults::getStats);
+        }
+        if (isBounded) {
+            searchMethod.addGroupListener(searchGroup -> searchGroup.whenComplete(() -> cacheResults.reweigh(searchGroup.getKeySearch())));
+        }
+    }
+
+    /**
+     * A group is only needed while its traversal runs, so it is forgotten once the traversal has finished, however it did.
+     * The handle of a complete key reports its progress from the result log.
+     */
+    private void rememberGroupOfLog(SearchGroup<KeyT, ResultT, PathT> searchGroup) {
+        ResultLog<ResultT> resultLog = searchGroup.getResultLog();
+        groupsOfLogs.put(resultLog, searchGroup);
+        searchGroup.whenComplete(() -> groupsOfLogs.remove(resultLog));
+    }
+
+    /**
+     * An evicted, expired or cleared key no longer needs the rest of its traversal.
+     */
+    private void cancelSearchOf(ResultLog<ResultT> resultLog) {
+        if (resultLog == null) {
+            return;
+        }
+        SearchHandle<ResultT> searchHandle = groupsOfLogs.remove(resultLog);
+        if (searchHandle != null && !searchHandle.progress().isComplete()) {
+            searchHandle.cancel();
+        }
+    }
+
+    public static <PathT> ConcurrentCacheEntirelySearch createHowAppointSearchEngine(SearchModel searchModel, SearchEngine searchEngine, PathT... rootCanBeSearched) {
+        return new ConcurrentCacheEntirelySearch(SearchMethod.createSearchMethod(searchModel, Arrays.asList(rootCanBeSearched), searchEngine));
+    }
+
+    public static <PathT> ConcurrentCacheEntirelySearch createHowAppointSearchSetting(SearchModel searchModel, SearchSetting searchSetting, PathT... rootCanBeSearched) {
+        return new ConcurrentCacheEntirelySearch(SearchMethod.createSearchMethod(searchModel, Arrays.asList(rootCanBeSearched), searchSetting));
+    }
+
+    /**
+     * Caches the results of at most maximumCachedResultNum results in total, the keys whose results
+     * were used least recently are evicted first.
+     */
+    public static <PathT> ConcurrentCacheEntirelySearch createHowAppointMaximumCachedResults(SearchModel searchModel, SearchSetting searchSetting, long maximumCachedResultNum, PathT... rootCanBeSearched) {
+        CacheSetting<Object, ResultLog<Object>> cacheSetting = CacheSetting.<Object, ResultLog<Object>>defaultSetting()
+                .setMaximumWeight(maximumCachedResultNum, (keyT, resultLog) -> resultLog.size());
+        return new ConcurrentCacheEntirelySearch(SearchMethod.createSearchMethod(searchModel, Arrays.asList(rootCanBeSearched), searchSetting), cacheSetting);
+    }
+
+    /**
+     * Bounds, expires and refreshes the cached results of every key as the cache setting says.
+     * A refresh searches the key again and only replaces the cached results once that search is complete.
+     */
+    public static <KeyT, ResultT, PathT> ConcurrentCacheEntirelySearch<KeyT, ResultT, PathT> createHowAppointCacheSetting(SearchModel searchModel, SearchSetting searchSetting, CacheSetting<KeyT, ResultLog<ResultT>> cacheSetting, PathT... rootCanBeSearched) {
+        return new ConcurrentCacheEntirelySearch<>(SearchMethod.createSearchMethod(searchModel, Arrays.asList(rootCanBeSearched), searchSetting), cacheSetting);
     }
 
     @Override
     public List<ResultT> getResultsUntilOneTimeout(KeyT keyT, long timeout, TimeUnit unit) {
-        RuleParameter ruleParameter = createSearchRule(keyT, timeout, unit, NOT_LIMIT_EXPECT_NUM);
-        List list = getResultsUntilOneTimeout(ruleParameter);
-        unifyResultCache(ruleParameter, list);
-        return list;
+        try (ResultCursor<ResultT> resultCursor = openCursor(keyT)) {
+            return getResultsUntilOneTimeout(createSearchRule(resultCursor, timeout, unit, NOT_LIMIT_EXPECT_NUM));
+        }
     }
 
     @Override
     public List<ResultT> getResultsUntilTimeout(KeyT keyT, long timeout, TimeUnit unit) {
-        RuleParameter<ResultT> ruleParameter = createSearchRule(keyT, timeout, unit, NOT_LIMIT_EXPECT_NUM);
-        List<ResultT> resultList = new ArrayList<>();
-        Future timingCancelFuture = gitService.submit(() -> {
-            while (true) {
-                resultList.add(ruleParameter.resultTBlockingQueue.take());
-            }
-        });
-        startTimingCancel(timingCancelFuture, ruleParameter);
-        unifyResultCache(ruleParameter, resultList);
-        return resultList;
+        try (ResultCursor<ResultT> resultCursor = openCursor(keyT)) {
+            return getResultsUntilDeadline(createSearchRule(resultCursor, timeout, unit, Integer.MAX_VALUE));
+        }
     }
 
     @Override
     public List<ResultT> getResultsUntilEnoughOrTimeout(KeyT keyT, int expectNum, long timeout, TimeUnit unit) {
-        RuleParameter<ResultT> ruleParameter = createSearchRule(keyT, timeout, unit, expectNum);
-        List<ResultT> resultList = new ArrayList<>();
-        Future timingCancelFuture = gitService.submit(() -> {
-            for (int i = 0; i < ruleParameter.expectNum; i++) {
-                try {
-                    resultList.add(ruleParameter.resultTBlockingQueue.take());
-                } catch (InterruptedException e) {
-                }
-            }
-        });
-        startTimingCancel(timingCancelFuture, ruleParameter);
-        unifyResultCache(ruleParameter, resultList);
-        return resultList;
+        try (ResultCursor<ResultT> resultCursor = openCursor(keyT)) {
+            return getResultsUntilDeadline(createSearchRule(resultCursor, timeout, unit, expectNum));
+        }
     }
 
     @Override
     public List<ResultT> getResultsUntilEnough(KeyT keyT, int expectNum) {
-        RuleParameter<ResultT> rule = createSearchRule(keyT, NOT_HAVE_TIMEOUT, TimeUnit.MILLISECONDS, expectNum);
-        List<ResultT> resultList = new ArrayList<>();
-        while (resultList.size() < rule.expectNum) {
-            resultList.add(takeOfQueueWithTryCatch(rule.resultTBlockingQueue));
+        try (ResultCursor<ResultT> resultCursor = openCursor(keyT)) {
+            List<ResultT> resultList = new ArrayList<>();
+            while (resultList.size() < expectNum) {
+                ResultT resultT = takeOfCursorWithTryCatch(resultCursor);
+                if (resultT == null) {
+                    break;
+                }
+                resultList.add(resultT);
+            }
+            return resultList;
         }
-        unifyResultCache(rule, resultList);
-        return resultList;
     }
 
     @Override
     public List<ResultT> getResultsUntilEnoughOrOneTimeout(KeyT keyT, int expectNum, long timeout, TimeUnit unit) {
-        RuleParameter ruleParameter = createSearchRule(keyT, timeout, unit, expectNum);
-        List list = getResultsUntilEnoughOrOneTimeout(ruleParameter);
-        unifyResultCache(ruleParameter, list);
-        return list;
+        try (ResultCursor<ResultT> resultCursor = openCursor(keyT)) {
+            return getResultsUntilEnoughOrOneTimeout(createSearchRule(resultCursor, timeout, unit, expectNum));
+        }
     }
 
     @Override
     public ResultT getAResult(KeyT keySearch) {
-        BlockingQueue<ResultT> resultTBlockingQueue = cacheResults.compute(keySearch).get();
-        ResultT resultT = takeOfQueueWithTryCatch(resultTBlockingQueue);
-        unifyResultCache(resultT, resultTBlockingQueue);
-        return resultT;
+        try (ResultCursor<ResultT> resultCursor = openCursor(keySearch)) {
+            return takeOfCursorWithTryCatch(resultCursor);
+        }
     }
 
     @Override
     public ResultT getAResultUntilTimeout(KeyT keyT, long timeout, TimeUnit timeUnit) throws TimeoutException {
-        RuleParameter<ResultT> ruleParameter = createSearchRule(keyT, timeout, timeUnit, NOT_LIMIT_EXPECT_NUM);
-        ResultT resultT = startGetAResultUntilTimeout(ruleParameter);
-        unifyResultCache(resultT, ruleParameter.resultTBlockingQueue);
-        return resultT;
+        try (ResultCursor<ResultT> resultCursor = openCursor(keyT)) {
+            return getResult(createSearchRule(resultCursor, timeout, timeUnit, NOT_LIMIT_EXPECT_NUM));
+        }
+    }
+
+    /**
+     * Closing the stream only detaches it, the traversal keeps filling the cache for the key.
+     */
+    @Override
+    public Stream<ResultT> streamResults(KeyT keyT) {
+        return new ResultIterator<>(openCursor(keyT)).stream();
+    }
+
+    /**
+     * Cancelling a subscription only detaches it, the traversal keeps filling the cache for the key.
+     */
+    @Override
+    public Publisher<ResultT> publishResults(KeyT keyT) {
+        return new ResultPublisher<>(() -> openCursor(keyT));
+    }
+
+    /**
+     * The handle of the traversal that fills the cache for the key, it is started when the key is not cached.
+     * Cancelling the handle also drops the key from the cache, so the incomplete results are never served as complete.
+     */
+    @Override
+    public SearchHandle<ResultT> startSearch(KeyT keyT) {
+        ResultLog<ResultT> resultLog = cacheResults.compute(keyT);
+        return new CachedSearchHandle(keyT, resultLog, groupsOfLogs.get(resultLog));
+    }
+
+    /**
+     * The handles of the traversals that fill the cache for the keys. The keys that are not cached are searched
+     * together in one traversal that fills all their entries, see {@link MultiKeySearchGroup}.
+     * While the cache is maintained every key is still searched on its own, the feed follows the nodes of single traversals.
+     */
+    @Override
+    public Map<KeyT, SearchHandle<ResultT>> startSearchKeys(Collection<KeyT> keysSearch) {
+        Map<KeyT, ResultLog<ResultT>> resultLogs = cacheMaintainer == null
+                ? cacheResults.computeAll(keysSearch, this::searchKeysTogether)
+                : cacheResults.computeAll(keysSearch, this::searchKeysApart);
+        Map<KeyT, SearchHandle<ResultT>> handles = new LinkedHashMap<>();
+        resultLogs.forEach((keyT, resultLog) -> handles.put(keyT, new CachedSearchHandle(keyT, resultLog, groupsOfLogs.get(resultLog))));
+        return handles;
     }
 
-    private RuleParameter createSearchRule(KeyT keyT, long timeout, TimeUnit unit, int expectNum) {
-        BlockingQueue<ResultT> resultBlockingQueue = cacheResults.compute(keyT).get();
+    private Map<KeyT, ResultLog<ResultT>> searchKeysTogether(List<KeyT> keysSearch) {
+        MultiKeySearchGroup<KeyT, ResultT, PathT> keysGroup = searchMethod.methodOfHowSearchKeys(keysSearch);
+        Map<KeyT, ResultLog<ResultT>> resultLogs = new HashMap<>();
+        for (KeyT keySearch : keysSearch) {
+            ResultLog<ResultT> resultLog = keysGroup.getResultLog(keySearch);
+            groupsOfLogs.put(resultLog, keysGroup.handleOf(keySearch));
+            resultLogs.put(keySearch, resultLog);
+        }
+        keysGroup.whenComplete(() -> {
+            resultLogs.values().forEach(groupsOfLogs::remove);
+            if (isBounded && !keysGroup.progress().isCancelled()) {
+                keysSearch.forEach(cacheResults::reweigh);
+            }
+        });
+        return resultLogs;
+    }
+
+    private Map<KeyT, ResultLog<ResultT>> searchKeysApart(List<KeyT> keysSearch) {
+        Map<KeyT, ResultLog<ResultT>> resultLogs = new HashMap<>();
+        keysSearch.forEach(keySearch -> resultLogs.put(keySearch, searchMethod.methodOfHowSearch(keySearch)));
+        return resultLogs;
+    }
+
+    /**
+     * Every reader replays the cached results of the key from the first one, on its own cursor.
+     */
+    private ResultCursor<ResultT> openCursor(KeyT keyT) {
+        return cacheResults.compute(keyT).openCursor();
+    }
+
+    private RuleParameter<ResultT> createSearchRule(ResultCursor<ResultT> resultCursor, long timeout, TimeUnit unit, int expectNum) {
         long milliTimeout = ParameterUtil.preventTimeoutTooLong(timeout, unit);
-        return new RuleParameter(resultBlockingQueue, milliTimeout, expectNum);
+        return new RuleParameter<>(resultCursor, milliTimeout, expectNum);
     }
 
-    private List<ResultT> getResultsUntilOneTimeout(RuleParameter ruleParameter) {
+    private List<ResultT> getResultsUntilOneTimeout(RuleParameter<ResultT> ruleParameter) {
         List<ResultT> list = new ArrayList<>();
         while (true) {
-            ResultT result = (ResultT) getResult(ruleParameter);
+            ResultT result = getResult(ruleParameter);
             if (result == null) {
                 break;
             }
@@ -125,28 +284,39 @@ public class ConcurrentCacheEntirelySearch<KeyT, ResultT, PathT> implements Cach
     private ResultT getResult(RuleParameter<ResultT> rule) {
         ResultT result = null;
         try {
-            result = rule.resultTBlockingQueue.poll(rule.milliTimeout, rule.unit);
+            result = rule.resultCursor.poll(rule.milliTimeout, rule.unit);
         } catch (InterruptedException e) {
             e.printStackTrace();
         }
         return result;
     }
 
-    private void unifyResultCache(RuleParameter ruleParameter, List list) {
-        list.forEach(result -> ruleParameter.resultTBlockingQueue.offer(result));
-    }
-
-    private void startTimingCancel(Future timingCancelFuture, RuleParameter rule) {
+    /**
+     * Reads on the caller thread, every poll waits at most until the deadline.
+     * An interrupted caller gets the results read so far and keeps its interrupt status.
+     */
+    private List<ResultT> getResultsUntilDeadline(RuleParameter<ResultT> rule) {
+        List<ResultT> list = new ArrayList<>();
+        long deadlineNanos = System.nanoTime() + rule.unit.toNanos(rule.milliTimeout);
         try {
-            timingCancelFuture.get(rule.milliTimeout, rule.unit);
-        } catch (Exception e) {
-            e.printStackTrace();
-        } finally {
-            timingCancelFuture.cancel(true);
+            while (list.size() < rule.expectNum) {
+                long remainingNanos = deadlineNanos - System.nanoTime();
+                if (remainingNanos <= 0) {
+                    break;
+                }
+                ResultT result = rule.resultCursor.poll(remainingNanos, TimeUnit.NANOSECONDS);
+                if (result == null) {
+                    break;
+                }
+                list.add(result);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
         }
+        return list;
     }
 
-    private List getResultsUntilEnoughOrOneTimeout(RuleParameter<ResultT> ruleParameter) {
+    private List<ResultT> getResultsUntilEnoughOrOneTimeout(RuleParameter<ResultT> ruleParameter) {
         List<ResultT> list = new ArrayList<>();
         while (true) {
             if (list.size() >= ruleParameter.expectNum) {
@@ -161,47 +331,171 @@ public class ConcurrentCacheEntirelySearch<KeyT, ResultT, PathT> implements Cach
         return list;
     }
 
-    private ResultT takeOfQueueWithTryCatch(BlockingQueue<ResultT> resultTBlockingQueue) {
+    private ResultT takeOfCursorWithTryCatch(ResultCursor<ResultT> resultCursor) {
         try {
-            return resultTBlockingQueue.take();
+            return resultCursor.take();
         } catch (InterruptedException e) {
             System.out.println("the action of take method is canceled");
         }
         return null;
     }
 
-    private void unifyResultCache(ResultT resultT, BlockingQueue queue) {
-        queue.offer(resultT);
+    @Override
+    public void clearCache() {
+        cacheResults.clearCache();
+        CacheMaintainer<KeyT, ResultT, PathT> currentMaintainer = cacheMaintainer;
+        if (currentMaintainer != null) {
+            currentMaintainer.clear();
+        }
+    }
+
+    private void forgetMaintainedKey(KeyT keyT, ResultLog<ResultT> resultLog) {
+        CacheMaintainer<KeyT, ResultT, PathT> currentMaintainer = cacheMaintainer;
+        if (currentMaintainer != null) {
+            currentMaintainer.forget(keyT, resultLog);
+        }
     }
 
-    private ResultT startGetAResultUntilTimeout(RuleParameter<ResultT> ruleParameter) {
-        List<ResultT> saveResult = new ArrayList<>();
-        Future future = gitService.submit(() -> {
-            ResultT resultT = takeOfQueueWithTryCatch(ruleParameter.resultTBlockingQueue);
-            saveResult.add(resultT);
+    /**
+     * The cached log goes on being patched while the refresh runs. A refreshed log the maintainer has dropped,
+     * because it visited a node the feed could not watch, does not replace it.
+     */
+    private CompletableFuture<ResultLog<ResultT>> refreshMaintainedKey(KeyT keyT) {
+        return searchMethod.methodOfHowRefresh(keyT).thenApply(resultLog -> {
+            CacheMaintainer<KeyT, ResultT, PathT> currentMaintainer = cacheMaintainer;
+            if (currentMaintainer != null && !currentMaintainer.isMaintained(resultLog)) {
+                throw new CancellationException("The refresh of " + keyT + " visited a node the change feed can not watch");
+            }
+            return resultLog;
         });
-        startTimingCancel(future, ruleParameter);
-        if (saveResult.isEmpty()) {
-            return null;
-        }
-        return saveResult.get(0);
     }
 
-    @Override
-    public void clearCache() {
-        cacheResults.clearCache();
+    public CacheStats getCacheStats() {
+        return cacheResults.getStats();
+    }
+
+    /**
+     * The metrics of every traversal of this instance, with the counters of its cache, or null when they are disabled.
+     */
+    public SearchMetrics getSearchMetrics() {
+        return searchMethod.getSearchMetrics();
+    }
+
+    /**
+     * Keeps the cached results up to date with the changes reported by the feed, every traversal
+     * registers the nodes it visits with it. The cache is cleared first, the keys cached before
+     * were searched without the feed. A key that visited a node the feed could not watch is dropped
+     * once its traversal is complete, rather than served stale.
+     */
+    public synchronized void startMaintainCache(ChangeFeed<PathT> changeFeed) {
+        stopMaintainCache();
+        CacheMaintainer<KeyT, ResultT, PathT> newMaintainer = new CacheMaintainer<>(changeFeed, searchMethod.getSearchModel(),
+                searchMethod::createSubtreeGroup, this::clearCache, this::dropUnwatchedKey);
+        this.changeFeed = changeFeed;
+        this.cacheMaintainer = newMaintainer;
+        this.maintainGroup = newMaintainer::maintain;
+        changeFeed.setChangeListener(newMaintainer::onChanges);
+        searchMethod.addGroupListener(maintainGroup);
+        clearCache();
+    }
+
+    private void dropUnwatchedKey(KeyT keyT, ResultLog<ResultT> resultLog) {
+        unwatchedKeyNum.increment();
+        cacheResults.invalidate(keyT, resultLog);
+    }
+
+    /**
+     * @return how many keys were dropped from the cache, since the instance was created, because they visited
+     * a node the change feed could not watch, e.g. once the platform's limit of watches was reached
+     */
+    public long getUnwatchedKeyNum() {
+        return unwatchedKeyNum.sum();
+    }
+
+    /**
+     * The feed itself stays open, it belongs to the caller.
+     */
+    public synchronized void stopMaintainCache() {
+        if (cacheMaintainer == null) {
+            return;
+        }
+        searchMethod.removeGroupListener(maintainGroup);
+        changeFeed.setChangeListener(changes -> {
+        });
+        cacheMaintainer.clear();
+        cacheMaintainer = null;
+        maintainGroup = null;
+        changeFeed = null;
     }
 
     public boolean isEmpty() {
         return cacheResults.isEmpty();
     }
 
+    /**
+     * @return true when the traversal for the key has finished, false when it is still running or was never started
+     */
+    public boolean isSearchComplete(KeyT keyT) {
+        ResultLog<ResultT> resultLog = cacheResults.getCacheIfExist(keyT);
+        return resultLog != null && resultLog.isClosed();
+    }
+
     public void stopSearch() {
         searchMethod.stopSearch();
     }
 
+    /**
+     * Cancels every running traversal and refuses new ones for good, {@link #startSearch(Object)} gives a handle to cancel a single key.
+     */
     public void stopSearchNow() {
         searchMethod.stopSearchNow();
     }
 
+    private class CachedSearchHandle implements SearchHandle<ResultT> {
+        private final KeyT keyT;
+        private final ResultLog<ResultT> resultLog;
+        private final SearchHandle<ResultT> searchGroup;
+
+        /**
+         * @param searchGroup null when the group has already been forgotten, then the traversal can only be complete
+         */
+        CachedSearchHandle(KeyT keyT, ResultLog<ResultT> resultLog, SearchHandle<ResultT> searchGroup) {
+            this.keyT = keyT;
+            this.resultLog = resultLog;
+            this.searchGroup = searchGroup;
+        }
+
+        @Override
+        public void cancel() {
+            if (searchGroup != null && !searchGroup.progress().isComplete()) {
+                searchGroup.cancel();
+                cacheResults.invalidate(keyT);
+            }
+        }
+
+        @Override
+        public SearchProgress progress() {
+            if (searchGroup != null) {
+                return searchGroup.progress();
+            }
+            return new SearchProgress(0, 0, resultLog.size(), resultLog.isClosed(), false);
+        }
+
+        @Override
+        public void await() throws InterruptedException {
+            if (searchGroup != null) {
+                searchGroup.await();
+            }
+        }
+
+        @Override
+        public boolean await(long timeout, TimeUnit unit) throws InterruptedException {
+            return searchGroup == null || searchGroup.await(timeout, unit);
+        }
+
+        @Override
+        public ResultCursor<ResultT> openCursor() {
+            return resultLog.openCursor();
+        }
+    }
 }
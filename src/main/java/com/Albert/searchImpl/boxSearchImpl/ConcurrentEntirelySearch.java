@@ -1,13 +1,21 @@
 package com.Albert.searchImpl.boxSearchImpl;
 
+import com.Albert.engine.SearchEngine;
+import com.Albert.engine.SearchHandle;
+import com.Albert.engine.SearchSetting;
+import com.Albert.metrics.SearchMetrics;
 import com.Albert.search.boxSearch.EntirelySearch;
 import com.Albert.searchImpl.openSearchImpl.ConcurrentEntirelyOpenSearch;
 import com.Albert.searchModel.SearchModel;
+import org.reactivestreams.Publisher;
 
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.stream.Stream;
 
 /**
  * @author Albert
@@ -21,6 +29,30 @@ public class ConcurrentEntirelySearch<KeyT, ResultT, PathT> implements EntirelyS
         this.openSearch = new ConcurrentEntirelyOpenSearch<>(searchModel);
     }
 
+    private ConcurrentEntirelySearch(ConcurrentEntirelyOpenSearch<KeyT, ResultT, PathT> openSearch, List<PathT> rootCanBeSearch) {
+        this.rootCanBeSearch = rootCanBeSearch;
+        this.openSearch = openSearch;
+    }
+
+    public static <PathT> ConcurrentEntirelySearch createHowAppointSearchEngine(SearchModel searchModel, SearchEngine searchEngine, PathT... rootCanBeSearch) {
+        return new ConcurrentEntirelySearch(new ConcurrentEntirelyOpenSearch<>(searchModel, searchEngine), Arrays.asList(rootCanBeSearch));
+    }
+
+    public static <PathT> ConcurrentEntirelySearch createHowAppointSearchSetting(SearchModel searchModel, SearchSetting searchSetting, PathT... rootCanBeSearch) {
+        return new ConcurrentEntirelySearch(new ConcurrentEntirelyOpenSearch<>(searchModel, searchSetting), Arrays.asList(rootCanBeSearch));
+    }
+
+    /**
+     * Concurrent queries for the same key share one traversal, see {@link ConcurrentEntirelyOpenSearch#createHowCoalesceSearches}.
+     */
+    public static <PathT> ConcurrentEntirelySearch createHowCoalesceSearches(SearchModel searchModel, SearchSetting searchSetting, PathT... rootCanBeSearch) {
+        return new ConcurrentEntirelySearch(ConcurrentEntirelyOpenSearch.createHowCoalesceSearches(searchModel, searchSetting), Arrays.asList(rootCanBeSearch));
+    }
+
+    public SearchMetrics getSearchMetrics() {
+        return openSearch.getSearchMetrics();
+    }
+
     @Override
     public ResultT getAResult(KeyT keySearch) {
         return openSearch.getAResult(rootCanBeSearch, keySearch);
@@ -55,4 +87,24 @@ public class ConcurrentEntirelySearch<KeyT, ResultT, PathT> implements EntirelyS
     public List<ResultT> getResultsUntilEnough(KeyT keyT, int expectNum) throws TimeoutException {
         return openSearch.getResultsUntilEnough(rootCanBeSearch, keyT, expectNum);
     }
+
+    @Override
+    public Stream<ResultT> streamResults(KeyT keyT) {
+        return openSearch.streamResults(rootCanBeSearch, keyT);
+    }
+
+    @Override
+    public Publisher<ResultT> publishResults(KeyT keyT) {
+        return openSearch.publishResults(rootCanBeSearch, keyT);
+    }
+
+    @Override
+    public SearchHandle<ResultT> startSearch(KeyT keyT) {
+        return openSearch.startSearch(rootCanBeSearch, keyT);
+    }
+
+    @Override
+    public Map<KeyT, SearchHandle<ResultT>> startSearchKeys(Collection<KeyT> keysSearch) {
+        return openSearch.startSearchKeys(rootCanBeSearch, keysSearch);
+    }
 }
@@ -1,96 +1,153 @@
 package com.Albert.searchImpl.boxSearchImpl;
 
-import com.Albert.pojo.MessageOfSearched;
+import com.Albert.engine.MultiKeySearchGroup;
+import com.Albert.engine.ResultLog;
+import com.Albert.engine.SearchEngine;
+import com.Albert.engine.SearchGroup;
+import com.Albert.engine.SearchSetting;
+import com.Albert.metrics.SearchMetrics;
+import com.Albert.searchModel.MultiKeySearchModel;
 import com.Albert.searchModel.SearchModel;
 
-import java.lang.ref.WeakReference;
 import java.util.List;
-import java.util.Optional;
-import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.LinkedBlockingDeque;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Consumer;
 
 public class SearchMethod<KeyT, ResultT, PathT> {
     private final List<PathT> rootCanBeSearched;
     private final SearchModel<KeyT, PathT> searchModel;
-    private final ExecutorService searchService;
-
-    private SearchMethod(SearchModel searchModel, List rootCanBeSearched) {
+    private final SearchSetting<ResultT, PathT> searchSetting;
+    private final SearchSetting<ResultT, PathT> refreshSetting;
+    private final Set<SearchGroup<KeyT, ResultT, PathT>> startedGroups;
+    private final Set<MultiKeySearchGroup<KeyT, ResultT, PathT>> startedKeysGroups = ConcurrentHashMap.newKeySet();
+    private volatile boolean isStopped = false;
+    private final List<Consumer<SearchGroup<KeyT, ResultT, PathT>>> groupListeners = new CopyOnWriteArrayList<>();
+
+    private SearchMethod(SearchModel searchModel, List rootCanBeSearched, SearchSetting searchSetting) {
         this.searchModel = searchModel;
-        this.searchService = Executors.newCachedThreadPool();
+        this.searchSetting = searchSetting.withOwnMetricsIfAbsent();
+        this.refreshSetting = this.searchSetting.getResultCapacity() == SearchSetting.UNBOUNDED
+                ? this.searchSetting : this.searchSetting.copy().setResultCapacity(SearchSetting.UNBOUNDED);
         this.rootCanBeSearched = rootCanBeSearched;
+        this.startedGroups = ConcurrentHashMap.newKeySet();
     }
 
     public static SearchMethod createSearchMethod(SearchModel searchModel, List rootCanBeSearched) {
-        return new SearchMethod<>(searchModel, rootCanBeSearched);
+        return new SearchMethod<>(searchModel, rootCanBeSearched, SearchSetting.defaultSetting());
     }
 
-    public WeakReference<BlockingQueue<ResultT>> methodOfHowSearch(KeyT keySearch) {
-        SearchMethod.KeyAndResults keyAndResults = initParameter(keySearch);
-        startAllSearch(keyAndResults, rootCanBeSearched);
-        return new WeakReference<>(keyAndResults.results);
+    public static SearchMethod createSearchMethod(SearchModel searchModel, List rootCanBeSearched, SearchEngine searchEngine) {
+        return new SearchMethod<>(searchModel, rootCanBeSearched, SearchSetting.defaultSetting().setSearchEngine(searchEngine));
     }
 
-    private KeyAndResults initParameter(KeyT keySearch) {
-        BlockingQueue<ResultT> results = new LinkedBlockingDeque<>();
-        return new KeyAndResults(keySearch, results);
+    public static SearchMethod createSearchMethod(SearchModel searchModel, List rootCanBeSearched, SearchSetting searchSetting) {
+        return new SearchMethod<>(searchModel, rootCanBeSearched, searchSetting);
     }
 
-    private void startAllSearch(KeyAndResults keyAndResults, List<PathT> canBeSearched) {
-        canBeSearched.forEach(beSearched -> asyncSearchOne(keyAndResults, beSearched));
+    public ResultLog<ResultT> methodOfHowSearch(KeyT keySearch) {
+        if (isStopped) {
+            throw new RejectedExecutionException("The search method has been stopped");
+        }
+        return startSearchGroup(keySearch, searchSetting).getResultLog();
     }
 
-    private void asyncSearchOne(KeyAndResults keyAndResults, PathT canBeSearched) {
-        searchService.execute(() -> {
-            MessageOfSearched<ResultT, PathT> messageOfSearched = searchModel.search(keyAndResults.keySearch, canBeSearched);
-            saveSatisfyResultsIfExist(keyAndResults, messageOfSearched);
-            continueSearchIfExist(keyAndResults, messageOfSearched);
+    /**
+     * Searches the key again into a new log, the future completes once that search has finished.
+     * No one reads the new log before, so its traversal is never held back by a result capacity.
+     */
+    public CompletableFuture<ResultLog<ResultT>> methodOfHowRefresh(KeyT keySearch) {
+        if (isStopped) {
+            throw new RejectedExecutionException("The search method has been stopped");
+        }
+        CompletableFuture<ResultLog<ResultT>> refreshFuture = new CompletableFuture<>();
+        SearchGroup<KeyT, ResultT, PathT> searchGroup = startSearchGroup(keySearch, refreshSetting);
+        searchGroup.whenComplete(() -> {
+            if (searchGroup.isCancelled()) {
+                refreshFuture.completeExceptionally(new CancellationException("The refresh of " + keySearch + " was cancelled"));
+            } else {
+                refreshFuture.complete(searchGroup.getResultLog());
+            }
         });
+        return refreshFuture;
     }
 
-    private void saveSatisfyResultsIfExist(KeyAndResults keyAndResults, MessageOfSearched<ResultT, PathT> messageOfSearched) {
-        messageOfSearched.getTrueResult()
-                         .ifPresent(currentResults -> {
-                             for (ResultT trueResult : currentResults) {
-                                 saveAResult(keyAndResults, trueResult);
-                             }
-                         });
+    /**
+     * Searches all the keys in one traversal, each into a log of its own. A model that is not a {@link MultiKeySearchModel}
+     * is still searched once per key and node, only the traversal is shared.
+     */
+    public MultiKeySearchGroup<KeyT, ResultT, PathT> methodOfHowSearchKeys(List<KeyT> keysSearch) {
+        if (isStopped) {
+            throw new RejectedExecutionException("The search method has been stopped");
+        }
+        MultiKeySearchGroup<KeyT, ResultT, PathT> keysGroup = searchSetting.getSearchEngine()
+                .createMultiKeySearchGroup(MultiKeySearchModel.multiKey(searchModel), keysSearch, searchSetting);
+        startedKeysGroups.add(keysGroup);
+        keysGroup.whenComplete(() -> startedKeysGroups.remove(keysGroup));
+        keysGroup.startSearch(rootCanBeSearched);
+        return keysGroup;
     }
 
-    private void continueSearchIfExist(KeyAndResults keyAndResults, MessageOfSearched<ResultT, PathT> messageOfSearched) {
-        Optional<List<PathT>> canBeSearchedOptional = messageOfSearched.getCanBeSearched();
-        canBeSearchedOptional.ifPresent(list -> {
-            startAllSearch(keyAndResults, canBeSearchedOptional.get());
-        });
+    /**
+     * A traversal of part of the tree that is not cached as a key of its own, e.g. to patch a cached key.
+     * Its own results are left unread, its visit listener takes every node with its results. It is never checkpointed.
+     * The caller starts it, {@link #stopSearchNow()} cancels it with the others.
+     */
+    SearchGroup<KeyT, ResultT, PathT> createSubtreeGroup(KeyT keySearch) {
+        SearchSetting<ResultT, PathT> subtreeSetting = SearchSetting.<ResultT, PathT>defaultSetting()
+                .setSearchEngine(searchSetting.getSearchEngine())
+                .setPathIdentity(searchSetting.getPathIdentity());
+        SearchGroup<KeyT, ResultT, PathT> searchGroup = subtreeSetting.getSearchEngine().createSearchGroup(searchModel, keySearch, subtreeSetting);
+        startedGroups.add(searchGroup);
+        searchGroup.whenComplete(() -> startedGroups.remove(searchGroup));
+        return searchGroup;
     }
 
-    private void saveAResult(KeyAndResults keyAndResults, ResultT trueResult) {
-        try {
-            keyAndResults.results.put(trueResult);
-        } catch (InterruptedException e) {
-            e.printStackTrace();
-        }
+    private SearchGroup<KeyT, ResultT, PathT> startSearchGroup(KeyT keySearch, SearchSetting<ResultT, PathT> groupSetting) {
+        SearchGroup<KeyT, ResultT, PathT> searchGroup = groupSetting.getSearchEngine().createLoggingSearchGroup(searchModel, keySearch, groupSetting);
+        startedGroups.add(searchGroup);
+        notifyGroupListener(searchGroup);
+        searchGroup.whenComplete(() -> startedGroups.remove(searchGroup));
+        searchGroup.startSearch(rootCanBeSearched);
+        return searchGroup;
     }
 
-    public void stopSearch() {
-        searchService.shutdown();
+    private void notifyGroupListener(SearchGroup<KeyT, ResultT, PathT> searchGroup) {
+        groupListeners.forEach(groupListener -> groupListener.accept(searchGroup));
     }
 
-    public void stopSearchNow() {
-        searchService.shutdownNow();
+    /**
+     * The listener receives every new group before its search starts.
+     */
+    void addGroupListener(Consumer<SearchGroup<KeyT, ResultT, PathT>> groupListener) {
+        groupListeners.add(groupListener);
     }
 
-    private class KeyAndResults {
+    void removeGroupListener(Consumer<SearchGroup<KeyT, ResultT, PathT>> groupListener) {
+        groupListeners.remove(groupListener);
+    }
 
-        final BlockingQueue<ResultT> results;
+    public SearchMetrics getSearchMetrics() {
+        return searchSetting.getSearchMetrics();
+    }
 
-        final KeyT keySearch;
+    SearchModel<KeyT, PathT> getSearchModel() {
+        return searchModel;
+    }
 
-        public KeyAndResults(KeyT keySearch, BlockingQueue<ResultT> results) {
-            this.results = results;
-            this.keySearch = keySearch;
-        }
+    public void stopSearch() {
+        isStopped = true;
+    }
 
+    public void stopSearchNow() {
+        isStopped = true;
+        startedGroups.forEach(SearchGroup::cancel);
+        startedGroups.clear();
+        startedKeysGroups.forEach(MultiKeySearchGroup::cancel);
+        startedKeysGroups.clear();
     }
 }
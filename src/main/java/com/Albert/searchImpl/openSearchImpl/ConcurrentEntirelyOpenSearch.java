@@ -1,15 +1,31 @@
 package com.Albert.searchImpl.openSearchImpl;
 
-import com.Albert.pojo.MessageOfSearched;
+import com.Albert.engine.DeadlineTimer;
+import com.Albert.engine.MultiKeySearchGroup;
+import com.Albert.engine.ResultCursor;
+import com.Albert.engine.ResultIterator;
+import com.Albert.engine.ResultPublisher;
+import com.Albert.engine.SearchEngine;
+import com.Albert.engine.SearchGroup;
+import com.Albert.engine.SearchHandle;
+import com.Albert.engine.SearchSetting;
+import com.Albert.metrics.SearchMetrics;
 import com.Albert.search.openSearch.EntirelyOpenSearch;
+import com.Albert.searchModel.MultiKeySearchModel;
 import com.Albert.searchModel.SearchModel;
 import com.Albert.utils.ParameterUtil;
+import org.reactivestreams.Publisher;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
-import java.util.Optional;
-import java.util.concurrent.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Stream;
 
 import static java.util.Arrays.asList;
 
@@ -23,11 +39,42 @@ public class ConcurrentEntirelyOpenSearch<KeyT, ResultT, PathT> implements Entir
     private static final long MAX_WAIT_MILLI = 3 * 1000 * 60;
 
     private final SearchModel<KeyT, PathT> searchModel;
-    private final ScheduledExecutorService scheduledExecutorService = Executors.newSingleThreadScheduledExecutor();
-    private final ExecutorService getService = Executors.newCachedThreadPool();
+    private final SearchSetting<ResultT, PathT> searchSetting;
+    private final SearchFlights<KeyT, ResultT, PathT> searchFlights;
 
     public ConcurrentEntirelyOpenSearch(SearchModel searchModel) {
+        this(searchModel, SearchSetting.defaultSetting());
+    }
+
+    public ConcurrentEntirelyOpenSearch(SearchModel searchModel, SearchEngine searchEngine) {
+        this(searchModel, SearchSetting.defaultSetting().setSearchEngine(searchEngine));
+    }
+
+    public ConcurrentEntirelyOpenSearch(SearchModel searchModel, SearchSetting searchSetting) {
+        this(searchModel, searchSetting, false);
+    }
+
+    private ConcurrentEntirelyOpenSearch(SearchModel searchModel, SearchSetting searchSetting, boolean isCoalesce) {
         this.searchModel = searchModel;
+        this.searchSetting = searchSetting.withOwnMetricsIfAbsent();
+        this.searchFlights = isCoalesce ? new SearchFlights<>(searchModel, this.searchSetting) : null;
+    }
+
+    /**
+     * Concurrent queries with equal root lists and keys share one traversal, see {@link SearchFlights}.
+     * Every query still stops on its own expectNum and timeout, the traversal ends when the last of them has stopped.
+     * {@link #startSearch(List, Object)} and {@link #startSearchKeys(List, Collection)} always start a traversal of their own.
+     */
+    public static <KeyT, ResultT, PathT> ConcurrentEntirelyOpenSearch<KeyT, ResultT, PathT> createHowCoalesceSearches(SearchModel searchModel, SearchSetting searchSetting) {
+        return new ConcurrentEntirelyOpenSearch<>(searchModel, searchSetting, true);
+    }
+
+    /**
+     * The metrics of every traversal of this instance, the ones of the setting when it has any,
+     * or null when the setting disables them.
+     */
+    public SearchMetrics getSearchMetrics() {
+        return searchSetting.getSearchMetrics();
     }
 
     @Override
@@ -45,8 +92,7 @@ public class ConcurrentEntirelyOpenSearch<KeyT, ResultT, PathT> implements Entir
     @Override
     public ResultT getAResultUntilTimeout(List<PathT> pathList, KeyT keyT, long timeout, TimeUnit unit) {
         SearchParameter parameter = createSearchRuleBeforeSearch(keyT, timeout, unit, NOT_LIMIT_EXPECT_NUM);
-        startSearch(parameter, pathList);
-        shutdownSearchWhenTimeout(parameter);
+        startSearchWithDeadline(parameter, pathList);
         return getResultAndShutdownNowWhenHaveGot(parameter);
     }
 
@@ -69,8 +115,8 @@ public class ConcurrentEntirelyOpenSearch<KeyT, ResultT, PathT> implements Entir
     public List<ResultT> getResultsUntilEnoughOrTimeout(List<PathT> pathList, KeyT keyT, long timeout, TimeUnit unit, int exceptNum) {
         final List<ResultT> list = new ArrayList<>();
         SearchParameter parameter = createSearchRuleBeforeSearch(keyT, timeout, unit, exceptNum);
-        startSearch(parameter, pathList);
-        addResultToListWithTiming(list, parameter);
+        startSearchWithDeadline(parameter, pathList);
+        addResultToListUntilDeadline(list, parameter);
         return list;
     }
 
@@ -85,44 +131,102 @@ public class ConcurrentEntirelyOpenSearch<KeyT, ResultT, PathT> implements Entir
     public List<ResultT> getResultsUntilEnough(List<PathT> pathList, KeyT keyT, int exceptNum) throws TimeoutException {
         final List<ResultT> list = new ArrayList<>();
         SearchParameter parameter = createSearchRuleBeforeSearch(keyT, MAX_WAIT_MILLI, TimeUnit.MILLISECONDS, exceptNum);
-        startSearch(parameter, pathList);
-        addResultToListWithTimingThrowTimeoutException(list, parameter);
+        startSearchWithDeadline(parameter, pathList);
+        if (!addResultToListUntilDeadline(list, parameter)) {
+            throw new TimeoutException("Only " + list.size() + " of " + exceptNum + " results were found in time");
+        }
         return list;
     }
 
+    @Override
+    public Stream<ResultT> streamResults(List<PathT> pathList, KeyT keyT) {
+        return new ResultIterator<>(openResultCursor(pathList, keyT)).stream();
+    }
+
+    @Override
+    public Publisher<ResultT> publishResults(List<PathT> pathList, KeyT keyT) {
+        return new ResultPublisher<>(() -> openResultCursor(pathList, keyT));
+    }
+
+    /**
+     * Starts a traversal that runs until its search space is exhausted or the handle cancels it.
+     */
+    @Override
+    public SearchHandle<ResultT> startSearch(List<PathT> pathList, KeyT keyT) {
+        SearchGroup<KeyT, ResultT, PathT> searchGroup = searchSetting.getSearchEngine().createSearchGroup(searchModel, keyT, searchSetting);
+        searchGroup.startSearch(pathList);
+        return searchGroup;
+    }
+
+    /**
+     * Searches all the keys in one traversal, every key gets a handle of its own.
+     */
+    @Override
+    public Map<KeyT, SearchHandle<ResultT>> startSearchKeys(List<PathT> pathList, Collection<KeyT> keysSearch) {
+        MultiKeySearchGroup<KeyT, ResultT, PathT> keysGroup = searchSetting.getSearchEngine().createMultiKeySearchGroup(
+                MultiKeySearchModel.multiKey(searchModel), new ArrayList<>(new LinkedHashSet<>(keysSearch)), searchSetting);
+        Map<KeyT, SearchHandle<ResultT>> handles = new LinkedHashMap<>();
+        keysGroup.getKeysSearch().forEach(keySearch -> handles.put(keySearch, keysGroup.handleOf(keySearch)));
+        keysGroup.startSearch(pathList);
+        return handles;
+    }
+
+    private ResultCursor<ResultT> openResultCursor(List<PathT> pathList, KeyT keyT) {
+        if (searchFlights != null) {
+            return searchFlights.attach(pathList, keyT);
+        }
+        SearchGroup<KeyT, ResultT, PathT> searchGroup = searchSetting.getSearchEngine().createSearchGroup(searchModel, keyT, searchSetting);
+        ResultCursor<ResultT> resultCursor = searchGroup.getResults().openConsumingCursor(searchGroup::cancel);
+        searchGroup.startSearch(pathList);
+        return resultCursor;
+    }
+
     private SearchParameter createSearchRuleBeforeSearch(KeyT keyT, long timeout, TimeUnit unit, int exceptNum) {
         SearchParameter parameter = new SearchParameter();
-        BlockingQueue<ResultT> resultQueue = new LinkedBlockingDeque<>();
-        ExecutorService searchService = Executors.newCachedThreadPool();
         long timeoutAfterCheck = ParameterUtil.preventTimeoutTooLong(timeout, unit);
 
         parameter.setKeySearchT(keyT);
-        parameter.setResultQueue(resultQueue);
-        parameter.setSearchService(searchService);
         parameter.setTimeout(timeoutAfterCheck);
         parameter.setExceptNum(exceptNum);
         return parameter;
     }
 
+    /**
+     * Closing the cursor of the parameter cancels the search, or only detaches from it when the search is shared.
+     */
     private void startSearch(SearchParameter parameter, List<PathT> pathTList) {
-        pathTList.forEach(pathT -> {
-            parameter.searchService.submit(() -> {
-                asyncSearch(pathT, parameter);
-            });
-        });
+        if (searchFlights != null) {
+            SearchFlights<KeyT, ResultT, PathT>.Subscription subscription = searchFlights.attach(pathTList, parameter.keyT);
+            parameter.setSearchGroup(subscription.getSearchGroup());
+            parameter.setResultCursor(subscription);
+            return;
+        }
+        SearchGroup<KeyT, ResultT, PathT> searchGroup = searchSetting.getSearchEngine().createSearchGroup(searchModel, parameter.keyT, searchSetting);
+        parameter.setSearchGroup(searchGroup);
+        parameter.setResultCursor(searchGroup.getResults().openConsumingCursor(searchGroup::cancel));
+        searchGroup.startSearch(pathTList);
     }
 
-    private void asyncSearch(PathT pathT, SearchParameter parameter) {
-        MessageOfSearched messageOfSearched = searchModel.search(parameter.keyT, pathT);
-        putUsefulValueToQueue(parameter, messageOfSearched);
-        executorCanBeSearch(parameter, messageOfSearched);
+    /**
+     * The shared deadline timer stops the search once its timeout has passed, even when its caller has stopped reading.
+     */
+    private void startSearchWithDeadline(SearchParameter parameter, List<PathT> pathTList) {
+        startSearch(parameter, pathTList);
+        parameter.setDeadline(DeadlineTimer.sharedTimer().schedule(parameter.resultCursor::close, parameter.timeout, parameter.unit));
+    }
+
+    private void stopSearch(SearchParameter parameter) {
+        parameter.resultCursor.close();
+        if (parameter.deadline != null) {
+            parameter.deadline.cancel();
+        }
     }
 
     private ResultT getUtilHaveGot(SearchParameter parameter) {
         ResultT resultT = null;
         try {
-            resultT = parameter.resultQueue.take();
-            parameter.searchService.shutdownNow();
+            resultT = parameter.resultCursor.take();
+            parameter.resultCursor.close();
         } catch (InterruptedException e) {
             e.printStackTrace();
         } finally {
@@ -130,62 +234,32 @@ public class ConcurrentEntirelyOpenSearch<KeyT, ResultT, PathT> implements Entir
         }
     }
 
-    private void putUsefulValueToQueue(SearchParameter parameter, MessageOfSearched messageOfSearched) {
-        Optional<List<ResultT>> resultOptional = messageOfSearched.getTrueResult();
-        resultOptional.ifPresent(resultList -> {
-            resultList.forEach(resultT -> {
-                parameter.resultQueue.add(resultT);
-            });
-        });
-    }
-
-    private void executorCanBeSearch(SearchParameter parameter, MessageOfSearched messageOfSearched) {
-        Optional<List<PathT>> optional = messageOfSearched.getCanBeSearched();
-        optional.ifPresent(list -> {
-            list.forEach(search -> {
-                parameter.searchService.submit(() -> {
-                    asyncSearch(search, parameter);
-                });
-            });
-        });
-    }
-
-    private void shutdownSearchWhenTimeout(SearchParameter parameter) {
-        scheduledExecutorService.schedule(() -> {
-            parameter.searchService.shutdownNow();
-        }, parameter.timeout, parameter.unit);
-    }
-
     private ResultT getResultAndShutdownNowWhenHaveGot(SearchParameter parameter) {
         ResultT resultT = null;
         try {
-            resultT = parameter.resultQueue.poll(parameter.timeout, parameter.unit);
-            parameter.searchService.shutdownNow();
+            resultT = parameter.resultCursor.poll(parameter.timeout, parameter.unit);
         } catch (InterruptedException e) {
             e.printStackTrace();
         } finally {
+            stopSearch(parameter);
             return resultT;
         }
     }
 
     private ArrayList<ResultT> putResultUntilOneTimeoutOrEnough(SearchParameter parameter) {
         ArrayList<ResultT> list = new ArrayList<>();
-        boolean isNotTimeout = true;
-        boolean isNotEnough = true;
         try {
-            while (isNotTimeout && isNotEnough) {
-                ResultT resultT = parameter.resultQueue.poll(parameter.timeout, parameter.unit);
-                if (Objects.nonNull(resultT)) {
-                    list.add(resultT);
-                    continue;
+            while (!isEnough(parameter.exceptNum, list)) {
+                ResultT resultT = parameter.resultCursor.poll(parameter.timeout, parameter.unit);
+                if (Objects.isNull(resultT)) {
+                    break;
                 }
-                isNotTimeout = false;
-                isNotEnough = isEnough(parameter.exceptNum, list);
+                list.add(resultT);
             }
         } catch (InterruptedException e) {
             e.printStackTrace();
         } finally {
-            parameter.searchService.shutdownNow();
+            parameter.resultCursor.close();
         }
         return list;
     }
@@ -194,64 +268,31 @@ public class ConcurrentEntirelyOpenSearch<KeyT, ResultT, PathT> implements Entir
         return exceptNum != 0 && list.size() >= exceptNum;
     }
 
-    private void addResultToListWithTiming(List<ResultT> list, SearchParameter parameter) {
-        final Future<?> cancelFuture = submitAddResultToList(list, parameter);
-        timingCancel(parameter, cancelFuture);
-    }
-
-    private Future<?> submitAddResultToList(List<ResultT> list, SearchParameter parameter) {
-        return getService.submit(() -> {
-            boolean isNotEnough = true;
-            while (isNotEnough) {
-                ResultT result = takeResultFromQueue(parameter);
-                Optional.ofNullable(result).ifPresent(r -> list.add(r));
-                isNotEnough = !isEnough(parameter.exceptNum, list);
-            }
-        });
-    }
-
-    private void addResultToListWithTimingThrowTimeoutException(List<ResultT> list, SearchParameter parameter) throws TimeoutException {
-        final Future<?> cancelFuture = submitAddResultToList(list, parameter);
-        timingCancelThrowTimeoutException(parameter, cancelFuture);
-    }
-
-    private ResultT takeResultFromQueue(SearchParameter parameter) {
-        ResultT resultT = null;
-        try {
-            resultT = parameter.resultQueue.take();
-        } catch (InterruptedException e) {
-            System.out.println("The take method from queue is canceled");
-        }
-        return resultT;
-    }
-
-    private void timingCancel(SearchParameter parameter, Future<?> cancelFuture) {
+    /**
+     * Collects on the caller thread, every poll waits at most until the deadline of the search.
+     *
+     * @return false when the deadline passed or the caller was interrupted before the results were enough or exhausted
+     */
+    private boolean addResultToListUntilDeadline(List<ResultT> list, SearchParameter parameter) {
+        long deadlineNanos = System.nanoTime() + parameter.unit.toNanos(parameter.timeout);
         try {
-            cancelFuture.get(parameter.timeout, parameter.unit);
-        } catch (InterruptedException e) {
-            e.printStackTrace();
-        } catch (ExecutionException e) {
-            e.printStackTrace();
-        } catch (TimeoutException e) {
-
-        } finally {
-            cancelFuture.cancel(true);
-            parameter.searchService.shutdownNow();
-        }
-    }
-
-    private void timingCancelThrowTimeoutException(SearchParameter parameter, Future<?> cancelFuture) throws TimeoutException {
-        try {
-            cancelFuture.get(parameter.timeout, parameter.unit);
+            while (!isEnough(parameter.exceptNum, list)) {
+                long remainingNanos = deadlineNanos - System.nanoTime();
+                if (remainingNanos <= 0) {
+                    return false;
+                }
+                ResultT result = parameter.resultCursor.poll(remainingNanos, TimeUnit.NANOSECONDS);
+                if (Objects.isNull(result)) {
+                    return parameter.resultCursor.isExhausted() && !parameter.searchGroup.isCancelled();
+                }
+                list.add(result);
+            }
+            return true;
         } catch (InterruptedException e) {
-            e.printStackTrace();
-        } catch (ExecutionException e) {
-            e.printStackTrace();
-        } catch (TimeoutException e) {
-            throw e;
+            Thread.currentThread().interrupt();
+            return false;
         } finally {
-            cancelFuture.cancel(true);
-            parameter.searchService.shutdownNow();
+            stopSearch(parameter);
         }
     }
 
@@ -260,19 +301,20 @@ public class ConcurrentEntirelyOpenSearch<KeyT, ResultT, PathT> implements Entir
         public long timeout;
         public int exceptNum;
         public TimeUnit unit = TimeUnit.MILLISECONDS;
-        public BlockingQueue<ResultT> resultQueue;
-        public ExecutorService searchService;
+        public ResultCursor<ResultT> resultCursor;
+        public SearchGroup<KeyT, ResultT, PathT> searchGroup;
+        public DeadlineTimer.Timeout deadline;
 
         public void setKeySearchT(KeyT keyT) {
             this.keyT = keyT;
         }
 
-        public void setResultQueue(BlockingQueue<ResultT> resultQueue) {
-            this.resultQueue = resultQueue;
+        public void setResultCursor(ResultCursor<ResultT> resultCursor) {
+            this.resultCursor = resultCursor;
         }
 
-        public void setSearchService(ExecutorService searchService) {
-            this.searchService = searchService;
+        public void setSearchGroup(SearchGroup<KeyT, ResultT, PathT> searchGroup) {
+            this.searchGroup = searchGroup;
         }
 
         public void setTimeout(long timeout) {
@@ -282,5 +324,9 @@ public class ConcurrentEntirelyOpenSearch<KeyT, ResultT, PathT> implements Entir
         public void setExceptNum(int exceptNum) {
             this.exceptNum = exceptNum;
         }
+
+        public void setDeadline(DeadlineTimer.Timeout deadline) {
+            this.deadline = deadline;
+        }
     }
 }
@@ -0,0 +1,159 @@
+package com.Albert.searchImpl.openSearchImpl;
+
+import com.Albert.engine.ResultCursor;
+import com.Albert.engine.ResultLog;
+import com.Albert.engine.SearchGroup;
+import com.Albert.engine.SearchSetting;
+import com.Albert.searchModel.SearchModel;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * The traversals in flight, at most one per root list and key. A query with the same roots and key as a running
+ * traversal attaches to it and replays its {@link ResultLog} from the first result on a cursor of its own,
+ * so every query keeps its own stop condition. The traversal is cancelled when the last cursor is closed,
+ * a query that arrives after it has finished starts a new one.
+ *
+ * @author Albert
+ */
+class SearchFlights<KeyT, ResultT, PathT> {
+    private final SearchModel<KeyT, PathT> searchModel;
+    private final SearchSetting<ResultT, PathT> searchSetting;
+    private final Map<List<Object>, Flight> flights = new ConcurrentHashMap<>();
+
+    SearchFlights(SearchModel<KeyT, PathT> searchModel, SearchSetting<ResultT, PathT> searchSetting) {
+        this.searchModel = searchModel;
+        this.searchSetting = searchSetting;
+    }
+
+    /**
+     * @return a cursor over the results of the traversal, closing it detaches the query
+     */
+    Subscription attach(List<PathT> pathList, KeyT keyT) {
+        List<Object> flightKey = Arrays.asList(new ArrayList<>(pathList), keyT);
+        while (true) {
+            Flight flight = flights.computeIfAbsent(flightKey, newFlightKey -> new Flight(newFlightKey, keyT));
+            if (flight.attach()) {
+                flight.startOnce(pathList);
+                return new Subscription(flight);
+            }
+            flights.remove(flightKey, flight);
+        }
+    }
+
+    int getFlightNum() {
+        return flights.size();
+    }
+
+    private class Flight {
+        private final List<Object> flightKey;
+        private final SearchGroup<KeyT, ResultT, PathT> searchGroup;
+        private final AtomicBoolean isStarted = new AtomicBoolean();
+        private int subscriberNum = 0;
+        private boolean isEnded = false;
+
+        Flight(List<Object> flightKey, KeyT keyT) {
+            this.flightKey = flightKey;
+            this.searchGroup = searchSetting.getSearchEngine().createLoggingSearchGroup(searchModel, keyT, searchSetting);
+            searchGroup.whenComplete(this::end);
+        }
+
+        synchronized boolean attach() {
+            if (isEnded) {
+                return false;
+            }
+            subscriberNum++;
+            return true;
+        }
+
+        /**
+         * Outside of computeIfAbsent, a traversal without roots completes at once and removes its flight.
+         */
+        void startOnce(List<PathT> pathList) {
+            if (isStarted.compareAndSet(false, true)) {
+                searchGroup.startSearch(pathList);
+            }
+        }
+
+        /**
+         * The last subscriber ends the flight in the same step that counts it out, so no query can attach
+         * to a traversal that is about to be cancelled.
+         */
+        void detach() {
+            synchronized (this) {
+                if (--subscriberNum > 0 || isEnded) {
+                    return;
+                }
+                isEnded = true;
+            }
+            flights.remove(flightKey, this);
+            if (!searchGroup.isComplete()) {
+                searchGroup.cancel();
+            }
+        }
+
+        private void end() {
+            synchronized (this) {
+                isEnded = true;
+            }
+            flights.remove(flightKey, this);
+        }
+    }
+
+    /**
+     * Detaches once, however often it is closed.
+     */
+    class Subscription implements ResultCursor<ResultT> {
+        private final Flight flight;
+        private final ResultCursor<ResultT> resultCursor;
+        private final AtomicBoolean isDetached = new AtomicBoolean();
+
+        Subscription(Flight flight) {
+            this.flight = flight;
+            this.resultCursor = flight.searchGroup.getResultLog().openCursor();
+        }
+
+        SearchGroup<KeyT, ResultT, PathT> getSearchGroup() {
+            return flight.searchGroup;
+        }
+
+        @Override
+        public ResultT poll() {
+            return resultCursor.poll();
+        }
+
+        @Override
+        public ResultT poll(long timeout, TimeUnit unit) throws InterruptedException {
+            return resultCursor.poll(timeout, unit);
+        }
+
+        @Override
+        public ResultT take() throws InterruptedException {
+            return resultCursor.take();
+        }
+
+        @Override
+        public boolean isExhausted() {
+            return resultCursor.isExhausted();
+        }
+
+        @Override
+        public void setAvailableListener(Runnable listener) {
+            resultCursor.setAvailableListener(listener);
+        }
+
+        @Override
+        public void close() {
+            if (isDetached.compareAndSet(false, true)) {
+                resultCursor.close();
+                flight.detach();
+            }
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.Albert.searchModel;
+
+import com.Albert.pojo.MessageOfSearched;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A search model that visits many nodes in one call. The engine hands it batches of frontier nodes
+ * sized by how long a node took so far, so a tree of tiny nodes costs one task and one message per batch
+ * instead of one per node.
+ *
+ * @author Albert
+ */
+public interface BatchSearchModel<KeyT, PathT> extends SearchModel<KeyT, PathT> {
+
+    /**
+     * @return the results and the children of all the nodes together
+     */
+    default MessageOfSearched searchBatch(KeyT keySearch, List<PathT> canBeSearched) {
+        List<Object> trueResults = new ArrayList<>();
+        List<Object> paths = null;
+        for (PathT path : canBeSearched) {
+            MessageOfSearched<?, ?> messageOfSearched = search(keySearch, path);
+            messageOfSearched.getTrueResult().ifPresent(trueResults::addAll);
+            List<?> children = messageOfSearched.getCanBeSearched().get();
+            if (paths == null) {
+                paths = new ArrayList<>(children.size() * canBeSearched.size());
+            }
+            paths.addAll(children);
+        }
+        if (paths == null) {
+            paths = new ArrayList<>();
+        }
+        return new MessageOfSearched<>(trueResults, paths);
+    }
+
+    /**
+     * Lets the engine batch the nodes of an existing model, each node is still searched on its own.
+     */
+    static <KeyT, PathT> BatchSearchModel<KeyT, PathT> batching(SearchModel<KeyT, PathT> searchModel) {
+        if (searchModel instanceof BatchSearchModel) {
+            return (BatchSearchModel<KeyT, PathT>) searchModel;
+        }
+        return searchModel::search;
+    }
+}
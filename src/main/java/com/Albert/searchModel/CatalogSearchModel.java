@@ -0,0 +1,105 @@
+package com.Albert.searchModel;
+
+import com.Albert.catalog.CatalogDirectory;
+import com.Albert.catalog.FileCatalog;
+import com.Albert.match.KeyMatchers;
+import com.Albert.match.NameMatcher;
+import com.Albert.pojo.MessageOfSearched;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Answers from a {@link FileCatalog} when the directory has not been modified since it was recorded,
+ * and otherwise lists the directory like {@link DesktopSearchModel} and records the new listing,
+ * so a normal traversal keeps the catalog up to date as it goes.
+ * <p>
+ * With {@code isCheckModified} false a recorded directory is trusted without even a stat,
+ * which answers a search of a recorded tree without touching the file system at all.
+ * The names in the catalog are matched as the UTF-8 bytes it stores, only a matching name becomes a String.
+ *
+ * @author Albert
+ */
+public class CatalogSearchModel implements SearchModel<String, String> {
+    private final FileCatalog fileCatalog;
+    private final boolean isCheckModified;
+    private final KeyMatchers<String> keyMatchers;
+
+    public CatalogSearchModel(FileCatalog fileCatalog) {
+        this(fileCatalog, true);
+    }
+
+    public CatalogSearchModel(FileCatalog fileCatalog, boolean isCheckModified) {
+        this(fileCatalog, isCheckModified, NameMatcher::contains);
+    }
+
+    public CatalogSearchModel(FileCatalog fileCatalog, boolean isCheckModified, Function<String, NameMatcher> matcherCompiler) {
+        this.fileCatalog = fileCatalog;
+        this.isCheckModified = isCheckModified;
+        this.keyMatchers = new KeyMatchers<>(matcherCompiler);
+    }
+
+    @Override
+    public MessageOfSearched search(String key, String path) {
+        File directory = new File(path);
+        CatalogDirectory catalogDirectory = fileCatalog.lookup(directory.getPath());
+        if (catalogDirectory != null && (!isCheckModified || catalogDirectory.getLastModified() == directory.lastModified())) {
+            return searchCatalog(key, directory, catalogDirectory);
+        }
+        return searchAndRecord(key, directory);
+    }
+
+    private MessageOfSearched searchCatalog(String key, File directory, CatalogDirectory catalogDirectory) {
+        List<File> trueResults = new ArrayList<>();
+        List<String> paths = new ArrayList<>();
+        NameMatcher nameMatcher = key == null ? null : keyMatchers.matcherOf(key);
+        for (int i = 0; i < catalogDirectory.getChildNum(); i++) {
+            boolean isTrueResult = nameMatcher != null && catalogDirectory.isChildNameMatched(i, nameMatcher);
+            boolean isChildDirectory = catalogDirectory.isChildDirectory(i);
+            if (!isTrueResult && !isChildDirectory) {
+                continue;
+            }
+            String childName = catalogDirectory.getChildName(i);
+            if (isTrueResult) {
+                trueResults.add(new File(directory, childName));
+            }
+            if (isChildDirectory) {
+                paths.add(new File(directory, childName).getPath());
+            }
+        }
+        return new MessageOfSearched(trueResults, paths);
+    }
+
+    private MessageOfSearched searchAndRecord(String key, File directory) {
+        long lastModified = directory.lastModified();
+        File[] childFiles = directory.listFiles();
+        List<File> trueResults = new ArrayList<>();
+        List<String> paths = new ArrayList<>();
+        if (childFiles == null) {
+            return new MessageOfSearched(trueResults, paths);
+        }
+        List<String> childNames = new ArrayList<>(childFiles.length);
+        List<Boolean> isChildDirectory = new ArrayList<>(childFiles.length);
+        NameMatcher nameMatcher = key == null ? null : keyMatchers.matcherOf(key);
+        for (File childFile : childFiles) {
+            boolean isDirectory = childFile.isDirectory();
+            childNames.add(childFile.getName());
+            isChildDirectory.add(isDirectory);
+            if (nameMatcher != null && nameMatcher.matches(childFile.getName())) {
+                trueResults.add(childFile);
+            }
+            if (isDirectory) {
+                paths.add(childFile.getPath());
+            }
+        }
+        try {
+            fileCatalog.record(directory.getPath(), lastModified, childNames, isChildDirectory);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        return new MessageOfSearched(trueResults, paths);
+    }
+}
@@ -1,18 +1,40 @@
 package com.Albert.searchModel;
 
+import com.Albert.engine.IdentityKey;
+import com.Albert.match.KeyMatchers;
+import com.Albert.match.NameMatcher;
+import com.Albert.pojo.MessageOfKeysSearched;
 import com.Albert.pojo.MessageOfSearched;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.util.ArrayList;
-import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.function.Function;
 
 /**
+ * A file is a result when its name contains the key. Any other way to match, e.g. {@link NameMatcher#glob},
+ * can be given as a compiler from the key to a {@link NameMatcher}, a key is compiled once and not per file.
+ * <p>
+ * As a {@link SinkSearchModel} a directory costs its listing and nothing else, every match and subdirectory
+ * is emitted while the listing is walked.
+ *
  * @author Albert
  */
-public class DesktopSearchModel implements SearchModel<String, String> {
+public class DesktopSearchModel implements MultiKeySearchModel<String, String>, SinkSearchModel<String, File, String> {
+    private final KeyMatchers<String> keyMatchers;
+
+    public DesktopSearchModel() {
+        this(NameMatcher::contains);
+    }
+
+    public DesktopSearchModel(Function<String, NameMatcher> matcherCompiler) {
+        this.keyMatchers = new KeyMatchers<>(matcherCompiler);
+    }
 
     @Override
     public MessageOfSearched search(String key, String path) {
@@ -23,26 +45,97 @@ public class DesktopSearchModel implements SearchModel<String, String> {
         return messageOfSearched;
     }
 
+    @Override
+    public void search(String key, String path, SearchSink<File, String> searchSink) {
+        File[] childFiles = getAllChildFile(path);
+        if (childFiles == null) {
+            return;
+        }
+        NameMatcher nameMatcher = key == null ? null : keyMatchers.matcherOf(key);
+        for (File childFile : childFiles) {
+            if (nameMatcher != null && nameMatcher.matches(childFile.getName())) {
+                searchSink.emitResult(childFile);
+            }
+            if (childFile.isDirectory()) {
+                searchSink.emitChild(childFile.getPath());
+            }
+        }
+    }
+
+    /**
+     * Lists the directory once for all the keys.
+     */
+    @Override
+    public MessageOfKeysSearched searchKeys(List<String> keys, String path) {
+        File[] childFiles = getAllChildFile(path);
+        Map<String, List<File>> trueResults = new HashMap<>();
+        for (String key : keys) {
+            List<File> keyResults = getTrueResults(key, childFiles);
+            if (!keyResults.isEmpty()) {
+                trueResults.put(key, keyResults);
+            }
+        }
+        return new MessageOfKeysSearched<>(trueResults, getPaths(childFiles));
+    }
+
     private File[] getAllChildFile(String canBeSearched) {
         File file = new File(canBeSearched);
         return file.listFiles();
     }
 
     private List<File> getTrueResults(String keySearch, File[] childFiles) {
-        if (childFiles == null) {
+        if (childFiles == null || keySearch == null) {
             return new ArrayList<>();
         }
-        return Arrays.stream(childFiles)
-                .filter(objectOfTest -> isTrueObject(keySearch, objectOfTest)).collect(Collectors.toList());
+        NameMatcher nameMatcher = keyMatchers.matcherOf(keySearch);
+        List<File> trueResults = new ArrayList<>();
+        for (File childFile : childFiles) {
+            if (nameMatcher.matches(childFile.getName())) {
+                trueResults.add(childFile);
+            }
+        }
+        return trueResults;
     }
 
     private List<String> getPaths(File[] childFiles) {
         if (childFiles == null) {
             return new ArrayList<>();
         }
-        return Arrays.stream(childFiles)
-                .filter(objectOfTest -> objectOfTest.isDirectory())
-                .map(objectOfTest -> objectOfTest.getPath()).collect(Collectors.toList());
+        List<String> paths = new ArrayList<>();
+        for (File childFile : childFiles) {
+            if (childFile.isDirectory()) {
+                paths.add(childFile.getPath());
+            }
+        }
+        return paths;
+    }
+
+    /**
+     * Identifies a directory by its file key, or by its canonical path where the platform has no file keys,
+     * so a directory reached through a symlink or from two overlapping roots is visited once.
+     */
+    public static IdentityKey<String> pathIdentity() {
+        return path -> IdentityKey.fingerprintOf(identityTextOf(new File(path)));
+    }
+
+    /**
+     * Identifies a result by its normalized absolute path, so a file found from two overlapping roots is reported once,
+     * while hard links and links to it, which have names of their own, are still reported each. It costs no stat.
+     */
+    public static IdentityKey<File> resultIdentity() {
+        return file -> IdentityKey.fingerprintOf(file.toPath().toAbsolutePath().normalize().toString());
+    }
+
+    private static String identityTextOf(File file) {
+        try {
+            Object fileKey = Files.readAttributes(file.toPath(), BasicFileAttributes.class).fileKey();
+            if (fileKey != null) {
+                return fileKey.toString();
+            }
+            return file.getCanonicalPath();
+        } catch (IOException e) {
+            return file.getAbsolutePath();
+        }
     }
 
     public boolean remove(File removeTarget) {
@@ -61,15 +154,7 @@ public class DesktopSearchModel implements SearchModel<String, String> {
 
     public boolean isTrueObject(String keySearch, File object) {
         if (keySearch != null && object != null) {
-            return equalsName(keySearch, object);
-        }
-        return false;
-    }
-
-    private boolean equalsName(String keySearch, File object) {
-        String objectName = object.getName();
-        if (objectName.contains(keySearch)) {
-            return true;
+            return keyMatchers.matcherOf(keySearch).matches(object.getName());
         }
         return false;
     }
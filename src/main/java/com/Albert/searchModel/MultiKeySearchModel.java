@@ -0,0 +1,48 @@
+package com.Albert.searchModel;
+
+import com.Albert.pojo.MessageOfKeysSearched;
+import com.Albert.pojo.MessageOfSearched;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A search model that checks a node against several keys in one visit, so one walk of the search space
+ * answers all of them. The children of a node must not depend on the key.
+ *
+ * @author Albert
+ */
+public interface MultiKeySearchModel<KeyT, PathT> extends SearchModel<KeyT, PathT> {
+
+    /**
+     * Searches the node once per key and keeps the children of the first search,
+     * a model that can list a node once for all keys should override it.
+     */
+    default MessageOfKeysSearched searchKeys(List<KeyT> keysSearch, PathT canBeSearched) {
+        Map<KeyT, List<Object>> trueResults = new HashMap<>();
+        List<Object> paths = Collections.emptyList();
+        for (int i = 0; i < keysSearch.size(); i++) {
+            MessageOfSearched<Object, Object> messageOfSearched = search(keysSearch.get(i), canBeSearched);
+            List<Object> keyResults = messageOfSearched.getTrueResult().get();
+            if (!keyResults.isEmpty()) {
+                trueResults.put(keysSearch.get(i), keyResults);
+            }
+            if (i == 0) {
+                paths = messageOfSearched.getCanBeSearched().get();
+            }
+        }
+        return new MessageOfKeysSearched<>(trueResults, paths);
+    }
+
+    /**
+     * Lets an existing model answer several keys per traversal, each node is still searched once per key.
+     */
+    static <KeyT, PathT> MultiKeySearchModel<KeyT, PathT> multiKey(SearchModel<KeyT, PathT> searchModel) {
+        if (searchModel instanceof MultiKeySearchModel) {
+            return (MultiKeySearchModel<KeyT, PathT>) searchModel;
+        }
+        return searchModel::search;
+    }
+}
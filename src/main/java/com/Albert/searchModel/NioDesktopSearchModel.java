@@ -0,0 +1,175 @@
+package com.Albert.searchModel;
+
+import com.Albert.engine.IdentityKey;
+import com.Albert.match.KeyMatchers;
+import com.Albert.match.NameMatcher;
+import com.Albert.pojo.MessageOfSearched;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitOption;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * A desktop search over {@link Path}s that lists a directory and classifies its entries in one pass.
+ * <p>
+ * The entry types come from {@link Files#walkFileTree}, which reuses the attributes the directory listing
+ * already returned where the platform provides them (Windows) and reads them once per entry elsewhere.
+ * With {@code isTrustLinkCount} a Unix directory's link count tells how many subdirectories it has,
+ * so entries are only examined until all of them are found and leaf directories need no per-entry stat at all,
+ * as {@code find} does. Only enable it on filesystems that keep the classic link count, such as ext4 or xfs.
+ * <p>
+ * On Linux the default mode gives no gain over {@link DesktopSearchModel}: it still reads the attributes of every
+ * entry and allocates more, because it builds an attributes object per entry. There only the link count mode is faster.
+ * It stays opt-in because a filesystem that reports a wrong link count would silently hide subdirectories.
+ * <p>
+ * A directory that can not be listed to its end counts as empty in both modes, rather than as partly listed.
+ * <p>
+ * Symbolic links are reported as results but never followed.
+ *
+ * @author Albert
+ */
+public class NioDesktopSearchModel implements SearchModel<String, Path> {
+    private static final int UNKNOWN_SUBDIRECTORY_NUM = -1;
+    private static final int LINK_COUNT_OF_EMPTY_DIRECTORY = 2;
+    private static final Set<FileVisitOption> NOT_FOLLOW_LINKS = Collections.emptySet();
+    private static final boolean IS_UNIX_VIEW_SUPPORTED = FileSystems.getDefault().supportedFileAttributeViews().contains("unix");
+
+    private final boolean isTrustLinkCount;
+    private final KeyMatchers<String> keyMatchers;
+
+    public NioDesktopSearchModel() {
+        this(false);
+    }
+
+    public NioDesktopSearchModel(boolean isTrustLinkCount) {
+        this(isTrustLinkCount, NameMatcher::contains);
+    }
+
+    /**
+     * @param matcherCompiler compiles a key into the matcher of the names, once per key
+     */
+    public NioDesktopSearchModel(boolean isTrustLinkCount, Function<String, NameMatcher> matcherCompiler) {
+        this.isTrustLinkCount = isTrustLinkCount && IS_UNIX_VIEW_SUPPORTED;
+        this.keyMatchers = new KeyMatchers<>(matcherCompiler);
+    }
+
+    @Override
+    public MessageOfSearched<Path, Path> search(String key, Path directory) {
+        List<Path> trueResults = new ArrayList<>();
+        List<Path> paths = new ArrayList<>();
+        NameMatcher nameMatcher = key == null ? null : keyMatchers.matcherOf(key);
+        int subdirectoryNum = getSubdirectoryNumIfTrusted(directory);
+        if (subdirectoryNum == UNKNOWN_SUBDIRECTORY_NUM) {
+            walkChildren(nameMatcher, directory, trueResults, paths);
+        } else {
+            listChildren(nameMatcher, directory, subdirectoryNum, trueResults, paths);
+        }
+        return new MessageOfSearched<>(trueResults, paths);
+    }
+
+    private int getSubdirectoryNumIfTrusted(Path directory) {
+        if (!isTrustLinkCount) {
+            return UNKNOWN_SUBDIRECTORY_NUM;
+        }
+        try {
+            int linkCount = (Integer) Files.getAttribute(directory, "unix:nlink", LinkOption.NOFOLLOW_LINKS);
+            return linkCount < LINK_COUNT_OF_EMPTY_DIRECTORY ? UNKNOWN_SUBDIRECTORY_NUM : linkCount - LINK_COUNT_OF_EMPTY_DIRECTORY;
+        } catch (IOException | RuntimeException e) {
+            return UNKNOWN_SUBDIRECTORY_NUM;
+        }
+    }
+
+    private void walkChildren(NameMatcher nameMatcher, Path directory, List<Path> trueResults, List<Path> paths) {
+        try {
+            Files.walkFileTree(directory, NOT_FOLLOW_LINKS, 1, new SimpleFileVisitor<Path>() {
+                @Override
+                public FileVisitResult visitFile(Path child, BasicFileAttributes attributes) {
+                    if (isNameMatched(nameMatcher, child)) {
+                        trueResults.add(child);
+                    }
+                    if (attributes.isDirectory()) {
+                        paths.add(child);
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFileFailed(Path child, IOException e) {
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (IOException e) {
+            trueResults.clear();
+            paths.clear();
+        }
+    }
+
+    private void listChildren(NameMatcher nameMatcher, Path directory, int subdirectoryNum, List<Path> trueResults, List<Path> paths) {
+        int subdirectoryLeft = subdirectoryNum;
+        try (DirectoryStream<Path> children = Files.newDirectoryStream(directory)) {
+            for (Path child : children) {
+                if (isNameMatched(nameMatcher, child)) {
+                    trueResults.add(child);
+                }
+                if (subdirectoryLeft > 0 && Files.isDirectory(child, LinkOption.NOFOLLOW_LINKS)) {
+                    paths.add(child);
+                    subdirectoryLeft--;
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            trueResults.clear();
+            paths.clear();
+        }
+    }
+
+    public boolean isTrueObject(String keySearch, Path object) {
+        return keySearch != null && isNameMatched(keyMatchers.matcherOf(keySearch), object);
+    }
+
+    private static boolean isNameMatched(NameMatcher nameMatcher, Path object) {
+        if (nameMatcher != null && object != null) {
+            Path name = object.getFileName();
+            return name != null && nameMatcher.matches(name.toString());
+        }
+        return false;
+    }
+
+    /**
+     * Identifies a directory by its file key, or by its real path where the platform has no file keys,
+     * so a directory reached through a symlink or from two overlapping roots is visited once.
+     */
+    public static IdentityKey<Path> pathIdentity() {
+        return path -> IdentityKey.fingerprintOf(identityTextOf(path));
+    }
+
+    /**
+     * Identifies a result by its normalized absolute path, see {@link DesktopSearchModel#resultIdentity()}.
+     */
+    public static IdentityKey<Path> resultIdentity() {
+        return path -> IdentityKey.fingerprintOf(path.toAbsolutePath().normalize().toString());
+    }
+
+    private static String identityTextOf(Path path) {
+        try {
+            Object fileKey = Files.readAttributes(path, BasicFileAttributes.class).fileKey();
+            if (fileKey != null) {
+                return fileKey.toString();
+            }
+            return path.toRealPath().toString();
+        } catch (IOException e) {
+            return path.toAbsolutePath().toString();
+        }
+    }
+}
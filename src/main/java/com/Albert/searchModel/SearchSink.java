@@ -0,0 +1,23 @@
+package com.Albert.searchModel;
+
+/**
+ * Receives what a {@link SinkSearchModel} finds in a node, on the visiting thread and during the visit.
+ *
+ * @author Albert
+ */
+public interface SearchSink<ResultT, PathT> {
+
+    void emitResult(ResultT resultT);
+
+    /**
+     * The child may be searched before the visit that emits it has returned.
+     */
+    void emitChild(PathT canBeSearched);
+
+    /**
+     * A long visit may check this now and then and stop early once the query was cancelled.
+     */
+    default boolean isCancelled() {
+        return false;
+    }
+}
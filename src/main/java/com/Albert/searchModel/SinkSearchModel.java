@@ -0,0 +1,63 @@
+package com.Albert.searchModel;
+
+import com.Albert.pojo.MessageOfSearched;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A search model that hands every result and child to the engine as soon as it has found it,
+ * instead of returning them all in a {@link MessageOfSearched}. Visiting a node then allocates no lists,
+ * no message and no Optionals, the results go straight into the results of the query and the children straight
+ * to the engine.
+ * <p>
+ * Where the engine needs the message anyway, e.g. for a visit listener or a batch, {@link #search(Object, Object)}
+ * collects what the model emits.
+ *
+ * @author Albert
+ */
+public interface SinkSearchModel<KeyT, ResultT, PathT> extends SearchModel<KeyT, PathT> {
+
+    void search(KeyT keySearch, PathT canBeSearched, SearchSink<ResultT, PathT> searchSink);
+
+    @Override
+    default MessageOfSearched search(KeyT keySearch, PathT canBeSearched) {
+        List<ResultT> trueResults = new ArrayList<>();
+        List<PathT> paths = new ArrayList<>();
+        search(keySearch, canBeSearched, new SearchSink<ResultT, PathT>() {
+            @Override
+            public void emitResult(ResultT resultT) {
+                trueResults.add(resultT);
+            }
+
+            @Override
+            public void emitChild(PathT child) {
+                paths.add(child);
+            }
+        });
+        return new MessageOfSearched<>(trueResults, paths);
+    }
+
+    /**
+     * Lets an existing model emit into a sink. Its message is still allocated, only the engine takes it apart,
+     * and the adapter is neither a {@link BatchSearchModel} nor a {@link MultiKeySearchModel}.
+     */
+    static <KeyT, ResultT, PathT> SinkSearchModel<KeyT, ResultT, PathT> sinking(SearchModel<KeyT, PathT> searchModel) {
+        if (searchModel instanceof SinkSearchModel) {
+            return (SinkSearchModel<KeyT, ResultT, PathT>) searchModel;
+        }
+        return new SinkSearchModel<KeyT, ResultT, PathT>() {
+            @Override
+            public void search(KeyT keySearch, PathT canBeSearched, SearchSink<ResultT, PathT> searchSink) {
+                MessageOfSearched<ResultT, PathT> messageOfSearched = searchModel.search(keySearch, canBeSearched);
+                messageOfSearched.getTrueResult().get().forEach(searchSink::emitResult);
+                messageOfSearched.getCanBeSearched().get().forEach(searchSink::emitChild);
+            }
+
+            @Override
+            public MessageOfSearched search(KeyT keySearch, PathT canBeSearched) {
+                return searchModel.search(keySearch, canBeSearched);
+            }
+        };
+    }
+}
@@ -0,0 +1,261 @@
+package com.Albert.cache;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+class EfficientCacheComputeTest {
+
+    @Test
+    void computeOnceForConcurrentCallers() throws InterruptedException {
+        AtomicInteger computeNum = new AtomicInteger();
+        EfficientCacheCompute<String, Integer> cache = EfficientCacheCompute.createNeedComputeFunction(key -> {
+            computeNum.incrementAndGet();
+            sleep(50);
+            return key.length();
+        }, CacheSetting.defaultSetting());
+        int callerNum = 16;
+        ExecutorService callers = Executors.newFixedThreadPool(callerNum);
+        CountDownLatch startLatch = new CountDownLatch(1);
+        for (int i = 0; i < callerNum; i++) {
+            callers.execute(() -> {
+                awaitWithoutInterrupt(startLatch);
+                Assertions.assertEquals(Integer.valueOf(3), cache.compute("key"));
+            });
+        }
+        startLatch.countDown();
+        callers.shutdown();
+        Assertions.assertTrue(callers.awaitTermination(5, TimeUnit.SECONDS));
+        Assertions.assertEquals(1, computeNum.get());
+        Assertions.assertEquals(1, cache.getStats().getMissCount());
+        Assertions.assertEquals(callerNum - 1, cache.getStats().getHitCount());
+    }
+
+    @Test
+    void evictBeyondMaximumSize() {
+        List<String> removedKeys = Collections.synchronizedList(new ArrayList<>());
+        EfficientCacheCompute<String, String> cache = EfficientCacheCompute.createNeedComputeFunction(key -> key,
+                CacheSetting.<String, String>defaultSetting()
+                        .setMaximumSize(10)
+                        .setRemovalListener((key, result, removalCause) -> {
+                            Assertions.assertEquals(RemovalCause.SIZE, removalCause);
+                            Assertions.assertEquals(key, result);
+                            removedKeys.add(key);
+                        }));
+        for (int i = 0; i < 100; i++) {
+            cache.compute("key" + i);
+        }
+        cache.cleanUp();
+        Assertions.assertEquals(10, cache.size());
+        Assertions.assertEquals(90, removedKeys.size());
+        Assertions.assertEquals(90, cache.getStats().getEvictionCount());
+        Assertions.assertEquals("key0", removedKeys.get(0));
+    }
+
+    @Test
+    void keepHotKeysDuringScan() {
+        EfficientCacheCompute<String, String> cache = EfficientCacheCompute.createNeedComputeFunction(key -> key,
+                CacheSetting.<String, String>defaultSetting().setMaximumSize(10));
+        for (int i = 0; i < 3; i++) {
+            cache.compute("hot");
+        }
+        cache.cleanUp();
+        for (int i = 0; i < 1000; i++) {
+            cache.compute("scan" + i);
+        }
+        cache.cleanUp();
+        Assertions.assertTrue(cache.getKeySetFromCacheResult().contains("hot"));
+        Assertions.assertEquals(10, cache.size());
+    }
+
+    @Test
+    void evictByWeight() {
+        EfficientCacheCompute<Integer, List<Integer>> cache = EfficientCacheCompute.createNeedComputeFunction(
+                size -> new ArrayList<>(Collections.nCopies(size, size)),
+                CacheSetting.<Integer, List<Integer>>defaultSetting().setMaximumWeight(100, (key, result) -> result.size()));
+        cache.compute(60);
+        cache.compute(30);
+        cache.cleanUp();
+        Assertions.assertEquals(90, cache.getWeight());
+        cache.compute(20);
+        cache.cleanUp();
+        Assertions.assertFalse(cache.getKeySetFromCacheResult().contains(60));
+        Assertions.assertEquals(50, cache.getWeight());
+        Assertions.assertEquals(60, cache.getStats().getEvictionWeight());
+    }
+
+    @Test
+    void reweighGrowingResultOnRead() {
+        EfficientCacheCompute<String, List<Integer>> cache = EfficientCacheCompute.createNeedComputeFunction(key -> new ArrayList<>(),
+                CacheSetting.<String, List<Integer>>defaultSetting().setMaximumWeight(10, (key, result) -> result.size()));
+        List<Integer> growing = cache.compute("growing");
+        cache.compute("other").add(1);
+        growing.addAll(Collections.nCopies(20, 1));
+        cache.compute("growing");
+        cache.cleanUp();
+        Assertions.assertFalse(cache.getKeySetFromCacheResult().contains("growing"));
+    }
+
+    @Test
+    void notifyClearedEntries() {
+        List<RemovalCause> removalCauses = Collections.synchronizedList(new ArrayList<>());
+        EfficientCacheCompute<String, String> cache = EfficientCacheCompute.createNeedComputeFunction(key -> key,
+                CacheSetting.<String, String>defaultSetting()
+                        .setRemovalListener((key, result, removalCause) -> removalCauses.add(removalCause)));
+        cache.compute("a");
+        cache.compute("b");
+        cache.clearCache();
+        Assertions.assertTrue(cache.isEmpty());
+        Assertions.assertEquals(Collections.nCopies(2, RemovalCause.EXPLICIT), removalCauses);
+    }
+
+    @Test
+    void expireAfterWrite() {
+        AtomicLong nanoTime = new AtomicLong();
+        AtomicInteger computeNum = new AtomicInteger();
+        EfficientCacheCompute<String, Integer> cache = EfficientCacheCompute.createNeedComputeFunction(key -> computeNum.incrementAndGet(),
+                CacheSetting.<String, Integer>defaultSetting()
+                        .setExpireAfterWrite(10, TimeUnit.SECONDS)
+                        .setTicker(nanoTime::get));
+        Assertions.assertEquals(Integer.valueOf(1), cache.compute("key"));
+        nanoTime.addAndGet(TimeUnit.SECONDS.toNanos(9));
+        Assertions.assertEquals(Integer.valueOf(1), cache.compute("key"));
+        nanoTime.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        Assertions.assertEquals(Integer.valueOf(2), cache.compute("key"));
+    }
+
+    @Test
+    void expireAfterAccess() {
+        AtomicLong nanoTime = new AtomicLong();
+        AtomicInteger computeNum = new AtomicInteger();
+        EfficientCacheCompute<String, Integer> cache = EfficientCacheCompute.createNeedComputeFunction(key -> computeNum.incrementAndGet(),
+                CacheSetting.<String, Integer>defaultSetting()
+                        .setExpireAfterAccess(10, TimeUnit.SECONDS)
+                        .setTicker(nanoTime::get));
+        cache.compute("key");
+        for (int i = 0; i < 5; i++) {
+            nanoTime.addAndGet(TimeUnit.SECONDS.toNanos(9));
+            Assertions.assertEquals(Integer.valueOf(1), cache.compute("key"));
+        }
+        nanoTime.addAndGet(TimeUnit.SECONDS.toNanos(10));
+        Assertions.assertEquals(Integer.valueOf(2), cache.compute("key"));
+    }
+
+    @Test
+    void removeIdleExpiredEntriesByTimerWheel() {
+        AtomicLong nanoTime = new AtomicLong();
+        List<String> expiredKeys = Collections.synchronizedList(new ArrayList<>());
+        EfficientCacheCompute<String, String> cache = EfficientCacheCompute.createNeedComputeFunction(key -> key,
+                CacheSetting.<String, String>defaultSetting()
+                        .setExpireAfterWrite(1, TimeUnit.MINUTES)
+                        .setTicker(nanoTime::get)
+                        .setRemovalListener((key, result, removalCause) -> {
+                            Assertions.assertEquals(RemovalCause.EXPIRED, removalCause);
+                            expiredKeys.add(key);
+                        }));
+        for (int i = 0; i < 100; i++) {
+            cache.compute("short" + i);
+        }
+        nanoTime.addAndGet(TimeUnit.SECONDS.toNanos(30));
+        cache.compute("long");
+        nanoTime.addAndGet(TimeUnit.SECONDS.toNanos(45));
+        cache.cleanUp();
+        Assertions.assertEquals(100, expiredKeys.size());
+        Assertions.assertEquals(1, cache.size());
+
+        nanoTime.addAndGet(TimeUnit.HOURS.toNanos(3));
+        cache.cleanUp();
+        Assertions.assertTrue(cache.isEmpty());
+    }
+
+    @Test
+    void refreshAheadWhileReadersKeepOldResult() {
+        AtomicLong nanoTime = new AtomicLong();
+        AtomicInteger computeNum = new AtomicInteger();
+        List<Runnable> refreshTasks = new ArrayList<>();
+        List<RemovalCause> removalCauses = Collections.synchronizedList(new ArrayList<>());
+        EfficientCacheCompute<String, Integer> cache = EfficientCacheCompute.createNeedComputeFunction(key -> computeNum.incrementAndGet(),
+                CacheSetting.<String, Integer>defaultSetting()
+                        .setExpireAfterWrite(10, TimeUnit.SECONDS)
+                        .setRefreshAfterWrite(8, TimeUnit.SECONDS)
+                        .setRefreshExecutor(refreshTasks::add)
+                        .setTicker(nanoTime::get)
+                        .setRemovalListener((key, result, removalCause) -> removalCauses.add(removalCause)));
+        Assertions.assertEquals(Integer.valueOf(1), cache.compute("key"));
+        nanoTime.addAndGet(TimeUnit.SECONDS.toNanos(9));
+        Assertions.assertEquals(Integer.valueOf(1), cache.compute("key"));
+        Assertions.assertEquals(Integer.valueOf(1), cache.compute("key"));
+        Assertions.assertEquals(1, refreshTasks.size());
+
+        refreshTasks.get(0).run();
+        Assertions.assertEquals(Integer.valueOf(2), cache.compute("key"));
+        Assertions.assertEquals(Collections.singletonList(RemovalCause.REPLACED), removalCauses);
+        nanoTime.addAndGet(TimeUnit.SECONDS.toNanos(5));
+        Assertions.assertEquals(Integer.valueOf(2), cache.compute("key"));
+    }
+
+    @Test
+    void shareAsyncComputationWithoutBlocking() throws Exception {
+        List<Runnable> computeTasks = new ArrayList<>();
+        AtomicInteger computeNum = new AtomicInteger();
+        EfficientCacheCompute<String, Integer> cache = EfficientCacheCompute.createNeedComputeFunction(key -> computeNum.incrementAndGet(),
+                CacheSetting.<String, Integer>defaultSetting().setComputeExecutor(computeTasks::add));
+        CompletableFuture<Integer> first = cache.computeAsync("key");
+        CompletableFuture<Integer> second = cache.computeAsync("key");
+        Assertions.assertFalse(first.isDone());
+        Assertions.assertEquals(1, computeTasks.size());
+
+        second.cancel(false);
+        computeTasks.get(0).run();
+        Assertions.assertEquals(Integer.valueOf(1), first.get(1, TimeUnit.SECONDS));
+        Assertions.assertEquals(Integer.valueOf(1), cache.computeAsync("key").get(1, TimeUnit.SECONDS));
+        Assertions.assertEquals(Integer.valueOf(1), cache.compute("key"));
+        Assertions.assertEquals(1, computeNum.get());
+    }
+
+    @Test
+    void retryFailedComputation() throws Exception {
+        AtomicInteger computeNum = new AtomicInteger();
+        EfficientCacheCompute<String, Integer> cache = EfficientCacheCompute.createNeedComputeFunction(key -> {
+            if (computeNum.incrementAndGet() == 1) {
+                throw new IllegalStateException("the first computation fails");
+            }
+            return computeNum.get();
+        }, CacheSetting.<String, Integer>defaultSetting().setComputeExecutor(Runnable::run));
+        CompletableFuture<Integer> failed = cache.computeAsync("key");
+        Assertions.assertTrue(failed.isCompletedExceptionally());
+        Assertions.assertTrue(cache.isEmpty());
+        Assertions.assertEquals(Integer.valueOf(2), cache.computeAsync("key").get(1, TimeUnit.SECONDS));
+
+        computeNum.set(0);
+        cache.clearCache();
+        Assertions.assertNull(cache.compute("key"));
+        Assertions.assertEquals(Integer.valueOf(2), cache.compute("key"));
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void awaitWithoutInterrupt(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
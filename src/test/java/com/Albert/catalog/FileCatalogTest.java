@@ -0,0 +1,217 @@
+package com.Albert.catalog;
+
+import com.Albert.match.NameMatcher;
+import com.Albert.pojo.MessageOfSearched;
+import com.Albert.searchModel.CatalogSearchModel;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+
+class FileCatalogTest {
+    private Path testDirectory;
+    private Path catalogFile;
+
+    @BeforeEach
+    void createTestDirectory() throws IOException {
+        testDirectory = Files.createTempDirectory("file-catalog-test");
+        catalogFile = testDirectory.resolve("catalog.bin");
+    }
+
+    @AfterEach
+    void deleteTestDirectory() throws IOException {
+        try (Stream<Path> walk = Files.walk(testDirectory)) {
+            walk.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+
+    @Test
+    void recordAndReopen() throws IOException {
+        try (FileCatalog fileCatalog = FileCatalog.open(catalogFile)) {
+            fileCatalog.record("/a", 1L, Arrays.asList("b", "c.txt"), Arrays.asList(true, false));
+            fileCatalog.record("/a/b", 2L, Arrays.asList("c.txt"), Arrays.asList(false));
+            fileCatalog.record("/a", 3L, Arrays.asList("b"), Arrays.asList(true));
+            assertDirectory(fileCatalog.lookup("/a"), 3L, "b");
+        }
+        try (FileCatalog fileCatalog = FileCatalog.open(catalogFile)) {
+            Assertions.assertEquals(2, fileCatalog.getDirectoryNum());
+            assertDirectory(fileCatalog.lookup("/a"), 3L, "b");
+            assertDirectory(fileCatalog.lookup("/a/b"), 2L, "c.txt");
+            Assertions.assertNull(fileCatalog.lookup("/a/c"));
+
+            fileCatalog.record("/a/b/d", 4L, Arrays.asList("c.txt"), Arrays.asList(false));
+            assertDirectory(fileCatalog.lookup("/a/b/d"), 4L, "c.txt");
+        }
+    }
+
+    private void assertDirectory(CatalogDirectory catalogDirectory, long lastModified, String... childNames) {
+        Assertions.assertNotNull(catalogDirectory);
+        Assertions.assertEquals(lastModified, catalogDirectory.getLastModified());
+        Assertions.assertEquals(childNames.length, catalogDirectory.getChildNum());
+        for (int i = 0; i < childNames.length; i++) {
+            Assertions.assertEquals(childNames[i], catalogDirectory.getChildName(i));
+        }
+    }
+
+    @Test
+    void cutOffTornRecord() throws IOException {
+        try (FileCatalog fileCatalog = FileCatalog.open(catalogFile)) {
+            fileCatalog.record("/a", 1L, Arrays.asList("b"), Arrays.asList(true));
+            fileCatalog.record("/a/b", 2L, Arrays.asList("c"), Arrays.asList(false));
+        }
+        try (RandomAccessFile file = new RandomAccessFile(catalogFile.toFile(), "rw")) {
+            file.setLength(file.length() - 2);
+        }
+        try (FileCatalog fileCatalog = FileCatalog.open(catalogFile)) {
+            assertDirectory(fileCatalog.lookup("/a"), 1L, "b");
+            Assertions.assertNull(fileCatalog.lookup("/a/b"));
+            fileCatalog.record("/a/b", 5L, Arrays.asList("c"), Arrays.asList(false));
+        }
+        try (FileCatalog fileCatalog = FileCatalog.open(catalogFile)) {
+            assertDirectory(fileCatalog.lookup("/a/b"), 5L, "c");
+        }
+    }
+
+    @Test
+    void recordAcrossChunks() throws IOException {
+        try (FileCatalog fileCatalog = FileCatalog.open(catalogFile, 128)) {
+            for (int i = 0; i < 20; i++) {
+                fileCatalog.record("/a" + i, i, Arrays.asList("b" + i, "c"), Arrays.asList(true, false));
+                assertDirectory(fileCatalog.lookup("/a" + i), i, "b" + i, "c");
+            }
+        }
+        Assertions.assertTrue(Files.size(catalogFile) > 128 * 5);
+        try (FileCatalog fileCatalog = FileCatalog.open(catalogFile)) {
+            Assertions.assertEquals(20, fileCatalog.getDirectoryNum());
+            for (int i = 0; i < 20; i++) {
+                assertDirectory(fileCatalog.lookup("/a" + i), i, "b" + i, "c");
+            }
+            fileCatalog.record("/a0", 100L, Arrays.asList("c"), Arrays.asList(false));
+        }
+        try (FileCatalog fileCatalog = FileCatalog.open(catalogFile)) {
+            assertDirectory(fileCatalog.lookup("/a0"), 100L, "c");
+            assertDirectory(fileCatalog.lookup("/a19"), 19L, "b19", "c");
+        }
+    }
+
+    @Test
+    void lookupWhileRecording() throws Exception {
+        try (FileCatalog fileCatalog = FileCatalog.open(catalogFile, 4096)) {
+            AtomicInteger recordedNum = new AtomicInteger();
+            AtomicReference<Throwable> failure = new AtomicReference<>();
+            Thread[] readers = new Thread[3];
+            for (int r = 0; r < readers.length; r++) {
+                readers[r] = new Thread(() -> {
+                    try {
+                        while (recordedNum.get() < 2000) {
+                            int i = ThreadLocalRandom.current().nextInt(recordedNum.get() + 1) - 1;
+                            if (i >= 0) {
+                                assertDirectory(fileCatalog.lookup("/r/" + i), i, "x" + i, "y");
+                            }
+                        }
+                    } catch (Throwable e) {
+                        failure.set(e);
+                    }
+                });
+                readers[r].start();
+            }
+            for (int i = 0; i < 2000; i++) {
+                fileCatalog.record("/r/" + i, i, Arrays.asList("x" + i, "y"), Arrays.asList(false, true));
+                recordedNum.set(i + 1);
+            }
+            for (Thread reader : readers) {
+                reader.join();
+            }
+            Assertions.assertNull(failure.get());
+        }
+    }
+
+    @Test
+    void failedRecordLeavesNoIds() throws IOException {
+        try (FileCatalog fileCatalog = FileCatalog.open(catalogFile, 128)) {
+            fileCatalog.record("/a", 1L, Arrays.asList("b"), Arrays.asList(false));
+            String longName = String.join("", Collections.nCopies(16, "tooLongForAChunk"));
+            Assertions.assertThrows(IOException.class,
+                    () -> fileCatalog.record("/a/new", 2L, Arrays.asList("d", longName), Arrays.asList(false, false)));
+            Assertions.assertNull(fileCatalog.lookup("/a/new"));
+            fileCatalog.record("/a/new", 3L, Arrays.asList("d"), Arrays.asList(false));
+            assertDirectory(fileCatalog.lookup("/a/new"), 3L, "d");
+        }
+        try (FileCatalog fileCatalog = FileCatalog.open(catalogFile)) {
+            Assertions.assertEquals(2, fileCatalog.getDirectoryNum());
+            assertDirectory(fileCatalog.lookup("/a"), 1L, "b");
+            assertDirectory(fileCatalog.lookup("/a/new"), 3L, "d");
+        }
+    }
+
+    @Test
+    void searchFromCatalogUntilModified() throws IOException {
+        File root = Files.createDirectory(testDirectory.resolve("root")).toFile();
+        new File(root, "dir").mkdir();
+        new File(root, "keyFile.txt").createNewFile();
+        root.setLastModified(1000L);
+
+        try (FileCatalog fileCatalog = FileCatalog.open(catalogFile)) {
+            CatalogSearchModel searchModel = new CatalogSearchModel(fileCatalog);
+            assertSearchResult(searchModel.search("key", root.getPath()), 1, 1);
+            Assertions.assertNotNull(fileCatalog.lookup(root.getPath()));
+
+            new File(root, "keyOther.txt").createNewFile();
+            root.setLastModified(1000L);
+            assertSearchResult(searchModel.search("key", root.getPath()), 1, 1);
+
+            root.setLastModified(2000L);
+            assertSearchResult(searchModel.search("key", root.getPath()), 2, 1);
+        }
+    }
+
+    @Test
+    void hitTheCatalogWithAnUnnormalizedRoot() throws IOException {
+        File root = Files.createDirectory(testDirectory.resolve("root")).toFile();
+        new File(root, "keyFile.txt").createNewFile();
+
+        try (FileCatalog fileCatalog = FileCatalog.open(catalogFile)) {
+            CatalogSearchModel searchModel = new CatalogSearchModel(fileCatalog, false);
+            assertSearchResult(searchModel.search("key", root.getPath() + "/"), 1, 0);
+            long recordedSize = Files.size(catalogFile);
+            assertSearchResult(searchModel.search("key", root.getPath() + "//"), 1, 0);
+            Assertions.assertEquals(recordedSize, Files.size(catalogFile));
+        }
+    }
+
+    @Test
+    void matchTheStoredNamesWithAGlob() throws IOException {
+        File root = Files.createDirectory(testDirectory.resolve("root")).toFile();
+        new File(root, "dir.md").mkdir();
+        new File(root, "README.MD").createNewFile();
+        new File(root, "readme.txt").createNewFile();
+
+        try (FileCatalog fileCatalog = FileCatalog.open(catalogFile)) {
+            CatalogSearchModel searchModel = new CatalogSearchModel(fileCatalog, false, key -> NameMatcher.glob(key, true));
+            assertSearchResult(searchModel.search("*.md", root.getPath()), 2, 1);
+            assertSearchResult(searchModel.search("*.md", root.getPath()), 2, 1);
+            assertSearchResult(searchModel.search("readme.*", root.getPath()), 2, 1);
+        }
+    }
+
+    private void assertSearchResult(MessageOfSearched<File, String> messageOfSearched, int trueResultNum, int pathNum) {
+        List<File> trueResults = messageOfSearched.getTrueResult().get();
+        List<String> paths = messageOfSearched.getCanBeSearched().get();
+        Assertions.assertEquals(trueResultNum, trueResults.size());
+        Assertions.assertEquals(pathNum, paths.size());
+    }
+}
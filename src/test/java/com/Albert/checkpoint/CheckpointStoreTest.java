@@ -0,0 +1,104 @@
+package com.Albert.checkpoint;
+
+import com.Albert.codec.Codec;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+class CheckpointStoreTest {
+    private File directory;
+    private CheckpointStore<String, String> checkpointStore;
+
+    @BeforeEach
+    void createStore() throws IOException {
+        directory = Files.createTempDirectory("checkpoint").toFile();
+        checkpointStore = new CheckpointStore<>(directory, Codec.strings(), Codec.strings());
+    }
+
+    @AfterEach
+    void deleteStore() {
+        File[] files = directory.listFiles();
+        if (files != null) {
+            Arrays.stream(files).forEach(File::delete);
+        }
+        directory.delete();
+    }
+
+    @Test
+    void readNothingWithoutACheckpoint() throws IOException {
+        Assertions.assertNull(checkpointStore.readLatest("key"));
+    }
+
+    @Test
+    void addUpTheCheckpointsOfAQuery() throws IOException {
+        checkpointStore.append("key", new QueryCheckpoint<>(Arrays.asList("a", "b"), Arrays.asList("1"), new long[]{11}, 1));
+        checkpointStore.append("key", new QueryCheckpoint<>(Arrays.asList("c"), Arrays.asList("2", "3"), new long[]{12, 13}, 4));
+        checkpointStore.append("other key", new QueryCheckpoint<>(Arrays.asList("x"), Arrays.asList("9"), new long[0], 1));
+
+        QueryCheckpoint<String, String> checkpoint = checkpointStore.readLatest("key");
+        Assertions.assertEquals(Arrays.asList("c"), checkpoint.getPendingPaths());
+        Assertions.assertEquals(Arrays.asList("1", "2", "3"), checkpoint.getResults());
+        Assertions.assertArrayEquals(new long[]{11, 12, 13}, checkpoint.getVisitedFingerprints());
+        Assertions.assertEquals(4, checkpoint.getVisitedNodes());
+
+        Assertions.assertTrue(checkpointStore.delete("key"));
+        Assertions.assertNull(checkpointStore.readLatest("key"));
+        Assertions.assertNotNull(checkpointStore.readLatest("other key"));
+    }
+
+    @Test
+    void cutOffATornCheckpoint() throws IOException {
+        checkpointStore.append("key", new QueryCheckpoint<>(Arrays.asList("a"), Arrays.asList("1"), new long[0], 1));
+        long wholeLength = checkpointStore.fileOf("key").length();
+        try (FileOutputStream output = new FileOutputStream(checkpointStore.fileOf("key"), true)) {
+            output.write(new byte[]{0, 0, 0, 40, 1, 2, 3});
+        }
+
+        Assertions.assertEquals(Arrays.asList("a"), checkpointStore.readLatest("key").getPendingPaths());
+        Assertions.assertEquals(wholeLength, checkpointStore.fileOf("key").length());
+        checkpointStore.append("key", new QueryCheckpoint<>(Collections.emptyList(), Arrays.asList("2"), new long[0], 2));
+        Assertions.assertEquals(Arrays.asList("1", "2"), checkpointStore.readLatest("key").getResults());
+    }
+
+    @Test
+    void compactOnceThePendingPathsOutweighTheRest() throws IOException {
+        List<String> pendingPaths = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            pendingPaths.add("pending path " + i);
+        }
+        long maxLength = 0;
+        for (int i = 0; i < 50; i++) {
+            if (i == 25) {
+                checkpointStore = new CheckpointStore<>(directory, Codec.strings(), Codec.strings());
+            }
+            checkpointStore.append("key", new QueryCheckpoint<>(pendingPaths.subList(i, pendingPaths.size()), Arrays.asList("result " + i), new long[]{i}, i));
+            maxLength = Math.max(maxLength, checkpointStore.fileOf("key").length());
+        }
+        Assertions.assertTrue(maxLength < 6000, "the file grew to " + maxLength + " bytes");
+        Assertions.assertEquals(1, directory.listFiles().length);
+
+        QueryCheckpoint<String, String> checkpoint = new CheckpointStore<>(directory, Codec.strings(), Codec.strings()).readLatest("key");
+        Assertions.assertEquals(pendingPaths.subList(49, pendingPaths.size()), checkpoint.getPendingPaths());
+        Assertions.assertEquals(50, checkpoint.getResults().size());
+        Assertions.assertEquals("result 49", checkpoint.getResults().get(49));
+        Assertions.assertEquals(50, checkpoint.getVisitedFingerprints().length);
+        Assertions.assertEquals(49, checkpoint.getVisitedFingerprints()[49]);
+        Assertions.assertEquals(49, checkpoint.getVisitedNodes());
+    }
+
+    @Test
+    void nameTheFileAfterTheKey() {
+        Assertions.assertTrue(checkpointStore.fileOf("*.txt in /home").getName().startsWith("_.txt_in__home-"));
+        Assertions.assertNotEquals(checkpointStore.fileOf("a/b"), checkpointStore.fileOf("a_b"));
+    }
+}
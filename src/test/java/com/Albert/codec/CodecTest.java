@@ -0,0 +1,37 @@
+package com.Albert.codec;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+
+class CodecTest {
+
+    @Test
+    void readWhatWasWritten() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream output = new DataOutputStream(bytes);
+        Codec.strings().write(output, "\u641c\u7d22");
+        Codec.longs().write(output, -42L);
+        Codec.files().write(output, new File("dir", "file.txt"));
+
+        DataInputStream input = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+        Assertions.assertEquals("\u641c\u7d22", Codec.strings().read(input));
+        Assertions.assertEquals(-42L, (long) Codec.longs().read(input));
+        Assertions.assertEquals(new File("dir", "file.txt"), Codec.files().read(input));
+        Assertions.assertEquals(-1, input.read());
+    }
+
+    @Test
+    void findACodecByName() {
+        Assertions.assertNotNull(Codec.named("string"));
+        Assertions.assertNotNull(Codec.named("long"));
+        Assertions.assertNotNull(Codec.named("file"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> Codec.named("json"));
+    }
+}
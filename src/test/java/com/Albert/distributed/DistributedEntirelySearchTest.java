@@ -0,0 +1,135 @@
+package com.Albert.distributed;
+
+import com.Albert.codec.Codec;
+import com.Albert.engine.SearchHandle;
+import com.Albert.pojo.MessageOfSearched;
+import com.Albert.searchImpl.boxSearchImpl.ConcurrentEntirelySearch;
+import com.Albert.searchModel.SearchModel;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Every test talks to the same two worker JVMs on localhost.
+ */
+class DistributedEntirelySearchTest {
+    private static final int FANOUT = 4;
+    private static final int DEPTH = 5;
+    private static final int NODE_NUM = 1 + 4 + 16 + 64 + 256 + 1024;
+
+    private static final List<Process> workerProcesses = new ArrayList<>();
+    private static final List<InetSocketAddress> workerAddresses = new ArrayList<>();
+
+    /**
+     * A tree of strings whose visits take a millisecond each, so a worker is busy long enough to be stolen from.
+     */
+    public static class SlowTreeSearchModel implements SearchModel<String, String> {
+
+        @Override
+        public MessageOfSearched<String, String> search(String key, String path) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+            List<String> trueResults = new ArrayList<>();
+            List<String> children = new ArrayList<>();
+            if (path.length() < DEPTH) {
+                for (int i = 0; i < FANOUT; i++) {
+                    String child = path + i;
+                    children.add(child);
+                    if (child.endsWith(key)) {
+                        trueResults.add(child);
+                    }
+                }
+            }
+            return new MessageOfSearched<>(trueResults, children);
+        }
+    }
+
+    @BeforeAll
+    static void startWorkers() throws IOException {
+        String javaPath = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        for (int i = 0; i < 2; i++) {
+            Process workerProcess = new ProcessBuilder(javaPath, "-cp", System.getProperty("java.class.path"),
+                    SearchWorker.class.getName(), "0", SlowTreeSearchModel.class.getName(), "string", "string", "string")
+                    .redirectError(ProcessBuilder.Redirect.INHERIT)
+                    .start();
+            workerProcesses.add(workerProcess);
+            String line = new BufferedReader(new InputStreamReader(workerProcess.getInputStream())).readLine();
+            Assertions.assertNotNull(line, "The worker exited before it listened");
+            int port = Integer.parseInt(line.substring("Listening on ".length()));
+            workerAddresses.add(new InetSocketAddress("localhost", port));
+        }
+    }
+
+    @AfterAll
+    static void stopWorkers() throws InterruptedException {
+        for (Process workerProcess : workerProcesses) {
+            workerProcess.destroy();
+            workerProcess.waitFor(5, TimeUnit.SECONDS);
+        }
+    }
+
+    private DistributedEntirelySearch<String, String, String> createSearch(DistributedSetting<String, String, String> distributedSetting) throws IOException {
+        return DistributedEntirelySearch.createHowAppointWorkers(new SlowTreeSearchModel(), distributedSetting, workerAddresses, "");
+    }
+
+    private static DistributedSetting<String, String, String> defaultSetting() {
+        return DistributedSetting.defaultSetting(Codec.strings(), Codec.strings(), Codec.strings());
+    }
+
+    @Test
+    void findTheSameResultsAsOneJvm() throws IOException {
+        try (DistributedEntirelySearch<String, String, String> distributedSearch = createSearch(defaultSetting())) {
+            List<String> results = distributedSearch.getResultsUntilTimeout("3", 30, TimeUnit.SECONDS);
+            List<String> expectResults = new ConcurrentEntirelySearch<String, String, String>(new SlowTreeSearchModel(), "")
+                    .getResultsUntilTimeout("3", 30, TimeUnit.SECONDS);
+            Assertions.assertEquals((NODE_NUM - 1) / FANOUT, results.size());
+            Assertions.assertEquals(new HashSet<>(expectResults), new HashSet<>(results));
+            Assertions.assertEquals(NODE_NUM - 1, distributedSearch.getRemoteVisitedNodes());
+        }
+    }
+
+    @Test
+    void stealFromTheOnlyBusyWorker() throws IOException {
+        try (DistributedEntirelySearch<String, String, String> distributedSearch = createSearch(defaultSetting().setSplitDepth(0))) {
+            List<String> results = distributedSearch.getResultsUntilTimeout("3", 30, TimeUnit.SECONDS);
+            Assertions.assertEquals((NODE_NUM - 1) / FANOUT, new HashSet<>(results).size());
+            Assertions.assertTrue(distributedSearch.getStolenNodes() > 0);
+            Assertions.assertEquals(NODE_NUM, distributedSearch.getRemoteVisitedNodes());
+        }
+    }
+
+    @Test
+    void cancelTheUnitsOnTheWorkers() throws IOException, InterruptedException {
+        try (DistributedEntirelySearch<String, String, String> distributedSearch = createSearch(defaultSetting())) {
+            SearchHandle<String> searchHandle = distributedSearch.startSearch("3");
+            Thread.sleep(100);
+            searchHandle.cancel();
+            Assertions.assertTrue(searchHandle.await(3, TimeUnit.SECONDS));
+            Assertions.assertTrue(searchHandle.progress().isCancelled());
+
+            List<String> results = distributedSearch.getResultsUntilTimeout("3", 30, TimeUnit.SECONDS);
+            Assertions.assertEquals((NODE_NUM - 1) / FANOUT, results.size());
+        }
+    }
+
+    @Test
+    void stopAtTheTimeout() throws IOException {
+        try (DistributedEntirelySearch<String, String, String> distributedSearch = createSearch(defaultSetting())) {
+            long startMillis = System.currentTimeMillis();
+            List<String> results = distributedSearch.getResultsUntilTimeout("3", 200, TimeUnit.MILLISECONDS);
+            Assertions.assertTrue(System.currentTimeMillis() - startMillis < 2000);
+            Assertions.assertTrue(results.size() < (NODE_NUM - 1) / FANOUT);
+        }
+    }
+}
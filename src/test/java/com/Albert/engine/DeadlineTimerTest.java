@@ -0,0 +1,47 @@
+package com.Albert.engine;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class DeadlineTimerTest {
+
+    @Test
+    void fireEveryDeadlineOnce() throws InterruptedException {
+        DeadlineTimer deadlineTimer = new DeadlineTimer(1, TimeUnit.MILLISECONDS, 8);
+        CountDownLatch firedLatch = new CountDownLatch(10_000);
+        AtomicInteger firedNum = new AtomicInteger();
+        long startNanos = System.nanoTime();
+        for (int i = 0; i < 10_000; i++) {
+            deadlineTimer.schedule(() -> {
+                firedNum.incrementAndGet();
+                firedLatch.countDown();
+            }, i % 50, TimeUnit.MILLISECONDS);
+        }
+        Assertions.assertTrue(firedLatch.await(3, TimeUnit.SECONDS));
+        Assertions.assertTrue(System.nanoTime() - startNanos >= TimeUnit.MILLISECONDS.toNanos(49));
+        Thread.sleep(20);
+        Assertions.assertEquals(10_000, firedNum.get());
+    }
+
+    @Test
+    void neverFireCancelledDeadline() throws InterruptedException {
+        DeadlineTimer deadlineTimer = new DeadlineTimer(1, TimeUnit.MILLISECONDS, 8);
+        AtomicInteger firedNum = new AtomicInteger();
+        List<DeadlineTimer.Timeout> timeouts = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            timeouts.add(deadlineTimer.schedule(firedNum::incrementAndGet, 20 + i, TimeUnit.MILLISECONDS));
+        }
+        DeadlineTimer.Timeout keptTimeout = timeouts.remove(50);
+        timeouts.forEach(timeout -> Assertions.assertTrue(timeout.cancel()));
+        Thread.sleep(200);
+        Assertions.assertEquals(1, firedNum.get());
+        Assertions.assertTrue(keptTimeout.isExpired());
+        Assertions.assertFalse(keptTimeout.cancel());
+    }
+}
@@ -0,0 +1,45 @@
+package com.Albert.engine;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class FingerprintSetTest {
+
+    @Test
+    void addOnlyOnce() {
+        FingerprintSet fingerprintSet = new FingerprintSet(4);
+        for (long i = 0; i < 100_000; i++) {
+            Assertions.assertTrue(fingerprintSet.add(i));
+        }
+        for (long i = 0; i < 100_000; i++) {
+            Assertions.assertFalse(fingerprintSet.add(i));
+            Assertions.assertTrue(fingerprintSet.contains(i));
+        }
+        Assertions.assertFalse(fingerprintSet.contains(100_000));
+        Assertions.assertEquals(100_000, fingerprintSet.size());
+    }
+
+    @Test
+    void addConcurrently() throws InterruptedException {
+        FingerprintSet fingerprintSet = new FingerprintSet();
+        AtomicInteger firstAddNum = new AtomicInteger();
+        ExecutorService executorService = Executors.newFixedThreadPool(4);
+        for (int thread = 0; thread < 4; thread++) {
+            executorService.execute(() -> {
+                for (long i = 0; i < 50_000; i++) {
+                    if (fingerprintSet.add(i)) {
+                        firstAddNum.incrementAndGet();
+                    }
+                }
+            });
+        }
+        executorService.shutdown();
+        Assertions.assertTrue(executorService.awaitTermination(10, TimeUnit.SECONDS));
+        Assertions.assertEquals(50_000, firstAddNum.get());
+    }
+}
@@ -0,0 +1,132 @@
+package com.Albert.engine;
+
+import com.Albert.pojo.MessageOfKeysSearched;
+import com.Albert.pojo.MessageOfSearched;
+import com.Albert.searchModel.MultiKeySearchModel;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class MultiKeySearchGroupTest {
+    private static final int FANOUT = 4;
+    private static final int DEPTH = 4;
+
+    private final AtomicInteger listedNodes = new AtomicInteger();
+
+    /**
+     * Lists every node once for all keys, a child is a result of every key it ends with.
+     */
+    private final MultiKeySearchModel<String, String> treeSearchModel = new MultiKeySearchModel<String, String>() {
+        @Override
+        public MessageOfSearched search(String key, String path) {
+            MessageOfKeysSearched<String, String, String> messageOfKeysSearched = searchKeys(Arrays.asList(key), path);
+            return new MessageOfSearched<>(messageOfKeysSearched.getTrueResults().get().getOrDefault(key, new ArrayList<>()),
+                    messageOfKeysSearched.getCanBeSearched().get());
+        }
+
+        @Override
+        public MessageOfKeysSearched searchKeys(List<String> keysSearch, String path) {
+            listedNodes.incrementAndGet();
+            Map<String, List<String>> trueResults = new HashMap<>();
+            List<String> children = new ArrayList<>();
+            if (path.length() < DEPTH) {
+                for (int i = 0; i < FANOUT; i++) {
+                    String child = path + i;
+                    children.add(child);
+                    keysSearch.stream()
+                              .filter(child::endsWith)
+                              .forEach(key -> trueResults.computeIfAbsent(key, k -> new ArrayList<>()).add(child));
+                }
+            }
+            return new MessageOfKeysSearched<>(trueResults, children);
+        }
+    };
+
+    @Test
+    void findTheSameResultsAsOneSearchPerKey() throws InterruptedException {
+        List<String> keysSearch = Arrays.asList("1", "2", "33");
+        MultiKeySearchGroup<String, String, String> keysGroup = startSearchKeys(treeSearchModel, keysSearch);
+        keysGroup.handleOf("1").await();
+
+        for (String keySearch : keysSearch) {
+            SearchGroup<String, String, String> searchGroup = SearchEngine.sharedEngine()
+                    .startSearch(treeSearchModel, keySearch, Arrays.asList(""));
+            searchGroup.await();
+            Set<String> expectedResults = new HashSet<>();
+            String result;
+            while ((result = searchGroup.getResults().take()) != null) {
+                expectedResults.add(result);
+            }
+            Assertions.assertEquals(expectedResults, drain(keysGroup.getResultLog(keySearch)));
+        }
+    }
+
+    @Test
+    void listEveryNodeOnceForAllKeys() throws InterruptedException {
+        MultiKeySearchGroup<String, String, String> keysGroup = startSearchKeys(treeSearchModel, Arrays.asList("0", "1", "2", "3"));
+        keysGroup.handleOf("0").await();
+        Assertions.assertEquals(1 + 4 + 16 + 64 + 256, listedNodes.get());
+        Assertions.assertEquals(1 + 4 + 16 + 64 + 256, keysGroup.progress().getVisitedNodes());
+        Assertions.assertEquals((4 + 16 + 64 + 256) / FANOUT, keysGroup.handleOf("3").progress().getFoundResults());
+    }
+
+    @Test
+    void rejectAKeyThatIsNotSearched() {
+        MultiKeySearchGroup<String, String, String> keysGroup = startSearchKeys(treeSearchModel, Arrays.asList("0"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> keysGroup.getResultLog("1"));
+    }
+
+    @Test
+    void cancelOneKeyWhileTheOthersGoOn() throws InterruptedException {
+        MultiKeySearchModel<String, String> endlessSearchModel = (key, path) -> {
+            try {
+                Thread.sleep(1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return new MessageOfSearched<>(Arrays.asList(path), Arrays.asList(path + "0", path + "1"));
+        };
+        MultiKeySearchGroup<String, String, String> keysGroup = startSearchKeys(endlessSearchModel, Arrays.asList("a", "b"));
+        SearchHandle<String> handleOfA = keysGroup.handleOf("a");
+        SearchHandle<String> handleOfB = keysGroup.handleOf("b");
+        Assertions.assertFalse(handleOfA.await(100, TimeUnit.MILLISECONDS));
+
+        handleOfA.cancel();
+        Assertions.assertTrue(handleOfA.progress().isCancelled());
+        Assertions.assertTrue(keysGroup.getResultLog("a").isClosed());
+        long resultsOfB = handleOfB.progress().getFoundResults();
+        Assertions.assertFalse(handleOfB.await(100, TimeUnit.MILLISECONDS));
+        Assertions.assertTrue(handleOfB.progress().getFoundResults() > resultsOfB);
+
+        handleOfB.cancel();
+        Assertions.assertTrue(handleOfB.await(3, TimeUnit.SECONDS));
+        Assertions.assertTrue(keysGroup.progress().isCancelled());
+    }
+
+    private static MultiKeySearchGroup<String, String, String> startSearchKeys(MultiKeySearchModel<String, String> searchModel, List<String> keysSearch) {
+        MultiKeySearchGroup<String, String, String> keysGroup = SearchEngine.sharedEngine()
+                .createMultiKeySearchGroup(searchModel, keysSearch, SearchSetting.defaultSetting());
+        keysGroup.startSearch(Arrays.asList(""));
+        return keysGroup;
+    }
+
+    private static Set<String> drain(ResultLog<String> resultLog) throws InterruptedException {
+        Set<String> results = new HashSet<>();
+        try (ResultCursor<String> resultCursor = resultLog.openCursor()) {
+            String result;
+            while ((result = resultCursor.take()) != null) {
+                results.add(result);
+            }
+        }
+        return results;
+    }
+}
@@ -0,0 +1,62 @@
+package com.Albert.engine;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class RelaxedPriorityFrontierTest {
+
+    @Test
+    void pollRoughlyByPriority() {
+        RelaxedPriorityFrontier<Integer> frontier = new RelaxedPriorityFrontier<>(Integer::doubleValue, 4);
+        for (int i = 0; i < 1000; i++) {
+            frontier.offer((i * 7919) % 1000);
+        }
+        Set<Integer> polled = new HashSet<>();
+        for (int i = 0; i < 100; i++) {
+            Integer path = frontier.poll();
+            Assertions.assertTrue(path >= 700);
+            polled.add(path);
+        }
+        Integer path;
+        while ((path = frontier.poll()) != null) {
+            Assertions.assertTrue(polled.add(path));
+        }
+        Assertions.assertEquals(1000, polled.size());
+    }
+
+    /**
+     * Every thread offers before it polls, so there is always a node left for a poll.
+     */
+    @Test
+    void pollEveryPathOnceConcurrently() throws InterruptedException {
+        RelaxedPriorityFrontier<Integer> frontier = new RelaxedPriorityFrontier<>(Integer::doubleValue, 4);
+        AtomicInteger polledNum = new AtomicInteger();
+        AtomicInteger missedNum = new AtomicInteger();
+        ExecutorService executorService = Executors.newFixedThreadPool(4);
+        for (int thread = 0; thread < 4; thread++) {
+            int firstPath = thread * 10_000;
+            executorService.execute(() -> {
+                for (int i = firstPath; i < firstPath + 10_000; i++) {
+                    frontier.offer(i);
+                    if (frontier.poll() != null) {
+                        polledNum.incrementAndGet();
+                    } else {
+                        missedNum.incrementAndGet();
+                    }
+                }
+            });
+        }
+        executorService.shutdown();
+        Assertions.assertTrue(executorService.awaitTermination(10, TimeUnit.SECONDS));
+        Assertions.assertEquals(0, missedNum.get());
+        Assertions.assertNull(frontier.poll());
+        Assertions.assertEquals(40_000, polledNum.get());
+    }
+}
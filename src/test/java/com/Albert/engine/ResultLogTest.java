@@ -0,0 +1,140 @@
+package com.Albert.engine;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+class ResultLogTest {
+    private static final int WRITER_NUM = 4;
+    private static final int RESULT_NUM_PER_WRITER = 10_000;
+
+    @Test
+    void replayForEveryReader() throws Exception {
+        ResultLog<Integer> resultLog = new ResultLog<>();
+        ExecutorService executorService = Executors.newFixedThreadPool(WRITER_NUM + 2);
+        List<Future<List<Integer>>> readers = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            readers.add(executorService.submit(() -> readAll(resultLog.openCursor())));
+        }
+        List<Future<?>> writers = new ArrayList<>();
+        for (int writer = 0; writer < WRITER_NUM; writer++) {
+            int firstResult = writer * RESULT_NUM_PER_WRITER;
+            writers.add(executorService.submit(() -> {
+                for (int i = 0; i < RESULT_NUM_PER_WRITER; i++) {
+                    resultLog.offer(firstResult + i);
+                }
+            }));
+        }
+        for (Future<?> writer : writers) {
+            writer.get(10, TimeUnit.SECONDS);
+        }
+        resultLog.close();
+
+        List<Integer> lateReader = readAll(resultLog.openCursor());
+        Assertions.assertEquals(WRITER_NUM * RESULT_NUM_PER_WRITER, new HashSet<>(lateReader).size());
+        for (Future<List<Integer>> reader : readers) {
+            Assertions.assertEquals(lateReader, reader.get(10, TimeUnit.SECONDS));
+        }
+        Assertions.assertEquals(WRITER_NUM * RESULT_NUM_PER_WRITER, resultLog.size());
+        executorService.shutdown();
+    }
+
+    private <ResultT> List<ResultT> readAll(ResultCursor<ResultT> resultCursor) throws InterruptedException {
+        List<ResultT> results = new ArrayList<>();
+        ResultT result;
+        while ((result = resultCursor.take()) != null) {
+            results.add(result);
+        }
+        Assertions.assertTrue(resultCursor.isExhausted());
+        return results;
+    }
+
+    @Test
+    void skipRemovedResults() throws InterruptedException {
+        ResultLog<String> resultLog = new ResultLog<>();
+        ResultCursor<String> earlyCursor = resultLog.openCursor();
+        resultLog.offer("a");
+        resultLog.offer("b");
+        resultLog.offer("c");
+        Assertions.assertEquals("a", earlyCursor.poll());
+        Assertions.assertTrue(resultLog.remove("a"));
+        Assertions.assertTrue(resultLog.remove("c"));
+        Assertions.assertFalse(resultLog.remove("c"));
+        resultLog.close();
+
+        Assertions.assertEquals("b", earlyCursor.take());
+        Assertions.assertNull(earlyCursor.take());
+        Set<String> replayed = new HashSet<>(readAll(resultLog.openCursor()));
+        Assertions.assertEquals(1, replayed.size());
+        Assertions.assertTrue(replayed.contains("b"));
+        Assertions.assertEquals(1, resultLog.size());
+    }
+
+    @Test
+    void removeManyInOneWalk() throws InterruptedException {
+        ResultLog<String> resultLog = new ResultLog<>();
+        Arrays.asList("a", "b", "a", "c", "a").forEach(resultLog::offer);
+        Assertions.assertEquals(3, resultLog.removeAll(Arrays.asList("a", "a", "c", "absent")));
+        resultLog.close();
+        Assertions.assertEquals(Arrays.asList("b", "a"), readAll(resultLog.openCursor()));
+        Assertions.assertEquals(2, resultLog.size());
+    }
+
+    @Test
+    void removeWhileWritersAppend() throws Exception {
+        ResultLog<String> resultLog = new ResultLog<>();
+        ExecutorService writers = Executors.newFixedThreadPool(WRITER_NUM);
+        List<Future<?>> writeFutures = new ArrayList<>();
+        for (int writer = 0; writer < WRITER_NUM; writer++) {
+            int writerIndex = writer;
+            writeFutures.add(writers.submit(() -> {
+                for (int i = 0; i < RESULT_NUM_PER_WRITER; i++) {
+                    resultLog.offer(writerIndex + "-" + i);
+                }
+            }));
+        }
+        while (!writeFutures.stream().allMatch(Future::isDone)) {
+            Assertions.assertFalse(resultLog.remove("absent"));
+        }
+        for (Future<?> writeFuture : writeFutures) {
+            writeFuture.get();
+        }
+        writers.shutdown();
+        Assertions.assertTrue(resultLog.remove("0-0"));
+        Assertions.assertEquals(WRITER_NUM * RESULT_NUM_PER_WRITER - 1, resultLog.size());
+    }
+
+    @Test
+    void waitForResultsUntilTimeout() throws InterruptedException {
+        ResultLog<String> resultLog = new ResultLog<>();
+        ResultCursor<String> resultCursor = resultLog.openCursor();
+        Assertions.assertNull(resultCursor.poll(50, TimeUnit.MILLISECONDS));
+        Assertions.assertFalse(resultCursor.isExhausted());
+
+        new Thread(() -> {
+            sleep(50);
+            resultLog.offer("late");
+            resultLog.close();
+        }).start();
+        Assertions.assertEquals("late", resultCursor.poll(5, TimeUnit.SECONDS));
+        Assertions.assertNull(resultCursor.poll(5, TimeUnit.SECONDS));
+        Assertions.assertTrue(resultCursor.isExhausted());
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
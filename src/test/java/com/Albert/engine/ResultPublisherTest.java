@@ -0,0 +1,165 @@
+package com.Albert.engine;
+
+import com.Albert.pojo.MessageOfSearched;
+import com.Albert.search.boxSearch.EntirelySearch;
+import com.Albert.searchImpl.openSearchImpl.ConcurrentEntirelyOpenSearch;
+import com.Albert.searchModel.SearchModel;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+class ResultPublisherTest {
+    private static final int FANOUT = 4;
+    private static final int DEPTH = 5;
+
+    private final SearchModel<String, String> treeSearchModel = (key, path) -> {
+        List<String> trueResults = new ArrayList<>();
+        List<String> children = new ArrayList<>();
+        if (path.length() < DEPTH) {
+            for (int i = 0; i < FANOUT; i++) {
+                String child = path + i;
+                children.add(child);
+                if (child.endsWith(key)) {
+                    trueResults.add(child);
+                }
+            }
+        }
+        return new MessageOfSearched<>(trueResults, children);
+    };
+    private final ConcurrentEntirelyOpenSearch<String, String, String> openSearch = new ConcurrentEntirelyOpenSearch<>(treeSearchModel);
+
+    @Test
+    void streamAllResults() {
+        try (Stream<String> results = openSearch.streamResults(Arrays.asList(""), "1")) {
+            Assertions.assertEquals((4 + 16 + 64 + 256 + 1024) / FANOUT, results.count());
+        }
+    }
+
+    @Test
+    void streamFirstResults() {
+        try (Stream<String> results = openSearch.streamResults(Arrays.asList(""), "1")) {
+            List<String> firstResults = results.limit(3).collect(Collectors.toList());
+            Assertions.assertEquals(3, firstResults.size());
+            firstResults.forEach(result -> Assertions.assertTrue(result.endsWith("1")));
+        }
+    }
+
+    @Test
+    void publishOneByOne() throws InterruptedException {
+        CollectSubscriber subscriber = new CollectSubscriber(Long.MAX_VALUE);
+        openSearch.publishResults(Arrays.asList(""), "1").subscribe(subscriber);
+        Assertions.assertTrue(subscriber.completeLatch.await(3, TimeUnit.SECONDS));
+        Assertions.assertEquals((4 + 16 + 64 + 256 + 1024) / FANOUT, subscriber.results.size());
+    }
+
+    @Test
+    void publishUntilCancel() throws InterruptedException {
+        CollectSubscriber subscriber = new CollectSubscriber(5);
+        openSearch.publishResults(Arrays.asList(""), "1").subscribe(subscriber);
+        Assertions.assertFalse(subscriber.completeLatch.await(300, TimeUnit.MILLISECONDS));
+        Assertions.assertEquals(5, subscriber.results.size());
+    }
+
+    @Test
+    void streamAndPublishWithDefaultMethods() throws InterruptedException {
+        EntirelySearch<String, String> listOnlySearch = new ListOnlySearch();
+        try (Stream<String> results = listOnlySearch.streamResults("1")) {
+            Assertions.assertEquals((4 + 16 + 64 + 256 + 1024) / FANOUT, results.count());
+        }
+        CollectSubscriber subscriber = new CollectSubscriber(Long.MAX_VALUE);
+        listOnlySearch.publishResults("1").subscribe(subscriber);
+        Assertions.assertTrue(subscriber.completeLatch.await(3, TimeUnit.SECONDS));
+        Assertions.assertEquals((4 + 16 + 64 + 256 + 1024) / FANOUT, subscriber.results.size());
+        SearchHandle<String> handle = listOnlySearch.startSearchKeys(Arrays.asList("1", "2")).get("2");
+        Assertions.assertTrue(handle.progress().isComplete());
+        Assertions.assertEquals((4 + 16 + 64 + 256 + 1024) / FANOUT, handle.progress().getFoundResults());
+    }
+
+    /**
+     * Implements only the methods the interface had before streaming, as an implementation outside this library would.
+     */
+    private class ListOnlySearch implements EntirelySearch<String, String> {
+        private final List<String> rootCanBeSearch = Arrays.asList("");
+
+        @Override
+        public String getAResult(String keySearch) {
+            return openSearch.getAResult(rootCanBeSearch, keySearch);
+        }
+
+        @Override
+        public String getAResultUntilTimeout(String keyT, long timeout, TimeUnit timeUnit) {
+            return openSearch.getAResultUntilTimeout(rootCanBeSearch, keyT, timeout, timeUnit);
+        }
+
+        @Override
+        public List<String> getResultsUntilOneTimeout(String keyT, long timeout, TimeUnit unit) {
+            return openSearch.getResultsUntilOneTimeout(rootCanBeSearch, keyT, timeout, unit);
+        }
+
+        @Override
+        public List<String> getResultsUntilTimeout(String keyT, long timeout, TimeUnit unit) {
+            return openSearch.getResultsUntilTimeout(rootCanBeSearch, keyT, timeout, unit);
+        }
+
+        @Override
+        public List<String> getResultsUntilEnoughOrTimeout(String keyT, int expectNum, long timeout, TimeUnit unit) {
+            return openSearch.getResultsUntilEnoughOrTimeout(rootCanBeSearch, keyT, timeout, unit, expectNum);
+        }
+
+        @Override
+        public List<String> getResultsUntilEnoughOrOneTimeout(String keyT, int expectNum, long timeout, TimeUnit unit) {
+            return openSearch.getResultsUntilEnoughOrOneTimeout(rootCanBeSearch, keyT, timeout, unit, expectNum);
+        }
+
+        @Override
+        public List<String> getResultsUntilEnough(String keyT, int expectNum) throws TimeoutException {
+            return openSearch.getResultsUntilEnough(rootCanBeSearch, keyT, expectNum);
+        }
+    }
+
+    private static class CollectSubscriber implements Subscriber<String> {
+        private final long cancelAfter;
+        private final List<String> results = new ArrayList<>();
+        private final CountDownLatch completeLatch = new CountDownLatch(1);
+        private Subscription subscription;
+
+        CollectSubscriber(long cancelAfter) {
+            this.cancelAfter = cancelAfter;
+        }
+
+        @Override
+        public void onSubscribe(Subscription subscription) {
+            this.subscription = subscription;
+            subscription.request(1);
+        }
+
+        @Override
+        public synchronized void onNext(String result) {
+            results.add(result);
+            if (results.size() >= cancelAfter) {
+                subscription.cancel();
+                return;
+            }
+            subscription.request(1);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+        }
+
+        @Override
+        public void onComplete() {
+            completeLatch.countDown();
+        }
+    }
+}
@@ -0,0 +1,428 @@
+package com.Albert.engine;
+
+import com.Albert.checkpoint.CheckpointStore;
+import com.Albert.codec.Codec;
+import com.Albert.pojo.MessageOfSearched;
+import com.Albert.searchModel.BatchSearchModel;
+import com.Albert.searchModel.SearchModel;
+import com.Albert.searchModel.SearchSink;
+import com.Albert.searchModel.SinkSearchModel;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import static java.time.Duration.ofMillis;
+
+class SearchGroupTest {
+    private static final int FANOUT = 4;
+    private static final int DEPTH = 4;
+
+    private final SearchModel<String, String> treeSearchModel = (key, path) -> {
+        List<String> trueResults = new ArrayList<>();
+        List<String> children = new ArrayList<>();
+        if (path.length() < DEPTH) {
+            for (int i = 0; i < FANOUT; i++) {
+                String child = path + i;
+                children.add(child);
+                if (child.endsWith(key)) {
+                    trueResults.add(child);
+                }
+            }
+        }
+        return new MessageOfSearched<>(trueResults, children);
+    };
+
+    private final SinkSearchModel<String, String, String> treeSinkSearchModel = new SinkSearchModel<String, String, String>() {
+        @Override
+        public void search(String key, String path, SearchSink<String, String> searchSink) {
+            if (path.length() < DEPTH) {
+                for (int i = 0; i < FANOUT; i++) {
+                    String child = path + i;
+                    searchSink.emitChild(child);
+                    if (child.endsWith(key)) {
+                        searchSink.emitResult(child);
+                    }
+                }
+            }
+        }
+    };
+
+    @Test
+    void completeWhenTreeIsExhausted() throws InterruptedException {
+        SearchGroup<String, String, String> searchGroup = SearchEngine.sharedEngine()
+                .startSearch(treeSearchModel, "3", Arrays.asList(""));
+        Assertions.assertTrue(searchGroup.awaitComplete(3, TimeUnit.SECONDS));
+        Assertions.assertEquals(0, searchGroup.getPendingNodes());
+        Assertions.assertTrue(searchGroup.getResults().isClosed());
+
+        int resultNum = 0;
+        while (searchGroup.getResults().take() != null) {
+            resultNum++;
+        }
+        Assertions.assertEquals((4 + 16 + 64 + 256) / FANOUT, resultNum);
+    }
+
+    @Test
+    void pollReturnsAtOnceWhenExhausted() {
+        SearchGroup<String, String, String> searchGroup = SearchEngine.sharedEngine()
+                .startSearch(treeSearchModel, "not exist", Arrays.asList(""));
+        Assertions.assertTimeout(ofMillis(1000), () -> {
+            Assertions.assertNull(searchGroup.getResults().poll(5, TimeUnit.SECONDS));
+        });
+        Assertions.assertTrue(searchGroup.isComplete());
+    }
+
+    @Test
+    void completeWithoutRoot() {
+        SearchGroup<String, String, String> searchGroup = SearchEngine.sharedEngine()
+                .startSearch(treeSearchModel, "3", Collections.emptyList());
+        Assertions.assertTrue(searchGroup.isComplete());
+    }
+
+    @Test
+    void visitEveryPathOnceWithPathIdentity() throws InterruptedException {
+        SearchModel<String, String> cycleSearchModel = (key, path) -> {
+            String next = String.valueOf((Integer.parseInt(path) + 1) % 10);
+            return new MessageOfSearched<>(Collections.singletonList(path), Arrays.asList(next, path));
+        };
+        SearchSetting<String, String> searchSetting = SearchSetting.<String, String>defaultSetting()
+                .setPathIdentity(IdentityKey.ofToString())
+                .setResultIdentity(IdentityKey.ofToString());
+        SearchGroup<String, String, String> searchGroup = SearchEngine.sharedEngine()
+                .createSearchGroup(cycleSearchModel, "", searchSetting);
+        searchGroup.startSearch(Arrays.asList("0", "5", "0"));
+        Assertions.assertTrue(searchGroup.awaitComplete(3, TimeUnit.SECONDS));
+        Assertions.assertEquals(10, searchGroup.getResults().size());
+    }
+
+    @Test
+    void completeAfterCancel() throws InterruptedException {
+        SearchGroup<String, String, String> searchGroup = SearchEngine.sharedEngine()
+                .createSearchGroup(treeSearchModel, "3");
+        searchGroup.cancel();
+        searchGroup.startSearch(Arrays.asList(""));
+        Assertions.assertTrue(searchGroup.awaitComplete(3, TimeUnit.SECONDS));
+        Assertions.assertNull(searchGroup.getResults().poll());
+    }
+
+    @Test
+    void batchedSearchFindsTheSameResults() throws InterruptedException {
+        SearchGroup<String, String, String> searchGroup = SearchEngine.sharedEngine()
+                .startSearch(treeSearchModel, "3", Arrays.asList(""));
+        SearchGroup<String, String, String> batchedSearchGroup = SearchEngine.sharedEngine()
+                .startSearch(BatchSearchModel.batching(treeSearchModel), "3", Arrays.asList(""));
+        Assertions.assertTrue(searchGroup.awaitComplete(3, TimeUnit.SECONDS));
+        Assertions.assertTrue(batchedSearchGroup.awaitComplete(3, TimeUnit.SECONDS));
+        Assertions.assertEquals(drain(searchGroup.getResults()), drain(batchedSearchGroup.getResults()));
+    }
+
+    @Test
+    void batchedSearchVisitsEveryPathOnce() throws InterruptedException {
+        BatchSearchModel<String, String> cycleSearchModel = (key, path) -> {
+            String next = String.valueOf((Integer.parseInt(path) + 1) % 1000);
+            return new MessageOfSearched<>(Collections.singletonList(path), Arrays.asList(next, path));
+        };
+        SearchSetting<String, String> searchSetting = SearchSetting.<String, String>defaultSetting()
+                .setPathIdentity(IdentityKey.ofToString());
+        SearchGroup<String, String, String> searchGroup = SearchEngine.sharedEngine()
+                .createSearchGroup(cycleSearchModel, "", searchSetting);
+        searchGroup.startSearch(Arrays.asList("0", "500", "0"));
+        Assertions.assertTrue(searchGroup.awaitComplete(3, TimeUnit.SECONDS));
+        Assertions.assertEquals(1000, searchGroup.getResults().size());
+    }
+
+    @Test
+    void sinkSearchFindsTheSameResults() throws InterruptedException {
+        SearchGroup<String, String, String> searchGroup = SearchEngine.sharedEngine()
+                .startSearch(treeSearchModel, "3", Arrays.asList(""));
+        SearchGroup<String, String, String> sinkSearchGroup = SearchEngine.sharedEngine()
+                .startSearch(treeSinkSearchModel, "3", Arrays.asList(""));
+        SearchGroup<String, String, String> adaptedSearchGroup = SearchEngine.sharedEngine()
+                .startSearch(SinkSearchModel.<String, String, String>sinking(treeSearchModel), "3", Arrays.asList(""));
+        Assertions.assertTrue(searchGroup.awaitComplete(3, TimeUnit.SECONDS));
+        Assertions.assertTrue(sinkSearchGroup.awaitComplete(3, TimeUnit.SECONDS));
+        Assertions.assertTrue(adaptedSearchGroup.awaitComplete(3, TimeUnit.SECONDS));
+        Set<String> expectResults = drain(searchGroup.getResults());
+        Assertions.assertEquals(expectResults, drain(sinkSearchGroup.getResults()));
+        Assertions.assertEquals(expectResults, drain(adaptedSearchGroup.getResults()));
+        Assertions.assertEquals(1 + 4 + 16 + 64 + 256, sinkSearchGroup.progress().getVisitedNodes());
+    }
+
+    @Test
+    void collectWhatASinkModelEmits() {
+        MessageOfSearched<String, String> messageOfSearched = treeSinkSearchModel.search("3", "");
+        Assertions.assertEquals(Arrays.asList("3"), messageOfSearched.getTrueResult().get());
+        Assertions.assertEquals(Arrays.asList("0", "1", "2", "3"), messageOfSearched.getCanBeSearched().get());
+    }
+
+    @Test
+    void visitASinkModelDepthFirst() throws InterruptedException {
+        Queue<String> visitOrder = new ConcurrentLinkedQueue<>();
+        SinkSearchModel<String, String, String> recordingSearchModel = new SinkSearchModel<String, String, String>() {
+            @Override
+            public void search(String key, String path, SearchSink<String, String> searchSink) {
+                visitOrder.add(path);
+                treeSinkSearchModel.search(key, path, searchSink);
+            }
+        };
+        SearchSetting<String, String> searchSetting = SearchSetting.<String, String>defaultSetting()
+                .setTraversalOrder(TraversalOrder.depthFirst());
+        SearchGroup<String, String, String> searchGroup = SearchEngine.createSearchEngine(1)
+                .createSearchGroup(recordingSearchModel, "3", searchSetting);
+        searchGroup.startSearch(Arrays.asList(""));
+        Assertions.assertTrue(searchGroup.awaitComplete(3, TimeUnit.SECONDS));
+        Assertions.assertEquals(1 + 4 + 16 + 64 + 256, visitOrder.size());
+        Assertions.assertEquals(Arrays.asList("", "3", "33", "333"), new ArrayList<>(visitOrder).subList(0, 4));
+    }
+
+    @Test
+    void holdBackASinkModelUntilTheReaderCatchesUp() throws InterruptedException {
+        SearchSetting<String, String> searchSetting = SearchSetting.<String, String>defaultSetting().setResultCapacity(8);
+        SearchGroup<String, String, String> searchGroup = SearchEngine.sharedEngine().createSearchGroup(treeSinkSearchModel, "", searchSetting);
+        searchGroup.startSearch(Arrays.asList(""));
+        Assertions.assertFalse(searchGroup.await(200, TimeUnit.MILLISECONDS));
+        Assertions.assertTrue(searchGroup.progress().getPendingNodes() > 0);
+
+        int resultNum = 0;
+        while (searchGroup.getResults().take() != null) {
+            resultNum++;
+        }
+        Assertions.assertEquals(4 + 16 + 64 + 256, resultNum);
+        Assertions.assertTrue(searchGroup.isComplete());
+    }
+
+    private static Set<String> drain(ResultBuffer<String> results) {
+        Set<String> drained = new HashSet<>();
+        String result;
+        while ((result = results.poll()) != null) {
+            Assertions.assertTrue(drained.add(result));
+        }
+        return drained;
+    }
+
+    @Test
+    void visitLevelByLevelBreadthFirst() throws InterruptedException {
+        List<String> visitOrder = searchOnOneWorker(TraversalOrder.breadthFirst());
+        for (int i = 1; i < visitOrder.size(); i++) {
+            Assertions.assertTrue(visitOrder.get(i - 1).length() <= visitOrder.get(i).length());
+        }
+    }
+
+    @Test
+    void visitOneBranchToTheBottomDepthFirst() throws InterruptedException {
+        List<String> visitOrder = searchOnOneWorker(TraversalOrder.depthFirst());
+        Assertions.assertEquals(Arrays.asList("", "3", "33", "333"), visitOrder.subList(0, 4));
+    }
+
+    @Test
+    void visitHighPriorityFirstBestFirst() throws InterruptedException {
+        List<String> visitOrder = searchOnOneWorker(TraversalOrder.<String>bestFirst((key, path) -> path.startsWith("2") ? 1 : 0));
+        double preferredIndexSum = 0;
+        double otherIndexSum = 0;
+        for (int i = 1; i < visitOrder.size(); i++) {
+            if (visitOrder.get(i).startsWith("2")) {
+                preferredIndexSum += i;
+            } else {
+                otherIndexSum += i;
+            }
+        }
+        Assertions.assertTrue(preferredIndexSum / 85 < otherIndexSum / (visitOrder.size() - 1 - 85) / 2);
+    }
+
+    private List<String> searchOnOneWorker(TraversalOrder<String> traversalOrder) throws InterruptedException {
+        Queue<String> visitOrder = new ConcurrentLinkedQueue<>();
+        SearchModel<String, String> recordingSearchModel = (key, path) -> {
+            visitOrder.add(path);
+            return treeSearchModel.search(key, path);
+        };
+        SearchSetting<String, String> searchSetting = SearchSetting.<String, String>defaultSetting()
+                .setTraversalOrder(traversalOrder);
+        SearchGroup<String, String, String> searchGroup = SearchEngine.createSearchEngine(1)
+                .createSearchGroup(recordingSearchModel, "3", searchSetting);
+        searchGroup.startSearch(Arrays.asList(""));
+        Assertions.assertTrue(searchGroup.awaitComplete(3, TimeUnit.SECONDS));
+        Assertions.assertEquals(1 + 4 + 16 + 64 + 256, visitOrder.size());
+        Assertions.assertEquals((4 + 16 + 64 + 256) / FANOUT, searchGroup.getResults().size());
+        return new ArrayList<>(visitOrder);
+    }
+
+    @Test
+    void stealTheOldestPendingNodes() throws InterruptedException {
+        CountDownLatch visitStarted = new CountDownLatch(1);
+        CountDownLatch stolen = new CountDownLatch(1);
+        SearchModel<String, String> blockingSearchModel = (key, path) -> {
+            if (path.length() == 1) {
+                visitStarted.countDown();
+                try {
+                    stolen.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return treeSearchModel.search(key, path);
+        };
+        SearchSetting<String, String> searchSetting = SearchSetting.<String, String>defaultSetting()
+                .setTraversalOrder(TraversalOrder.depthFirst());
+        SearchGroup<String, String, String> searchGroup = SearchEngine.createSearchEngine(1)
+                .createSearchGroup(blockingSearchModel, "", searchSetting);
+        searchGroup.startSearch(Arrays.asList(""));
+        Assertions.assertTrue(visitStarted.await(3, TimeUnit.SECONDS));
+        Assertions.assertEquals(Arrays.asList("0", "1"), searchGroup.stealPending(2));
+        stolen.countDown();
+
+        Assertions.assertTrue(searchGroup.awaitComplete(3, TimeUnit.SECONDS));
+        Assertions.assertEquals(4 + 2 * (4 + 16 + 64), searchGroup.getResults().size());
+        Assertions.assertEquals(0, searchGroup.getPendingNodes());
+    }
+
+    @Test
+    void stealNothingWithoutAFrontier() {
+        SearchGroup<String, String, String> searchGroup = SearchEngine.sharedEngine().createSearchGroup(treeSearchModel, "3");
+        Assertions.assertTrue(searchGroup.stealPending(4).isEmpty());
+    }
+
+    @Test
+    void reportProgress() throws InterruptedException {
+        SearchGroup<String, String, String> searchGroup = SearchEngine.sharedEngine()
+                .startSearch(treeSearchModel, "3", Arrays.asList(""));
+        searchGroup.await();
+        SearchProgress progress = searchGroup.progress();
+        Assertions.assertEquals(1 + 4 + 16 + 64 + 256, progress.getVisitedNodes());
+        Assertions.assertEquals((4 + 16 + 64 + 256) / FANOUT, progress.getFoundResults());
+        Assertions.assertEquals(0, progress.getPendingNodes());
+        Assertions.assertTrue(progress.isComplete());
+        Assertions.assertFalse(progress.isCancelled());
+    }
+
+    @Test
+    void cancelOnlyItsOwnTraversal() throws InterruptedException {
+        SearchModel<String, String> endlessSearchModel = (key, path) ->
+                new MessageOfSearched<>(Collections.emptyList(), Arrays.asList(path + "0", path + "1"));
+        SearchEngine searchEngine = SearchEngine.createSearchEngine(2);
+        SearchGroup<String, String, String> endlessGroup = searchEngine.startSearch(endlessSearchModel, "3", Arrays.asList(""));
+        Assertions.assertFalse(endlessGroup.await(100, TimeUnit.MILLISECONDS));
+        Assertions.assertTrue(endlessGroup.progress().getVisitedNodes() > 0);
+
+        SearchGroup<String, String, String> searchGroup = searchEngine.startSearch(treeSearchModel, "3", Arrays.asList(""));
+        endlessGroup.cancel();
+        Assertions.assertTrue(endlessGroup.await(3, TimeUnit.SECONDS));
+        Assertions.assertTrue(endlessGroup.progress().isCancelled());
+        Assertions.assertTrue(searchGroup.await(3, TimeUnit.SECONDS));
+        Assertions.assertFalse(searchGroup.progress().isCancelled());
+        Assertions.assertEquals((4 + 16 + 64 + 256) / FANOUT, searchGroup.getResults().size());
+    }
+
+    @Test
+    void holdBackTheTraversalUntilTheReaderCatchesUp() throws InterruptedException {
+        SearchSetting<String, String> searchSetting = SearchSetting.<String, String>defaultSetting().setResultCapacity(8);
+        SearchGroup<String, String, String> searchGroup = SearchEngine.sharedEngine().createSearchGroup(treeSearchModel, "", searchSetting);
+        searchGroup.startSearch(Arrays.asList(""));
+        Assertions.assertFalse(searchGroup.await(200, TimeUnit.MILLISECONDS));
+        Assertions.assertTrue(searchGroup.getResults().size() <= 4 + 16);
+        Assertions.assertTrue(searchGroup.progress().getPendingNodes() > 0);
+
+        int resultNum = 0;
+        while (searchGroup.getResults().take() != null) {
+            resultNum++;
+        }
+        Assertions.assertEquals(4 + 16 + 64 + 256, resultNum);
+        Assertions.assertTrue(searchGroup.isComplete());
+    }
+
+    @Test
+    void dropTheHeldBackNodesOnCancel() throws InterruptedException {
+        SearchSetting<String, String> searchSetting = SearchSetting.<String, String>defaultSetting().setResultCapacity(8);
+        SearchGroup<String, String, String> searchGroup = SearchEngine.sharedEngine().createSearchGroup(treeSearchModel, "", searchSetting);
+        searchGroup.startSearch(Arrays.asList(""));
+        Assertions.assertFalse(searchGroup.await(100, TimeUnit.MILLISECONDS));
+        searchGroup.cancel();
+        Assertions.assertTrue(searchGroup.await(3, TimeUnit.SECONDS));
+        Assertions.assertEquals(0, searchGroup.getPendingNodes());
+    }
+
+    @Test
+    void holdBackALogUntilAReaderComesBack() throws InterruptedException {
+        SearchSetting<String, String> searchSetting = SearchSetting.<String, String>defaultSetting().setResultCapacity(8);
+        SearchGroup<String, String, String> searchGroup = SearchEngine.sharedEngine().createLoggingSearchGroup(treeSearchModel, "", searchSetting);
+        searchGroup.startSearch(Arrays.asList(""));
+        try (ResultCursor<String> firstCursor = searchGroup.openCursor()) {
+            for (int i = 0; i < 3; i++) {
+                Assertions.assertNotNull(firstCursor.take());
+            }
+        }
+        Assertions.assertFalse(searchGroup.await(200, TimeUnit.MILLISECONDS));
+        Assertions.assertTrue(searchGroup.getResultLog().size() <= 4 + 16);
+
+        int resultNum = 0;
+        try (ResultCursor<String> secondCursor = searchGroup.openCursor()) {
+            while (secondCursor.take() != null) {
+                resultNum++;
+            }
+        }
+        Assertions.assertEquals(4 + 16 + 64 + 256, resultNum);
+        Assertions.assertTrue(searchGroup.isComplete());
+    }
+
+    @Test
+    void resumeACancelledQueryFromItsCheckpoint() throws IOException, InterruptedException, ExecutionException {
+        File directory = Files.createTempDirectory("checkpoint").toFile();
+        CheckpointStore<String, String> checkpointStore = new CheckpointStore<>(directory, Codec.strings(), Codec.strings());
+        AtomicInteger visitNum = new AtomicInteger();
+        SearchModel<String, String> slowSearchModel = (key, path) -> {
+            visitNum.incrementAndGet();
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(2));
+            return treeSearchModel.search(key, path);
+        };
+        SearchSetting<String, String> searchSetting = SearchSetting.<String, String>defaultSetting()
+                .setPathIdentity(IdentityKey.ofToString())
+                .setResultIdentity(IdentityKey.ofToString())
+                .setCheckpoint(checkpointStore, 20, TimeUnit.MILLISECONDS);
+        SearchEngine searchEngine = SearchEngine.createSearchEngine(1);
+
+        SearchGroup<String, String, String> searchGroup = searchEngine.createSearchGroup(slowSearchModel, "3", searchSetting);
+        searchGroup.startSearch(Arrays.asList(""));
+        Thread.sleep(100);
+        Assertions.assertTrue(checkpointStore.fileOf("3").isFile());
+        searchGroup.cancel();
+        Assertions.assertTrue(searchGroup.await(3, TimeUnit.SECONDS));
+        CheckpointTracker.CHECKPOINT_SCHEDULER.submit(() -> {
+        }).get();
+        Assertions.assertTrue(checkpointStore.fileOf("3").isFile());
+        Set<String> results = drain(searchGroup.getResults());
+        Assertions.assertTrue(results.size() < (4 + 16 + 64 + 256) / FANOUT);
+
+        SearchGroup<String, String, String> resumedGroup = searchEngine.createSearchGroup(slowSearchModel, "3", searchSetting);
+        resumedGroup.startSearch(Arrays.asList(""));
+        Assertions.assertTrue(resumedGroup.await(5, TimeUnit.SECONDS));
+        Set<String> resumedResults = drain(resumedGroup.getResults());
+        Assertions.assertTrue(resumedResults.containsAll(results));
+        Assertions.assertEquals((4 + 16 + 64 + 256) / FANOUT, resumedResults.size());
+        Assertions.assertTrue(visitNum.get() <= 1 + 4 + 16 + 64 + 256 + 4);
+
+        CheckpointTracker.CHECKPOINT_SCHEDULER.submit(() -> {
+        }).get();
+        Assertions.assertFalse(checkpointStore.fileOf("3").exists());
+        directory.delete();
+    }
+
+    @Test
+    void rejectAnEmptyCapacity() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> SearchSetting.defaultSetting().setResultCapacity(0));
+    }
+}
@@ -0,0 +1,137 @@
+package com.Albert.match;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+class NameMatcherTest {
+    private final List<String> names = Arrays.asList("", "a", "readme.md", "README.MD", "ushers", "his.txt",
+            "résumé.pdf", "RÉSUMÉ.PDF", "日本語.txt", "emoji-😀.png", "a[b].txt", "x*y?z");
+
+    @Test
+    void findEveryLiteralOfTheSet() {
+        NameMatcher nameMatcher = NameMatcher.containsAny(Arrays.asList("he", "she", "his", "hers"), false);
+        Assertions.assertTrue(nameMatcher.matches("ushers"));
+        Assertions.assertTrue(nameMatcher.matches("this"));
+        Assertions.assertTrue(nameMatcher.matches("ahishe"));
+        Assertions.assertFalse(nameMatcher.matches("hi"));
+        Assertions.assertFalse(nameMatcher.matches(""));
+        Assertions.assertFalse(NameMatcher.containsAny(Collections.emptyList(), false).matches("any"));
+        Assertions.assertTrue(NameMatcher.contains("").matches(""));
+    }
+
+    @Test
+    void matchLikeStringContains() {
+        Random random = new Random(17);
+        for (int i = 0; i < 2000; i++) {
+            String literal = randomText(random, 1 + random.nextInt(3));
+            String name = randomText(random, random.nextInt(12));
+            Assertions.assertEquals(name.contains(literal), NameMatcher.contains(literal).matches(name), literal + " in " + name);
+        }
+    }
+
+    @Test
+    void ignoreCaseWithoutLowerCaseCopies() {
+        NameMatcher nameMatcher = NameMatcher.containsAny(Arrays.asList("ReadMe", "résumé"), true);
+        Assertions.assertTrue(nameMatcher.matches("README.MD"));
+        Assertions.assertTrue(nameMatcher.matches("RÉSUMÉ.PDF"));
+        Assertions.assertFalse(nameMatcher.matches("read.me"));
+        Assertions.assertFalse(NameMatcher.contains("ReadMe").matches("README.MD"));
+    }
+
+    @Test
+    void matchTheWholeNameAgainstAGlob() {
+        Assertions.assertTrue(NameMatcher.glob("*.md", false).matches("readme.md"));
+        Assertions.assertFalse(NameMatcher.glob("*.md", false).matches("readme.md.bak"));
+        Assertions.assertTrue(NameMatcher.glob("read??.*", false).matches("readme.md"));
+        Assertions.assertFalse(NameMatcher.glob("read?.*", false).matches("readme.md"));
+        Assertions.assertTrue(NameMatcher.glob("[a-r]*[!x].md", false).matches("readme.md"));
+        Assertions.assertFalse(NameMatcher.glob("[!a-r]*", false).matches("readme.md"));
+        Assertions.assertTrue(NameMatcher.glob("a\\[b].txt", false).matches("a[b].txt"));
+        Assertions.assertTrue(NameMatcher.glob("x\\*y\\?z", false).matches("x*y?z"));
+        Assertions.assertFalse(NameMatcher.glob("x\\*y\\?z", false).matches("xxy?z"));
+        Assertions.assertTrue(NameMatcher.glob("[]a]", false).matches("]"));
+        Assertions.assertTrue(NameMatcher.glob("a[", false).matches("a["));
+        Assertions.assertTrue(NameMatcher.glob("*", false).matches(""));
+        Assertions.assertTrue(NameMatcher.glob("*a*a*a*", false).matches("banana-bar"));
+        Assertions.assertFalse(NameMatcher.glob("*a*a*a*a*", false).matches("banana"));
+    }
+
+    @Test
+    void ignoreCaseInAGlob() {
+        Assertions.assertTrue(NameMatcher.glob("*.md", true).matches("README.MD"));
+        Assertions.assertTrue(NameMatcher.glob("[A-Z]*", true).matches("readme"));
+        Assertions.assertFalse(NameMatcher.glob("[!a-z]*", true).matches("README"));
+        Assertions.assertTrue(NameMatcher.glob("résumé.*", true).matches("RÉSUMÉ.PDF"));
+    }
+
+    @Test
+    void findARegexInTheName() {
+        NameMatcher nameMatcher = NameMatcher.regex("^his\\.(txt|md)$", false);
+        Assertions.assertTrue(nameMatcher.matches("his.txt"));
+        Assertions.assertFalse(nameMatcher.matches("this.txt"));
+        Assertions.assertTrue(NameMatcher.regex("résumé", true).matches("RÉSUMÉ.PDF"));
+    }
+
+    @Test
+    void matchUtf8BytesLikeTheName() {
+        List<NameMatcher> nameMatchers = Arrays.asList(NameMatcher.contains("é"), NameMatcher.contains("😀"),
+                NameMatcher.containsAny(Arrays.asList("本", "md"), true), NameMatcher.glob("*.???", false),
+                NameMatcher.glob("?????-?.png", false), NameMatcher.glob("[日]*", false), NameMatcher.regex("s$", false));
+        for (NameMatcher nameMatcher : nameMatchers) {
+            for (String name : names) {
+                byte[] utf8 = name.getBytes(StandardCharsets.UTF_8);
+                ByteBuffer catalog = ByteBuffer.allocate(utf8.length + 6);
+                catalog.position(3);
+                catalog.put(utf8);
+                Assertions.assertEquals(nameMatcher.matches(name), nameMatcher.matchesUtf8(catalog, 3, utf8.length), name);
+            }
+        }
+    }
+
+    @Test
+    void readMalformedUtf8AsReplacementChars() {
+        ByteBuffer malformed = ByteBuffer.wrap(new byte[]{'a', (byte) 0xC3, 'b', (byte) 0xE6, (byte) 0x97});
+        Assertions.assertTrue(NameMatcher.glob("a?b??", false).matchesUtf8(malformed, 0, 5));
+        Assertions.assertFalse(NameMatcher.contains("ab").matchesUtf8(malformed, 0, 5));
+    }
+
+    @Test
+    void rejectAGlobWithTooManyStates() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> NameMatcher.glob("*a" + repeat("?", 13), false));
+    }
+
+    @Test
+    void compileEveryKeyOnce() {
+        int[] compileNum = {0};
+        KeyMatchers<String> keyMatchers = new KeyMatchers<>(key -> {
+            compileNum[0]++;
+            return NameMatcher.contains(key);
+        });
+        Assertions.assertSame(keyMatchers.matcherOf("a"), keyMatchers.matcherOf("a"));
+        keyMatchers.matcherOf("b");
+        Assertions.assertEquals(2, compileNum[0]);
+    }
+
+    private static String repeat(String text, int times) {
+        StringBuilder repeated = new StringBuilder();
+        for (int i = 0; i < times; i++) {
+            repeated.append(text);
+        }
+        return repeated.toString();
+    }
+
+    private static String randomText(Random random, int length) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            text.append("abA".charAt(random.nextInt(3)));
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,69 @@
+package com.Albert.metrics;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+class LatencyHistogramTest {
+
+    @Test
+    void keepEveryValueWithinAnEighth() {
+        Random random = new Random(21);
+        for (int i = 0; i < 10000; i++) {
+            long value = (random.nextLong() >>> 1) >>> random.nextInt(63);
+            long highestValue = LatencyHistogram.highestValueOf(LatencyHistogram.bucketOf(value));
+            Assertions.assertTrue(highestValue >= value, value + " above " + highestValue);
+            Assertions.assertTrue(highestValue - value <= value / LatencyHistogram.SUB_BUCKET_NUM, value + " far below " + highestValue);
+        }
+        Assertions.assertEquals(LatencyHistogram.BUCKET_NUM - 1, LatencyHistogram.bucketOf(Long.MAX_VALUE));
+    }
+
+    @Test
+    void readQuantilesFromTheBuckets() {
+        LatencyHistogram latencyHistogram = new LatencyHistogram();
+        Assertions.assertEquals(0, latencyHistogram.snapshot().getValueAtQuantile(0.99));
+        for (long value = 1; value <= 1000; value++) {
+            latencyHistogram.record(value * 1000);
+        }
+        LatencySnapshot snapshot = latencyHistogram.snapshot();
+        Assertions.assertEquals(1000, snapshot.getCount());
+        Assertions.assertEquals(500_500, snapshot.getMean(), 0.001);
+        Assertions.assertEquals(1_000_000, snapshot.getMax());
+        Assertions.assertEquals(500_000, snapshot.getValueAtQuantile(0.5), 500_000 / LatencyHistogram.SUB_BUCKET_NUM);
+        Assertions.assertEquals(990_000, snapshot.getValueAtQuantile(0.99), 990_000 / LatencyHistogram.SUB_BUCKET_NUM);
+        Assertions.assertEquals(1_000_000, snapshot.getValueAtQuantile(1));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> snapshot.getValueAtQuantile(1.5));
+    }
+
+    @Test
+    void countEveryValueRecordedConcurrently() throws InterruptedException {
+        LatencyHistogram latencyHistogram = new LatencyHistogram();
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            threads.add(new Thread(() -> {
+                for (int value = 0; value < 10000; value++) {
+                    latencyHistogram.record(value, 2);
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        LatencySnapshot snapshot = latencyHistogram.snapshot();
+        Assertions.assertEquals(80000, snapshot.getCount());
+        Assertions.assertEquals(9999, snapshot.getMax());
+        Assertions.assertEquals(5000, snapshot.getValueAtQuantile(0.5), 5000 / LatencyHistogram.SUB_BUCKET_NUM);
+    }
+
+    @Test
+    void stripeAtLeastTwicePerProcessor() {
+        Assertions.assertEquals(2, LatencyHistogram.stripeNumFor(1));
+        Assertions.assertEquals(8, LatencyHistogram.stripeNumFor(3));
+        Assertions.assertEquals(8, LatencyHistogram.stripeNumFor(4));
+        Assertions.assertEquals(64, LatencyHistogram.stripeNumFor(256));
+    }
+}
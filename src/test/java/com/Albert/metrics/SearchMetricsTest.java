@@ -0,0 +1,103 @@
+package com.Albert.metrics;
+
+import com.Albert.engine.SearchHandle;
+import com.Albert.engine.SearchProgress;
+import com.Albert.engine.SearchSetting;
+import com.Albert.pojo.MessageOfSearched;
+import com.Albert.searchImpl.boxSearchImpl.ConcurrentCacheEntirelySearch;
+import com.Albert.searchImpl.openSearchImpl.ConcurrentEntirelyOpenSearch;
+import com.Albert.searchModel.SearchModel;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+class SearchMetricsTest {
+    private static final int DEPTH = 5;
+    private static final int NODE_NUM = (1 << (DEPTH + 1)) - 1;
+
+    /**
+     * A binary tree whose leaves are the results.
+     */
+    private final SearchModel<String, String> treeSearchModel = (key, path) -> {
+        if (path.length() >= DEPTH) {
+            return new MessageOfSearched<>(Collections.singletonList(path), Collections.emptyList());
+        }
+        return new MessageOfSearched<>(Collections.emptyList(), Arrays.asList(path + "0", path + "1"));
+    };
+
+    @Test
+    void measureEveryQueryOfAnInstance() throws InterruptedException {
+        ConcurrentEntirelyOpenSearch<String, String, String> openSearch = new ConcurrentEntirelyOpenSearch<>(treeSearchModel);
+        List<String> results = openSearch.getResultsUntilTimeout(Collections.singletonList(""), "tree", 10, TimeUnit.SECONDS);
+        Assertions.assertEquals(1 << DEPTH, results.size());
+        SearchHandle<String> searchHandle = openSearch.startSearch(Collections.singletonList(""), "tree");
+        Assertions.assertTrue(searchHandle.await(10, TimeUnit.SECONDS));
+
+        SearchProgress progress = searchHandle.progress();
+        Assertions.assertEquals(1 << DEPTH, progress.getQueuedResults());
+        Assertions.assertTrue(progress.getTimeToFirstResultNanos() > 0);
+
+        SearchMetrics searchMetrics = openSearch.getSearchMetrics();
+        Assertions.assertEquals(2, searchMetrics.getStartedQueries());
+        Assertions.assertEquals(0, searchMetrics.getRunningQueries());
+        Assertions.assertEquals(2 * NODE_NUM, searchMetrics.getVisitedNodes());
+        Assertions.assertEquals(0, searchMetrics.getPendingNodes());
+        Assertions.assertEquals(2 << DEPTH, searchMetrics.getFoundResults());
+        Assertions.assertTrue(searchMetrics.getNodeLatency().getCount() >= 2);
+        Assertions.assertTrue(searchMetrics.getNodeLatency().getCount() <= 2 * NODE_NUM);
+        Assertions.assertEquals(2, searchMetrics.getTimeToFirstResult().getCount());
+    }
+
+    @Test
+    void shareTheMetricsOfTheSettingOnly() {
+        SearchMetrics sharedMetrics = new SearchMetrics();
+        SearchSetting<String, String> searchSetting = SearchSetting.<String, String>defaultSetting().setSearchMetrics(sharedMetrics);
+        Assertions.assertSame(sharedMetrics, new ConcurrentEntirelyOpenSearch<String, String, String>(treeSearchModel, searchSetting).getSearchMetrics());
+
+        SearchSetting<String, String> settingWithoutMetrics = SearchSetting.defaultSetting();
+        SearchMetrics firstMetrics = new ConcurrentEntirelyOpenSearch<String, String, String>(treeSearchModel, settingWithoutMetrics).getSearchMetrics();
+        SearchMetrics secondMetrics = new ConcurrentEntirelyOpenSearch<String, String, String>(treeSearchModel, settingWithoutMetrics).getSearchMetrics();
+        Assertions.assertNotSame(firstMetrics, secondMetrics);
+        Assertions.assertNull(settingWithoutMetrics.getSearchMetrics());
+    }
+
+    @Test
+    void searchWithoutMetricsOnceDisabled() {
+        SearchSetting<String, String> searchSetting = SearchSetting.<String, String>defaultSetting().disableMetrics();
+        ConcurrentEntirelyOpenSearch<String, String, String> openSearch = new ConcurrentEntirelyOpenSearch<>(treeSearchModel, searchSetting.copy());
+        Assertions.assertNull(openSearch.getSearchMetrics());
+        Assertions.assertEquals(1 << DEPTH, openSearch.getResultsUntilTimeout(Collections.singletonList(""), "tree", 10, TimeUnit.SECONDS).size());
+
+        ConcurrentCacheEntirelySearch<String, String, String> cacheSearch = ConcurrentCacheEntirelySearch.createHowAppointSearchSetting(treeSearchModel, searchSetting, "");
+        Assertions.assertNull(cacheSearch.getSearchMetrics());
+        Assertions.assertEquals(1 << DEPTH, cacheSearch.getResultsUntilTimeout("tree", 10, TimeUnit.SECONDS).size());
+    }
+
+    @Test
+    void showTheCacheThroughJmx() throws Exception {
+        ConcurrentCacheEntirelySearch<String, String, String> cacheSearch = new ConcurrentCacheEntirelySearch<>(treeSearchModel, "");
+        cacheSearch.getResultsUntilTimeout("tree", 10, TimeUnit.SECONDS);
+        cacheSearch.getResultsUntilTimeout("tree", 10, TimeUnit.SECONDS);
+
+        SearchMetrics searchMetrics = cacheSearch.getSearchMetrics();
+        ObjectName objectName = searchMetrics.registerMBean("tree cache");
+        try {
+            MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+            Assertions.assertEquals(1L, mBeanServer.getAttribute(objectName, "StartedQueries"));
+            Assertions.assertEquals((long) NODE_NUM, mBeanServer.getAttribute(objectName, "VisitedNodes"));
+            Assertions.assertEquals(0.5, (double) mBeanServer.getAttribute(objectName, "CacheHitRate"), 0.001);
+            Assertions.assertTrue((long) mBeanServer.getAttribute(objectName, "NodeLatencyMax") > 0);
+        } finally {
+            searchMetrics.unregisterMBean();
+        }
+        Assertions.assertFalse(ManagementFactory.getPlatformMBeanServer().isRegistered(objectName));
+        cacheSearch.stopSearchNow();
+    }
+}
@@ -0,0 +1,193 @@
+package com.Albert.searchImpl.boxSearchImpl;
+
+import com.Albert.cache.CacheSetting;
+import com.Albert.cache.RemovalCause;
+import com.Albert.cache.RemovalListener;
+import com.Albert.change.ChangeFeed;
+import com.Albert.change.NodeChange;
+import com.Albert.change.WatchServiceChangeFeed;
+import com.Albert.engine.ResultLog;
+import com.Albert.engine.SearchSetting;
+import com.Albert.searchModel.DesktopSearchModel;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+class CacheMaintainerTest {
+    private static final String KEY = "wanted";
+    private static final long WAIT_MILLIS = 10_000;
+
+    private Path testDirectory;
+    private WatchServiceChangeFeed<String> changeFeed;
+    private ConcurrentCacheEntirelySearch<String, File, String> cacheSearch;
+
+    @BeforeEach
+    void createTestDirectory() throws IOException {
+        testDirectory = Files.createTempDirectory("cache-maintainer-test");
+        Files.createDirectories(testDirectory.resolve("a/b"));
+        Files.createFile(testDirectory.resolve("a/wanted-1.txt"));
+        Files.createFile(testDirectory.resolve("a/b/wanted-2.txt"));
+        Files.createFile(testDirectory.resolve("a/b/other.txt"));
+        changeFeed = WatchServiceChangeFeed.forStringPaths();
+        cacheSearch = new ConcurrentCacheEntirelySearch<>(new DesktopSearchModel(), testDirectory.toString());
+        cacheSearch.startMaintainCache(changeFeed);
+    }
+
+    @AfterEach
+    void deleteTestDirectory() throws IOException {
+        cacheSearch.stopMaintainCache();
+        changeFeed.close();
+        try (Stream<Path> walk = Files.walk(testDirectory)) {
+            walk.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+
+    @Test
+    void patchCreatedAndDeletedFiles() throws Exception {
+        Assertions.assertEquals(2, cachedResults().size());
+        Assertions.assertTrue(cacheSearch.isSearchComplete(KEY));
+
+        Files.createFile(testDirectory.resolve("a/b/wanted-3.txt"));
+        Files.createFile(testDirectory.resolve("a/b/other-2.txt"));
+        assertEventually(() -> cachedResults().size() == 3);
+
+        Files.delete(testDirectory.resolve("a/wanted-1.txt"));
+        assertEventually(() -> cachedResults().size() == 2);
+        Assertions.assertTrue(cacheSearch.isSearchComplete(KEY));
+    }
+
+    @Test
+    void patchCreatedAndDeletedDirectories() throws Exception {
+        Assertions.assertEquals(2, cachedResults().size());
+
+        Path newDirectory = Files.createDirectory(testDirectory.resolve("a/new"));
+        Files.createFile(newDirectory.resolve("wanted-4.txt"));
+        assertEventually(() -> cachedResults().size() == 3);
+
+        Files.createFile(newDirectory.resolve("wanted-5.txt"));
+        assertEventually(() -> cachedResults().size() == 4);
+
+        Files.delete(testDirectory.resolve("a/b/wanted-2.txt"));
+        Files.delete(testDirectory.resolve("a/b/other.txt"));
+        Files.delete(testDirectory.resolve("a/b"));
+        assertEventually(() -> cachedResults().size() == 3);
+    }
+
+    @Test
+    void unwatchTheNodesOfForgottenKeys() throws Exception {
+        Assertions.assertEquals(2, cachedResults().size());
+        Assertions.assertEquals(1, cacheSearch.getResultsUntilEnough("other", Integer.MAX_VALUE).size());
+        Assertions.assertEquals(3, changeFeed.getWatchedNum());
+
+        Files.delete(testDirectory.resolve("a/b/wanted-2.txt"));
+        Files.delete(testDirectory.resolve("a/b/other.txt"));
+        Files.delete(testDirectory.resolve("a/b"));
+        assertEventually(() -> cachedResults().size() == 1);
+        assertEventually(() -> changeFeed.getWatchedNum() == 2);
+
+        cacheSearch.clearCache();
+        Assertions.assertEquals(0, changeFeed.getWatchedNum());
+    }
+
+    @Test
+    void patchTheRefreshedResults() throws Exception {
+        AtomicLong ticker = new AtomicLong();
+        CountDownLatch replaced = new CountDownLatch(1);
+        CacheSetting<String, ResultLog<File>> cacheSetting = CacheSetting.<String, ResultLog<File>>defaultSetting()
+                .setRefreshAfterWrite(1, TimeUnit.MINUTES)
+                .setTicker(ticker::get);
+        cacheSetting.setRemovalListener((keyT, resultLog, removalCause) -> {
+            if (removalCause == RemovalCause.REPLACED) {
+                replaced.countDown();
+            }
+        });
+        RemovalListener<String, ResultLog<File>> callerListener = cacheSetting.getRemovalListener();
+        ConcurrentCacheEntirelySearch<String, File, String> refreshedSearch = ConcurrentCacheEntirelySearch.createHowAppointCacheSetting(
+                new DesktopSearchModel(), SearchSetting.defaultSetting(), cacheSetting, testDirectory.toString());
+        Assertions.assertSame(callerListener, cacheSetting.getRemovalListener());
+        Assertions.assertNull(cacheSetting.getRefreshMethod());
+        refreshedSearch.startMaintainCache(changeFeed);
+        Assertions.assertEquals(2, refreshedSearch.getResultsUntilEnough(KEY, Integer.MAX_VALUE).size());
+
+        ticker.addAndGet(TimeUnit.MINUTES.toNanos(2));
+        Assertions.assertEquals(2, refreshedSearch.getResultsUntilEnough(KEY, Integer.MAX_VALUE).size());
+        Assertions.assertTrue(replaced.await(WAIT_MILLIS, TimeUnit.MILLISECONDS));
+
+        Files.createFile(testDirectory.resolve("a/b/wanted-3.txt"));
+        assertEventually(() -> refreshedSearch.getResultsUntilEnough(KEY, Integer.MAX_VALUE).size() == 3);
+        Files.delete(testDirectory.resolve("a/wanted-1.txt"));
+        assertEventually(() -> refreshedSearch.getResultsUntilEnough(KEY, Integer.MAX_VALUE).size() == 2);
+        refreshedSearch.stopMaintainCache();
+    }
+
+    @Test
+    void dropKeyThatVisitedAnUnwatchedNode() throws Exception {
+        ConcurrentCacheEntirelySearch<String, File, String> unwatchedSearch =
+                new ConcurrentCacheEntirelySearch<>(new DesktopSearchModel(), testDirectory.toString());
+        unwatchedSearch.startMaintainCache(new UnwatchableChangeFeed(testDirectory.resolve("a/b").toString()));
+        Assertions.assertEquals(2, unwatchedSearch.getResultsUntilEnough(KEY, Integer.MAX_VALUE).size());
+        assertEventually(unwatchedSearch::isEmpty);
+        Assertions.assertEquals(1, unwatchedSearch.getUnwatchedKeyNum());
+        Assertions.assertEquals(2, unwatchedSearch.getResultsUntilEnough(KEY, Integer.MAX_VALUE).size());
+        unwatchedSearch.stopMaintainCache();
+    }
+
+    /**
+     * Can watch every node but one, as a feed that has reached the limit of its platform.
+     */
+    private static class UnwatchableChangeFeed implements ChangeFeed<String> {
+        private final String unwatchableNode;
+
+        UnwatchableChangeFeed(String unwatchableNode) {
+            this.unwatchableNode = unwatchableNode;
+        }
+
+        @Override
+        public boolean watch(String node) {
+            return !node.equals(unwatchableNode);
+        }
+
+        @Override
+        public void setChangeListener(Consumer<List<NodeChange<String>>> changeListener) {
+        }
+
+        @Override
+        public void unwatch(String node) {
+        }
+
+        @Override
+        public String parentOf(String node) {
+            return new File(node).getParent();
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    private List<File> cachedResults() {
+        return cacheSearch.getResultsUntilEnough(KEY, Integer.MAX_VALUE);
+    }
+
+    private void assertEventually(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + WAIT_MILLIS;
+        while (!condition.getAsBoolean()) {
+            Assertions.assertTrue(System.currentTimeMillis() < deadline, "the cache was not patched in time");
+            Thread.sleep(20);
+        }
+    }
+}
@@ -1,5 +1,10 @@
 package com.Albert.searchImpl.boxSearchImpl;
 
+import com.Albert.cache.CacheSetting;
+import com.Albert.engine.ResultLog;
+import com.Albert.engine.SearchHandle;
+import com.Albert.engine.SearchSetting;
+import com.Albert.pojo.MessageOfSearched;
 import com.Albert.searchModel.DesktopSearchModel;
 import com.Albert.searchModel.SearchModel;
 import com.Albert.utils.RunEnvironmentUtil;
@@ -7,7 +12,10 @@ import org.junit.jupiter.api.*;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 
@@ -48,7 +56,8 @@ class ConcurrentCacheEntirelySearchTest {
         List<File> list = concurrentCacheEntirelyOperator.getResultsUntilOneTimeout(keyCanNotExist, timeout, TimeUnit.MILLISECONDS);
         long endTime = System.currentTimeMillis();
         long runTime = endTime - startTime;
-        Assertions.assertTrue(runTime >= timeout);
+        Assertions.assertTrue(isExhaustedBeforeTimeout(list, runTime, timeout));
+        Assertions.assertTrue(concurrentCacheEntirelyOperator.isSearchComplete(keyCanNotExist));
     }
 
     @Test
@@ -59,7 +68,7 @@ class ConcurrentCacheEntirelySearchTest {
         List<File> list = concurrentCacheEntirelyOperator.getResultsUntilTimeout(keyCanNotExist, timeout, TimeUnit.MILLISECONDS);
         long endTime = System.currentTimeMillis();
         long runTime = endTime - startTime;
-        Assertions.assertTrue(runTime >= timeout);
+        Assertions.assertTrue(isExhaustedBeforeTimeout(list, runTime, timeout));
     }
 
     @Test
@@ -79,17 +88,16 @@ class ConcurrentCacheEntirelySearchTest {
         long startTime = System.currentTimeMillis();
         List<File> list = concurrentCacheEntirelyOperator.getResultsUntilEnoughOrTimeout(keyCanNotExist, expectNum, timeout, TimeUnit.MILLISECONDS);
         long endTime = System.currentTimeMillis();
-        long runTime = endTime - startTime + ERROR_RANGE;
-        Assertions.assertTrue(isTimeoutAndNotEnough(expectNum, list, runTime, timeout));
+        long runTime = endTime - startTime;
+        Assertions.assertTrue(isExhaustedBeforeTimeout(list, runTime, timeout));
     }
 
     private boolean isEnoughAndNotTimeout(List<File> list, int expectNum, long runTime, long timeout) {
         return runTime < timeout && list != null && list.size() == expectNum;
     }
 
-    private boolean isTimeoutAndNotEnough(int expectNum, List<File> list, long runTime, long timeout) {
-        boolean notEnough = list == null || (list != null && list.size() <= expectNum);
-        return runTime > timeout && notEnough;
+    private boolean isExhaustedBeforeTimeout(List<File> list, long runTime, long timeout) {
+        return runTime < timeout && list != null && list.isEmpty();
     }
 
     @Test
@@ -109,8 +117,8 @@ class ConcurrentCacheEntirelySearchTest {
         long startTime = System.currentTimeMillis();
         List<File> list = concurrentCacheEntirelyOperator.getResultsUntilEnoughOrOneTimeout(keyCanNotExist, expectNum, timeout, TimeUnit.MILLISECONDS);
         long endTime = System.currentTimeMillis();
-        long runTime = endTime - startTime + ERROR_RANGE;
-        Assertions.assertTrue(isTimeoutAndNotEnough(expectNum, list, runTime, timeout));
+        long runTime = endTime - startTime;
+        Assertions.assertTrue(isExhaustedBeforeTimeout(list, runTime, timeout));
     }
 
     @Test
@@ -139,6 +147,124 @@ class ConcurrentCacheEntirelySearchTest {
         Assertions.assertTrue(fileIsNull == null);
     }
 
+    @Test
+    void evictBeyondMaximumCachedResults() throws InterruptedException {
+        ConcurrentCacheEntirelySearch<String, File, String> boundedOperator = ConcurrentCacheEntirelySearch
+                .createHowAppointMaximumCachedResults(searchModel, SearchSetting.defaultSetting(), 1, fileNames);
+        String key = ".md";
+        Assertions.assertEquals(2, boundedOperator.getResultsUntilEnough(key, 2).size());
+        long deadline = System.currentTimeMillis() + 1000;
+        while (boundedOperator.getCacheStats().getEvictionCount() == 0) {
+            Assertions.assertTrue(System.currentTimeMillis() < deadline);
+            Thread.sleep(10);
+        }
+        Assertions.assertTrue(boundedOperator.isEmpty());
+        Assertions.assertEquals(1, boundedOperator.getCacheStats().getMissCount());
+    }
+
+    @Test
+    void refreshCachedResultsAhead() throws IOException, InterruptedException {
+        ConcurrentCacheEntirelySearch<String, File, String> refreshingOperator = ConcurrentCacheEntirelySearch.createHowAppointCacheSetting(
+                searchModel, SearchSetting.defaultSetting(),
+                CacheSetting.<String, ResultLog<File>>defaultSetting()
+                        .setExpireAfterWrite(1, TimeUnit.HOURS)
+                        .setRefreshAfterWrite(50, TimeUnit.MILLISECONDS),
+                fileNames);
+        String key = ".md";
+        Assertions.assertEquals(2, refreshingOperator.getResultsUntilEnough(key, Integer.MAX_VALUE).size());
+        File addedFile = new File(RunEnvironmentUtil.locationBeUse + "/refresh.md");
+        try {
+            addedFile.createNewFile();
+            Thread.sleep(100);
+            Assertions.assertEquals(2, refreshingOperator.getResultsUntilEnough(key, Integer.MAX_VALUE).size());
+            long deadline = System.currentTimeMillis() + 1000;
+            while (refreshingOperator.getResultsUntilEnough(key, Integer.MAX_VALUE).size() != 3) {
+                Assertions.assertTrue(System.currentTimeMillis() < deadline);
+                Thread.sleep(10);
+            }
+        } finally {
+            addedFile.delete();
+        }
+    }
+
+    @Test
+    void cancelTheTraversalOfOneKey() throws InterruptedException {
+        ConcurrentCacheEntirelySearch<String, String, String> endlessOperator = new ConcurrentCacheEntirelySearch<>(endlessSearchModel, "");
+        SearchHandle<String> endlessHandle = endlessOperator.startSearch("endless");
+        Assertions.assertFalse(endlessHandle.await(100, TimeUnit.MILLISECONDS));
+
+        endlessHandle.cancel();
+        Assertions.assertTrue(endlessHandle.await(3, TimeUnit.SECONDS));
+        Assertions.assertTrue(endlessHandle.progress().isCancelled());
+        Assertions.assertTrue(endlessOperator.isEmpty());
+
+        SearchHandle<String> handle = endlessOperator.startSearch("wide");
+        Assertions.assertTrue(handle.await(3, TimeUnit.SECONDS));
+        Assertions.assertEquals(20, handle.progress().getFoundResults());
+        handle.cancel();
+        Assertions.assertEquals(20, endlessOperator.getResultsUntilEnough("wide", Integer.MAX_VALUE).size());
+        Assertions.assertEquals(1, endlessOperator.getCacheStats().getHitCount());
+    }
+
+    @Test
+    void cancelTheTraversalOfAnExpiredKey() throws InterruptedException {
+        ConcurrentCacheEntirelySearch<String, String, String> expiringOperator = ConcurrentCacheEntirelySearch.createHowAppointCacheSetting(
+                endlessSearchModel, SearchSetting.defaultSetting(),
+                CacheSetting.<String, ResultLog<String>>defaultSetting().setExpireAfterWrite(50, TimeUnit.MILLISECONDS),
+                "");
+        SearchHandle<String> endlessHandle = expiringOperator.startSearch("endless");
+        Assertions.assertFalse(endlessHandle.await(100, TimeUnit.MILLISECONDS));
+        Assertions.assertFalse(expiringOperator.isSearchComplete("endless"));
+        Assertions.assertTrue(endlessHandle.await(3, TimeUnit.SECONDS));
+        Assertions.assertTrue(endlessHandle.progress().isCancelled());
+    }
+
+    @Test
+    void fillTheMissingKeysWithOneTraversal() throws InterruptedException {
+        concurrentCacheEntirelyOperator.getResultsUntilEnough("README", Integer.MAX_VALUE);
+        Map<String, SearchHandle<File>> handles = concurrentCacheEntirelyOperator.startSearchKeys(Arrays.asList("README", ".md", "sdlfksdlfksd.sdfsd"));
+        Assertions.assertEquals(3, handles.size());
+        for (SearchHandle<File> handle : handles.values()) {
+            Assertions.assertTrue(handle.await(3, TimeUnit.SECONDS));
+        }
+        Assertions.assertEquals(1, concurrentCacheEntirelyOperator.getCacheStats().getHitCount());
+        Assertions.assertEquals(3, concurrentCacheEntirelyOperator.getCacheStats().getMissCount());
+        Assertions.assertEquals(2, concurrentCacheEntirelyOperator.getResultsUntilEnough(".md", Integer.MAX_VALUE).size());
+        Assertions.assertTrue(concurrentCacheEntirelyOperator.getResultsUntilEnough("sdlfksdlfksd.sdfsd", Integer.MAX_VALUE).isEmpty());
+        Assertions.assertEquals(3, concurrentCacheEntirelyOperator.getCacheStats().getHitCount());
+        Assertions.assertEquals(3, concurrentCacheEntirelyOperator.getCacheStats().getMissCount());
+    }
+
+    @Test
+    void pauseACachedSearchThatNobodyReads() throws InterruptedException {
+        SearchModel<String, String> binaryTreeModel = (key, path) -> new MessageOfSearched<>(Collections.singletonList(path),
+                path.length() < 8 ? Arrays.asList(path + "0", path + "1") : Collections.emptyList());
+        ConcurrentCacheEntirelySearch<String, String, String> cacheSearch = ConcurrentCacheEntirelySearch.createHowAppointSearchSetting(
+                binaryTreeModel, SearchSetting.defaultSetting().setResultCapacity(16), "");
+        Assertions.assertEquals(3, cacheSearch.getResultsUntilEnough("tree", 3).size());
+        Thread.sleep(200);
+        Assertions.assertFalse(cacheSearch.isSearchComplete("tree"));
+        Assertions.assertTrue(cacheSearch.getSearchMetrics().getVisitedNodes() < 511);
+
+        Assertions.assertEquals(511, cacheSearch.getResultsUntilTimeout("tree", 10, TimeUnit.SECONDS).size());
+        Assertions.assertTrue(cacheSearch.isSearchComplete("tree"));
+    }
+
+    /**
+     * The key "endless" never runs out of nodes, any other key finds 20 results in the root.
+     */
+    private final SearchModel<String, String> endlessSearchModel = (key, path) -> {
+        if (!key.equals("endless")) {
+            return new MessageOfSearched<>(Collections.nCopies(20, path), Collections.emptyList());
+        }
+        try {
+            Thread.sleep(1);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return new MessageOfSearched<>(Collections.emptyList(), Arrays.asList(path + "0", path + "1"));
+    };
+
     private File getFileWithTryCatch(String key) {
         File file = null;
         try {
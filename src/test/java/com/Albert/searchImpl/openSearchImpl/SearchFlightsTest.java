@@ -0,0 +1,117 @@
+package com.Albert.searchImpl.openSearchImpl;
+
+import com.Albert.engine.SearchSetting;
+import com.Albert.pojo.MessageOfSearched;
+import com.Albert.searchModel.SearchModel;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class SearchFlightsTest {
+    private static final int DEPTH = 6;
+
+    private final AtomicInteger rootVisits = new AtomicInteger();
+
+    /**
+     * A binary tree whose every node is a result, the key "endless" never runs out of nodes.
+     */
+    private final SearchModel<String, String> treeSearchModel = (key, path) -> {
+        if (path.isEmpty()) {
+            rootVisits.incrementAndGet();
+        }
+        try {
+            Thread.sleep(1);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (!key.equals("endless") && path.length() >= DEPTH) {
+            return new MessageOfSearched<>(Collections.singletonList(path), Collections.emptyList());
+        }
+        return new MessageOfSearched<>(Collections.singletonList(path), Arrays.asList(path + "0", path + "1"));
+    };
+
+    private final SearchFlights<String, String, String> searchFlights = new SearchFlights<>(treeSearchModel, SearchSetting.defaultSetting());
+
+    @Test
+    void replayOneTraversalForEveryQuery() throws InterruptedException {
+        SearchFlights<String, String, String>.Subscription first = searchFlights.attach(Arrays.asList(""), "tree");
+        SearchFlights<String, String, String>.Subscription second = searchFlights.attach(Arrays.asList(""), "tree");
+        Assertions.assertSame(first.getSearchGroup(), second.getSearchGroup());
+        Assertions.assertEquals(1, searchFlights.getFlightNum());
+
+        Assertions.assertEquals((1 << (DEPTH + 1)) - 1, countResults(first));
+        Assertions.assertEquals((1 << (DEPTH + 1)) - 1, countResults(second));
+        Assertions.assertEquals(1, rootVisits.get());
+        first.close();
+        second.close();
+        Assertions.assertEquals(0, searchFlights.getFlightNum());
+    }
+
+    @Test
+    void keepDifferentQueriesApart() {
+        SearchFlights<String, String, String>.Subscription tree = searchFlights.attach(Arrays.asList(""), "tree");
+        SearchFlights<String, String, String>.Subscription endless = searchFlights.attach(Arrays.asList(""), "endless");
+        SearchFlights<String, String, String>.Subscription otherRoot = searchFlights.attach(Arrays.asList("0"), "endless");
+        Assertions.assertNotSame(tree.getSearchGroup(), endless.getSearchGroup());
+        Assertions.assertNotSame(endless.getSearchGroup(), otherRoot.getSearchGroup());
+        tree.close();
+        endless.close();
+        otherRoot.close();
+    }
+
+    @Test
+    void cancelWhenTheLastQueryDetaches() throws InterruptedException {
+        SearchFlights<String, String, String>.Subscription first = searchFlights.attach(Arrays.asList(""), "endless");
+        SearchFlights<String, String, String>.Subscription second = searchFlights.attach(Arrays.asList(""), "endless");
+        Assertions.assertNotNull(first.poll(3, TimeUnit.SECONDS));
+
+        first.close();
+        first.close();
+        Assertions.assertFalse(second.getSearchGroup().await(100, TimeUnit.MILLISECONDS));
+        Assertions.assertNotNull(second.poll(3, TimeUnit.SECONDS));
+
+        second.close();
+        Assertions.assertTrue(second.getSearchGroup().await(3, TimeUnit.SECONDS));
+        Assertions.assertTrue(second.getSearchGroup().isCancelled());
+        Assertions.assertEquals(0, searchFlights.getFlightNum());
+
+        SearchFlights<String, String, String>.Subscription third = searchFlights.attach(Arrays.asList(""), "endless");
+        Assertions.assertNotSame(second.getSearchGroup(), third.getSearchGroup());
+        third.close();
+    }
+
+    @Test
+    void neverAttachToAFlightThatIsBeingCancelled() throws InterruptedException {
+        AtomicBoolean isStopped = new AtomicBoolean();
+        Thread churn = new Thread(() -> {
+            while (!isStopped.get()) {
+                searchFlights.attach(Arrays.asList(""), "endless").close();
+            }
+        });
+        churn.start();
+        try {
+            for (int i = 0; i < 2000; i++) {
+                SearchFlights<String, String, String>.Subscription subscription = searchFlights.attach(Arrays.asList(""), "endless");
+                Thread.yield();
+                Assertions.assertFalse(subscription.getSearchGroup().isCancelled());
+                subscription.close();
+            }
+        } finally {
+            isStopped.set(true);
+            churn.join();
+        }
+    }
+
+    private static int countResults(SearchFlights<String, String, String>.Subscription subscription) throws InterruptedException {
+        int resultNum = 0;
+        while (subscription.take() != null) {
+            resultNum++;
+        }
+        return resultNum;
+    }
+}
@@ -1,5 +1,6 @@
 package com.Albert.searchModel;
 
+import com.Albert.engine.IdentityKey;
 import com.Albert.pojo.MessageOfSearched;
 import com.Albert.utils.RunEnvironmentUtil;
 import org.junit.jupiter.api.AfterAll;
@@ -9,6 +10,8 @@ import org.junit.jupiter.api.Test;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
@@ -44,6 +47,41 @@ class DesktopSearchModelTest {
         Assertions.assertEquals("fileOfBeUsedTest.txt", list.get(0).getName());
     }
 
+    @Test
+    void identifyResultsByPathNotByFile() throws IOException {
+        File readMeFile = new File(RunEnvironmentUtil.locationBeUse + "/fileOfBeUsedTest.txt");
+        File linkFile = new File(RunEnvironmentUtil.locationBeUse + "/fileOfBeUsedTestLink.txt");
+        Files.createLink(linkFile.toPath(), readMeFile.toPath());
+        try {
+            IdentityKey<File> resultIdentity = DesktopSearchModel.resultIdentity();
+            Assertions.assertNotEquals(resultIdentity.fingerprintOf(readMeFile), resultIdentity.fingerprintOf(linkFile));
+            File sameThroughDot = new File(RunEnvironmentUtil.locationBeUse + "/./fileOfBeUsedTest.txt");
+            Assertions.assertEquals(resultIdentity.fingerprintOf(readMeFile), resultIdentity.fingerprintOf(sameThroughDot));
+        } finally {
+            linkFile.delete();
+        }
+    }
+
+    @Test
+    void searchIntoASink() {
+        List<File> results = new ArrayList<>();
+        List<String> paths = new ArrayList<>();
+        desktopSearchModel.search("fileOfBeUsedTest", RunEnvironmentUtil.locationBeUse + "", new SearchSink<File, String>() {
+            @Override
+            public void emitResult(File result) {
+                results.add(result);
+            }
+
+            @Override
+            public void emitChild(String path) {
+                paths.add(path);
+            }
+        });
+        Assertions.assertEquals(1, results.size());
+        Assertions.assertEquals("fileOfBeUsedTest.txt", results.get(0).getName());
+        Assertions.assertTrue(paths.isEmpty());
+    }
+
     @Test
     void remove() {
         File file = new File(RunEnvironmentUtil.locationBeUse + "/fileOfBeUsedDelete.txt");
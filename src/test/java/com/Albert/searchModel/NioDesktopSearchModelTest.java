@@ -0,0 +1,60 @@
+package com.Albert.searchModel;
+
+import com.Albert.pojo.MessageOfSearched;
+import com.Albert.utils.RunEnvironmentUtil;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+class NioDesktopSearchModelTest {
+    private static final Path directory = Paths.get(RunEnvironmentUtil.locationBeUse);
+
+    @BeforeAll
+    static void initCreateFileOfTest() throws IOException {
+        new File(RunEnvironmentUtil.locationBeUse).mkdir();
+        new File(RunEnvironmentUtil.locationBeUse + "/fileOfBeUsedTest.txt").createNewFile();
+        new File(RunEnvironmentUtil.locationBeUse + "/dirOfBeUsedTest").mkdir();
+    }
+
+    @AfterAll
+    static void deleteFileOfTest() {
+        new File(RunEnvironmentUtil.locationBeUse + "/fileOfBeUsedTest.txt").delete();
+        new File(RunEnvironmentUtil.locationBeUse + "/dirOfBeUsedTest").delete();
+        new File(RunEnvironmentUtil.locationBeUse).delete();
+    }
+
+    @Test
+    void search() {
+        assertSearchResult(new NioDesktopSearchModel());
+    }
+
+    @Test
+    void searchTrustLinkCount() {
+        assertSearchResult(new NioDesktopSearchModel(true));
+    }
+
+    private void assertSearchResult(NioDesktopSearchModel searchModel) {
+        MessageOfSearched<Path, Path> messageOfSearched = searchModel.search("fileOfBeUsed", directory);
+        List<Path> trueResults = messageOfSearched.getTrueResult().get();
+        Assertions.assertEquals(1, trueResults.size());
+        Assertions.assertEquals("fileOfBeUsedTest.txt", trueResults.get(0).getFileName().toString());
+
+        List<Path> paths = messageOfSearched.getCanBeSearched().get();
+        Assertions.assertEquals(1, paths.size());
+        Assertions.assertEquals("dirOfBeUsedTest", paths.get(0).getFileName().toString());
+    }
+
+    @Test
+    void searchNotExistDirectory() {
+        MessageOfSearched<Path, Path> messageOfSearched = new NioDesktopSearchModel().search("a", directory.resolve("notExist"));
+        Assertions.assertTrue(messageOfSearched.getTrueResult().get().isEmpty());
+        Assertions.assertTrue(messageOfSearched.getCanBeSearched().get().isEmpty());
+    }
+}